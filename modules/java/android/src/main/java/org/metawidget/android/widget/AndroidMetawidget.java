@@ -1013,6 +1013,19 @@ public class AndroidMetawidget
 			AndroidMetawidget.this.startBuild();
 		}
 
+		@Override
+		protected void buildDeferredWidget( String elementName, Map<String, String> attributes, boolean forcedReadOnly )
+			throws Exception {
+
+			mIgnoreAddRemove = true;
+
+			try {
+				super.buildDeferredWidget( elementName, attributes, forcedReadOnly );
+			} finally {
+				mIgnoreAddRemove = false;
+			}
+		}
+
 		@Override
 		protected void layoutWidget( View view, String elementName, Map<String, String> attributes ) {
 
@@ -17,6 +17,7 @@ import java.util.Map;
 
 import org.metawidget.android.widget.AndroidMetawidget;
 import org.metawidget.layout.decorator.LayoutDecoratorConfig;
+import org.metawidget.layout.decorator.NestedSectionLayoutDecoratorConfig;
 import org.metawidget.util.CollectionUtils;
 import org.metawidget.util.simple.StringUtils;
 
@@ -46,12 +47,17 @@ public class TabHostLayoutDecorator
 		super( config );
 	}
 
+	public TabHostLayoutDecorator( NestedSectionLayoutDecoratorConfig<View, ViewGroup, AndroidMetawidget> config ) {
+
+		super( config );
+	}
+
 	//
 	// Protected methods
 	//
 
 	@Override
-	protected ViewGroup createSectionWidget( ViewGroup previousSectionView, String section, Map<String, String> attributes, ViewGroup container, AndroidMetawidget metawidget ) {
+	protected ViewGroup createSectionWidget( ViewGroup previousSectionView, String section, Map<String, String> attributes, final ViewGroup container, final AndroidMetawidget metawidget ) {
 
 		// Whole new tab host?
 
@@ -112,6 +118,9 @@ public class TabHostLayoutDecorator
 
 			public View createTabContent( String tag ) {
 
+				// (build lazy tabs when first selected)
+
+				buildSection( newLayout, container, metawidget );
 				return newLayout;
 			}
 		};
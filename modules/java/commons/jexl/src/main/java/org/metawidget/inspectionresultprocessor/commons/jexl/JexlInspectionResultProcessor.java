@@ -12,10 +12,12 @@
 package org.metawidget.inspectionresultprocessor.commons.jexl;
 
 import java.util.Collection;
+import java.util.List;
 import java.util.Map;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
+import org.apache.commons.jexl2.Expression;
 import org.apache.commons.jexl2.JexlContext;
 import org.apache.commons.jexl2.JexlEngine;
 import org.apache.commons.jexl2.MapContext;
@@ -30,6 +32,10 @@ import org.w3c.dom.Element;
 /**
  * Processes the inspection result and evaluates any expressions of the form <code>${...}</code>
  * using JEXL.
+ * <p>
+ * Attribute values are compiled once into a sequence of literal and <code>Expression</code>
+ * segments, and cached (see <code>JexlInspectionResultProcessorConfig.setTemplateCacheSize</code>),
+ * so that evaluating them is a single pass.
  *
  * @author <a href="http://kennardconsulting.com">Richard Kennard</a>
  */
@@ -47,6 +53,12 @@ public class JexlInspectionResultProcessor<M>
 
 	private static final Pattern					PATTERN_EXPRESSION	= Pattern.compile( "\\$\\{([^\\}]+)\\}" );
 
+	/**
+	 * Marker for attribute values that contain no expressions.
+	 */
+
+	private static final Template					NO_EXPRESSIONS		= new Template( null );
+
 	//
 	// Private members
 	//
@@ -55,8 +67,22 @@ public class JexlInspectionResultProcessor<M>
 
 	private Object[]								mInject;
 
+	private int										mEngineCacheSize;
+
 	private JexlEngine								mJexlEngine;
 
+	/**
+	 * Cache of compiled attribute values, keyed by their original String.
+	 * <p>
+	 * The same attribute values (such as <code>${this.readOnly}</code>) tend to recur across many
+	 * traits and many inspections, so we parse them once into a <code>Template</code> and reuse
+	 * it. The cache is an access-ordered, bounded <code>LinkedHashMap</code> (so least recently used
+	 * templates are evicted first) and is synchronized on itself. Attribute values that contain no
+	 * expressions are cached too, as <code>NO_EXPRESSIONS</code>, so that they need not be rescanned.
+	 */
+
+	private final Map<String, Template>				mTemplateCache;
+
 	//
 	// Constructors
 	//
@@ -78,7 +104,16 @@ public class JexlInspectionResultProcessor<M>
 
 		mInjectThis = config.getInjectThis();
 		mInject = config.getInject();
+		mEngineCacheSize = config.getEngineCacheSize();
 		mJexlEngine = createEngine();
+
+		int templateCacheSize = config.getTemplateCacheSize();
+
+		if ( templateCacheSize > 0 ) {
+			mTemplateCache = CollectionUtils.newLruMap( templateCacheSize );
+		} else {
+			mTemplateCache = null;
+		}
 	}
 
 	@Override
@@ -138,69 +173,28 @@ public class JexlInspectionResultProcessor<M>
 
 		for ( Map.Entry<String, String> entry : attributes.entrySet() ) {
 
-			String key = entry.getKey();
 			String value = entry.getValue();
 
 			// ...that contains an EL expression...
 
-			Matcher matcher = PATTERN_EXPRESSION.matcher( value );
-			int matchOffset = 0;
-
-			while ( matcher.find() ) {
-
-				String expression = matcher.group( 1 );
+			Template template = getTemplate( value );
 
-				// ...evaluate it...
-
-				try {
-					Object valueObject = mJexlEngine.createExpression( expression ).evaluate( LOCAL_CONTEXT.get() );
-					String valueObjectAsString;
-
-					if ( valueObject == null ) {
-
-						// Support the default case (when the String is just one EL)
-
-						if ( matcher.start() == 0 && matcher.end() == value.length() ) {
-							value = null;
-							break;
-						}
-
-						valueObjectAsString = "";
-					} else {
-
-						// Support the default case (when the String is just one EL)
-
-						if ( matcher.start() == 0 && matcher.end() == value.length() ) {
-							if ( valueObject instanceof Collection<?> ) {
-								value = CollectionUtils.toString( (Collection<?>) valueObject );
-							} else if ( valueObject.getClass().isArray() ) {
-								value = ArrayUtils.toString( valueObject );
-							} else {
-								value = String.valueOf( valueObject );
-							}
-							break;
-						}
-
-						valueObjectAsString = String.valueOf( valueObject );
-					}
+			if ( template == null ) {
+				continue;
+			}
 
-					// Replace multiple ELs within the String
+			// ...evaluate it and replace it
 
-					value = new StringBuilder( value ).replace( matcher.start() + matchOffset, matcher.end() + matchOffset, valueObjectAsString ).toString();
-					matchOffset += valueObjectAsString.length() - ( matcher.end() - matcher.start() );
+			try {
+				entry.setValue( template.evaluate( LOCAL_CONTEXT.get() ) );
 
-				} catch ( Exception e ) {
+			} catch ( Exception e ) {
 
-					// We have found it helpful to include the actual expression we were trying to
-					// evaluate
+				// We have found it helpful to include the actual expression we were trying to
+				// evaluate
 
-					throw InspectionResultProcessorException.newException( "Unable to evaluate " + value, e );
-				}
+				throw InspectionResultProcessorException.newException( "Unable to evaluate " + value, e );
 			}
-
-			// ...and replace it
-
-			attributes.put( key, value );
 		}
 	}
 
@@ -211,7 +205,11 @@ public class JexlInspectionResultProcessor<M>
 	protected JexlEngine createEngine() {
 
 		JexlEngine engine = new JexlEngine();
-		
+
+		if ( mEngineCacheSize > 0 ) {
+			engine.setCache( mEngineCacheSize );
+		}
+
 		// Suppress warning 'inaccessible or unknown property this' from
 		// 'createExpression' (which is fine once we call 'evaluate' and pass it
 		// a local context)
@@ -244,4 +242,167 @@ public class JexlInspectionResultProcessor<M>
 
 		return context;
 	}
+
+	//
+	// Private methods
+	//
+
+	/**
+	 * Gets the compiled <code>Template</code> for the given attribute value, either from the cache
+	 * or by compiling it.
+	 *
+	 * @return the Template, or null if the value contains no expressions
+	 */
+
+	private Template getTemplate( String value ) {
+
+		Template template;
+
+		if ( mTemplateCache != null ) {
+			synchronized ( mTemplateCache ) {
+				template = mTemplateCache.get( value );
+			}
+
+			if ( template == null ) {
+				template = compileTemplate( value );
+
+				synchronized ( mTemplateCache ) {
+					mTemplateCache.put( value, template );
+				}
+			}
+		} else {
+			template = compileTemplate( value );
+		}
+
+		if ( template == NO_EXPRESSIONS ) {
+			return null;
+		}
+
+		return template;
+	}
+
+	/**
+	 * Parse the given attribute value into a sequence of literal and expression segments.
+	 */
+
+	private Template compileTemplate( String value ) {
+
+		Matcher matcher = PATTERN_EXPRESSION.matcher( value );
+
+		if ( !matcher.find() ) {
+			return NO_EXPRESSIONS;
+		}
+
+		List<Object> segments = CollectionUtils.newArrayList();
+		int literalStart = 0;
+
+		try {
+			do {
+				if ( matcher.start() > literalStart ) {
+					segments.add( value.substring( literalStart, matcher.start() ) );
+				}
+
+				segments.add( mJexlEngine.createExpression( matcher.group( 1 ) ) );
+				literalStart = matcher.end();
+
+			} while ( matcher.find() );
+
+		} catch ( Exception e ) {
+
+			// We have found it helpful to include the actual expression we were trying to
+			// evaluate
+
+			throw InspectionResultProcessorException.newException( "Unable to evaluate " + value, e );
+		}
+
+		if ( literalStart < value.length() ) {
+			segments.add( value.substring( literalStart ) );
+		}
+
+		return new Template( segments.toArray() );
+	}
+
+	//
+	// Inner class
+	//
+
+	/**
+	 * An attribute value, pre-parsed into a sequence of literal (<code>String</code>) and
+	 * <code>Expression</code> segments.
+	 * <p>
+	 * Templates are immutable, and JEXL <code>Expression</code>s are safe to evaluate concurrently,
+	 * so Templates can be shared between Threads.
+	 */
+
+	private static class Template {
+
+		//
+		// Private members
+		//
+
+		private final Object[]	mSegments;
+
+		//
+		// Constructor
+		//
+
+		public Template( Object[] segments ) {
+
+			mSegments = segments;
+		}
+
+		//
+		// Public methods
+		//
+
+		/**
+		 * Evaluate the Template in a single pass.
+		 */
+
+		public String evaluate( JexlContext context ) {
+
+			// Support the default case (when the String is just one EL)
+
+			if ( mSegments.length == 1 ) {
+
+				Object valueObject = ( (Expression) mSegments[0] ).evaluate( context );
+
+				if ( valueObject == null ) {
+					return null;
+				}
+
+				if ( valueObject instanceof Collection<?> ) {
+					return CollectionUtils.toString( (Collection<?>) valueObject );
+				}
+
+				if ( valueObject.getClass().isArray() ) {
+					return ArrayUtils.toString( valueObject );
+				}
+
+				return String.valueOf( valueObject );
+			}
+
+			// Replace multiple ELs within the String
+
+			StringBuilder builder = new StringBuilder();
+
+			for ( Object segment : mSegments ) {
+
+				if ( segment instanceof Expression ) {
+
+					Object valueObject = ( (Expression) segment ).evaluate( context );
+
+					if ( valueObject != null ) {
+						builder.append( valueObject );
+					}
+
+					continue;
+				}
+
+				builder.append( (String) segment );
+			}
+
+			return builder.toString();
+		}
+	}
 }
@@ -40,6 +40,10 @@ public class JexlInspectionResultProcessorConfig {
 
 	private boolean					mNullInjectThis;
 
+	private int						mTemplateCacheSize	= 500;
+
+	private int						mEngineCacheSize;
+
 	//
 	// Public methods
 	//
@@ -102,6 +106,41 @@ public class JexlInspectionResultProcessorConfig {
 		return this;
 	}
 
+	/**
+	 * Sets the maximum number of distinct attribute values to keep compiled (as pre-parsed
+	 * sequences of literal and expression segments). Once full, the least recently used attribute
+	 * value is evicted. Defaults to 500. Set to 0 to disable caching.
+	 *
+	 * @return this, as part of a fluent interface
+	 */
+
+	public JexlInspectionResultProcessorConfig setTemplateCacheSize( int templateCacheSize ) {
+
+		mTemplateCacheSize = templateCacheSize;
+
+		// Fluent interface
+
+		return this;
+	}
+
+	/**
+	 * Sets the size of the <code>JexlEngine</code>'s own cache of parsed expressions (see
+	 * <code>JexlEngine.setCache</code>). Defaults to 0 (no cache), because compiled attribute
+	 * values are already cached by <code>setTemplateCacheSize</code>. May be useful if subclasses
+	 * create expressions of their own.
+	 *
+	 * @return this, as part of a fluent interface
+	 */
+
+	public JexlInspectionResultProcessorConfig setEngineCacheSize( int engineCacheSize ) {
+
+		mEngineCacheSize = engineCacheSize;
+
+		// Fluent interface
+
+		return this;
+	}
+
 	@Override
 	public boolean equals( Object that ) {
 
@@ -125,6 +164,14 @@ public class JexlInspectionResultProcessorConfig {
 			return false;
 		}
 
+		if ( mTemplateCacheSize != ( (JexlInspectionResultProcessorConfig) that ).mTemplateCacheSize ) {
+			return false;
+		}
+
+		if ( mEngineCacheSize != ( (JexlInspectionResultProcessorConfig) that ).mEngineCacheSize ) {
+			return false;
+		}
+
 		return true;
 	}
 
@@ -135,6 +182,8 @@ public class JexlInspectionResultProcessorConfig {
 		hashCode = 31 * hashCode + ObjectUtils.nullSafeHashCode( mInjectThis );
 		hashCode = 31 * hashCode + ObjectUtils.nullSafeHashCode( mNullInjectThis );
 		hashCode = 31 * hashCode + ObjectUtils.nullSafeHashCode( mInject );
+		hashCode = 31 * hashCode + mTemplateCacheSize;
+		hashCode = 31 * hashCode + mEngineCacheSize;
 
 		return hashCode;
 	}
@@ -162,4 +211,14 @@ public class JexlInspectionResultProcessorConfig {
 
 		return mInject;
 	}
+
+	protected int getTemplateCacheSize() {
+
+		return mTemplateCacheSize;
+	}
+
+	protected int getEngineCacheSize() {
+
+		return mEngineCacheSize;
+	}
 }
\ No newline at end of file
@@ -243,6 +243,36 @@ public class JexlInspectionResultProcessorTest
 		assertEquals( entity.getChildNodes().getLength(), 1 );
 	}
 
+	public void testTemplateCache() {
+
+		String xml = "<?xml version=\"1.0\"?>";
+		xml += "<inspection-result xmlns=\"http://www.metawidget.org/inspection-result\" version=\"1.0\">";
+		xml += "<entity type=\"" + ThisTest.class.getName() + "\">";
+		xml += "<property name=\"me\" who-am-i=\"${this.identity}\" label=\"I am ${this.identity}!\"/>";
+		xml += "</entity></inspection-result>";
+
+		ThisTest thisTest1 = new ThisTest();
+		thisTest1.setIdentity( "ThisTest #1" );
+		ThisTest thisTest2 = new ThisTest();
+		thisTest2.setIdentity( "ThisTest #2" );
+
+		// Cached templates must still evaluate against the current 'this'
+
+		for ( JexlInspectionResultProcessorConfig config : new JexlInspectionResultProcessorConfig[] { new JexlInspectionResultProcessorConfig(), new JexlInspectionResultProcessorConfig().setTemplateCacheSize( 1 ), new JexlInspectionResultProcessorConfig().setTemplateCacheSize( 0 ).setEngineCacheSize( 10 ) } ) {
+
+			JexlInspectionResultProcessor<?> inspectionResultProcessor = new JexlInspectionResultProcessor<Object>( config );
+
+			for ( ThisTest thisTest : new ThisTest[] { thisTest1, thisTest2, thisTest1 } ) {
+
+				String result = inspectionResultProcessor.processInspectionResult( xml, null, thisTest, ThisTest.class.getName() );
+				Element entity = XmlUtils.getFirstChildElement( XmlUtils.documentFromString( result ).getDocumentElement() );
+				Element property = XmlUtils.getFirstChildElement( entity );
+				assertEquals( thisTest.getIdentity(), property.getAttribute( "who-am-i" ) );
+				assertEquals( "I am " + thisTest.getIdentity() + "!", property.getAttribute( "label" ) );
+			}
+		}
+	}
+
 	//
 	// Inner class
 	//
@@ -69,4 +69,24 @@ public class ServletResourceResolver
 
 		return super.openResource( resource );
 	}
+
+	/**
+	 * Overridden to try <code>/WEB-INF/</code> first.
+	 */
+
+	@Override
+	public URL getResource( String resource ) {
+
+		try {
+			URL url = mContext.getResource( "/WEB-INF/" + resource );
+
+			if ( url != null ) {
+				return url;
+			}
+		} catch ( Exception e ) {
+			throw InspectorException.newException( e );
+		}
+
+		return super.getResource( resource );
+	}
 }
@@ -13,6 +13,7 @@ package org.metawidget.config.impl;
 
 import java.io.FileNotFoundException;
 import java.io.InputStream;
+import java.net.URL;
 
 import org.metawidget.config.iface.ResourceResolver;
 import org.metawidget.inspector.iface.InspectorException;
@@ -69,4 +70,30 @@ public class SimpleResourceResolver
 
 		throw InspectorException.newException( new FileNotFoundException( "Unable to locate " + resource + " on CLASSPATH" ));
 	}
+
+	/**
+	 * Locates the given resource the same way as <code>openResource</code>, but returns its URL
+	 * rather than opening it. Useful for checking whether a resource has changed.
+	 *
+	 * @return the URL, or null if the resource cannot be located
+	 */
+
+	public URL getResource( String resource ) {
+
+		// Thread's ClassLoader
+
+		ClassLoader loaderContext = Thread.currentThread().getContextClassLoader();
+
+		if ( loaderContext != null ) {
+			URL url = loaderContext.getResource( resource );
+
+			if ( url != null ) {
+				return url;
+			}
+		}
+
+		// Our ClassLoader
+
+		return getClass().getResource( resource );
+	}
 }
@@ -23,6 +23,12 @@ package org.metawidget.inspectionresultprocessor.iface;
  * Most InspectionResultProcessors maintain their inspection results internally in a DOM. This
  * interface allows them to expose that DOM directly, rather than serializing it to a String,
  * whereupon the Metawidget must typically deserialize it back again.
+ * <p>
+ * The pipeline owns the DOM it passes to <code>processInspectionResultAsDom</code> exclusively (see
+ * <code>DomInspector</code>). Implementations are therefore free to reorder, remove and annotate
+ * nodes in place, and return the same Element, rather than building a new <code>Document</code>
+ * and importing each trait into it. For a chain of several InspectionResultProcessors, this avoids
+ * deep copying the inspection result once per processor.
  *
  * @author <a href="http://kennardconsulting.com">Richard Kennard</a>
  */
@@ -39,7 +45,10 @@ public interface DomInspectionResultProcessor<E, M>
 	 * serialization/deserialization.
 	 *
 	 * @param inspectionResult
-	 *            the inspection result to process. Never null
+	 *            the inspection result to process. Never null. Owned exclusively by the caller, so
+	 *            may be modified in place
+	 * @return the processed inspection result. May be the same Element as
+	 *         <code>inspectionResult</code>, or null to cancel the inspection
 	 */
 
 	E processInspectionResultAsDom( E inspectionResult, M metawidget, Object toInspect, String type, String... names );
@@ -14,8 +14,6 @@ package org.metawidget.inspectionresultprocessor.sort;
 import static org.metawidget.inspector.InspectionResultConstants.COMES_AFTER;
 import static org.metawidget.inspector.InspectionResultConstants.ENTITY;
 import static org.metawidget.inspector.InspectionResultConstants.NAME;
-import static org.metawidget.inspector.InspectionResultConstants.NAMESPACE;
-import static org.metawidget.inspector.InspectionResultConstants.ROOT;
 
 import java.util.Collection;
 import java.util.Collections;
@@ -27,7 +25,6 @@ import org.metawidget.inspectionresultprocessor.impl.BaseInspectionResultProcess
 import org.metawidget.util.ArrayUtils;
 import org.metawidget.util.CollectionUtils;
 import org.metawidget.util.XmlUtils;
-import org.w3c.dom.Document;
 import org.w3c.dom.Element;
 
 /**
@@ -35,6 +32,9 @@ import org.w3c.dom.Element;
  * <p>
  * <code>comes-after</code> attributes can be added using the <code>UiComesAfter</code> annotation,
  * among other ways.
+ * <p>
+ * Sorting is performed in place, on the inspection result passed in by the pipeline, rather than
+ * by building a new <code>Document</code>.
  * 
  * @author <a href="http://kennardconsulting.com">Richard Kennard</a>
  */
@@ -78,6 +78,7 @@ public class ComesAfterInspectionResultProcessor<M>
 			}
 
 			Collection<TopologicalElement> unmarkedNodes = CollectionUtils.newArrayList();
+			boolean needsSorting = false;
 
 			for ( TopologicalElement topologicalElement : topologicalElements.values() ) {
 
@@ -85,7 +86,8 @@ public class ComesAfterInspectionResultProcessor<M>
 				trait = topologicalElement.getElement();
 
 				if ( hasComesAfter( trait, metawidget ) ) {
-					
+
+					needsSorting = true;
 					String comesAfters = getComesAfter( trait, metawidget );
 
 					// For comes-after all, gather all nodes
@@ -124,31 +126,31 @@ public class ComesAfterInspectionResultProcessor<M>
 				}
 			}
 
+			// Nothing to sort? Return the inspection result untouched
+
+			if ( !needsSorting ) {
+				return inspectionResult;
+			}
+
 			// Sort the graph
 
 			List<Element> sortedTraits = CollectionUtils.newArrayList();
 			topologicalSort( unmarkedNodes, sortedTraits );
 
-			// Reconstruct the DOM. First, start a new document (Android 1.1 did
-			// not cope well with shuffling the nodes of an existing document)...
-
-			Document newDocument = XmlUtils.newDocument();
-			Element newInspectionResult = newDocument.createElementNS( NAMESPACE, ROOT );
-			XmlUtils.setMapAsAttributes( newInspectionResult, XmlUtils.getAttributesAsMap( inspectionResult ) );
-			newDocument.appendChild( newInspectionResult );
+			// Reorder the traits in place. The pipeline owns the inspection result exclusively, so
+			// there is no need to start a new Document and import (deep copy) every trait into it.
+			// Remove all children (including any indentation) then re-append in sorted order
 
-			Element newEntity = newDocument.createElementNS( NAMESPACE, ENTITY );
-			XmlUtils.setMapAsAttributes( newEntity, XmlUtils.getAttributesAsMap( entity ) );
-			newInspectionResult.appendChild( newEntity );
-
-			// ...then import our sorted traits into it
+			while ( entity.hasChildNodes() ) {
+				entity.removeChild( entity.getFirstChild() );
+			}
 
 			for ( Element sortedTrait : sortedTraits ) {
 
-				newEntity.appendChild( XmlUtils.importElement( newDocument, sortedTrait ) );
+				entity.appendChild( sortedTrait );
 			}
 
-			return newInspectionResult;
+			return inspectionResult;
 		} catch ( Exception e ) {
 			throw InspectionResultProcessorException.newException( e );
 		}
@@ -26,6 +26,11 @@ package org.metawidget.inspector.iface;
  * <p>
  * If your <code>Inspector</code> extends <code>BaseObjectInspector</code> or
  * <code>BaseXmlInspector</code>, this optimization is implemented for you.
+ * <p>
+ * The returned DOM is handed to the caller, who owns it exclusively. In particular, pipelines pass
+ * it straight to any <code>DomInspectionResultProcessor</code>s, which may modify it in place.
+ * Implementations that cache their inspection results must therefore return a copy (for example,
+ * using <code>XmlUtils.importElement</code>) rather than the cached Element itself.
  *
  * @author <a href="http://kennardconsulting.com">Richard Kennard</a>
  */
@@ -34,6 +34,10 @@ import org.metawidget.util.CollectionUtils;
  * <code>JavaBeanPropertyStyle</code> (the default) this is 'alphabetical by name'. Most clients
  * will want to refine this by using, say, <code>UiComesAfter</code> and
  * MetawidgetAnnotationInspector.
+ * <p>
+ * The attributes of each entity and property are computed once and then cached, as they depend
+ * only on declared and actual classes. Only the actual class of non-final property values is
+ * determined afresh on each inspection.
  *
  * @author <a href="http://kennardconsulting.com">Richard Kennard</a>
  */
@@ -41,6 +45,34 @@ import org.metawidget.util.CollectionUtils;
 public class PropertyTypeInspector
 	extends BaseObjectInspector {
 
+	//
+	// Private members
+	//
+
+	/**
+	 * Cache of entity attributes, keyed by actual Class and then by declared class name.
+	 * <p>
+	 * Entity attributes (including enum lookups, which require reflection) depend only on the
+	 * declared and actual class, so need only be computed once. Only the actual class itself is
+	 * dynamic, and that is determined by <code>BaseObjectInspector</code> before calling
+	 * <code>inspectEntity</code>.
+	 * <p>
+	 * Uses a WeakHashMap keyed by Class, so that entries are released along with their
+	 * ClassLoader (eg. when a Web application is redeployed). The cached values contain only
+	 * Strings, so do not themselves keep the Class alive.
+	 */
+
+	private final Map<Class<?>, Map<String, Map<String, String>>>	mEntityAttributesCache		= CollectionUtils.newWeakHashMap();
+
+	/**
+	 * Cache of property attributes, keyed by Property.
+	 * <p>
+	 * Uses a WeakHashMap, so that Properties are not retained if the <code>PropertyStyle</code>
+	 * itself is not caching them.
+	 */
+
+	private final Map<Property, Map<String, String>>				mPropertyAttributesCache	= CollectionUtils.newWeakHashMap();
+
 	//
 	// Constructor
 	//
@@ -65,10 +97,71 @@ public class PropertyTypeInspector
 		return true;
 	}
 
+	/**
+	 * Returns a Map of attributes, which is computed once per declared and actual class and then
+	 * copied. Subclasses may modify the returned Map.
+	 */
+
 	@Override
 	protected Map<String, String> inspectEntity( String declaredClass, String actualClass )
 		throws Exception {
 
+		Class<?> actualClazz = ClassUtils.niceForName( actualClass );
+
+		// Only cache if the actual class name maps exactly to a Class (not, say, a parameterized
+		// type or a symbolic type)
+
+		if ( actualClazz == null || !actualClazz.getName().equals( actualClass ) ) {
+			return inspectUncachedEntity( declaredClass, actualClass, actualClazz );
+		}
+
+		synchronized ( mEntityAttributesCache ) {
+			Map<String, Map<String, String>> declaredClassCache = mEntityAttributesCache.get( actualClazz );
+
+			if ( declaredClassCache == null ) {
+				declaredClassCache = CollectionUtils.newHashMap();
+				mEntityAttributesCache.put( actualClazz, declaredClassCache );
+			}
+
+			Map<String, String> attributes = declaredClassCache.get( declaredClass );
+
+			if ( attributes == null ) {
+				attributes = inspectUncachedEntity( declaredClass, actualClass, actualClazz );
+				declaredClassCache.put( declaredClass, attributes );
+			}
+
+			return CollectionUtils.newHashMap( attributes );
+		}
+	}
+
+	/**
+	 * Returns a Map of attributes, which is computed once per Property and then copied. Subclasses
+	 * may modify the returned Map.
+	 */
+
+	@Override
+	protected Map<String, String> inspectProperty( Property property )
+		throws Exception {
+
+		synchronized ( mPropertyAttributesCache ) {
+			Map<String, String> attributes = mPropertyAttributesCache.get( property );
+
+			if ( attributes == null ) {
+				attributes = inspectUncachedProperty( property );
+				mPropertyAttributesCache.put( property, attributes );
+			}
+
+			return CollectionUtils.newHashMap( attributes );
+		}
+	}
+
+	//
+	// Private methods
+	//
+
+	private Map<String, String> inspectUncachedEntity( String declaredClass, String actualClass, Class<?> actualClazz )
+		throws Exception {
+
 		Map<String, String> attributes = CollectionUtils.newHashMap();
 
 		// Type
@@ -110,8 +203,6 @@ public class PropertyTypeInspector
 
 		// Enums - classToInspect may an Enum type or an enum instance type (ie. Foo$1)
 
-		Class<?> actualClazz = ClassUtils.niceForName( actualClass );
-
 		if ( actualClazz != null && Enum.class.isAssignableFrom( actualClazz ) ) {
 			// Invoke 'magic' values method
 			//
@@ -143,9 +234,7 @@ public class PropertyTypeInspector
 		return attributes;
 	}
 
-	@Override
-	protected Map<String, String> inspectProperty( Property property )
-		throws Exception {
+	private Map<String, String> inspectUncachedProperty( Property property ) {
 
 		Map<String, String> attributes = CollectionUtils.newHashMap();
 
@@ -11,17 +11,35 @@
 
 package org.metawidget.layout.decorator;
 
+import static org.metawidget.inspector.InspectionResultConstants.*;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
+import org.metawidget.layout.iface.LazyLayout;
+
 /**
  * Convenience base class for LayoutDecorators wishing to decorate widgets based on changing
  * sections, rendering multi-level sections (ie. section="foo,bar") as nested components.
+ * <p>
+ * If configured with <code>NestedSectionLayoutDecoratorConfig.setLazySections</code>, sections
+ * other than the first defer building their widgets until <code>buildSection</code> is called (eg.
+ * when their tab is first selected).
  *
  * @author <a href="http://kennardconsulting.com">Richard Kennard</a>
  */
 
 public abstract class NestedSectionLayoutDecorator<W, C extends W, M extends C>
-	extends LayoutDecorator<W, C, M> {
+	extends LayoutDecorator<W, C, M>
+	implements LazyLayout<W, C, M> {
+
+	//
+	// Private members
+	//
+
+	private final boolean	mLazySections;
 
 	//
 	// Constructor
@@ -30,6 +48,12 @@ public abstract class NestedSectionLayoutDecorator<W, C extends W, M extends C>
 	protected NestedSectionLayoutDecorator( LayoutDecoratorConfig<W, C, M> config ) {
 
 		super( config );
+
+		if ( config instanceof NestedSectionLayoutDecoratorConfig<?, ?, ?> ) {
+			mLazySections = ( (NestedSectionLayoutDecoratorConfig<W, C, M>) config ).isLazySections();
+		} else {
+			mLazySections = false;
+		}
 	}
 
 	//
@@ -44,6 +68,7 @@ public abstract class NestedSectionLayoutDecorator<W, C extends W, M extends C>
 		State<C> state = getState( container, metawidget );
 		state.setCurrentSection( null );
 		state.setCurrentSectionWidget( null );
+		state.mUnbuiltSections = null;
 	}
 
 	@Override
@@ -60,7 +85,7 @@ public abstract class NestedSectionLayoutDecorator<W, C extends W, M extends C>
 			if ( state.getCurrentSectionWidget()== null ) {
 				super.layoutWidget( widget, elementName, attributes, container, metawidget );
 			} else {
-				super.layoutWidget( widget, elementName, attributes, state.getCurrentSectionWidget(), metawidget );
+				layoutSectionWidget( widget, elementName, attributes, state.getCurrentSectionWidget(), container, metawidget );
 			}
 
 			return;
@@ -71,7 +96,7 @@ public abstract class NestedSectionLayoutDecorator<W, C extends W, M extends C>
 		C previousSectionWidget = state.getCurrentSectionWidget();
 
 		if ( state.getCurrentSectionWidget()!= null ) {
-			super.endContainerLayout( state.getCurrentSectionWidget(), metawidget );
+			endSectionLayout( state.getCurrentSectionWidget(), container, metawidget );
 		}
 
 		state.setCurrentSection( section );
@@ -87,11 +112,11 @@ public abstract class NestedSectionLayoutDecorator<W, C extends W, M extends C>
 		// Start new section
 
 		state.setCurrentSectionWidget( createSectionWidget( previousSectionWidget, section, attributes, container, metawidget ));
-		super.startContainerLayout( state.getCurrentSectionWidget(), metawidget );
+		startSectionLayout( previousSectionWidget, state.getCurrentSectionWidget(), container, metawidget );
 
 		// Add component to new section
 
-		super.layoutWidget( widget, elementName, attributes, state.getCurrentSectionWidget(), metawidget );
+		layoutSectionWidget( widget, elementName, attributes, state.getCurrentSectionWidget(), container, metawidget );
 	}
 
 	@Override
@@ -102,7 +127,7 @@ public abstract class NestedSectionLayoutDecorator<W, C extends W, M extends C>
 		State<C> state = getState( container, metawidget );
 
 		if ( state.getCurrentSectionWidget()!= null ) {
-			super.endContainerLayout( state.getCurrentSectionWidget(), metawidget );
+			endSectionLayout( state.getCurrentSectionWidget(), container, metawidget );
 		}
 
 		super.endContainerLayout( container, metawidget );
@@ -110,6 +135,43 @@ public abstract class NestedSectionLayoutDecorator<W, C extends W, M extends C>
 		state.setCurrentSectionWidget( null );
 	}
 
+	/**
+	 * Defers widgets destined for the current section, if it is lazy and not yet built.
+	 * <p>
+	 * The first widget of a lazy section is never deferred, because it may be an empty stub (and
+	 * empty stubs must not create new sections). Nor are widgets that <code>isDeferrable</code>
+	 * rejects.
+	 */
+
+	public boolean deferWidget( DeferredWidget deferredWidget, String elementName, Map<String, String> attributes, C container, M metawidget ) {
+
+		if ( !mLazySections ) {
+			return false;
+		}
+
+		State<C> state = getState( container, metawidget );
+		LazySection lazySection = getLazySection( state, state.getCurrentSectionWidget() );
+
+		if ( lazySection == null ) {
+			return false;
+		}
+
+		// (strip a copy, as the pipeline has yet to build the widget using these attributes)
+
+		String section = stripSection( new HashMap<String, String>( attributes ) );
+
+		if ( section != null && !section.equals( state.getCurrentSection() ) ) {
+			return false;
+		}
+
+		if ( !isDeferrable( elementName, attributes ) ) {
+			return false;
+		}
+
+		lazySection.mPendingWidgets.add( new PendingWidget( deferredWidget ) );
+		return true;
+	}
+
 	//
 	// Protected methods
 	//
@@ -130,10 +192,254 @@ public abstract class NestedSectionLayoutDecorator<W, C extends W, M extends C>
 
 	protected abstract C createSectionWidget( C previousSectionWidget, String section, Map<String, String> attributes, C container, M metawidget );
 
+	protected boolean isLazySections() {
+
+		return mLazySections;
+	}
+
+	/**
+	 * Whether the given widget may be deferred.
+	 * <p>
+	 * By default, widgets with validation metadata (eg. <code>required</code>) are never deferred,
+	 * so that validators see every field, including those on sections that have not been shown.
+	 * Other widgets can safely wait, because nothing on an unbuilt section can have been edited.
+	 */
+
+	protected boolean isDeferrable( String elementName, Map<String, String> attributes ) {
+
+		if ( TRUE.equals( attributes.get( REQUIRED ) ) ) {
+			return false;
+		}
+
+		if ( attributes.containsKey( MINIMUM_VALUE ) || attributes.containsKey( MAXIMUM_VALUE ) ) {
+			return false;
+		}
+
+		if ( attributes.containsKey( MINIMUM_LENGTH ) || attributes.containsKey( MAXIMUM_LENGTH ) ) {
+			return false;
+		}
+
+		return !attributes.containsKey( VALIDATION_PATTERN );
+	}
+
+	/**
+	 * Starts laying out a newly created section widget.
+	 * <p>
+	 * If sections are lazy, every section but the first (ie. every section that has a
+	 * <code>previousSectionWidget</code>) is registered as lazy. Subclasses should call
+	 * <code>buildSection</code> when the section is first shown.
+	 */
+
+	protected void startSectionLayout( C previousSectionWidget, C sectionWidget, C container, M metawidget ) {
+
+		super.startContainerLayout( sectionWidget, metawidget );
+
+		if ( mLazySections && previousSectionWidget != null ) {
+			State<C> state = getState( container, metawidget );
+
+			if ( state.mUnbuiltSections == null ) {
+				state.mUnbuiltSections = new HashMap<C, NestedSectionLayoutDecorator<?, ?, ?>.LazySection>();
+			}
+
+			state.mUnbuiltSections.put( sectionWidget, new LazySection( state.getCurrentSection(), sectionWidget, container, metawidget ) );
+		}
+	}
+
+	protected void layoutSectionWidget( W widget, String elementName, Map<String, String> attributes, C sectionWidget, C container, M metawidget ) {
+
+		// Keep widgets in order, if some are already deferred
+
+		LazySection lazySection = getLazySection( getState( container, metawidget ), sectionWidget );
+
+		if ( lazySection != null && !lazySection.mPendingWidgets.isEmpty() ) {
+			lazySection.mPendingWidgets.add( new PendingWidget( widget, elementName, attributes ) );
+			return;
+		}
+
+		super.layoutWidget( widget, elementName, attributes, sectionWidget, metawidget );
+	}
+
+	protected void endSectionLayout( C sectionWidget, C container, M metawidget ) {
+
+		State<C> state = getState( container, metawidget );
+		LazySection lazySection = getLazySection( state, sectionWidget );
+
+		if ( lazySection != null ) {
+
+			// Finish the layout when the section is built
+
+			if ( !lazySection.mPendingWidgets.isEmpty() ) {
+				lazySection.mEnded = true;
+				return;
+			}
+
+			state.mUnbuiltSections.remove( sectionWidget );
+		}
+
+		super.endContainerLayout( sectionWidget, metawidget );
+	}
+
+	/**
+	 * Builds the widgets deferred by the given section widget, if any.
+	 *
+	 * @return true if widgets were built, false if the section was not lazy or was already built
+	 */
+
+	protected boolean buildSection( C sectionWidget, C container, M metawidget ) {
+
+		State<C> state = getState( container, metawidget );
+		LazySection lazySection = getLazySection( state, sectionWidget );
+
+		if ( lazySection == null ) {
+			return false;
+		}
+
+		state.mUnbuiltSections.remove( sectionWidget );
+		lazySection.build();
+
+		return true;
+	}
+
+	//
+	// Private methods
+	//
+
+	private LazySection getLazySection( State<C> state, C sectionWidget ) {
+
+		if ( state.mUnbuiltSections == null ) {
+			return null;
+		}
+
+		@SuppressWarnings( "unchecked" )
+		LazySection lazySection = (LazySection) state.mUnbuiltSections.get( sectionWidget );
+		return lazySection;
+	}
+
 	//
 	// Inner class
 	//
 
+	/**
+	 * Section whose widgets, after the first, are deferred until it is built.
+	 * <p>
+	 * Deferred widgets are built by rerunning the pipeline for them. While this happens, the
+	 * section is made the current section again, so that they are laid out exactly as they would
+	 * have been during the original build.
+	 */
+
+	private class LazySection {
+
+		//
+		// Private members
+		//
+
+		private final String				mSection;
+
+		private final C						mSectionWidget;
+
+		private final C						mContainer;
+
+		private final M						mMetawidget;
+
+		/* package private */final List<PendingWidget>	mPendingWidgets	= new ArrayList<PendingWidget>();
+
+		/* package private */boolean		mEnded;
+
+		//
+		// Constructor
+		//
+
+		public LazySection( String section, C sectionWidget, C container, M metawidget ) {
+
+			mSection = section;
+			mSectionWidget = sectionWidget;
+			mContainer = container;
+			mMetawidget = metawidget;
+		}
+
+		//
+		// Public methods
+		//
+
+		public void build() {
+
+			State<C> state = getState( mContainer, mMetawidget );
+			String currentSection = state.getCurrentSection();
+			C currentSectionWidget = state.getCurrentSectionWidget();
+
+			state.setCurrentSection( mSection );
+			state.setCurrentSectionWidget( mSectionWidget );
+
+			DeferredWidget lastDeferredWidget = null;
+
+			try {
+				for ( PendingWidget pendingWidget : mPendingWidgets ) {
+					if ( pendingWidget.mDeferredWidget != null ) {
+						pendingWidget.mDeferredWidget.buildWidget();
+						lastDeferredWidget = pendingWidget.mDeferredWidget;
+					} else {
+						NestedSectionLayoutDecorator.super.layoutWidget( pendingWidget.mWidget, pendingWidget.mElementName, pendingWidget.mAttributes, mSectionWidget, mMetawidget );
+					}
+				}
+			} finally {
+				state.setCurrentSection( currentSection );
+				state.setCurrentSectionWidget( currentSectionWidget );
+			}
+
+			mPendingWidgets.clear();
+
+			// (if built before the section ended, it will end as normal)
+
+			if ( mEnded ) {
+				NestedSectionLayoutDecorator.super.endContainerLayout( mSectionWidget, mMetawidget );
+			}
+
+			if ( lastDeferredWidget != null ) {
+				lastDeferredWidget.endBuild();
+			}
+		}
+	}
+
+	/**
+	 * Widget deferred by a LazySection: either a DeferredWidget yet to be built, or a widget built
+	 * after it (which must be laid out after it).
+	 */
+
+	private class PendingWidget {
+
+		//
+		// Private members
+		//
+
+		/* package private */final DeferredWidget		mDeferredWidget;
+
+		/* package private */final W					mWidget;
+
+		/* package private */final String				mElementName;
+
+		/* package private */final Map<String, String>	mAttributes;
+
+		//
+		// Constructor
+		//
+
+		public PendingWidget( DeferredWidget deferredWidget ) {
+
+			mDeferredWidget = deferredWidget;
+			mWidget = null;
+			mElementName = null;
+			mAttributes = null;
+		}
+
+		public PendingWidget( W widget, String elementName, Map<String, String> attributes ) {
+
+			mDeferredWidget = null;
+			mWidget = widget;
+			mElementName = elementName;
+			mAttributes = attributes;
+		}
+	}
+
 	/**
 	 * Simple, lightweight structure for saving state.
 	 */
@@ -148,6 +454,12 @@ public abstract class NestedSectionLayoutDecorator<W, C extends W, M extends C>
 
 		private C		mCurrentSectionWidget;
 
+		/**
+		 * Sections still to be built, keyed by section widget. Null if there are none.
+		 */
+
+		/* package private */Map<C, NestedSectionLayoutDecorator<?, ?, ?>.LazySection>	mUnbuiltSections;
+
 		//
 		// Public methods
 		//
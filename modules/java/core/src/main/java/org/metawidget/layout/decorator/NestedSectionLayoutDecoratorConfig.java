@@ -0,0 +1,107 @@
+// Metawidget
+//
+// This file is dual licensed under both the LGPL
+// (http://www.gnu.org/licenses/lgpl-2.1.html) and the EPL
+// (http://www.eclipse.org/org/documents/epl-v10.php). As a
+// recipient of Metawidget, you may choose to receive it under either
+// the LGPL or the EPL.
+//
+// Commercial licenses are also available. See http://metawidget.org
+// for details.
+
+package org.metawidget.layout.decorator;
+
+import org.metawidget.layout.iface.Layout;
+import org.metawidget.util.simple.ObjectUtils;
+
+/**
+ * Configures a NestedSectionLayoutDecorator prior to use. Once instantiated, Layouts are
+ * immutable.
+ *
+ * @author <a href="http://kennardconsulting.com">Richard Kennard</a>
+ */
+
+public class NestedSectionLayoutDecoratorConfig<W, C extends W, M extends C>
+	extends LayoutDecoratorConfig<W, C, M> {
+
+	//
+	// Private members
+	//
+
+	private boolean	mLazySections;
+
+	//
+	// Public methods
+	//
+
+	/**
+	 * Overridden to use covariant return type.
+	 *
+	 * @return this, as part of a fluent interface
+	 */
+
+	@Override
+	public NestedSectionLayoutDecoratorConfig<W, C, M> setLayout( Layout<W, C, M> layout ) {
+
+		super.setLayout( layout );
+
+		return this;
+	}
+
+	/**
+	 * Sets whether to build sections lazily.
+	 * <p>
+	 * By default, the widgets of every section are built during the pipeline run. When set, every
+	 * section but the first (eg. every tab but the one initially selected) only builds its first
+	 * widget. The rest of its widgets are built, processed (eg. bound) and laid out when the section
+	 * is first shown (eg. when its tab is first selected). This can make Metawidgets with many
+	 * sections significantly faster to open.
+	 * <p>
+	 * This setting only takes effect if the LayoutDecorator is the Metawidget's outermost Layout.
+	 *
+	 * @return this, as part of a fluent interface
+	 */
+
+	public NestedSectionLayoutDecoratorConfig<W, C, M> setLazySections( boolean lazySections ) {
+
+		mLazySections = lazySections;
+
+		return this;
+	}
+
+	@Override
+	public boolean equals( Object that ) {
+
+		if ( this == that ) {
+			return true;
+		}
+
+		if ( !ObjectUtils.nullSafeClassEquals( this, that ) ) {
+			return false;
+		}
+
+		if ( mLazySections != ( (NestedSectionLayoutDecoratorConfig<?, ?, ?>) that ).mLazySections ) {
+			return false;
+		}
+
+		return super.equals( that );
+	}
+
+	@Override
+	public int hashCode() {
+
+		int hashCode = super.hashCode();
+		hashCode = 31 * hashCode + ObjectUtils.nullSafeHashCode( mLazySections );
+
+		return hashCode;
+	}
+
+	//
+	// Protected methods
+	//
+
+	protected boolean isLazySections() {
+
+		return mLazySections;
+	}
+}
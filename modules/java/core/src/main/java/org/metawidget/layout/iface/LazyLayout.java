@@ -0,0 +1,87 @@
+// Metawidget
+//
+// This file is dual licensed under both the LGPL
+// (http://www.gnu.org/licenses/lgpl-2.1.html) and the EPL
+// (http://www.eclipse.org/org/documents/epl-v10.php). As a
+// recipient of Metawidget, you may choose to receive it under either
+// the LGPL or the EPL.
+//
+// Commercial licenses are also available. See http://metawidget.org
+// for details.
+
+package org.metawidget.layout.iface;
+
+import java.util.Map;
+
+/**
+ * Common interface implemented by Layouts that can defer building widgets until they are needed
+ * (eg. until their tab is first selected).
+ * <p>
+ * Before building each widget, pipelines offer it to their outermost Layout. If the Layout
+ * defers it, the pipeline does not build the widget. Instead, the Layout later asks the pipeline to
+ * build, process and lay out the widget as normal.
+ *
+ * @author <a href="http://kennardconsulting.com">Richard Kennard</a>
+ */
+
+public interface LazyLayout<W, C extends W, M extends C>
+	extends AdvancedLayout<W, C, M> {
+
+	//
+	// Methods
+	//
+
+	/**
+	 * Offers the Layout the chance to defer building a widget.
+	 *
+	 * @param deferredWidget
+	 *            builds, processes and lays out the widget (through this Layout's
+	 *            <code>layoutWidget</code>) when called
+	 * @param elementName
+	 *            XML node name of the business field. Typically 'entity', 'property' or 'action'.
+	 *            Never null
+	 * @param attributes
+	 *            attributes of the widget to build. Never null. Must not be modified
+	 * @param container
+	 *            the container the widget would be laid out in
+	 * @param metawidget
+	 *            the parent Metawidget. Never null
+	 * @return true if the Layout has deferred the widget, and will call
+	 *         <code>deferredWidget.buildWidget</code> later. False if the pipeline should build the
+	 *         widget immediately
+	 */
+
+	boolean deferWidget( DeferredWidget deferredWidget, String elementName, Map<String, String> attributes, C container, M metawidget );
+
+	//
+	// Inner class
+	//
+
+	/**
+	 * A widget whose building has been deferred.
+	 */
+
+	interface DeferredWidget {
+
+		//
+		// Methods
+		//
+
+		/**
+		 * Builds, processes and lays out the widget.
+		 */
+
+		void buildWidget();
+
+		/**
+		 * Ends a batch of deferred widgets (eg. a whole tab), once they have all been built.
+		 * <p>
+		 * Calls <code>onEndBuild</code> on the WidgetProcessors again, so that they can update state
+		 * that spans all widgets (eg. mandatory field decorations). <code>onStartBuild</code> is not
+		 * called again, as WidgetProcessors typically use it to discard the state (eg. bindings) of
+		 * previously built widgets.
+		 */
+
+		void endBuild();
+	}
+}
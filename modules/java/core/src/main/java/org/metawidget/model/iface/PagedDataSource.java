@@ -0,0 +1,61 @@
+// Metawidget
+//
+// This file is dual licensed under both the LGPL
+// (http://www.gnu.org/licenses/lgpl-2.1.html) and the EPL
+// (http://www.eclipse.org/org/documents/epl-v10.php). As a
+// recipient of Metawidget, you may choose to receive it under either
+// the LGPL or the EPL.
+//
+// Commercial licenses are also available. See http://metawidget.org
+// for details.
+
+package org.metawidget.model.iface;
+
+import java.io.Serializable;
+import java.util.List;
+
+/**
+ * Supplies the elements of a collection property one page at a time, rather than all at once.
+ * <p>
+ * Useful for very large collections, such as JPA-backed collections with tens of thousands of
+ * elements. Implementations typically run a count query and a slice query (ie. one using
+ * <code>setFirstResult</code> and <code>setMaxResults</code>).
+ * <p>
+ * Some environments (eg. JSF) hold implementations in the view state, so they must be
+ * <code>Serializable</code> (typically by holding only a reference to, say, an
+ * <code>EntityManagerFactory</code> lookup rather than the <code>EntityManager</code> itself).
+ *
+ * @author <a href="http://kennardconsulting.com">Richard Kennard</a>
+ */
+
+public interface PagedDataSource
+	extends Serializable {
+
+	//
+	// Methods
+	//
+
+	/**
+	 * @param owner
+	 *            the object that owns the collection property (eg. an <code>Order</code>)
+	 * @param propertyName
+	 *            name of the collection property (eg. <code>lines</code>)
+	 * @return total number of elements in the collection
+	 */
+
+	int getRowCount( Object owner, String propertyName );
+
+	/**
+	 * @param owner
+	 *            the object that owns the collection property (eg. an <code>Order</code>)
+	 * @param propertyName
+	 *            name of the collection property (eg. <code>lines</code>)
+	 * @param first
+	 *            index of the first element to return (zero-based)
+	 * @param pageSize
+	 *            maximum number of elements to return
+	 * @return the elements, in order
+	 */
+
+	List<?> getRows( Object owner, String propertyName, int first, int pageSize );
+}
@@ -0,0 +1,22 @@
+// Metawidget
+//
+// This file is dual licensed under both the LGPL
+// (http://www.gnu.org/licenses/lgpl-2.1.html) and the EPL
+// (http://www.eclipse.org/org/documents/epl-v10.php). As a
+// recipient of Metawidget, you may choose to receive it under either
+// the LGPL or the EPL.
+//
+// Commercial licenses are also available. See http://metawidget.org
+// for details.
+
+/**
+ * Model: root interface.
+ * <p>
+ * This package is factored into a separate <code>iface</code> subpackage, as opposed to being in
+ * the root, because some technologies (ie. GWT) are not good at including classes while filtering
+ * out subpackages.
+ *
+ * @author <a href="http://kennardconsulting.com">Richard Kennard</a>
+ */
+
+package org.metawidget.model.iface;
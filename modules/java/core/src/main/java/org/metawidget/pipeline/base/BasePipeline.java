@@ -18,6 +18,7 @@ import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
 
+import org.metawidget.iface.MetawidgetException;
 import org.metawidget.inspectionresultprocessor.iface.DomInspectionResultProcessor;
 import org.metawidget.inspectionresultprocessor.iface.InspectionResultProcessor;
 import org.metawidget.inspectionresultprocessor.iface.InspectionResultProcessorException;
@@ -25,6 +26,8 @@ import org.metawidget.inspector.iface.DomInspector;
 import org.metawidget.inspector.iface.Inspector;
 import org.metawidget.layout.iface.AdvancedLayout;
 import org.metawidget.layout.iface.Layout;
+import org.metawidget.layout.iface.LazyLayout;
+import org.metawidget.layout.iface.LazyLayout.DeferredWidget;
 import org.metawidget.widgetbuilder.iface.AdvancedWidgetBuilder;
 import org.metawidget.widgetbuilder.iface.WidgetBuilder;
 import org.metawidget.widgetprocessor.iface.AdvancedWidgetProcessor;
@@ -529,38 +532,18 @@ public abstract class BasePipeline<W, C extends W, E, M extends C> {
 			}
 
 			try {
-				W widget = buildWidget( elementName, attributes );
+				// Layout may defer building the widget (eg. until its tab is selected)
 
-				if ( widget == null ) {
-					if ( mMaximumInspectionDepth <= 0 ) {
-						continue;
-					}
-
-					// If setReadOnly( true ), remove our forced attribute so the nestedMetawidget
-					// can differentiate whether it was forced or in the inspector XML
+				if ( mLayout instanceof LazyLayout<?, ?, ?> ) {
+					M pipelineOwner = getPipelineOwner();
+					DeferredWidget deferredWidget = new PipelineDeferredWidget( elementName, attributes, forcedReadOnly );
 
-					if ( forcedReadOnly ) {
-						attributes.remove( READ_ONLY );
+					if ( ( (LazyLayout<W, C, M>) mLayout ).deferWidget( deferredWidget, elementName, attributes, pipelineOwner, pipelineOwner ) ) {
+						continue;
 					}
-
-					widget = buildNestedMetawidget( attributes );
-				}
-
-				Map<String, String> additionalAttributes = getAdditionalAttributes( widget );
-
-				if ( additionalAttributes != null ) {
-					attributes.putAll( additionalAttributes );
-				}
-
-				widget = processWidget( widget, elementName, attributes );
-
-				// A WidgetProcessor could return null to cancel the widget
-
-				if ( widget == null ) {
-					continue;
 				}
 
-				layoutWidget( widget, elementName, attributes );
+				buildAndLayoutWidget( elementName, attributes, forcedReadOnly );
 			} finally {
 				child = getNextSiblingElement( child );
 			}
@@ -726,6 +709,19 @@ public abstract class BasePipeline<W, C extends W, E, M extends C> {
 		mLayout.layoutWidget( widget, elementName, attributes, pipelineOwner, pipelineOwner );
 	}
 
+	/**
+	 * Builds, processes and lays out a widget whose building was deferred by a LazyLayout.
+	 * <p>
+	 * This happens outside of <code>buildWidgets</code>. Subclasses can override it to restore any
+	 * state they normally keep during a build (eg. ignoring their own add/remove events).
+	 */
+
+	protected void buildDeferredWidget( String elementName, Map<String, String> attributes, boolean forcedReadOnly )
+		throws Exception {
+
+		buildAndLayoutWidget( elementName, attributes, forcedReadOnly );
+	}
+
 	protected void endBuild() {
 
 		M pipelineOwner = getPipelineOwner();
@@ -751,4 +747,110 @@ public abstract class BasePipeline<W, C extends W, E, M extends C> {
 			( (AdvancedWidgetBuilder<W, M>) mWidgetBuilder ).onEndBuild( pipelineOwner );
 		}
 	}
+
+	//
+	// Private methods
+	//
+
+	/* package private */void buildAndLayoutWidget( String elementName, Map<String, String> attributes, boolean forcedReadOnly )
+		throws Exception {
+
+		W widget = buildWidget( elementName, attributes );
+
+		if ( widget == null ) {
+			if ( mMaximumInspectionDepth <= 0 ) {
+				return;
+			}
+
+			// If setReadOnly( true ), remove our forced attribute so the nestedMetawidget
+			// can differentiate whether it was forced or in the inspector XML
+
+			if ( forcedReadOnly ) {
+				attributes.remove( READ_ONLY );
+			}
+
+			widget = buildNestedMetawidget( attributes );
+		}
+
+		Map<String, String> additionalAttributes = getAdditionalAttributes( widget );
+
+		if ( additionalAttributes != null ) {
+			attributes.putAll( additionalAttributes );
+		}
+
+		widget = processWidget( widget, elementName, attributes );
+
+		// A WidgetProcessor could return null to cancel the widget
+
+		if ( widget == null ) {
+			return;
+		}
+
+		layoutWidget( widget, elementName, attributes );
+	}
+
+	//
+	// Inner class
+	//
+
+	/**
+	 * Runs the pipeline for a single child element, when a LazyLayout asks for it.
+	 * <p>
+	 * Note this happens after <code>endBuild</code>, so WidgetBuilders and Layouts see these widgets
+	 * outside of their <code>onStartBuild</code> and <code>onEndBuild</code> events.
+	 * WidgetProcessors get another <code>onEndBuild</code> at the end of each batch.
+	 */
+
+	private class PipelineDeferredWidget
+		implements DeferredWidget {
+
+		//
+		// Private members
+		//
+
+		private final String				mElementName;
+
+		private final Map<String, String>	mAttributes;
+
+		private final boolean				mForcedReadOnly;
+
+		//
+		// Constructor
+		//
+
+		public PipelineDeferredWidget( String elementName, Map<String, String> attributes, boolean forcedReadOnly ) {
+
+			mElementName = elementName;
+			mAttributes = attributes;
+			mForcedReadOnly = forcedReadOnly;
+		}
+
+		//
+		// Public methods
+		//
+
+		public void buildWidget() {
+
+			try {
+				buildDeferredWidget( mElementName, mAttributes, mForcedReadOnly );
+			} catch ( Exception e ) {
+				throw MetawidgetException.newException( e );
+			}
+		}
+
+		public void endBuild() {
+
+			if ( mWidgetProcessors == null ) {
+				return;
+			}
+
+			M pipelineOwner = getPipelineOwner();
+
+			for ( WidgetProcessor<W, M> widgetProcessor : mWidgetProcessors ) {
+				if ( widgetProcessor instanceof AdvancedWidgetProcessor<?, ?> ) {
+					( (AdvancedWidgetProcessor<W, M>) widgetProcessor ).onEndBuild( pipelineOwner );
+				}
+			}
+		}
+	}
 }
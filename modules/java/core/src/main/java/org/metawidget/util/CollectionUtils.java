@@ -195,6 +195,25 @@ public final class CollectionUtils {
 		return new LinkedHashMap<K, V>( map );
 	}
 
+	/**
+	 * Type-safe initializer for a bounded, least-recently-used cache.
+	 * <p>
+	 * The returned Map is access-ordered, and evicts its least recently used entry whenever it
+	 * grows beyond <code>maximumSize</code>. Like the other initializers, it is not synchronized.
+	 */
+
+	public static <K, V> LinkedHashMap<K, V> newLruMap( final int maximumSize ) {
+
+		return new LinkedHashMap<K, V>( 16, 0.75f, true ) {
+
+			@Override
+			protected boolean removeEldestEntry( Map.Entry<K, V> eldest ) {
+
+				return size() > maximumSize;
+			}
+		};
+	}
+
 	/**
 	 * Type-safe initializer.
 	 */
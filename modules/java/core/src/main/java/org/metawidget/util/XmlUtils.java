@@ -14,9 +14,16 @@ package org.metawidget.util;
 import static org.metawidget.inspector.InspectionResultConstants.*;
 
 import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
 import java.io.StringReader;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
@@ -572,7 +579,77 @@ public final class XmlUtils {
 
 	public static String inspectionResultToJsonSchema( Element inspectionResult ) {
 
-		return inspectionResultToJsonSchema( XmlUtils.getFirstChildElement( inspectionResult ), false );
+		StringWriter writer = new StringWriter();
+
+		try {
+			inspectionResultToJsonSchema( inspectionResult, writer );
+		} catch ( IOException e ) {
+			throw new RuntimeException( e );
+		}
+
+		return writer.toString();
+	}
+
+	/**
+	 * Write the given Element to the given Writer as a JSON Schema (v3).
+	 * <p>
+	 * The JSON Schema is streamed straight to the Writer, rather than first being built up as a
+	 * String. This is preferable for large inspection results.
+	 */
+
+	public static void inspectionResultToJsonSchema( Element inspectionResult, Writer writer )
+		throws IOException {
+
+		Element entity = XmlUtils.getFirstChildElement( inspectionResult );
+
+		if ( entity != null ) {
+			writeJsonSchema( entity, false, writer );
+		}
+	}
+
+	/**
+	 * Convert the given Element to a pre-serialized, UTF-8 encoded JSON Schema (v3).
+	 * <p>
+	 * The returned <code>SerializedJsonSchema</code> is immutable, so can be cached and written to
+	 * many responses. It also carries an ETag, so that REST services can answer requests for
+	 * unchanged JSON Schemas with a <tt>304 Not Modified</tt>.
+	 */
+
+	public static SerializedJsonSchema inspectionResultToSerializedJsonSchema( Element inspectionResult ) {
+
+		try {
+			ByteArrayOutputStream out = new ByteArrayOutputStream();
+			Writer writer = new OutputStreamWriter( out, SerializedJsonSchema.CHARSET );
+			inspectionResultToJsonSchema( inspectionResult, writer );
+			writer.close();
+
+			return new SerializedJsonSchema( out.toByteArray() );
+		} catch ( IOException e ) {
+			throw new RuntimeException( e );
+		}
+	}
+
+	/**
+	 * Gets the MD5 digest of the given bytes, as a hex String.
+	 * <p>
+	 * Suitable for fingerprinting content (eg. inspection results), not for security.
+	 */
+
+	public static String digest( byte[] bytes ) {
+
+		try {
+			byte[] digest = MessageDigest.getInstance( "MD5" ).digest( bytes );
+			StringBuilder builder = new StringBuilder( digest.length * 2 );
+
+			for ( byte digestByte : digest ) {
+				builder.append( Character.forDigit( ( digestByte >> 4 ) & 0xF, 16 ) );
+				builder.append( Character.forDigit( digestByte & 0xF, 16 ) );
+			}
+
+			return builder.toString();
+		} catch ( NoSuchAlgorithmException e ) {
+			throw new RuntimeException( e );
+		}
 	}
 
 	/**
@@ -607,149 +684,174 @@ public final class XmlUtils {
 
 	private static final String[]	JSON_SCHEMA_NON_STRING_ATTRIBUTE_NAMES	= new String[] { REQUIRED, HIDDEN, "minimum", "maximum", "minLength", "maxLength", "propertyOrder" };
 
-	private static String inspectionResultToJsonSchema( Element element, boolean excludeName ) {
+	private static void writeJsonSchema( Element element, boolean excludeName, Writer writer )
+		throws IOException {
 
-		StringBuilder jsonBuilder = new StringBuilder();
+		writer.write( '{' );
+		boolean empty = true;
 
-		if ( element != null ) {
+		// Actions are functions (unless they say otherwise)...
 
-			// For each child trait...
+		if ( ACTION.equals( getLocalName( element ) ) && !element.hasAttribute( TYPE ) ) {
+			writer.write( "\"type\":\"function\"" );
+			empty = false;
+		}
 
-			Element trait = XmlUtils.getFirstChildElement( element );
+		// ...then write out the attributes...
 
-			while ( trait != null ) {
+		NamedNodeMap attributes = element.getAttributes();
 
-				// ...that has a name...
+		for ( int loop = 0, length = attributes.getLength(); loop < length; loop++ ) {
 
-				if ( trait.hasAttribute( NAME ) ) {
+			Node attribute = attributes.item( loop );
 
-					// ..recurse into it...
+			String attributeName = attribute.getNodeName();
+			String attributeValue = attribute.getNodeValue();
 
-					String traitSchema = inspectionResultToJsonSchema( trait, true );
+			if ( excludeName && NAME.equals( attributeName ) ) {
+				continue;
+			}
 
-					if ( traitSchema.length() > 0 ) {
+			if ( !empty ) {
+				writer.write( StringUtils.SEPARATOR_COMMA_CHAR );
+			}
 
-						if ( jsonBuilder.length() > 0 ) {
-							jsonBuilder.append( StringUtils.SEPARATOR_COMMA_CHAR );
-						}
+			empty = false;
 
-						jsonBuilder.append( '\"' );
-						jsonBuilder.append( trait.getAttribute( NAME ) );
-						jsonBuilder.append( "\":" );
-						jsonBuilder.append( traitSchema );
-					}
-				}
+			// Best guess element names (e.g. 'foo-bar' becomes 'fooBar')
 
-				trait = XmlUtils.getNextSiblingElement( trait );
-			}
+			attributeName = StringUtils.camelCase( attributeName, '-' );
 
-			// ...and write them all out as 'properties'
+			writeJsonString( attributeName, writer );
+			writer.write( StringUtils.SEPARATOR_COLON_CHAR );
 
-			if ( jsonBuilder.length() > 0 ) {
-				jsonBuilder.insert( 0, "\"properties\":{" );
-				jsonBuilder.append( '}' );
+			if ( ArrayUtils.contains( JSON_SCHEMA_ARRAY_BASED_ATTRIBUTE_NAMES, attributeName ) ) {
+				writeJsonArray( attributeValue, writer );
+			} else if ( ArrayUtils.contains( JSON_SCHEMA_NON_STRING_ATTRIBUTE_NAMES, attributeName ) && !attributeValue.contains( "{" ) ) {
+				writer.write( attributeValue );
+			} else if ( "xsi:nil".equals( attributeValue ) ) {
+				writer.write( "null" );
+			} else {
 
-				// For arrays, 'properties' is inside 'items'
+				// Write out all other values as a string, as this is the safest option
 
-				if ( "array".equals( element.getAttribute( TYPE ) ) ) {
-					jsonBuilder.insert( 0, "\"items\":{" );
-					jsonBuilder.append( '}' );
-				}
+				writeJsonString( attributeValue, writer );
 			}
+		}
 
-			// Finally write out the root...
-
-			String attributes = attributesToJsonSchema( element.getAttributes(), excludeName );
+		// ...then, for each child trait that has a name, recurse into it and write them all out as
+		// 'properties'
 
-			if ( attributes.length() > 0 ) {
+		Element trait = XmlUtils.getChildWithAttribute( element, NAME );
 
-				if ( jsonBuilder.length() > 0 ) {
-					jsonBuilder.insert( 0, "," );
-				}
+		if ( trait != null ) {
 
-				jsonBuilder.insert( 0, attributes );
+			if ( !empty ) {
+				writer.write( StringUtils.SEPARATOR_COMMA_CHAR );
 			}
 
-			if ( ACTION.equals( getLocalName( element ) ) && !element.hasAttribute( "type" ) ) {
-				if ( jsonBuilder.length() > 0 ) {
-					jsonBuilder.insert( 0, "," );
-				}
-				jsonBuilder.insert( 0, "\"type\":\"function\"" );
-			}
+			// For arrays, 'properties' is inside 'items'
 
-			// ...all inside an Object
+			boolean isArray = "array".equals( element.getAttribute( TYPE ) );
 
-			jsonBuilder.insert( 0, "{" );
-			jsonBuilder.append( "}" );
-		}
+			if ( isArray ) {
+				writer.write( "\"items\":{" );
+			}
 
-		return jsonBuilder.toString();
-	}
+			writer.write( "\"properties\":{" );
+			writeJsonString( trait.getAttribute( NAME ), writer );
+			writer.write( StringUtils.SEPARATOR_COLON_CHAR );
+			writeJsonSchema( trait, true, writer );
 
-	private static String attributesToJsonSchema( NamedNodeMap attributes, boolean excludeName ) {
+			trait = XmlUtils.getSiblingWithAttribute( trait, NAME );
 
-		StringBuilder propertyBuilder = new StringBuilder();
+			while ( trait != null ) {
 
-		for ( int loop = 0, length = attributes.getLength(); loop < length; loop++ ) {
+				writer.write( StringUtils.SEPARATOR_COMMA_CHAR );
+				writeJsonString( trait.getAttribute( NAME ), writer );
+				writer.write( StringUtils.SEPARATOR_COLON_CHAR );
+				writeJsonSchema( trait, true, writer );
 
-			Node attribute = attributes.item( loop );
+				trait = XmlUtils.getSiblingWithAttribute( trait, NAME );
+			}
 
-			String attributeName = attribute.getNodeName();
-			String attributeValue = attribute.getNodeValue();
+			writer.write( '}' );
 
-			if ( excludeName && NAME.equals( attributeName ) ) {
-				continue;
+			if ( isArray ) {
+				writer.write( '}' );
 			}
+		}
 
-			// Best guess element names (e.g. 'foo-bar' becomes 'fooBar')
+		// ...all inside an Object
 
-			attributeName = StringUtils.camelCase( attributeName, '-' );
+		writer.write( '}' );
+	}
 
-			if ( propertyBuilder.length() > 0 ) {
-				propertyBuilder.append( StringUtils.SEPARATOR_COMMA_CHAR );
-			}
+	private static void writeJsonArray( String array, Writer writer )
+		throws IOException {
 
-			propertyBuilder.append( "\"" + attributeName + "\"" );
-			propertyBuilder.append( StringUtils.SEPARATOR_COLON_CHAR );
+		writer.write( '[' );
 
-			if ( ArrayUtils.contains( JSON_SCHEMA_ARRAY_BASED_ATTRIBUTE_NAMES, attributeName ) ) {
-				propertyBuilder.append( "[" );
-				propertyBuilder.append( arrayToJsonSchema( attributeValue ) );
-				propertyBuilder.append( "]" );
-			} else if ( ArrayUtils.contains( JSON_SCHEMA_NON_STRING_ATTRIBUTE_NAMES, attributeName ) && !attributeValue.contains( "{" )) {
-				propertyBuilder.append( attributeValue );
-			} else if ( "xsi:nil".equals( attributeValue )) {
-				propertyBuilder.append( "null" );
-			} else {
+		String[] values = ArrayUtils.fromString( array );
 
-				// Write out all other values as a string, as this is the safest option
+		for ( int loop = 0, length = values.length; loop < length; loop++ ) {
 
-				propertyBuilder.append( "\"" );
-				propertyBuilder.append( attributeValue );
-				propertyBuilder.append( "\"" );
+			if ( loop > 0 ) {
+				writer.write( StringUtils.SEPARATOR_COMMA_CHAR );
 			}
+
+			writeJsonString( values[loop], writer );
 		}
 
-		return propertyBuilder.toString();
+		writer.write( ']' );
 	}
 
-	private static String arrayToJsonSchema( String array ) {
+	/**
+	 * Write the given String as a quoted JSON string, escaping characters as necessary.
+	 */
+
+	private static void writeJsonString( String value, Writer writer )
+		throws IOException {
+
+		writer.write( '\"' );
 
-		// Convert foo"bar,baz to "foo\"bar"baz"
+		for ( int loop = 0, length = value.length(); loop < length; loop++ ) {
 
-		String toReturn = ArrayUtils.toString( ArrayUtils.fromString( array ), "\"", true, true );
+			char c = value.charAt( loop );
 
-		// Convert "foo\"bar"baz" to "foo\"bar","baz","
+			switch ( c ) {
+				case '"':
+					writer.write( "\\\"" );
+					break;
 
-		toReturn = toReturn.replaceAll( "([^\\\\])\"", "$1\",\"" );
+				case '\\':
+					writer.write( "\\\\" );
+					break;
 
-		// Trim off the end
+				case '\n':
+					writer.write( "\\n" );
+					break;
 
-		if ( toReturn.endsWith( "\",\"" ) ) {
-			toReturn = toReturn.substring( 0, toReturn.length() - 2 );
+				case '\r':
+					writer.write( "\\r" );
+					break;
+
+				case '\t':
+					writer.write( "\\t" );
+					break;
+
+				default:
+					if ( c < ' ' ) {
+						String hex = Integer.toHexString( c );
+						writer.write( "\\u0000", 0, 6 - hex.length() );
+						writer.write( hex );
+					} else {
+						writer.write( c );
+					}
+			}
 		}
 
-		return toReturn;
+		writer.write( '\"' );
 	}
 
 	//
@@ -1663,6 +1765,104 @@ public final class XmlUtils {
 
 	private static final Pattern			PATTERN_APOS	= Pattern.compile( "\'", Pattern.LITERAL );
 
+	/**
+	 * Pre-serialized, UTF-8 encoded JSON Schema. Immutable, so suitable for caching.
+	 */
+
+	public static class SerializedJsonSchema {
+
+		//
+		// Private statics
+		//
+
+		/* package private */static final String	CHARSET	= "UTF-8";
+
+		//
+		// Private members
+		//
+
+		private final byte[]						mBytes;
+
+		private final String						mETag;
+
+		//
+		// Constructor
+		//
+
+		/* package private */SerializedJsonSchema( byte[] bytes ) {
+
+			mBytes = bytes;
+
+			// Strong ETag (quoted, as per RFC 2616) based on a digest of the content
+
+			mETag = '"' + digest( bytes ) + '"';
+		}
+
+		//
+		// Public methods
+		//
+
+		public int getContentLength() {
+
+			return mBytes.length;
+		}
+
+		/**
+		 * @return the ETag, already quoted and suitable for use as an HTTP <tt>ETag</tt> header
+		 */
+
+		public String getETag() {
+
+			return mETag;
+		}
+
+		/**
+		 * Whether the given HTTP <tt>If-None-Match</tt> header matches this JSON Schema. If so,
+		 * clients already have it, and REST services can respond with <tt>304 Not Modified</tt>.
+		 *
+		 * @param ifNoneMatch
+		 *            the <tt>If-None-Match</tt> header. May be null
+		 */
+
+		public boolean matches( String ifNoneMatch ) {
+
+			if ( ifNoneMatch == null ) {
+				return false;
+			}
+
+			for ( String eTag : ArrayUtils.fromString( ifNoneMatch ) ) {
+
+				if ( "*".equals( eTag ) || mETag.equals( eTag ) ) {
+					return true;
+				}
+
+				// Weak comparison is fine for a 304
+
+				if ( eTag.startsWith( "W/" ) && mETag.equals( eTag.substring( 2 ) ) ) {
+					return true;
+				}
+			}
+
+			return false;
+		}
+
+		public void writeTo( OutputStream out )
+			throws IOException {
+
+			out.write( mBytes );
+		}
+
+		@Override
+		public String toString() {
+
+			try {
+				return new String( mBytes, CHARSET );
+			} catch ( IOException e ) {
+				throw new RuntimeException( e );
+			}
+		}
+	}
+
 	//
 	// Private constructor
 	//
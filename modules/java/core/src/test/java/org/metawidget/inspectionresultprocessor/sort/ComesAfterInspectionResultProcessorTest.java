@@ -15,6 +15,7 @@ import junit.framework.TestCase;
 
 import org.metawidget.inspectionresultprocessor.iface.InspectionResultProcessorException;
 import org.metawidget.util.XmlUtils;
+import org.w3c.dom.Element;
 
 /**
  * @author <a href="http://kennardconsulting.com">Richard Kennard</a>
@@ -302,4 +303,34 @@ public class ComesAfterInspectionResultProcessorTest
 
 		assertEquals( validateXml, outputXml );
 	}
+
+	public void testInPlace()
+		throws Exception {
+
+		// Set up
+
+		String inputXml = "<?xml version=\"1.0\"?>";
+		inputXml += "<inspection-result xmlns=\"http://metawidget.org/inspection-result\" version=\"1.0\">";
+		inputXml += "<entity type=\"Foo\">";
+		inputXml += "<property name=\"foo\" comes-after=\"bar\"/>";
+		inputXml += "<property name=\"bar\"/>";
+		inputXml += "</entity></inspection-result>";
+
+		Element inspectionResult = XmlUtils.documentFromString( inputXml ).getDocumentElement();
+		Element entity = XmlUtils.getFirstChildElement( inspectionResult );
+		Element foo = XmlUtils.getFirstChildElement( entity );
+		Element bar = XmlUtils.getNextSiblingElement( foo );
+
+		// Run processor
+
+		Element processed = new ComesAfterInspectionResultProcessor<Object>().processInspectionResultAsDom( inspectionResult, null, null, null );
+
+		// Test result (should be the same DOM, reordered)
+
+		assertTrue( inspectionResult == processed );
+		assertTrue( entity == XmlUtils.getFirstChildElement( processed ) );
+		assertTrue( bar == XmlUtils.getFirstChildElement( entity ) );
+		assertTrue( foo == XmlUtils.getNextSiblingElement( bar ) );
+		assertEquals( null, XmlUtils.getNextSiblingElement( foo ) );
+	}
 }
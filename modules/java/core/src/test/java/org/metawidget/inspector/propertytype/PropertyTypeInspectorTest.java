@@ -17,6 +17,7 @@ import static org.metawidget.inspector.propertytype.PropertyTypeInspectionResult
 import java.beans.PropertyChangeListener;
 import java.beans.VetoableChangeListener;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.CountDownLatch;
 
@@ -512,6 +513,51 @@ public class PropertyTypeInspectorTest
 		assertTrue( concurrencyFailures.isEmpty() );
 	}
 
+	public void testCachedAttributes()
+		throws Exception {
+
+		// Static attributes should be cached, but the actual class should still be dynamic
+
+		DeclaredTypeTester test = new DeclaredTypeTester();
+
+		for ( Object value : new Object[] { Boolean.TRUE, new DeclaredTypeTester(), Boolean.FALSE } ) {
+
+			test.foo = value;
+
+			Document document = XmlUtils.documentFromString( mInspector.inspect( test, test.getClass().getName() ) );
+			Element property = XmlUtils.getChildWithAttributeValue( (Element) document.getDocumentElement().getFirstChild(), NAME, "foo" );
+			assertEquals( Object.class.getName(), property.getAttribute( TYPE ) );
+			assertEquals( value.getClass().getName(), property.getAttribute( ACTUAL_CLASS ) );
+
+			if ( value instanceof Boolean ) {
+				assertEquals( "true, false", property.getAttribute( LOOKUP ) );
+			} else {
+				assertFalse( property.hasAttribute( LOOKUP ) );
+			}
+		}
+
+		// Cached attribute maps should be copied, so that subclasses can modify them
+
+		PropertyTypeInspector inspector = new PropertyTypeInspector();
+		Map<String, String> attributes = inspector.inspectEntity( Object.class.getName(), Boolean.class.getName() );
+		assertEquals( "true, false", attributes.get( LOOKUP ) );
+		attributes.put( LOOKUP, "foo" );
+
+		attributes = inspector.inspectEntity( Object.class.getName(), Boolean.class.getName() );
+		assertEquals( "true, false", attributes.get( LOOKUP ) );
+		assertEquals( Boolean.class.getName(), attributes.get( ACTUAL_CLASS ) );
+		assertFalse( inspector.inspectEntity( Object.class.getName(), Object.class.getName() ).containsKey( LOOKUP ) );
+
+		// Parameterized declared types should not share attributes
+
+		assertEquals( "java.lang.String", inspector.inspectEntity( "java.util.List<java.lang.String>", "java.util.ArrayList" ).get( PARAMETERIZED_TYPE ) );
+		assertEquals( "java.lang.Long", inspector.inspectEntity( "java.util.List<java.lang.Long>", "java.util.ArrayList" ).get( PARAMETERIZED_TYPE ) );
+
+		// Symbolic types should not be cached
+
+		assertEquals( "Login Screen", inspector.inspectEntity( "Login Screen", "Login Screen" ).get( TYPE ) );
+	}
+
 	public void testAbortTraversingPastNull() {
 
 		Document document = XmlUtils.documentFromString( mInspector.inspect( new TraversePastNullTester(), TraversePastNullTester.class.getName(), "contact" ) );
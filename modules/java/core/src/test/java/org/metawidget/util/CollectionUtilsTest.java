@@ -13,6 +13,7 @@ package org.metawidget.util;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 
 import junit.framework.TestCase;
 
@@ -53,4 +54,21 @@ public class CollectionUtilsTest
 		assertEquals( CollectionUtils.fromString( ",,foo" ).size(), 3 );
 		assertEquals( CollectionUtils.fromString( ",,foo," ).size(), 4 );
 	}
+
+	public void testLruMap() {
+
+		Map<String, String> map = CollectionUtils.newLruMap( 2 );
+		map.put( "foo", "Foo" );
+		map.put( "bar", "Bar" );
+
+		// (access 'foo', so that 'bar' becomes the least recently used)
+
+		assertEquals( "Foo", map.get( "foo" ) );
+		map.put( "baz", "Baz" );
+
+		assertEquals( 2, map.size() );
+		assertTrue( map.containsKey( "foo" ) );
+		assertTrue( !map.containsKey( "bar" ) );
+		assertTrue( map.containsKey( "baz" ) );
+	}
 }
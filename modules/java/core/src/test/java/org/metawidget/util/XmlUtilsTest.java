@@ -11,6 +11,8 @@
 
 package org.metawidget.util;
 
+import java.io.ByteArrayOutputStream;
+import java.io.StringWriter;
 import java.lang.reflect.Field;
 import java.util.List;
 import java.util.Map;
@@ -18,6 +20,7 @@ import java.util.Map;
 import junit.framework.TestCase;
 
 import org.metawidget.util.XmlUtils.CachingContentHandler;
+import org.metawidget.util.XmlUtils.SerializedJsonSchema;
 import org.w3c.dom.Document;
 import org.w3c.dom.Element;
 import org.xml.sax.Attributes;
@@ -342,6 +345,50 @@ public class XmlUtilsTest
 		assertEquals( "{\"title\":null,\"type\":\"1\"}", XmlUtils.inspectionResultToJsonSchema( document.getDocumentElement() ) );
 	}
 
+	public void testJsonSchemaEscaping() {
+
+		Document document = XmlUtils.documentFromString( "<inspection-result><entity type=\"1\" title=\"foo&quot;bar\\baz&#10;\"><property name=\"a&quot;b\" pattern=\"\\d+\"/></entity></inspection-result>" );
+		assertEquals( "{\"title\":\"foo\\\"bar\\\\baz\\n\",\"type\":\"1\",\"properties\":{\"a\\\"b\":{\"pattern\":\"\\\\d+\"}}}", XmlUtils.inspectionResultToJsonSchema( document.getDocumentElement() ) );
+	}
+
+	public void testSerializedJsonSchema()
+		throws Exception {
+
+		Document document = XmlUtils.documentFromString( "<inspection-result><entity type=\"1\" title=\"F\u00fc\u00fc\"/></inspection-result>" );
+		String jsonSchema = XmlUtils.inspectionResultToJsonSchema( document.getDocumentElement() );
+
+		// Writer
+
+		StringWriter writer = new StringWriter();
+		XmlUtils.inspectionResultToJsonSchema( document.getDocumentElement(), writer );
+		assertEquals( jsonSchema, writer.toString() );
+
+		// Bytes
+
+		SerializedJsonSchema serialized = XmlUtils.inspectionResultToSerializedJsonSchema( document.getDocumentElement() );
+		assertEquals( jsonSchema, serialized.toString() );
+		assertEquals( jsonSchema.getBytes( "UTF-8" ).length, serialized.getContentLength() );
+
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		serialized.writeTo( out );
+		assertEquals( jsonSchema, out.toString( "UTF-8" ) );
+
+		// ETags
+
+		String eTag = serialized.getETag();
+		assertTrue( eTag.startsWith( "\"" ) );
+		assertTrue( eTag.endsWith( "\"" ) );
+		assertEquals( eTag, XmlUtils.inspectionResultToSerializedJsonSchema( document.getDocumentElement() ).getETag() );
+		assertTrue( serialized.matches( eTag ) );
+		assertTrue( serialized.matches( "\"abc\", W/" + eTag ) );
+		assertTrue( serialized.matches( "*" ) );
+		assertFalse( serialized.matches( null ) );
+		assertFalse( serialized.matches( "\"abc\"" ) );
+
+		document = XmlUtils.documentFromString( "<inspection-result><entity type=\"2\"/></inspection-result>" );
+		assertFalse( serialized.matches( XmlUtils.inspectionResultToSerializedJsonSchema( document.getDocumentElement() ).getETag() ) );
+	}
+
 	//
 	// Private members
 	//
@@ -53,4 +53,24 @@ public class FacesResourceResolver
 
 		return super.openResource( resource );
 	}
+
+	/**
+	 * Overridden to try <code>/WEB-INF</code> first.
+	 */
+
+	@Override
+	public URL getResource( String resource ) {
+
+		try {
+			URL url = FacesContext.getCurrentInstance().getExternalContext().getResource( "/WEB-INF/" + resource );
+
+			if ( url != null ) {
+				return url;
+			}
+		} catch ( Exception e ) {
+			throw InspectorException.newException( e );
+		}
+
+		return super.getResource( resource );
+	}
 }
@@ -15,6 +15,7 @@ import static org.metawidget.inspector.InspectionResultConstants.*;
 
 import java.io.FileNotFoundException;
 import java.io.IOException;
+import java.io.UnsupportedEncodingException;
 import java.util.Collection;
 import java.util.Iterator;
 import java.util.List;
@@ -34,6 +35,8 @@ import javax.faces.context.FacesContext;
 import javax.faces.context.PartialViewContext;
 import javax.faces.el.ValueBinding;
 import javax.faces.event.AbortProcessingException;
+import javax.faces.event.ComponentSystemEvent;
+import javax.faces.event.PostRestoreStateEvent;
 import javax.faces.event.PreRenderViewEvent;
 import javax.faces.event.SystemEvent;
 import javax.faces.event.SystemEventListener;
@@ -42,6 +45,8 @@ import javax.faces.validator.Validator;
 import org.metawidget.config.iface.ConfigReader;
 import org.metawidget.config.impl.BaseConfigReader;
 import org.metawidget.faces.FacesUtils;
+import org.metawidget.faces.component.widgetprocessor.ReadableIdProcessor;
+import org.metawidget.faces.component.widgetprocessor.StandardBindingProcessor;
 import org.metawidget.iface.MetawidgetException;
 import org.metawidget.inspectionresultprocessor.iface.InspectionResultProcessor;
 import org.metawidget.inspector.iface.Inspector;
@@ -107,10 +112,11 @@ public abstract class UIMetawidget
 	 * Component-level attribute used to prevent recreation.
 	 * <p>
 	 * By default, Metawidget destroys and recreates every component after
-	 * <code>processUpdates</code> and before <code>encodeBegin</code>. This allows components to
-	 * update to reflect changed state in underlying domain objects. For example, components may
-	 * change from being <code>UIOutput</code> labels to <code>UIInput</code> text boxes after the
-	 * user clicks <code>Edit</code>.
+	 * <code>processUpdates</code> and before <code>encodeBegin</code> (unless the inspection result
+	 * is unchanged since the last time). This allows components to update to reflect changed state
+	 * in underlying domain objects. For example, components may change from being
+	 * <code>UIOutput</code> labels to <code>UIInput</code> text boxes after the user clicks
+	 * <code>Edit</code>.
 	 * <p>
 	 * Most components work well with this approach. Some, however, maintain internal state that
 	 * would get lost if the component was destroyed and recreated. For example, the ICEfaces
@@ -183,6 +189,28 @@ public abstract class UIMetawidget
 
 	/* package private */Object				mBuildWidgetsSupport;
 
+	/**
+	 * Hash of the inspection result the current children were built from.
+	 */
+
+	private String							mInspectionResultHash;
+
+	private boolean							mTransientWidgets;
+
+	/**
+	 * The (processed) inspection result the current children were built from. Only kept if
+	 * <code>mTransientWidgets</code>.
+	 */
+
+	private String							mInspectionResult;
+
+	/**
+	 * Whether this instance has built its children. Not saved as part of the state, because
+	 * transient children will not be restored along with this instance.
+	 */
+
+	private boolean							mWidgetsBuilt;
+
 	//
 	// Constructor
 	//
@@ -251,16 +279,19 @@ public abstract class UIMetawidget
 	public void setReadOnly( boolean readOnly ) {
 
 		mReadOnly = readOnly;
+		invalidateWidgets();
 	}
 
 	public void setConfig( String config ) {
 
 		mPipeline.setConfig( config );
+		invalidateWidgets();
 	}
 
 	public void setInspector( Inspector inspector ) {
 
 		mPipeline.setInspector( inspector );
+		invalidateWidgets();
 	}
 
 	/**
@@ -275,21 +306,25 @@ public abstract class UIMetawidget
 	public void addInspectionResultProcessor( InspectionResultProcessor<UIMetawidget> inspectionResultProcessor ) {
 
 		mPipeline.addInspectionResultProcessor( inspectionResultProcessor );
+		invalidateWidgets();
 	}
 
 	public void removeInspectionResultProcessor( InspectionResultProcessor<UIMetawidget> inspectionResultProcessor ) {
 
 		mPipeline.removeInspectionResultProcessor( inspectionResultProcessor );
+		invalidateWidgets();
 	}
 
 	public void setInspectionResultProcessors( InspectionResultProcessor<UIMetawidget>... inspectionResultProcessors ) {
 
 		mPipeline.setInspectionResultProcessors( inspectionResultProcessors );
+		invalidateWidgets();
 	}
 
 	public void setWidgetBuilder( WidgetBuilder<UIComponent, UIMetawidget> widgetBuilder ) {
 
 		mPipeline.setWidgetBuilder( widgetBuilder );
+		invalidateWidgets();
 	}
 
 	/**
@@ -308,6 +343,7 @@ public abstract class UIMetawidget
 	public void addWidgetProcessor( WidgetProcessor<UIComponent, UIMetawidget> widgetProcessor ) {
 
 		mPipeline.addWidgetProcessor( widgetProcessor );
+		invalidateWidgets();
 	}
 
 	/**
@@ -317,11 +353,13 @@ public abstract class UIMetawidget
 	public void removeWidgetProcessor( WidgetProcessor<UIComponent, UIMetawidget> widgetProcessor ) {
 
 		mPipeline.removeWidgetProcessor( widgetProcessor );
+		invalidateWidgets();
 	}
 
 	public void setWidgetProcessors( WidgetProcessor<UIComponent, UIMetawidget>... widgetProcessors ) {
 
 		mPipeline.setWidgetProcessors( widgetProcessors );
+		invalidateWidgets();
 	}
 
 	public List<WidgetProcessor<UIComponent, UIMetawidget>> getWidgetProcessors() {
@@ -337,6 +375,7 @@ public abstract class UIMetawidget
 	public void setLayout( Layout<UIComponent, UIComponent, UIMetawidget> layout ) {
 
 		mPipeline.setLayout( layout );
+		invalidateWidgets();
 	}
 
 	public Layout<UIComponent, UIComponent, UIMetawidget> getLayout() {
@@ -387,8 +426,11 @@ public abstract class UIMetawidget
 	 * <p>
 	 * Although this default behaviour is safer it does, however, result in less dynamic UIs.
 	 * Clients can use <code>setBuildWidgetsOnAjaxRequest</code> to override the default behaviour
-	 * and instruct <code>UIMetawidget</code> to always rebuild widgets upon an AJAX request.
+	 * and instruct <code>UIMetawidget</code> to rebuild widgets upon an AJAX request.
 	 * Mechanisms such as conversation-scoped backing beans can be used to avoid losing values.
+	 * Even then, only those Metawidgets (including nested Metawidgets) covered by the AJAX
+	 * request's render ids are rebuilt. <code>AjaxProcessor</code> renders just the Metawidget
+	 * that contains the triggering component, so its siblings are left untouched.
 	 */
 
 	public void setBuildWidgetsOnAjaxRequest( boolean buildWidgetsOnAjaxRequest ) {
@@ -396,6 +438,39 @@ public abstract class UIMetawidget
 		mBuildWidgetsOnAjaxRequest = buildWidgetsOnAjaxRequest;
 	}
 
+	/**
+	 * By default, the components generated by <code>UIMetawidget</code> are saved in the view
+	 * state along with everything else. Yet they can be regenerated deterministically from the
+	 * inspection result, and typically they dominate the size of the view state.
+	 * <p>
+	 * Setting <code>transientWidgets</code> marks all generated components transient, and instead
+	 * keeps the (much smaller) processed inspection result in the view state. Upon restore view,
+	 * the components are rebuilt from it before decoding, without re-inspecting. Manually added
+	 * components, or generated components that contain them, are not marked transient and are
+	 * saved as normal.
+	 * <p>
+	 * This relies on rebuilt components getting the same ids as before, so that submitted values
+	 * decode to them. If no <code>ReadableIdProcessor</code> is configured, one is added
+	 * automatically (after <code>StandardBindingProcessor</code>, if any).
+	 */
+
+	public void setTransientWidgets( boolean transientWidgets ) {
+
+		mTransientWidgets = transientWidgets;
+	}
+
+	/**
+	 * Hash of the inspection result the current children were built from (plus read-only, locale
+	 * and bundle). Renderers can use this as a cheap key for the structure of the children.
+	 *
+	 * @return the hash, or null if the children were not built from an inspection result
+	 */
+
+	public String getInspectionResultHash() {
+
+		return mInspectionResultHash;
+	}
+
 	/**
 	 * Returns a label for the given set of attributes.
 	 * <p>
@@ -731,6 +806,10 @@ public abstract class UIMetawidget
 
 		nestedMetawidget.setRendererType( getRendererType() );
 
+		// Transient widgets
+
+		nestedMetawidget.setTransientWidgets( mTransientWidgets );
+
 		// Parameters
 
 		nestedMetawidget.copyParameters( this );
@@ -748,13 +827,16 @@ public abstract class UIMetawidget
 	@Override
 	public Object saveState( FacesContext context ) {
 
-		Object[] values = new Object[6];
+		Object[] values = new Object[9];
 		values[0] = super.saveState( context );
 		values[1] = mExplicitRendererType;
 		values[2] = mReadOnly;
 		values[3] = mPipeline.getConfig();
 		values[4] = mInspectFromParent;
 		values[5] = mBuildWidgetsOnAjaxRequest;
+		values[6] = mInspectionResultHash;
+		values[7] = mTransientWidgets;
+		values[8] = mInspectionResult;
 
 		return values;
 	}
@@ -770,6 +852,35 @@ public abstract class UIMetawidget
 		mPipeline.setConfig( values[3] );
 		mInspectFromParent = (Boolean) values[4];
 		mBuildWidgetsOnAjaxRequest = (Boolean) values[5];
+		mInspectionResultHash = (String) values[6];
+		mTransientWidgets = (Boolean) values[7];
+		mInspectionResult = (String) values[8];
+	}
+
+	/**
+	 * Overridden to rebuild transient widgets as soon as we are restored (JSF 2).
+	 */
+
+	@Override
+	public void processEvent( ComponentSystemEvent event ) {
+
+		super.processEvent( event );
+
+		if ( event instanceof PostRestoreStateEvent ) {
+			restoreTransientWidgets();
+		}
+	}
+
+	/**
+	 * Overridden to rebuild transient widgets before decoding, in case they were not rebuilt
+	 * already (JSF 1.x, or nested Metawidgets that were themselves rebuilt).
+	 */
+
+	@Override
+	public void processDecodes( FacesContext context ) {
+
+		restoreTransientWidgets();
+		super.processDecodes( context );
 	}
 
 	//
@@ -879,41 +990,45 @@ public abstract class UIMetawidget
 	protected void buildWidgets()
 		throws Exception {
 
-		// Inspect from the value binding...
+		Element inspectionResult = inspect();
 
-		ValueBinding valueBinding = getValueBinding( "value" );
+		// Skip the rebuild if the inspection result has not changed since last time. The existing
+		// components will refresh their values through their own bindings
 
-		if ( valueBinding != null ) {
-			mPipeline.buildWidgets( inspect( valueBinding, mInspectFromParent ) );
-			return;
-		}
+		String inspectionResultAsString = null;
+		String inspectionResultHash = null;
 
-		// ...or from a raw value (for jBPM)...
+		if ( inspectionResult != null ) {
+			inspectionResultAsString = XmlUtils.nodeToString( inspectionResult, false );
+			inspectionResultHash = hashInspectionResult( inspectionResultAsString );
 
-		Object value = getValue();
-
-		if ( value instanceof String ) {
-			mPipeline.buildWidgets( mPipeline.inspectAsDom( null, (String) value ) );
-			return;
+			if ( inspectionResultHash.equals( mInspectionResultHash ) && getChildCount() > 0 && ( !mTransientWidgets || mWidgetsBuilt ) ) {
+				LOG.trace( "Inspection result unchanged: skipping buildWidgets" );
+				return;
+			}
 		}
 
-		// ...or a Class (for 'binding' attribute)...
+		mInspectionResultHash = null;
+		mInspectionResult = null;
+		buildWidgets( inspectionResult );
+		mInspectionResultHash = inspectionResultHash;
 
-		if ( value instanceof Class<?> ) {
-			mPipeline.buildWidgets( mPipeline.inspectAsDom( null, ( (Class<?>) value ).getName() ) );
-			return;
+		if ( mTransientWidgets ) {
+			mInspectionResult = inspectionResultAsString;
 		}
+	}
 
-		// ...or a direct Object (for 'binding' attribute)...
-
-		if ( value != null ) {
-			mPipeline.buildWidgets( mPipeline.inspectAsDom( value, value.getClass().getName() ) );
-			return;
-		}
+	/**
+	 * Forces the next <code>buildWidgets</code> to rebuild, even if the inspection result has not
+	 * changed. Called by all setters that affect how widgets are built.
+	 * <p>
+	 * Clients that change something not visible in the inspection result (eg. a value that a
+	 * WidgetBuilder looks up directly) should call this method too.
+	 */
 
-		// ...or run without inspection (using the Metawidget purely for layout)
+	protected void invalidateWidgets() {
 
-		mPipeline.buildWidgets( null );
+		mInspectionResultHash = null;
 	}
 
 	protected abstract String getDefaultConfiguration();
@@ -1053,6 +1168,136 @@ public abstract class UIMetawidget
 	// Private methods
 	//
 
+	/**
+	 * Whether this Metawidget will be re-rendered by a partial request for the given render ids.
+	 * That is, whether it or any of its ancestors is one of the given render ids.
+	 */
+
+	/* package private */boolean isPartiallyRendered( Collection<String> renderIds ) {
+
+		if ( renderIds == null || renderIds.isEmpty() ) {
+			return false;
+		}
+
+		for ( UIComponent component = this; component != null; component = component.getParent() ) {
+
+			if ( renderIds.contains( component.getClientId() ) ) {
+				return true;
+			}
+		}
+
+		return false;
+	}
+
+	/**
+	 * Rebuilds transient widgets after a restore view, from the inspection result saved in the
+	 * state. Does nothing if not <code>transientWidgets</code>, or if already built.
+	 */
+
+	/* package private */void restoreTransientWidgets() {
+
+		if ( !mTransientWidgets || mWidgetsBuilt ) {
+			return;
+		}
+
+		try {
+			// Nested Metawidgets do not save their inspection result (they are themselves
+			// transient) so must re-inspect
+
+			if ( mInspectionResult == null ) {
+				buildWidgets();
+				return;
+			}
+
+			LOG.trace( "Restoring transient widgets" );
+			buildWidgets( XmlUtils.documentFromString( mInspectionResult ).getDocumentElement() );
+		} catch ( Exception e ) {
+			throw MetawidgetException.newException( e );
+		}
+	}
+
+	/**
+	 * Build widgets from the given (processed) inspection result, and mark them transient if
+	 * required.
+	 */
+
+	private void buildWidgets( Element inspectionResult )
+		throws Exception {
+
+		if ( mTransientWidgets ) {
+			configureReadableIds();
+		}
+
+		mPipeline.buildWidgets( inspectionResult );
+		mWidgetsBuilt = true;
+
+		if ( mTransientWidgets ) {
+			for ( UIComponent componentChild : getChildren() ) {
+				markRecreatableChildrenTransient( componentChild );
+			}
+		}
+	}
+
+	/**
+	 * Adds a <code>ReadableIdProcessor</code> if none is configured, because transient widgets
+	 * must be rebuilt with the same ids. Inserted after <code>StandardBindingProcessor</code>,
+	 * because it bases ids on the value binding.
+	 */
+
+	@SuppressWarnings( "unchecked" )
+	private void configureReadableIds() {
+
+		if ( mPipeline.getWidgetProcessor( ReadableIdProcessor.class ) != null ) {
+			return;
+		}
+
+		List<WidgetProcessor<UIComponent, UIMetawidget>> widgetProcessors = CollectionUtils.newArrayList();
+
+		if ( mPipeline.getWidgetProcessors() != null ) {
+			widgetProcessors.addAll( mPipeline.getWidgetProcessors() );
+		}
+
+		int index = widgetProcessors.indexOf( mPipeline.getWidgetProcessor( StandardBindingProcessor.class ) ) + 1;
+
+		if ( index == 0 ) {
+			index = widgetProcessors.size();
+		}
+
+		widgetProcessors.add( index, new ReadableIdProcessor() );
+		mPipeline.setWidgetProcessors( widgetProcessors.toArray( new WidgetProcessor[widgetProcessors.size()] ) );
+	}
+
+	/**
+	 * Marks all recreatable children (i.e. not marked COMPONENT_ATTRIBUTE_NOT_RECREATABLE)
+	 * transient, so that they are not saved in the view state. Follows the same rules as
+	 * <code>removeRecreatableChildren</code>.
+	 *
+	 * @return true if the component was marked transient (i.e. none of its children were marked
+	 *         not-recreatable).
+	 */
+
+	private boolean markRecreatableChildrenTransient( UIComponent component ) {
+
+		if ( component.getAttributes().containsKey( COMPONENT_ATTRIBUTE_NOT_RECREATABLE ) ) {
+			return false;
+		}
+
+		boolean allTransient = true;
+
+		for ( UIComponent componentChild : component.getChildren() ) {
+
+			if ( !markRecreatableChildrenTransient( componentChild ) ) {
+				allTransient = false;
+			}
+		}
+
+		if ( allTransient ) {
+			component.setTransient( true );
+		}
+
+		return allTransient;
+	}
+
 	/**
 	 * Removes all recreatable children (i.e. not marked COMPONENT_ATTRIBUTE_NOT_RECREATABLE). Does
 	 * not remove top-level <code>UIComponent</code>s if any of their
@@ -1095,6 +1340,78 @@ public abstract class UIMetawidget
 		return children.isEmpty();
 	}
 
+	/**
+	 * Inspect the value binding or, if none, the raw value.
+	 *
+	 * @return the inspection result, or null if there is nothing to inspect (ie. the Metawidget is
+	 *         being used purely for layout)
+	 */
+
+	private Element inspect() {
+
+		// Inspect from the value binding...
+
+		ValueBinding valueBinding = getValueBinding( "value" );
+
+		if ( valueBinding != null ) {
+			return inspect( valueBinding, mInspectFromParent );
+		}
+
+		// ...or from a raw value (for jBPM)...
+
+		Object value = getValue();
+
+		if ( value instanceof String ) {
+			return mPipeline.inspectAsDom( null, (String) value );
+		}
+
+		// ...or a Class (for 'binding' attribute)...
+
+		if ( value instanceof Class<?> ) {
+			return mPipeline.inspectAsDom( null, ( (Class<?>) value ).getName() );
+		}
+
+		// ...or a direct Object (for 'binding' attribute)...
+
+		if ( value != null ) {
+			return mPipeline.inspectAsDom( value, value.getClass().getName() );
+		}
+
+		// ...or run without inspection (using the Metawidget purely for layout)
+
+		return null;
+	}
+
+	/**
+	 * Hash of the (processed) inspection result, plus anything else that changes the structure of
+	 * the generated components: read-only, and the locale and bundle used to localize literals
+	 * (eg. labels, column headers, section headings).
+	 */
+
+	private String hashInspectionResult( String inspectionResult )
+		throws UnsupportedEncodingException {
+
+		FacesContext context = FacesContext.getCurrentInstance();
+		StringBuilder structure = new StringBuilder( inspectionResult );
+		structure.append( isReadOnly() );
+
+		UIViewRoot viewRoot = context.getViewRoot();
+
+		if ( viewRoot != null ) {
+			structure.append( viewRoot.getLocale() );
+		}
+
+		ValueBinding bindingBundle = getValueBinding( "bundle" );
+
+		if ( bindingBundle != null ) {
+			structure.append( bindingBundle.getExpressionString() );
+		} else {
+			structure.append( context.getApplication().getMessageBundle() );
+		}
+
+		return XmlUtils.digest( structure.toString().getBytes( "UTF-8" ) );
+	}
+
 	/**
 	 * Inspect the value binding.
 	 * <p>
@@ -1216,6 +1533,11 @@ public abstract class UIMetawidget
 			boolean wasExplicitRendererType = mExplicitRendererType;
 			String rendererType = getRendererType();
 
+			// Configuring calls our setters, but is not a change to how widgets are built (eg. it
+			// happens again after every restoreState)
+
+			String inspectionResultHash = mInspectionResultHash;
+
 			try {
 				super.configure();
 			} catch ( MetawidgetException e ) {
@@ -1240,6 +1562,8 @@ public abstract class UIMetawidget
 			if ( wasExplicitRendererType ) {
 				setRendererType( rendererType );
 			}
+
+			mInspectionResultHash = inspectionResultHash;
 		}
 
 		@Override
@@ -1449,6 +1773,7 @@ public abstract class UIMetawidget
 
 			if ( !rendered ) {
 				getMetawidget().getChildren().clear();
+				getMetawidget().invalidateWidgets();
 			}
 		}
 
@@ -1588,15 +1913,29 @@ public abstract class UIMetawidget
 
 			// PartialViewContext (JSF 2-specific)
 
-			if ( !getMetawidget().mBuildWidgetsOnAjaxRequest ) {
-				PartialViewContext partialViewContext = FacesContext.getCurrentInstance().getPartialViewContext();
+			PartialViewContext partialViewContext = FacesContext.getCurrentInstance().getPartialViewContext();
 
-				if ( partialViewContext.isAjaxRequest() ) {
+			if ( partialViewContext.isAjaxRequest() ) {
+
+				if ( !getMetawidget().mBuildWidgetsOnAjaxRequest ) {
 
 					Collection<String> executeIds = partialViewContext.getExecuteIds();
 					if ( !executeIds.contains( getMetawidget().getClientId() ) ) {
+
+						// (still need our transient widgets, so they can be rendered)
+
+						getMetawidget().restoreTransientWidgets();
 						return;
 					}
+
+				} else if ( !partialViewContext.isRenderAll() && !getMetawidget().isPartiallyRendered( partialViewContext.getRenderIds() ) ) {
+
+					// Only rebuild Metawidgets that are going to be re-rendered. Nested Metawidgets
+					// have their own PreRenderViewEventSupport, so a nested Metawidget that is
+					// re-rendered will still rebuild itself, without rebuilding its siblings
+
+					getMetawidget().restoreTransientWidgets();
+					return;
 				}
 			}
 
@@ -14,7 +14,9 @@ package org.metawidget.faces.component.html.widgetbuilder;
 import static org.metawidget.inspector.InspectionResultConstants.*;
 import static org.metawidget.inspector.faces.FacesInspectionResultConstants.*;
 
+import java.io.Serializable;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.Date;
 import java.util.List;
 import java.util.Map;
@@ -27,6 +29,7 @@ import javax.faces.component.UIData;
 import javax.faces.component.UISelectItem;
 import javax.faces.component.UISelectItems;
 import javax.faces.component.UISelectMany;
+import javax.faces.component.UIViewRoot;
 import javax.faces.component.ValueHolder;
 import javax.faces.component.html.HtmlColumn;
 import javax.faces.component.html.HtmlCommandButton;
@@ -36,6 +39,7 @@ import javax.faces.component.html.HtmlInputSecret;
 import javax.faces.component.html.HtmlInputText;
 import javax.faces.component.html.HtmlInputTextarea;
 import javax.faces.component.html.HtmlOutputText;
+import javax.faces.component.html.HtmlPanelGroup;
 import javax.faces.component.html.HtmlSelectBooleanCheckbox;
 import javax.faces.component.html.HtmlSelectManyCheckbox;
 import javax.faces.component.html.HtmlSelectOneMenu;
@@ -43,6 +47,10 @@ import javax.faces.component.html.HtmlSelectOneRadio;
 import javax.faces.context.FacesContext;
 import javax.faces.convert.Converter;
 import javax.faces.el.MethodBinding;
+import javax.faces.el.ValueBinding;
+import javax.faces.event.AbortProcessingException;
+import javax.faces.event.ActionEvent;
+import javax.faces.event.ActionListener;
 import javax.faces.model.DataModel;
 import javax.faces.model.SelectItem;
 
@@ -52,6 +60,8 @@ import org.metawidget.faces.component.UIStub;
 import org.metawidget.faces.component.html.HtmlMetawidget;
 import org.metawidget.faces.component.widgetprocessor.ConverterProcessor;
 import org.metawidget.faces.component.widgetprocessor.StandardBindingProcessor;
+import org.metawidget.faces.model.PagedDataModel;
+import org.metawidget.model.iface.PagedDataSource;
 import org.metawidget.util.ArrayUtils;
 import org.metawidget.util.CollectionUtils;
 import org.metawidget.util.WidgetBuilderUtils;
@@ -95,17 +105,25 @@ public class HtmlWidgetBuilder
 
 	private static final int		SHORT_LOOKUP_SIZE		= 3;
 
+	private static final int		SELECT_ITEMS_CACHE_SIZE	= 100;
+
 	//
 	// Private members
 	//
 
-	private final String			mDataTableStyleClass;
+	private final String							mDataTableStyleClass;
+
+	private final String[]							mDataTableColumnClasses;
+
+	private final String[]							mDataTableRowClasses;
+
+	private final int								mMaximumColumnsInDataTable;
 
-	private final String[]			mDataTableColumnClasses;
+	private final int								mDataTablePageSize;
 
-	private final String[]			mDataTableRowClasses;
+	private final PagedDataSource					mPagedDataSource;
 
-	private final int				mMaximumColumnsInDataTable;
+	private final Map<String, List<SelectItem>>		mSelectItemsCache;
 
 	//
 	// Constructor
@@ -122,6 +140,14 @@ public class HtmlWidgetBuilder
 		mDataTableColumnClasses = config.getDataTableColumnClasses();
 		mDataTableRowClasses = config.getDataTableRowClasses();
 		mMaximumColumnsInDataTable = config.getMaximumColumnsInDataTable();
+		mDataTablePageSize = config.getDataTablePageSize();
+		mPagedDataSource = config.getPagedDataSource();
+
+		if ( config.isSharedSelectItems() ) {
+			mSelectItemsCache = Collections.synchronizedMap( CollectionUtils.<String, List<SelectItem>> newLruMap( SELECT_ITEMS_CACHE_SIZE ) );
+		} else {
+			mSelectItemsCache = null;
+		}
 	}
 
 	//
@@ -309,70 +335,45 @@ public class HtmlWidgetBuilder
 
 	protected void initStaticSelect( UIComponent component, String lookup, Class<?> clazz, Map<String, String> attributes, UIMetawidget metawidget ) {
 
-		FacesContext context = FacesContext.getCurrentInstance();
-		Application application = context.getApplication();
+		// Converter for the values of SelectItems (eg. from Strings to ints), if any
 
-		// (pageDirection is a 'safer' default for anything but short lists)
+		Converter converter = getLookupConverter( component, clazz, attributes, metawidget );
+		String lookupLabels = attributes.get( LOOKUP_LABELS );
 
-		List<?> values = CollectionUtils.fromString( lookup );
+		// Shared SelectItems
 
-		if ( values.size() > SHORT_LOOKUP_SIZE ) {
-			if ( component instanceof HtmlSelectManyCheckbox ) {
-				( (HtmlSelectManyCheckbox) component ).setLayout( "pageDirection" );
-			} else if ( component instanceof HtmlSelectOneRadio ) {
-				( (HtmlSelectOneRadio) component ).setLayout( "pageDirection" );
-			}
-		}
-
-		// Convert values of SelectItems (eg. from Strings to ints)...
-
-		List<?> valuesAfterConversion = values;
-
-		if ( component instanceof ValueHolder ) {
-			// ...using the specified converter (call setConverter prematurely so
-			// we can find out what Converter to use)...
-
-			Converter converter = null;
-			ConverterProcessor processor = metawidget.getWidgetProcessor( ConverterProcessor.class );
+		if ( mSelectItemsCache != null && ( lookupLabels == null || !FacesUtils.matchExpression( lookupLabels ).find() ) ) {
+			boolean needsEmptyLookupItem = ( component instanceof HtmlSelectOneMenu && WidgetBuilderUtils.needsEmptyLookupItem( attributes ) );
+			String cacheKey = getSelectItemsCacheKey( lookup, lookupLabels, clazz, converter, needsEmptyLookupItem, metawidget );
+			List<SelectItem> selectItems = mSelectItemsCache.get( cacheKey );
 
-			if ( processor != null ) {
-				converter = processor.getConverter( (ValueHolder) component, attributes );
+			if ( selectItems == null ) {
+				List<?> values = convertLookupValues( component, CollectionUtils.fromString( lookup ), converter );
+				selectItems = Collections.unmodifiableList( createSelectItems( values, CollectionUtils.fromString( lookupLabels ), needsEmptyLookupItem, metawidget ) );
+				mSelectItemsCache.put( cacheKey, selectItems );
 			}
 
-			// ...(setConverter doesn't do application-wide converters)...
+			int size = selectItems.size();
 
-			if ( converter == null ) {
-				// ...(we don't try a 'clazz' converter for a UISelectMany,
-				// because the 'clazz' will generally be a Collection. setConverter
-				// will have already tried PARAMETERIZED_TYPE)...
-
-				if ( !( component instanceof UISelectMany ) ) {
-					converter = application.createConverter( clazz );
-				}
+			if ( needsEmptyLookupItem ) {
+				size--;
 			}
 
-			// ...if any
-
-			if ( converter != null ) {
-				int size = valuesAfterConversion.size();
-				List<Object> convertedValues = CollectionUtils.newArrayList( size );
-
-				for ( int loop = 0; loop < size; loop++ ) {
-					// Note: the component at this point will not have a ValueBinding, as
-					// that gets added in addWidget. This can scupper clever Converters that
-					// try to determine the type based on the ValueBinding. For those, we
-					// recommend overriding 'Application.createConverter' and passing the
-					// type in the Converter's constructor instead
-
-					Object convertedValue = converter.getAsObject( context, component, (String) values.get( loop ) );
-					convertedValues.add( convertedValue );
-				}
+			setLookupLayout( component, size );
 
-				valuesAfterConversion = convertedValues;
-			}
+			FacesContext context = FacesContext.getCurrentInstance();
+			UISelectItems uiSelectItems = (UISelectItems) context.getApplication().createComponent( UISelectItems.COMPONENT_TYPE );
+			uiSelectItems.setId( FacesUtils.createUniqueId() );
+			uiSelectItems.setValue( selectItems );
+			component.getChildren().add( uiSelectItems );
+			return;
 		}
 
-		addSelectItems( component, valuesAfterConversion, CollectionUtils.fromString( attributes.get( LOOKUP_LABELS ) ), attributes, metawidget );
+		// Individual UISelectItems
+
+		List<?> values = CollectionUtils.fromString( lookup );
+		setLookupLayout( component, values.size() );
+		addSelectItems( component, convertLookupValues( component, values, converter ), CollectionUtils.fromString( lookupLabels ), attributes, metawidget );
 	}
 
 	protected void setMaximumLength( UIComponent component, Map<String, String> attributes ) {
@@ -405,6 +406,10 @@ public class HtmlWidgetBuilder
 		// CSS
 		configureDataTableComponent( dataTable );
 
+		// Paging
+
+		configureDataTablePaging( dataTable, attributes, metawidget );
+
 		// Inspect component type
 
 		String componentType = WidgetBuilderUtils.getComponentType( attributes );
@@ -616,6 +621,72 @@ public class HtmlWidgetBuilder
 		dataTable.setRowClasses( ArrayUtils.toString( mDataTableRowClasses ) );
 	}
 
+	/**
+	 * Configures the given UIData to display one page at a time, if a data table page size was
+	 * configured. If a <code>PagedDataSource</code> was also configured, the rows are fetched from
+	 * it a page at a time, rather than from the collection.
+	 * <p>
+	 * <code>HtmlDataTable</code> has no paginator of its own, so this implementation adds a footer
+	 * with links to the previous and next pages.
+	 */
+
+	protected void configureDataTablePaging( UIData dataTable, Map<String, String> attributes, UIMetawidget metawidget ) {
+
+		if ( mDataTablePageSize == 0 ) {
+			return;
+		}
+
+		dataTable.setRows( mDataTablePageSize );
+
+		// Paged data model (the value binding added by StandardBindingProcessor will be ignored)
+
+		String ownerExpression = getPagedOwnerExpression( attributes, metawidget );
+
+		if ( mPagedDataSource != null && ownerExpression != null ) {
+			dataTable.setValue( new PagedDataModel( mPagedDataSource, ownerExpression, attributes.get( NAME ), mDataTablePageSize ) );
+		}
+
+		// Previous/next links
+
+		FacesContext context = FacesContext.getCurrentInstance();
+		Application application = context.getApplication();
+
+		HtmlPanelGroup pager = (HtmlPanelGroup) application.createComponent( HtmlPanelGroup.COMPONENT_TYPE );
+		pager.setId( FacesUtils.createUniqueId() );
+		pager.getChildren().add( createPageLink( "previous", -1, metawidget ) );
+		pager.getChildren().add( createPageLink( "next", 1, metawidget ) );
+		dataTable.getFacets().put( "footer", pager );
+	}
+
+	/**
+	 * Gets the JSF EL expression for the object that owns the collection property being paged.
+	 *
+	 * @return the expression, or null if it cannot be determined (eg. the property has an explicit
+	 *         <code>FACES_EXPRESSION</code>, or the Metawidget has no value binding)
+	 */
+
+	@SuppressWarnings( "deprecation" )
+	protected String getPagedOwnerExpression( Map<String, String> attributes, UIMetawidget metawidget ) {
+
+		if ( attributes.containsKey( FACES_EXPRESSION ) ) {
+			return null;
+		}
+
+		String name = attributes.get( NAME );
+
+		if ( name == null || "".equals( name ) ) {
+			return null;
+		}
+
+		ValueBinding metawidgetValueBinding = metawidget.getValueBinding( "value" );
+
+		if ( metawidgetValueBinding == null ) {
+			return null;
+		}
+
+		return metawidgetValueBinding.getExpressionString();
+	}
+
 	/**
 	 * Create a UIColumn component.
 	 */
@@ -661,6 +732,96 @@ public class HtmlWidgetBuilder
 	// Private methods
 	//
 
+	private HtmlCommandLink createPageLink( String name, int direction, UIMetawidget metawidget ) {
+
+		HtmlCommandLink pageLink = createCommandLinkComponent();
+		pageLink.setId( FacesUtils.createUniqueId() );
+
+		String localizedKey = metawidget.getLocalizedKey( name );
+
+		if ( localizedKey == null ) {
+			pageLink.setValue( StringUtils.uncamelCase( name ) );
+		} else {
+			pageLink.setValue( localizedKey );
+		}
+
+		pageLink.addActionListener( new PageActionListener( direction ) );
+
+		return pageLink;
+	}
+
+	/**
+	 * (pageDirection is a 'safer' default for anything but short lists)
+	 */
+
+	private void setLookupLayout( UIComponent component, int size ) {
+
+		if ( size > SHORT_LOOKUP_SIZE ) {
+			if ( component instanceof HtmlSelectManyCheckbox ) {
+				( (HtmlSelectManyCheckbox) component ).setLayout( "pageDirection" );
+			} else if ( component instanceof HtmlSelectOneRadio ) {
+				( (HtmlSelectOneRadio) component ).setLayout( "pageDirection" );
+			}
+		}
+	}
+
+	private Converter getLookupConverter( UIComponent component, Class<?> clazz, Map<String, String> attributes, UIMetawidget metawidget ) {
+
+		if ( !( component instanceof ValueHolder ) ) {
+			return null;
+		}
+
+		// Use the specified converter (call setConverter prematurely so
+		// we can find out what Converter to use)...
+
+		Converter converter = null;
+		ConverterProcessor processor = metawidget.getWidgetProcessor( ConverterProcessor.class );
+
+		if ( processor != null ) {
+			converter = processor.getConverter( (ValueHolder) component, attributes );
+		}
+
+		// ...(setConverter doesn't do application-wide converters)...
+
+		if ( converter == null ) {
+			// ...(we don't try a 'clazz' converter for a UISelectMany,
+			// because the 'clazz' will generally be a Collection. setConverter
+			// will have already tried PARAMETERIZED_TYPE)...
+
+			if ( !( component instanceof UISelectMany ) ) {
+				converter = FacesContext.getCurrentInstance().getApplication().createConverter( clazz );
+			}
+		}
+
+		// ...if any
+
+		return converter;
+	}
+
+	private List<?> convertLookupValues( UIComponent component, List<?> values, Converter converter ) {
+
+		if ( converter == null ) {
+			return values;
+		}
+
+		FacesContext context = FacesContext.getCurrentInstance();
+		int size = values.size();
+		List<Object> convertedValues = CollectionUtils.newArrayList( size );
+
+		for ( int loop = 0; loop < size; loop++ ) {
+			// Note: the component at this point will not have a ValueBinding, as
+			// that gets added in addWidget. This can scupper clever Converters that
+			// try to determine the type based on the ValueBinding. For those, we
+			// recommend overriding 'Application.createConverter' and passing the
+			// type in the Converter's constructor instead
+
+			Object convertedValue = converter.getAsObject( context, component, (String) values.get( loop ) );
+			convertedValues.add( convertedValue );
+		}
+
+		return convertedValues;
+	}
+
 	private void addSelectItems( UIComponent component, List<?> values, List<String> labels, Map<String, String> attributes, UIMetawidget metawidget ) {
 
 		if ( values == null ) {
@@ -708,41 +869,135 @@ public class HtmlWidgetBuilder
 		// https://javaserverfaces.dev.java.net/issues/show_bug.cgi?id=795)
 
 		if ( value == null ) {
-			try {
-				UISelectItem.class.getMethod( "getValueExpression", String.class );
+			if ( isNullItemValueSupported() ) {
 				selectItem.setValue( new SelectItem( null, "" ) );
-			} catch ( NoSuchMethodException e ) {
+			} else {
 				selectItem.setItemValue( "" );
 			}
 		} else {
 			selectItem.setItemValue( value );
 		}
 
+		// Label may be a value reference (eg. into a bundle)
+
+		if ( label != null && FacesUtils.isExpression( label ) ) {
+			selectItem.setValueBinding( "itemLabel", application.createValueBinding( label ) );
+		} else {
+			selectItem.setItemLabel( getSelectItemLabel( value, label, metawidget ) );
+		}
+
+		component.getChildren().add( selectItem );
+	}
+
+	/**
+	 * Creates SelectItems for the given values, equivalent to those <code>addSelectItems</code>
+	 * would create as UISelectItem components. Labels must not be expressions.
+	 */
+
+	private List<SelectItem> createSelectItems( List<?> values, List<String> labels, boolean needsEmptyLookupItem, UIMetawidget metawidget ) {
+
+		List<SelectItem> selectItems = CollectionUtils.newArrayList();
+
+		// Empty option
+
+		if ( needsEmptyLookupItem ) {
+			if ( isNullItemValueSupported() ) {
+				selectItems.add( new SelectItem( null, "" ) );
+			} else {
+				selectItems.add( new SelectItem( "", "" ) );
+			}
+		}
+
+		if ( labels != null && !labels.isEmpty() && labels.size() != values.size() ) {
+			throw WidgetBuilderException.newException( "Labels list must be same size as values list" );
+		}
+
+		for ( int loop = 0, length = values.size(); loop < length; loop++ ) {
+			Object value = values.get( loop );
+			String label = null;
+
+			if ( labels != null && !labels.isEmpty() ) {
+				label = labels.get( loop );
+			}
+
+			selectItems.add( new SelectItem( value, getSelectItemLabel( value, label, metawidget ) ) );
+		}
+
+		return selectItems;
+	}
+
+	private String getSelectItemLabel( Object value, String label, UIMetawidget metawidget ) {
+
 		if ( label == null ) {
 			// If no label, make it the same as the value. For JSF-RI, this is needed for
 			// labels next to UISelectMany checkboxes. See
 			// https://javaserverfaces.dev.java.net/issues/show_bug.cgi?id=913
 
-			selectItem.setItemLabel( StringUtils.quietValueOf( value ) );
-		} else {
-			// Label may be a value reference (eg. into a bundle)
+			return StringUtils.quietValueOf( value );
+		}
 
-			if ( FacesUtils.isExpression( label ) ) {
-				selectItem.setValueBinding( "itemLabel", application.createValueBinding( label ) );
-			} else {
-				// Label may be localized
+		// Label may be localized
 
-				String localizedLabel = metawidget.getLocalizedKey( StringUtils.camelCase( label ) );
+		String localizedLabel = metawidget.getLocalizedKey( StringUtils.camelCase( label ) );
 
-				if ( localizedLabel != null ) {
-					selectItem.setItemLabel( localizedLabel );
-				} else {
-					selectItem.setItemLabel( label );
-				}
-			}
+		if ( localizedLabel != null ) {
+			return localizedLabel;
 		}
 
-		component.getChildren().add( selectItem );
+		return label;
+	}
+
+	/**
+	 * Key for sharing SelectItems. Includes everything the SelectItems are derived from: the
+	 * lookup and its labels, how the values are converted, and how the labels are localized.
+	 */
+
+	private String getSelectItemsCacheKey( String lookup, String lookupLabels, Class<?> clazz, Converter converter, boolean needsEmptyLookupItem, UIMetawidget metawidget ) {
+
+		FacesContext context = FacesContext.getCurrentInstance();
+		StringBuilder builder = new StringBuilder( lookup );
+		builder.append( '\n' );
+		builder.append( lookupLabels );
+		builder.append( '\n' );
+		builder.append( clazz.getName() );
+		builder.append( '\n' );
+
+		if ( converter != null ) {
+			builder.append( converter.getClass().getName() );
+		}
+
+		builder.append( '\n' );
+		builder.append( needsEmptyLookupItem );
+		builder.append( '\n' );
+
+		UIViewRoot viewRoot = context.getViewRoot();
+
+		if ( viewRoot != null ) {
+			builder.append( viewRoot.getLocale() );
+		}
+
+		builder.append( '\n' );
+
+		@SuppressWarnings( "deprecation" )
+		ValueBinding bundleBinding = metawidget.getValueBinding( "bundle" );
+
+		if ( bundleBinding != null ) {
+			builder.append( bundleBinding.getExpressionString() );
+		} else {
+			builder.append( context.getApplication().getMessageBundle() );
+		}
+
+		return builder.toString();
+	}
+
+	private static boolean isNullItemValueSupported() {
+
+		try {
+			UISelectItem.class.getMethod( "getValueExpression", String.class );
+			return true;
+		} catch ( NoSuchMethodException e ) {
+			return false;
+		}
 	}
 
 	private void addSelectItems( UIComponent component, String binding, Map<String, String> attributes, UIMetawidget metawidget ) {
@@ -790,4 +1045,70 @@ public class HtmlWidgetBuilder
 			selectItems.setValueBinding( "itemValue", application.createValueBinding( itemValueBinding ) );
 		}
 	}
+
+	//
+	// Inner class
+	//
+
+	/**
+	 * Moves the enclosing UIData to its previous or next page.
+	 * <p>
+	 * Serializable, so that it can be saved as part of the view state.
+	 */
+
+	/* package private */static class PageActionListener
+		implements ActionListener, Serializable {
+
+		//
+		// Private statics
+		//
+
+		private static final long	serialVersionUID	= 1l;
+
+		//
+		// Private members
+		//
+
+		private int					mDirection;
+
+		//
+		// Constructor
+		//
+
+		public PageActionListener( int direction ) {
+
+			mDirection = direction;
+		}
+
+		//
+		// Public methods
+		//
+
+		public void processAction( ActionEvent event )
+			throws AbortProcessingException {
+
+			UIComponent component = event.getComponent();
+
+			while ( component != null && !( component instanceof UIData ) ) {
+				component = component.getParent();
+			}
+
+			if ( component == null ) {
+				return;
+			}
+
+			UIData dataTable = (UIData) component;
+			int first = dataTable.getFirst() + ( mDirection * dataTable.getRows() );
+
+			// (do not page past the end, if the end is known)
+
+			int rowCount = dataTable.getRowCount();
+
+			if ( rowCount != -1 && first >= rowCount ) {
+				return;
+			}
+
+			dataTable.setFirst( Math.max( 0, first ) );
+		}
+	}
 }
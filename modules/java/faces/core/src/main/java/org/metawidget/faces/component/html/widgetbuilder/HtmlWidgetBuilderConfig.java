@@ -11,6 +11,7 @@
 
 package org.metawidget.faces.component.html.widgetbuilder;
 
+import org.metawidget.model.iface.PagedDataSource;
 import org.metawidget.util.simple.ObjectUtils;
 
 /**
@@ -25,13 +26,19 @@ public class HtmlWidgetBuilderConfig {
 	// Private members
 	//
 
-	private String		mDataTableStyleClass;
+	private String			mDataTableStyleClass;
 
-	private String[]	mDataTableColumnClasses;
+	private String[]		mDataTableColumnClasses;
 
-	private String[]	mDataTableRowClasses;
+	private String[]		mDataTableRowClasses;
 
-	private int			mMaximumColumnsInDataTable	= 5;
+	private int				mMaximumColumnsInDataTable	= 5;
+
+	private int				mDataTablePageSize;
+
+	private PagedDataSource	mPagedDataSource;
+
+	private boolean			mSharedSelectItems;
 
 	//
 	// Public methods
@@ -88,6 +95,60 @@ public class HtmlWidgetBuilderConfig {
 		return this;
 	}
 
+	/**
+	 * Sets the number of rows to display per page in a generated data table.
+	 * <p>
+	 * By default, data tables display every element of their collection. For large collections
+	 * this can be slow, so data tables can instead display one page at a time (with links to the
+	 * previous and next pages).
+	 *
+	 * @param dataTablePageSize
+	 *            the number of rows per page, or 0 for no paging
+	 * @return this, as part of a fluent interface
+	 */
+
+	public HtmlWidgetBuilderConfig setDataTablePageSize( int dataTablePageSize ) {
+
+		mDataTablePageSize = dataTablePageSize;
+
+		return this;
+	}
+
+	/**
+	 * Sets a source from which paged data tables fetch their rows, one page at a time, instead of
+	 * reading the whole collection. Only used if <code>setDataTablePageSize</code> is also set.
+	 *
+	 * @return this, as part of a fluent interface
+	 */
+
+	public HtmlWidgetBuilderConfig setPagedDataSource( PagedDataSource pagedDataSource ) {
+
+		mPagedDataSource = pagedDataSource;
+
+		return this;
+	}
+
+	/**
+	 * Sets whether to share the <code>SelectItem</code>s of <code>LOOKUP</code> properties
+	 * (including enums) between components and requests.
+	 * <p>
+	 * By default, every <code>LOOKUP</code> property is given its own <code>UISelectItem</code>
+	 * children, and its lookup values are re-parsed and re-converted each time. When set, each
+	 * distinct lookup is instead converted into an immutable list of <code>SelectItem</code>s
+	 * once (per type, labels and locale), and bound to the component using a single
+	 * <code>UISelectItems</code>. This is much cheaper for pages with many dropdowns. Lookups whose
+	 * labels are expressions are never shared.
+	 *
+	 * @return this, as part of a fluent interface
+	 */
+
+	public HtmlWidgetBuilderConfig setSharedSelectItems( boolean sharedSelectItems ) {
+
+		mSharedSelectItems = sharedSelectItems;
+
+		return this;
+	}
+
 	@Override
 	public boolean equals( Object that ) {
 
@@ -115,6 +176,18 @@ public class HtmlWidgetBuilderConfig {
 			return false;
 		}
 
+		if ( mDataTablePageSize != ( (HtmlWidgetBuilderConfig) that ).mDataTablePageSize ) {
+			return false;
+		}
+
+		if ( !ObjectUtils.nullSafeEquals( mPagedDataSource, ( (HtmlWidgetBuilderConfig) that ).mPagedDataSource ) ) {
+			return false;
+		}
+
+		if ( mSharedSelectItems != ( (HtmlWidgetBuilderConfig) that ).mSharedSelectItems ) {
+			return false;
+		}
+
 		return true;
 	}
 
@@ -126,6 +199,9 @@ public class HtmlWidgetBuilderConfig {
 		hashCode = 31 * hashCode + ObjectUtils.nullSafeHashCode( mDataTableColumnClasses );
 		hashCode = 31 * hashCode + ObjectUtils.nullSafeHashCode( mDataTableRowClasses );
 		hashCode = 31 * hashCode + mMaximumColumnsInDataTable;
+		hashCode = 31 * hashCode + mDataTablePageSize;
+		hashCode = 31 * hashCode + ObjectUtils.nullSafeHashCode( mPagedDataSource );
+		hashCode = 31 * hashCode + ObjectUtils.nullSafeHashCode( mSharedSelectItems );
 
 		return hashCode;
 	}
@@ -153,4 +229,19 @@ public class HtmlWidgetBuilderConfig {
 
 		return mMaximumColumnsInDataTable;
 	}
+
+	protected int getDataTablePageSize() {
+
+		return mDataTablePageSize;
+	}
+
+	protected PagedDataSource getPagedDataSource() {
+
+		return mPagedDataSource;
+	}
+
+	protected boolean isSharedSelectItems() {
+
+		return mSharedSelectItems;
+	}
 }
@@ -14,6 +14,7 @@ package org.metawidget.faces.component.widgetprocessor;
 import static org.metawidget.inspector.InspectionResultConstants.*;
 import static org.metawidget.inspector.faces.FacesInspectionResultConstants.*;
 
+import java.util.Collections;
 import java.util.Date;
 import java.util.List;
 import java.util.Locale;
@@ -33,6 +34,7 @@ import org.metawidget.faces.FacesUtils;
 import org.metawidget.faces.component.UIMetawidget;
 import org.metawidget.faces.component.UIStub;
 import org.metawidget.util.ClassUtils;
+import org.metawidget.util.CollectionUtils;
 import org.metawidget.util.WidgetBuilderUtils;
 import org.metawidget.widgetprocessor.iface.WidgetProcessor;
 import org.metawidget.widgetprocessor.iface.WidgetProcessorException;
@@ -41,6 +43,14 @@ import org.metawidget.widgetprocessor.iface.WidgetProcessorException;
  * WidgetProcessor to add standard JSF Converters to a UIComponent. This
  * includes <code>DateTimeConverter</code> and <code>NumberConverter</code>, and
  * support for the <code>faces-converter</code> attribute.
+ * <p>
+ * Converters from the standard <code>javax.faces.convert</code> package are stateless once
+ * configured, so they are cached and shared between all components with the same converter
+ * attributes (converter id or type, pattern, locale, time zone, currency and so on). Clients should
+ * treat such Converters as read-only. A <code>DateTimeConverter</code> or
+ * <code>NumberConverter</code> without an explicit <code>locale</code> attribute is given the
+ * current view's locale, and is shared only between views of that locale. Other Converters (eg.
+ * application-defined ones) may have mutable state, so are created afresh.
  *
  * @author <a href="http://kennardconsulting.com">Richard Kennard</a>
  */
@@ -48,6 +58,26 @@ import org.metawidget.widgetprocessor.iface.WidgetProcessorException;
 public class StandardConverterProcessor
 	implements WidgetProcessor<UIComponent, UIMetawidget>, ConverterProcessor {
 
+	//
+	// Private statics
+	//
+
+	private static final int				CONVERTER_CACHE_SIZE		= 100;
+
+	/**
+	 * Attributes that affect the configuration of a Converter.
+	 */
+
+	private static final String[]			CONVERTER_ATTRIBUTES		= new String[] { DATE_STYLE, DATETIME_PATTERN, TIME_STYLE, TIME_ZONE, DATETIME_TYPE, CURRENCY_CODE, CURRENCY_SYMBOL, NUMBER_USES_GROUPING_SEPARATORS, MINIMUM_INTEGER_DIGITS, MAXIMUM_INTEGER_DIGITS, MINIMUM_FRACTIONAL_DIGITS, MAXIMUM_FRACTIONAL_DIGITS, NUMBER_PATTERN, NUMBER_TYPE, LOCALE };
+
+	private static final String				STANDARD_CONVERTER_PACKAGE	= "javax.faces.convert.";
+
+	//
+	// Private members
+	//
+
+	private final Map<String, Converter>	mConverterCache				= Collections.synchronizedMap( CollectionUtils.<String, Converter> newLruMap( CONVERTER_CACHE_SIZE ) );
+
 	//
 	// Public methods
 	//
@@ -133,6 +163,32 @@ public class StandardConverterProcessor
 			return converter;
 		}
 
+		// Use shared Converter (if any)
+
+		String cacheKey = getConverterCacheKey( valueHolder, attributes );
+		converter = mConverterCache.get( cacheKey );
+
+		if ( converter != null ) {
+			return converter;
+		}
+
+		converter = createConverter( valueHolder, attributes );
+
+		if ( isShareable( converter ) ) {
+			mConverterCache.put( cacheKey, converter );
+		}
+
+		return converter;
+	}
+
+	//
+	// Private methods
+	//
+
+	private Converter createConverter( ValueHolder valueHolder, Map<String, String> attributes ) {
+
+		Converter converter = null;
+
 		// Create from id
 
 		FacesContext context = FacesContext.getCurrentInstance();
@@ -267,6 +323,19 @@ public class StandardConverterProcessor
 				converter = getDateTimeConverter( converter );
 				( (DateTimeConverter) converter ).setLocale( new Locale( attributes.get( LOCALE ) ) );
 			}
+		} else {
+			// Set the view's locale explicitly, rather than let the Converter lazily remember
+			// whichever view it first formats for (which would be wrong once it is shared)
+
+			Locale viewLocale = getViewLocale();
+
+			if ( viewLocale != null ) {
+				if ( converter instanceof NumberConverter ) {
+					( (NumberConverter) converter ).setLocale( viewLocale );
+				} else if ( converter instanceof DateTimeConverter ) {
+					( (DateTimeConverter) converter ).setLocale( viewLocale );
+				}
+			}
 		}
 
 		// Return it
@@ -274,9 +343,71 @@ public class StandardConverterProcessor
 		return converter;
 	}
 
-	//
-	// Private methods
-	//
+	/**
+	 * Key for sharing Converters. Includes everything <code>createConverter</code> considers.
+	 */
+
+	private String getConverterCacheKey( ValueHolder valueHolder, Map<String, String> attributes ) {
+
+		StringBuilder builder = new StringBuilder();
+		String converterId = attributes.get( FACES_CONVERTER );
+
+		if ( converterId != null ) {
+			builder.append( "id=" );
+			builder.append( converterId );
+		} else if ( valueHolder instanceof UISelectOne || valueHolder instanceof UISelectMany ) {
+			builder.append( "parameterizedType=" );
+			builder.append( WidgetBuilderUtils.getComponentType( attributes ) );
+		} else {
+			builder.append( "type=" );
+			builder.append( attributes.get( TYPE ) );
+		}
+
+		for ( String attribute : CONVERTER_ATTRIBUTES ) {
+
+			if ( !attributes.containsKey( attribute ) ) {
+				continue;
+			}
+
+			builder.append( '\n' );
+			builder.append( attribute );
+			builder.append( '=' );
+			builder.append( attributes.get( attribute ) );
+		}
+
+		// (Converters without an explicit locale use the view's)
+
+		if ( !attributes.containsKey( LOCALE ) ) {
+			builder.append( "\nviewLocale=" );
+			builder.append( getViewLocale() );
+		}
+
+		return builder.toString();
+	}
+
+	/**
+	 * Whether the given Converter can be shared between components.
+	 */
+
+	private boolean isShareable( Converter converter ) {
+
+		return ( converter != null && converter.getClass().getName().startsWith( STANDARD_CONVERTER_PACKAGE ) );
+	}
+
+	/**
+	 * @return the current view's locale, or null if there is no current view
+	 */
+
+	private Locale getViewLocale() {
+
+		FacesContext context = FacesContext.getCurrentInstance();
+
+		if ( context == null || context.getViewRoot() == null ) {
+			return null;
+		}
+
+		return context.getViewRoot().getLocale();
+	}
 
 	private DateTimeConverter getDateTimeConverter( Converter existingConverter ) {
 
@@ -0,0 +1,239 @@
+// Metawidget
+//
+// This file is dual licensed under both the LGPL
+// (http://www.gnu.org/licenses/lgpl-2.1.html) and the EPL
+// (http://www.eclipse.org/org/documents/epl-v10.php). As a
+// recipient of Metawidget, you may choose to receive it under either
+// the LGPL or the EPL.
+//
+// Commercial licenses are also available. See http://metawidget.org
+// for details.
+
+package org.metawidget.faces.model;
+
+import java.io.Serializable;
+import java.util.List;
+
+import javax.faces.context.FacesContext;
+import javax.faces.model.DataModel;
+import javax.faces.model.DataModelEvent;
+import javax.faces.model.DataModelListener;
+
+import org.metawidget.model.iface.PagedDataSource;
+
+/**
+ * DataModel that fetches the elements of a collection property one page at a time from a
+ * <code>PagedDataSource</code>, rather than from the collection itself.
+ * <p>
+ * The owner of the collection is re-evaluated, and the row count and current page re-fetched,
+ * once per request. Typically used with <code>UIData.setRows</code> set to the same page size.
+ *
+ * @author <a href="http://kennardconsulting.com">Richard Kennard</a>
+ */
+
+public class PagedDataModel
+	extends DataModel<Object>
+	implements Serializable {
+
+	//
+	// Private statics
+	//
+
+	private static final long			serialVersionUID	= 1l;
+
+	//
+	// Private members
+	//
+
+	private PagedDataSource				mDataSource;
+
+	private String						mOwnerExpression;
+
+	private String						mPropertyName;
+
+	private int							mPageSize;
+
+	private int							mRowIndex			= -1;
+
+	private transient FacesContext		mFacesContext;
+
+	private transient Object			mOwner;
+
+	private transient int				mRowCount			= -1;
+
+	private transient int				mPageFirst;
+
+	private transient List<?>			mPage;
+
+	//
+	// Constructor
+	//
+
+	/**
+	 * @param ownerExpression
+	 *            JSF EL expression for the object that owns the collection property (eg.
+	 *            <code>#{orderController.current}</code>)
+	 * @param propertyName
+	 *            name of the collection property (eg. <code>lines</code>)
+	 */
+
+	public PagedDataModel( PagedDataSource dataSource, String ownerExpression, String propertyName, int pageSize ) {
+
+		if ( pageSize <= 0 ) {
+			throw new IllegalArgumentException( "pageSize must be > 0" );
+		}
+
+		mDataSource = dataSource;
+		mOwnerExpression = ownerExpression;
+		mPropertyName = propertyName;
+		mPageSize = pageSize;
+	}
+
+	//
+	// Public methods
+	//
+
+	@Override
+	public boolean isRowAvailable() {
+
+		return ( mRowIndex >= 0 && mRowIndex < getRowCount() );
+	}
+
+	@Override
+	public int getRowCount() {
+
+		if ( mDataSource == null ) {
+			return -1;
+		}
+
+		refresh();
+
+		if ( mRowCount == -1 ) {
+			mRowCount = mDataSource.getRowCount( getOwner(), mPropertyName );
+		}
+
+		return mRowCount;
+	}
+
+	@Override
+	public Object getRowData() {
+
+		if ( mDataSource == null || mRowIndex == -1 ) {
+			return null;
+		}
+
+		if ( !isRowAvailable() ) {
+			throw new IllegalArgumentException( "Row " + mRowIndex + " is not available" );
+		}
+
+		// Fetch the page containing the row, if we haven't already
+
+		if ( mPage == null || mRowIndex < mPageFirst || mRowIndex >= mPageFirst + mPage.size() ) {
+			mPageFirst = ( mRowIndex / mPageSize ) * mPageSize;
+			mPage = mDataSource.getRows( getOwner(), mPropertyName, mPageFirst, mPageSize );
+
+			if ( mRowIndex >= mPageFirst + mPage.size() ) {
+				throw new IllegalArgumentException( "Row " + mRowIndex + " is not available" );
+			}
+		}
+
+		return mPage.get( mRowIndex - mPageFirst );
+	}
+
+	@Override
+	public int getRowIndex() {
+
+		return mRowIndex;
+	}
+
+	@Override
+	public void setRowIndex( int rowIndex ) {
+
+		if ( rowIndex < -1 ) {
+			throw new IllegalArgumentException( "rowIndex must be >= -1" );
+		}
+
+		int oldRowIndex = mRowIndex;
+		mRowIndex = rowIndex;
+
+		DataModelListener[] listeners = getDataModelListeners();
+
+		if ( oldRowIndex == rowIndex || listeners == null ) {
+			return;
+		}
+
+		Object rowData = null;
+
+		if ( isRowAvailable() ) {
+			rowData = getRowData();
+		}
+
+		DataModelEvent event = new DataModelEvent( this, rowIndex, rowData );
+
+		for ( DataModelListener listener : listeners ) {
+			listener.rowSelected( event );
+		}
+	}
+
+	/**
+	 * @return the <code>PagedDataSource</code>
+	 */
+
+	@Override
+	public Object getWrappedData() {
+
+		return mDataSource;
+	}
+
+	/**
+	 * Sets a new <code>PagedDataSource</code> (or null), and resets to before the first row.
+	 *
+	 * @param data
+	 *            the <code>PagedDataSource</code>. Other types of data are not supported, because
+	 *            this data model fetches its rows one page at a time
+	 */
+
+	@Override
+	public void setWrappedData( Object data ) {
+
+		if ( data != null && !( data instanceof PagedDataSource ) ) {
+			throw new IllegalArgumentException( "PagedDataModel must wrap a PagedDataSource, not a " + data.getClass().getName() );
+		}
+
+		mDataSource = (PagedDataSource) data;
+		mFacesContext = null;
+		setRowIndex( -1 );
+	}
+
+	//
+	// Private methods
+	//
+
+	/**
+	 * Forget the owner, row count and current page if this is a new request.
+	 */
+
+	private void refresh() {
+
+		FacesContext context = FacesContext.getCurrentInstance();
+
+		if ( context == mFacesContext ) {
+			return;
+		}
+
+		mFacesContext = context;
+		mOwner = null;
+		mRowCount = -1;
+		mPage = null;
+	}
+
+	@SuppressWarnings( "deprecation" )
+	private Object getOwner() {
+
+		if ( mOwner == null ) {
+			mOwner = mFacesContext.getApplication().createValueBinding( mOwnerExpression ).getValue( mFacesContext );
+		}
+
+		return mOwner;
+	}
+}
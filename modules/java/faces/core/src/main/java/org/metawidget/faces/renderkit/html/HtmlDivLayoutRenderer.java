@@ -14,6 +14,7 @@ package org.metawidget.faces.renderkit.html;
 import static org.metawidget.inspector.InspectionResultConstants.*;
 
 import java.io.IOException;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
 
@@ -26,6 +27,7 @@ import javax.faces.context.ResponseWriter;
 import org.metawidget.faces.FacesUtils;
 import org.metawidget.faces.component.UIMetawidget;
 import org.metawidget.faces.component.UIStub;
+import org.metawidget.util.CollectionUtils;
 import org.metawidget.util.WidgetBuilderUtils;
 import org.metawidget.util.simple.StringUtils;
 
@@ -95,11 +97,11 @@ public class HtmlDivLayoutRenderer
 	public void encodeChildren( FacesContext context, UIComponent component )
 		throws IOException {
 
-		List<UIComponent> children = component.getChildren();
+		List<UIComponent> children = CollectionUtils.newArrayList();
 
 		// For each child component...
 
-		for ( UIComponent childComponent : children ) {
+		for ( UIComponent childComponent : component.getChildren() ) {
 			// ...that is visible...
 
 			if ( childComponent instanceof UIStub && childComponent.getChildCount() == 0 ) {
@@ -114,22 +116,12 @@ public class HtmlDivLayoutRenderer
 				continue;
 			}
 
-			// ...(and is not a hidden field)...
-
-			if ( childComponent instanceof HtmlInputHidden ) {
-				FacesUtils.render( context, childComponent );
-				continue;
-			}
-
-			// ...render the label...
-
-			layoutBeforeChild( context, component, childComponent );
+			children.add( childComponent );
+		}
 
-			// ...and render the component
+		// ...render the label and the component
 
-			layoutChild( context, component, childComponent );
-			layoutAfterChild( context, component, childComponent );
-		}
+		layoutChildren( context, component, children );
 	}
 
 	@Override
@@ -180,9 +172,16 @@ public class HtmlDivLayoutRenderer
 	// Protected methods
 	//
 
+	@Override
 	protected void layoutBeforeChild( FacesContext context, UIComponent metawidget, UIComponent componentChild )
 		throws IOException {
 
+		// Hidden fields are rendered without a label or wrapper
+
+		if ( componentChild instanceof HtmlInputHidden ) {
+			return;
+		}
+
 		ResponseWriter writer = context.getResponseWriter();
 
 		State state = getState( metawidget );
@@ -282,15 +281,34 @@ public class HtmlDivLayoutRenderer
 	 * @param child	the component being laid out
 	 */
 
+	@Override
 	protected void layoutAfterChild( FacesContext context, UIComponent metawidget, UIComponent child )
 		throws IOException {
 
+		if ( child instanceof HtmlInputHidden ) {
+			return;
+		}
+
 		ResponseWriter writer = context.getResponseWriter();
 
 		writer.endElement( "div" );
 		writer.endElement( "div" );
 	}
 
+	@Override
+	protected String getTemplateKey( FacesContext context, UIComponent metawidget, List<UIComponent> children ) {
+
+		State state = getState( metawidget );
+		StringBuilder builder = new StringBuilder( super.getTemplateKey( context, metawidget, children ) );
+		builder.append( '\n' ).append( state.outerStyle );
+		builder.append( StringUtils.SEPARATOR_COMMA_CHAR ).append( state.labelStyle );
+		builder.append( StringUtils.SEPARATOR_COMMA_CHAR ).append( state.componentStyle );
+		builder.append( StringUtils.SEPARATOR_COMMA_CHAR ).append( state.requiredStyle );
+		builder.append( StringUtils.SEPARATOR_COMMA_CHAR ).append( Arrays.toString( state.divStyleClasses ) );
+
+		return builder.toString();
+	}
+
 	protected void writeStyleClass( UIComponent metawidget, ResponseWriter writer, int styleClass )
 		throws IOException {
 
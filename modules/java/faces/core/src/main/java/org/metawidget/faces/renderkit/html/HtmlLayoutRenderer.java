@@ -14,11 +14,15 @@ package org.metawidget.faces.renderkit.html;
 import static org.metawidget.inspector.InspectionResultConstants.*;
 
 import java.io.IOException;
+import java.io.StringWriter;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.regex.Pattern;
 
 import javax.faces.component.UICommand;
 import javax.faces.component.UIComponent;
+import javax.faces.component.NamingContainer;
 import javax.faces.component.UIInput;
 import javax.faces.component.UIOutput;
 import javax.faces.component.UIParameter;
@@ -27,11 +31,13 @@ import javax.faces.component.html.HtmlMessage;
 import javax.faces.component.html.HtmlOutputLabel;
 import javax.faces.context.FacesContext;
 import javax.faces.context.ResponseWriter;
+import javax.faces.el.ValueBinding;
 import javax.faces.render.Renderer;
 
 import org.metawidget.faces.FacesUtils;
 import org.metawidget.faces.component.UIMetawidget;
 import org.metawidget.faces.component.UIStub;
+import org.metawidget.util.CollectionUtils;
 import org.metawidget.util.simple.SimpleLayoutUtils;
 import org.metawidget.util.simple.StringUtils;
 
@@ -46,6 +52,13 @@ import org.metawidget.util.simple.StringUtils;
  * <li><code>messageStyleClass</code>
  * <li><code>labelSuffix</code>
  * </ul>
+ * <p>
+ * The markup a layout writes around each child (rows, cells, labels, required stars) depends only
+ * on the structure of the Metawidget and its children, not on their values. It is therefore
+ * pre-rendered once per structure, and thereafter written out as-is. Only the children themselves
+ * (and their inline messages) are rendered every time. Client ids in the pre-rendered markup
+ * (such as those of labels) vary by row when the Metawidget is inside a <code>UIData</code> or
+ * similar, so the naming container portion of them is substituted at render time.
  *
  * @author <a href="http://kennardconsulting.com">Richard Kennard</a>
  */
@@ -57,7 +70,31 @@ public abstract class HtmlLayoutRenderer
 	// Private statics
 	//
 
-	private static final String	LABEL_ID_SUFFIX	= "-label";
+	private static final String		LABEL_ID_SUFFIX			= "-label";
+
+	private static final int		TEMPLATE_CACHE_SIZE		= 100;
+
+	private static final String		QUOTE					= "\"";
+
+	/**
+	 * Matches row indexes within a client id, such as the <code>3</code> in
+	 * <code>form:table:3:</code>.
+	 */
+
+	private static final Pattern	ROW_INDEX_PATTERN		= Pattern.compile( NamingContainer.SEPARATOR_CHAR + "\\d+(?=" + NamingContainer.SEPARATOR_CHAR + ")" );
+
+	private static final String		ROW_INDEX_REPLACEMENT	= String.valueOf( NamingContainer.SEPARATOR_CHAR );
+
+	//
+	// Private members
+	//
+
+	/**
+	 * Pre-rendered templates, keyed by <code>getTemplateKey</code>. Renderers are shared by all
+	 * requests, so this must be synchronized.
+	 */
+
+	private final Map<String, String[][]>	mTemplates	= Collections.synchronizedMap( CollectionUtils.<String, String[][]> newLruMap( TEMPLATE_CACHE_SIZE ) );
 
 	//
 	// Public methods
@@ -106,6 +143,126 @@ public abstract class HtmlLayoutRenderer
 	// Protected methods
 	//
 
+	/**
+	 * Lay out the given children, each surrounded by the markup written by
+	 * <code>layoutBeforeChild</code> and <code>layoutAfterChild</code>. That markup is pre-rendered
+	 * into a template the first time a given structure (see <code>getTemplateKey</code>) is seen.
+	 */
+
+	protected void layoutChildren( FacesContext context, UIComponent metawidget, List<UIComponent> children )
+		throws IOException {
+
+		String templateKey = getTemplateKey( context, metawidget, children );
+		String[][] template = mTemplates.get( templateKey );
+		String clientIdPrefix = getClientIdPrefix( context, metawidget );
+
+		if ( template == null ) {
+			template = renderTemplate( context, metawidget, children, clientIdPrefix );
+			mTemplates.put( templateKey, template );
+		}
+
+		ResponseWriter writer = context.getResponseWriter();
+
+		for ( int loop = 0, length = children.size(); loop < length; loop++ ) {
+			writeTemplate( writer, template[loop], clientIdPrefix );
+			layoutChild( context, metawidget, children.get( loop ) );
+		}
+
+		writeTemplate( writer, template[children.size()], clientIdPrefix );
+	}
+
+	/**
+	 * Write the markup that comes before the given child. This must depend only on the information
+	 * in <code>getTemplateKey</code>.
+	 */
+
+	protected void layoutBeforeChild( FacesContext context, UIComponent metawidget, UIComponent childComponent )
+		throws IOException {
+
+		// Do nothing by default
+	}
+
+	/**
+	 * Write the markup that comes after the given child. This must depend only on the information
+	 * in <code>getTemplateKey</code>.
+	 */
+
+	protected void layoutAfterChild( FacesContext context, UIComponent metawidget, UIComponent childComponent )
+		throws IOException {
+
+		// Do nothing by default
+	}
+
+	/**
+	 * Key identifying the structure of the given Metawidget and children, for the purposes of
+	 * pre-rendering <code>layoutBeforeChild</code> and <code>layoutAfterChild</code>.
+	 * <p>
+	 * The key includes the Metawidget's id and the path of its naming containers, but not their
+	 * row indexes (so that, say, every row of a <code>UIData</code> shares the same template).
+	 * Rather than each child's metadata (labels, required stars, column spans etc.) it includes
+	 * the hash of the inspection result the children were built from, plus each child's class and
+	 * id (in case of manually added children). Subclasses whose markup depends on anything else
+	 * (such as their own parameters) must override this method and append it.
+	 */
+
+	@SuppressWarnings( "deprecation" )
+	protected String getTemplateKey( FacesContext context, UIComponent metawidget, List<UIComponent> children ) {
+
+		State state = getState( metawidget );
+		ResponseWriter writer = context.getResponseWriter();
+		StringBuilder builder = new StringBuilder();
+		builder.append( metawidget.getClass().getName() );
+		builder.append( StringUtils.SEPARATOR_COMMA_CHAR ).append( metawidget.getId() );
+		builder.append( StringUtils.SEPARATOR_COMMA_CHAR ).append( ROW_INDEX_PATTERN.matcher( getClientIdPrefix( context, metawidget ) ).replaceAll( ROW_INDEX_REPLACEMENT ) );
+		builder.append( StringUtils.SEPARATOR_COMMA_CHAR ).append( writer.getContentType() );
+		builder.append( StringUtils.SEPARATOR_COMMA_CHAR ).append( writer.getCharacterEncoding() );
+		builder.append( StringUtils.SEPARATOR_COMMA_CHAR ).append( ( (UIMetawidget) metawidget ).isReadOnly() );
+		builder.append( StringUtils.SEPARATOR_COMMA_CHAR ).append( state.labelSuffix );
+
+		String inspectionResultHash = ( (UIMetawidget) metawidget ).getInspectionResultHash();
+		builder.append( StringUtils.SEPARATOR_COMMA_CHAR ).append( inspectionResultHash );
+
+		for ( UIComponent child : children ) {
+
+			builder.append( '\n' ).append( child.getClass().getName() );
+			builder.append( StringUtils.SEPARATOR_COMMA_CHAR ).append( child.getId() );
+			builder.append( StringUtils.SEPARATOR_COMMA_CHAR ).append( child.getRendererType() );
+
+			// Labels, required stars, column spans etc. (only needed if the children were not
+			// built from an inspection result, eg. using the Metawidget purely for layout)
+
+			if ( inspectionResultHash == null ) {
+				ValueBinding binding = child.getValueBinding( "value" );
+
+				if ( binding != null ) {
+					builder.append( StringUtils.SEPARATOR_COMMA_CHAR ).append( binding.getExpressionString() );
+				}
+
+				@SuppressWarnings( "unchecked" )
+				Map<String, String> metadataAttributes = (Map<String, String>) child.getAttributes().get( UIMetawidget.COMPONENT_ATTRIBUTE_METADATA );
+
+				if ( metadataAttributes != null ) {
+					Map<String, String> sortedAttributes = CollectionUtils.newTreeMap();
+					sortedAttributes.putAll( metadataAttributes );
+					builder.append( StringUtils.SEPARATOR_COMMA_CHAR ).append( sortedAttributes );
+					builder.append( StringUtils.SEPARATOR_COMMA_CHAR ).append( getLabelText( child ) );
+				}
+			}
+
+			// (labels for UIStubs may refer to their only child)
+
+			if ( child instanceof UIStub ) {
+				builder.append( StringUtils.SEPARATOR_COMMA_CHAR ).append( child.getChildCount() );
+
+				if ( child.getChildCount() == 1 ) {
+					builder.append( StringUtils.SEPARATOR_COMMA_CHAR ).append( child.getChildren().get( 0 ).getId() );
+				}
+			}
+		}
+
+		return builder.toString();
+	}
+
 	protected String getLabelText( UIComponent componentNeedingLabel ) {
 
 		@SuppressWarnings( "unchecked" )
@@ -305,6 +462,102 @@ public abstract class HtmlLayoutRenderer
 	// Private methods
 	//
 
+	/**
+	 * Pre-render the markup before and after each child, using a clone of the current
+	 * <code>ResponseWriter</code> so that it is encoded exactly as if written directly.
+	 *
+	 * @return the markup before the first child, between each child, and after the last child.
+	 *         Each is split around the client id prefix (see <code>splitTemplate</code>)
+	 */
+
+	private String[][] renderTemplate( FacesContext context, UIComponent metawidget, List<UIComponent> children, String clientIdPrefix )
+		throws IOException {
+
+		ResponseWriter writer = context.getResponseWriter();
+		StringWriter buffer = new StringWriter();
+		ResponseWriter bufferWriter = writer.cloneWithWriter( buffer );
+		String[][] template = new String[children.size() + 1][];
+
+		context.setResponseWriter( bufferWriter );
+
+		try {
+			for ( int loop = 0, length = children.size(); loop < length; loop++ ) {
+				UIComponent child = children.get( loop );
+				layoutBeforeChild( context, metawidget, child );
+
+				// (writing closes any pending start element)
+
+				bufferWriter.write( "" );
+				template[loop] = splitTemplate( buffer.toString(), clientIdPrefix );
+				buffer.getBuffer().setLength( 0 );
+
+				layoutAfterChild( context, metawidget, child );
+			}
+
+			bufferWriter.write( "" );
+			template[children.size()] = splitTemplate( buffer.toString(), clientIdPrefix );
+		} finally {
+			context.setResponseWriter( writer );
+		}
+
+		return template;
+	}
+
+	/**
+	 * Splits the given markup around each attribute value that starts with the given client id
+	 * prefix (ie. each <code>"prefix</code>), so that a different prefix can be substituted when
+	 * the template is written.
+	 */
+
+	private String[] splitTemplate( String markup, String clientIdPrefix ) {
+
+		if ( clientIdPrefix.length() == 0 ) {
+			return new String[] { markup };
+		}
+
+		String token = QUOTE + clientIdPrefix;
+		List<String> segments = CollectionUtils.newArrayList();
+		int start = 0;
+
+		for ( int indexOf = markup.indexOf( token ); indexOf != -1; indexOf = markup.indexOf( token, start ) ) {
+			segments.add( markup.substring( start, indexOf ) );
+			start = indexOf + token.length();
+		}
+
+		segments.add( markup.substring( start ) );
+
+		return segments.toArray( new String[segments.size()] );
+	}
+
+	private void writeTemplate( ResponseWriter writer, String[] segments, String clientIdPrefix )
+		throws IOException {
+
+		writer.write( segments[0] );
+
+		for ( int loop = 1, length = segments.length; loop < length; loop++ ) {
+			writer.write( QUOTE );
+			writer.write( clientIdPrefix );
+			writer.write( segments[loop] );
+		}
+	}
+
+	/**
+	 * @return the portion of the Metawidget's client id contributed by its naming containers
+	 *         (including any row index and the trailing separator), or an empty String if none
+	 */
+
+	private String getClientIdPrefix( FacesContext context, UIComponent metawidget ) {
+
+		String clientId = metawidget.getClientId( context );
+		String id = metawidget.getId();
+
+		if ( clientId == null || id == null || !clientId.endsWith( id ) ) {
+			return "";
+		}
+
+		return clientId.substring( 0, clientId.length() - id.length() );
+	}
+
 	private State getState( UIComponent metawidget ) {
 
 		State state = (State) ( (UIMetawidget) metawidget ).getClientProperty( HtmlLayoutRenderer.class );
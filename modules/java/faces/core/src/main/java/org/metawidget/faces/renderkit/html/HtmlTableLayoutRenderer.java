@@ -14,6 +14,7 @@ package org.metawidget.faces.renderkit.html;
 import static org.metawidget.inspector.InspectionResultConstants.*;
 
 import java.io.IOException;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
 
@@ -30,6 +31,7 @@ import org.metawidget.faces.FacesUtils;
 import org.metawidget.faces.component.UIMetawidget;
 import org.metawidget.faces.component.UIStub;
 import org.metawidget.layout.iface.LayoutException;
+import org.metawidget.util.CollectionUtils;
 import org.metawidget.util.WidgetBuilderUtils;
 import org.metawidget.util.simple.SimpleLayoutUtils;
 import org.metawidget.util.simple.StringUtils;
@@ -259,14 +261,14 @@ public class HtmlTableLayoutRenderer
 			return;
 		}
 
-		List<UIComponent> children = metawidget.getChildren();
-
 		// Next, for each child component...
 
 		state.currentColumn = 0;
 		state.currentRow = 0;
 
-		for ( UIComponent componentChild : children ) {
+		List<UIComponent> children = CollectionUtils.newArrayList();
+
+		for ( UIComponent componentChild : metawidget.getChildren() ) {
 			// ...that is visible...
 
 			if ( componentChild instanceof UIStub ) {
@@ -298,19 +300,12 @@ public class HtmlTableLayoutRenderer
 				continue;
 			}
 
-			// ...count columns...
-
-			state.currentColumn++;
-
-			// ...render a label...
-
-			layoutBeforeChild( context, metawidget, componentChild );
+			children.add( componentChild );
+		}
 
-			// ...and render the component
+		// ...render a label and the component
 
-			layoutChild( context, metawidget, componentChild );
-			layoutAfterChild( context, metawidget, componentChild );
-		}
+		layoutChildren( context, metawidget, children );
 	}
 
 	@Override
@@ -332,6 +327,7 @@ public class HtmlTableLayoutRenderer
 	// Protected methods
 	//
 
+	@Override
 	protected void layoutBeforeChild( FacesContext context, UIComponent metawidget, UIComponent childComponent )
 		throws IOException {
 
@@ -339,16 +335,20 @@ public class HtmlTableLayoutRenderer
 
 		String cssId = getCssId( childComponent );
 
-		// Section headings
-
-		@SuppressWarnings( "unchecked" )
-		Map<String, String> metadataAttributes = (Map<String, String>) childComponent.getAttributes().get( UIMetawidget.COMPONENT_ATTRIBUTE_METADATA );
-
 		// (layoutBeforeChild may get called even if layoutBegin crashed. Try
 		// to fail gracefully)
 
 		State state = getState( metawidget );
 
+		// Count columns
+
+		state.currentColumn++;
+
+		// Section headings
+
+		@SuppressWarnings( "unchecked" )
+		Map<String, String> metadataAttributes = (Map<String, String>) childComponent.getAttributes().get( UIMetawidget.COMPONENT_ATTRIBUTE_METADATA );
+
 		if ( metadataAttributes != null ) {
 			// Large components get a whole row
 
@@ -483,6 +483,7 @@ public class HtmlTableLayoutRenderer
 		return true;
 	}
 
+	@Override
 	protected void layoutAfterChild( FacesContext context, UIComponent metawidget, UIComponent childComponent )
 		throws IOException {
 
@@ -551,6 +552,21 @@ public class HtmlTableLayoutRenderer
 		writer.endElement( "div" );
 	}
 
+	@Override
+	protected String getTemplateKey( FacesContext context, UIComponent metawidget, List<UIComponent> children ) {
+
+		State state = getState( metawidget );
+		StringBuilder builder = new StringBuilder( super.getTemplateKey( context, metawidget, children ) );
+		builder.append( '\n' ).append( state.columns );
+		builder.append( StringUtils.SEPARATOR_COMMA_CHAR ).append( state.labelStyle );
+		builder.append( StringUtils.SEPARATOR_COMMA_CHAR ).append( state.componentStyle );
+		builder.append( StringUtils.SEPARATOR_COMMA_CHAR ).append( state.requiredStyle );
+		builder.append( StringUtils.SEPARATOR_COMMA_CHAR ).append( Arrays.toString( state.columnClasses ) );
+		builder.append( StringUtils.SEPARATOR_COMMA_CHAR ).append( Arrays.toString( state.rowClasses ) );
+
+		return builder.toString();
+	}
+
 	protected String getCssId( UIComponent metawidget ) {
 
 		ValueBinding binding = metawidget.getValueBinding( "value" );
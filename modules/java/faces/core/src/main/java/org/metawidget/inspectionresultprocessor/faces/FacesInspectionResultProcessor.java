@@ -11,11 +11,24 @@
 
 package org.metawidget.inspectionresultprocessor.faces;
 
+import java.beans.FeatureDescriptor;
+import java.lang.reflect.Method;
 import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 import java.util.regex.Matcher;
 
+import javax.el.ELContext;
+import javax.el.ELResolver;
+import javax.el.FunctionMapper;
+import javax.el.PropertyNotWritableException;
+import javax.el.ValueExpression;
+import javax.el.VariableMapper;
+import javax.faces.application.Application;
 import javax.faces.context.FacesContext;
+import javax.faces.el.ValueBinding;
 
 import org.metawidget.faces.FacesUtils;
 import org.metawidget.faces.component.UIMetawidget;
@@ -30,6 +43,17 @@ import org.w3c.dom.Element;
 /**
  * Processes the inspection result and evaluates any expressions of the form <code>#{...}</code>
  * using JSF EL.
+ * <p>
+ * Attribute values are parsed once into a sequence of literal and expression segments, and cached
+ * per JSF application (see <code>FacesInspectionResultProcessorConfig.setTemplateCacheSize</code>).
+ * Under JSF 1.2 and above they are parsed into <code>ValueExpression</code>s using the
+ * application's <code>ExpressionFactory</code>. Expressions that use EL functions or variables
+ * (such as Facelets' <code>ui:param</code>) are not cached, because the ExpressionFactory resolves
+ * those against the <code>FunctionMapper</code> and <code>VariableMapper</code> of the page being
+ * parsed.
+ * <p>
+ * Under JSF 1.2 and above, <code>_this</code> is resolved by an <code>ELResolver</code> that is
+ * scoped to each evaluation. Under JSF 1.1, it is injected into the request map.
  *
  * @author <a href="http://kennardconsulting.com">Richard Kennard</a>
  */
@@ -41,15 +65,48 @@ public class FacesInspectionResultProcessor
 	// Private statics
 	//
 
-	private static final String	UNDERSCORE_THIS_ATTRIBUTE	= "_this";
+	private static final String							UNDERSCORE_THIS_ATTRIBUTE	= "_this";
+
+	/**
+	 * Marker for attribute values that contain no expressions.
+	 */
+
+	private static final Template						NO_EXPRESSIONS				= new Template( null, false, true );
+
+	/**
+	 * The current value of <code>_this</code>, for <code>UnderscoreThisELResolver</code>.
+	 */
+
+	private static final ThreadLocal<Object>			LOCAL_THIS					= new ThreadLocal<Object>();
 
 	//
 	// Private members
 	//
 
-	private PropertyStyle		mInjectThis;
+	private PropertyStyle								mInjectThis;
+
+	private String[]									mIgnoreAttributes;
+
+	private int											mTemplateCacheSize;
 
-	private String[]			mIgnoreAttributes;
+	/**
+	 * Caches of compiled attribute values, keyed by their original String.
+	 * <p>
+	 * The same attribute values tend to recur across many traits and many requests, so we parse
+	 * them once into a <code>Template</code> and reuse it. There is one bounded, least recently
+	 * used cache per JSF <code>Application</code>, because parsed expressions belong to that
+	 * Application's <code>ExpressionFactory</code>. Each cache is synchronized on itself.
+	 */
+
+	private final Map<Application, Map<String, Template>>	mTemplateCaches				= CollectionUtils.newWeakHashMap();
+
+	/**
+	 * Whether we have successfully created a <code>ValueExpression</code> (ie. are running JSF 1.2
+	 * or above). Until then, we also inject <code>_this</code> into the request map, for
+	 * <code>ValueBinding</code>s.
+	 */
+
+	private volatile boolean							mValueExpressionsSupported;
 
 	//
 	// Constructors
@@ -72,6 +129,7 @@ public class FacesInspectionResultProcessor
 
 		mInjectThis = config.getInjectThis();
 		mIgnoreAttributes = config.getIgnoreAttributes();
+		mTemplateCacheSize = config.getTemplateCacheSize();
 	}
 
 	//
@@ -87,12 +145,21 @@ public class FacesInspectionResultProcessor
 			throw InspectionResultProcessorException.newException( "FacesContext not available to FacesInspectionResultProcessor" );
 		}
 
+		if ( mInjectThis == null ) {
+			super.processEntity( attributes, metawidget, toInspect, type, names );
+			return;
+		}
+
+		Object underscoreThis = mInjectThis.traverse( toInspect, type, true, names ).getValue();
+		Object previousUnderscoreThis = LOCAL_THIS.get();
 		Map<String, Object> requestMap = null;
 
 		try {
-			if ( mInjectThis != null ) {
+			LOCAL_THIS.set( underscoreThis );
+
+			if ( !mValueExpressionsSupported ) {
 				requestMap = context.getExternalContext().getRequestMap();
-				requestMap.put( UNDERSCORE_THIS_ATTRIBUTE, mInjectThis.traverse( toInspect, type, true, names ).getValue() );
+				requestMap.put( UNDERSCORE_THIS_ATTRIBUTE, underscoreThis );
 			}
 
 			super.processEntity( attributes, metawidget, toInspect, type, names );
@@ -102,6 +169,12 @@ public class FacesInspectionResultProcessor
 			// UNDERSCORE_THIS_ATTRIBUTE should not be available outside of our particular
 			// evaluation
 
+			if ( previousUnderscoreThis == null ) {
+				LOCAL_THIS.remove();
+			} else {
+				LOCAL_THIS.set( previousUnderscoreThis );
+			}
+
 			if ( requestMap != null ) {
 				requestMap.remove( UNDERSCORE_THIS_ATTRIBUTE );
 			}
@@ -117,12 +190,21 @@ public class FacesInspectionResultProcessor
 			throw InspectionResultProcessorException.newException( "FacesContext not available to FacesInspectionResultProcessor" );
 		}
 
+		if ( mInjectThis == null ) {
+			super.processTraits( entity, metawidget, toInspect, type, names );
+			return;
+		}
+
+		Object underscoreThis = mInjectThis.traverse( toInspect, type, false, names ).getValue();
+		Object previousUnderscoreThis = LOCAL_THIS.get();
 		Map<String, Object> requestMap = null;
 
 		try {
-			if ( mInjectThis != null ) {
+			LOCAL_THIS.set( underscoreThis );
+
+			if ( !mValueExpressionsSupported ) {
 				requestMap = context.getExternalContext().getRequestMap();
-				requestMap.put( UNDERSCORE_THIS_ATTRIBUTE, mInjectThis.traverse( toInspect, type, false, names ).getValue() );
+				requestMap.put( UNDERSCORE_THIS_ATTRIBUTE, underscoreThis );
 			}
 
 			super.processTraits( entity, metawidget, toInspect, type, names );
@@ -132,6 +214,12 @@ public class FacesInspectionResultProcessor
 			// UNDERSCORE_THIS_ATTRIBUTE should not be available outside of our particular
 			// evaluation
 
+			if ( previousUnderscoreThis == null ) {
+				LOCAL_THIS.remove();
+			} else {
+				LOCAL_THIS.set( previousUnderscoreThis );
+			}
+
 			if ( requestMap != null ) {
 				requestMap.remove( UNDERSCORE_THIS_ATTRIBUTE );
 			}
@@ -165,72 +253,651 @@ public class FacesInspectionResultProcessor
 
 			// ...that contains an EL expression...
 
-			Matcher matcher = FacesUtils.matchExpression( value );
-			int matchOffset = 0;
+			Template template = getTemplate( value );
+
+			if ( template == null ) {
+				continue;
+			}
 
-			while ( matcher.find() ) {
+			// Sanity checks
 
-				String expression = matcher.group( 0 );
+			if ( mInjectThis == null && template.isReferencesUnderscoreThis() ) {
+				throw InspectionResultProcessorException.newException( "Expression for '" + value + "' contains '" + UNDERSCORE_THIS_ATTRIBUTE + "', but " + FacesInspectionResultProcessorConfig.class.getSimpleName() + ".setInjectThis is null" );
+			}
+
+			// ...evaluate it...
+
+			try {
+				value = template.evaluate( FacesContext.getCurrentInstance() );
+
+			} catch ( Exception e ) {
+
+				// We have found it helpful to include the actual expression we were trying to
+				// evaluate
+
+				throw InspectionResultProcessorException.newException( "Unable to evaluate " + value, e );
+			}
+
+			// ...and replace it
+
+			attributes.put( key, value );
+		}
+	}
+
+	//
+	// Private methods
+	//
+
+	/**
+	 * Gets the compiled <code>Template</code> for the given attribute value, either from the
+	 * current application's cache or by compiling it.
+	 *
+	 * @return the Template, or null if the value contains no expressions
+	 */
+
+	private Template getTemplate( String value ) {
+
+		if ( mTemplateCacheSize <= 0 ) {
+			return nullIfNoExpressions( compileTemplate( value ) );
+		}
+
+		// Parsed expressions belong to a particular application's ExpressionFactory, so cache
+		// them per application
+
+		Application application = FacesContext.getCurrentInstance().getApplication();
+		Map<String, Template> templateCache;
+
+		synchronized ( mTemplateCaches ) {
+			templateCache = mTemplateCaches.get( application );
+
+			if ( templateCache == null ) {
+				templateCache = CollectionUtils.newLruMap( mTemplateCacheSize );
+				mTemplateCaches.put( application, templateCache );
+			}
+		}
+
+		Template template;
+
+		synchronized ( templateCache ) {
+			template = templateCache.get( value );
+		}
+
+		if ( template == null ) {
+			template = compileTemplate( value );
+
+			// Expressions that use functions or variables are bound to the page they were parsed
+			// in, so cannot be shared
+
+			if ( template.isCacheable() ) {
+				synchronized ( templateCache ) {
+					templateCache.put( value, template );
+				}
+			}
+		}
+
+		return nullIfNoExpressions( template );
+	}
+
+	private Template nullIfNoExpressions( Template template ) {
+
+		if ( template == NO_EXPRESSIONS ) {
+			return null;
+		}
+
+		return template;
+	}
+
+	/**
+	 * Parse the given attribute value into a sequence of literal and expression segments.
+	 */
+
+	private Template compileTemplate( String value ) {
+
+		Matcher matcher = FacesUtils.matchExpression( value );
+
+		if ( !matcher.find() ) {
+			return NO_EXPRESSIONS;
+		}
 
-				// Sanity checks
+		FacesContext context = FacesContext.getCurrentInstance();
+		Application application = context.getApplication();
+		List<Object> segments = CollectionUtils.newArrayList();
+		boolean referencesUnderscoreThis = false;
+		MapperRecordingELContext recordingContext = null;
+		int literalStart = 0;
 
-				if ( mInjectThis == null && matcher.group( 2 ).startsWith( UNDERSCORE_THIS_ATTRIBUTE + StringUtils.SEPARATOR_DOT ) ) {
-					throw InspectionResultProcessorException.newException( "Expression for '" + value + "' contains '" + UNDERSCORE_THIS_ATTRIBUTE + "', but " + FacesInspectionResultProcessorConfig.class.getSimpleName() + ".setInjectThis is null" );
+		try {
+			do {
+				if ( matcher.start() > literalStart ) {
+					segments.add( value.substring( literalStart, matcher.start() ) );
 				}
 
-				// ...evaluate it...
+				String expression = matcher.group( 0 );
+
+				if ( matcher.group( 2 ).startsWith( UNDERSCORE_THIS_ATTRIBUTE + StringUtils.SEPARATOR_DOT ) ) {
+					referencesUnderscoreThis = true;
+				}
 
 				try {
-					FacesContext context = FacesContext.getCurrentInstance();
+					// JSF 1.2 mode: parse using the ExpressionFactory, recording whether the
+					// expression uses any functions or variables
+					//
+					// Note: ValueExpressionSegment and MapperRecordingELContext are only loaded if
+					// getELContext succeeds, so that we still work with JSF 1.1
+
+					if ( recordingContext == null ) {
+						ELContext elContext = context.getELContext();
+						recordingContext = new MapperRecordingELContext( elContext );
+					}
+
+					segments.add( new ValueExpressionSegment( application.getExpressionFactory().createValueExpression( recordingContext, expression, Object.class ) ) );
+					mValueExpressionsSupported = true;
+
+				} catch ( NoSuchMethodError e ) {
+
+					// JSF 1.1 mode
+
 					@SuppressWarnings( "deprecation" )
-					Object valueObject = context.getApplication().createValueBinding( expression ).getValue( context );
-					String valueObjectAsString;
-
-					if ( valueObject == null ) {
-
-						// Support the default case (when the String is just one EL)
-
-						if ( matcher.start() == 0 && matcher.end() == value.length() ) {
-							value = null;
-							break;
-						}
-
-						valueObjectAsString = "";
-					} else {
-
-						// Support the default case (when the String is just one EL)
-
-						if ( matcher.start() == 0 && matcher.end() == value.length() ) {
-							if ( valueObject instanceof Collection<?> ) {
-								value = CollectionUtils.toString( (Collection<?>) valueObject );
-							} else if ( valueObject.getClass().isArray() ) {
-								value = ArrayUtils.toString( valueObject );
-							} else {
-								value = String.valueOf( valueObject );
-							}
-							break;
-						}
-						
-						valueObjectAsString = String.valueOf( valueObject );
+					ValueBinding valueBinding = application.createValueBinding( expression );
+					segments.add( new ValueBindingSegment( valueBinding ) );
+				}
+
+				literalStart = matcher.end();
+
+			} while ( matcher.find() );
+
+		} catch ( Exception e ) {
+
+			// We have found it helpful to include the actual expression we were trying to
+			// evaluate
+
+			throw InspectionResultProcessorException.newException( "Unable to evaluate " + value, e );
+		}
+
+		if ( literalStart < value.length() ) {
+			segments.add( value.substring( literalStart ) );
+		}
+
+		return new Template( segments.toArray(), referencesUnderscoreThis, recordingContext == null || !recordingContext.isMapperUsed() );
+	}
+
+	//
+	// Inner class
+	//
+
+	/**
+	 * An attribute value, pre-parsed into a sequence of literal (<code>String</code>) and
+	 * <code>ExpressionSegment</code> segments.
+	 * <p>
+	 * Templates are immutable, so can be shared between requests.
+	 */
+
+	private static class Template {
+
+		//
+		// Private members
+		//
+
+		private final Object[]	mSegments;
+
+		private final boolean	mReferencesUnderscoreThis;
+
+		private final boolean	mCacheable;
+
+		//
+		// Constructor
+		//
+
+		public Template( Object[] segments, boolean referencesUnderscoreThis, boolean cacheable ) {
+
+			mSegments = segments;
+			mReferencesUnderscoreThis = referencesUnderscoreThis;
+			mCacheable = cacheable;
+		}
+
+		//
+		// Public methods
+		//
+
+		public boolean isReferencesUnderscoreThis() {
+
+			return mReferencesUnderscoreThis;
+		}
+
+		/**
+		 * @return true if the Template uses no EL functions or variables, so can be shared
+		 *         between pages
+		 */
+
+		public boolean isCacheable() {
+
+			return mCacheable;
+		}
+
+		/**
+		 * Evaluate the Template in a single pass.
+		 */
+
+		public String evaluate( FacesContext context ) {
+
+			// Support the default case (when the String is just one EL)
+
+			if ( mSegments.length == 1 ) {
+
+				Object valueObject = ( (ExpressionSegment) mSegments[0] ).getValue( context );
+
+				if ( valueObject == null ) {
+					return null;
+				}
+
+				if ( valueObject instanceof Collection<?> ) {
+					return CollectionUtils.toString( (Collection<?>) valueObject );
+				}
+
+				if ( valueObject.getClass().isArray() ) {
+					return ArrayUtils.toString( valueObject );
+				}
+
+				return String.valueOf( valueObject );
+			}
+
+			// Replace multiple ELs within the String
+
+			StringBuilder builder = new StringBuilder();
+
+			for ( Object segment : mSegments ) {
+
+				if ( segment instanceof ExpressionSegment ) {
+
+					Object valueObject = ( (ExpressionSegment) segment ).getValue( context );
+
+					if ( valueObject != null ) {
+						builder.append( valueObject );
 					}
 
-					// Replace multiple ELs within the String
+					continue;
+				}
+
+				builder.append( (String) segment );
+			}
+
+			return builder.toString();
+		}
+	}
+
+	/**
+	 * A parsed EL expression within a <code>Template</code>.
+	 */
+
+	private interface ExpressionSegment {
+
+		//
+		// Methods
+		//
 
-					value = new StringBuilder( value ).replace( matcher.start() + matchOffset, matcher.end() + matchOffset, valueObjectAsString ).toString();
-					matchOffset += valueObjectAsString.length() - ( matcher.end() - matcher.start() );
+		Object getValue( FacesContext context );
+	}
+
+	/**
+	 * JSF 1.2 (and above) ExpressionSegment.
+	 */
+
+	private static class ValueExpressionSegment
+		implements ExpressionSegment {
+
+		//
+		// Private members
+		//
+
+		private final ValueExpression	mValueExpression;
+
+		//
+		// Constructor
+		//
+
+		public ValueExpressionSegment( ValueExpression valueExpression ) {
+
+			mValueExpression = valueExpression;
+		}
+
+		//
+		// Public methods
+		//
+
+		public Object getValue( FacesContext context ) {
+
+			ELContext elContext = context.getELContext();
+			Object underscoreThis = LOCAL_THIS.get();
+
+			if ( underscoreThis != null ) {
+				elContext = new UnderscoreThisELContext( elContext, underscoreThis );
+			}
+
+			return mValueExpression.getValue( elContext );
+		}
+	}
+
+	/**
+	 * ELContext that records whether the <code>ExpressionFactory</code> resolved any functions or
+	 * variables while parsing.
+	 */
+
+	private static class MapperRecordingELContext
+		extends DelegatingELContext {
+
+		//
+		// Private members
+		//
+
+		private boolean	mMapperUsed;
+
+		//
+		// Constructor
+		//
+
+		public MapperRecordingELContext( ELContext delegate ) {
+
+			super( delegate );
+		}
+
+		//
+		// Public methods
+		//
 
-				} catch ( Exception e ) {
+		public boolean isMapperUsed() {
 
-					// We have found it helpful to include the actual expression we were trying to
-					// evaluate
+			return mMapperUsed;
+		}
+
+		@Override
+		public FunctionMapper getFunctionMapper() {
+
+			final FunctionMapper functionMapper = super.getFunctionMapper();
+
+			if ( functionMapper == null ) {
+				return null;
+			}
 
-					throw InspectionResultProcessorException.newException( "Unable to evaluate " + value, e );
+			return new FunctionMapper() {
+
+				@Override
+				public Method resolveFunction( String prefix, String localName ) {
+
+					mMapperUsed = true;
+					return functionMapper.resolveFunction( prefix, localName );
 				}
+			};
+		}
+
+		@Override
+		public VariableMapper getVariableMapper() {
+
+			final VariableMapper variableMapper = super.getVariableMapper();
+
+			if ( variableMapper == null ) {
+				return null;
 			}
 
-			// ...and replace it
+			return new VariableMapper() {
 
-			attributes.put( key, value );
+				@Override
+				public ValueExpression resolveVariable( String variable ) {
+
+					ValueExpression valueExpression = variableMapper.resolveVariable( variable );
+
+					if ( valueExpression != null ) {
+						mMapperUsed = true;
+					}
+
+					return valueExpression;
+				}
+
+				@Override
+				public ValueExpression setVariable( String variable, ValueExpression valueExpression ) {
+
+					mMapperUsed = true;
+					return variableMapper.setVariable( variable, valueExpression );
+				}
+			};
+		}
+	}
+
+	/**
+	 * ELContext that resolves <code>_this</code> before deferring to the page's ELResolver.
+	 * <p>
+	 * This avoids injecting <code>_this</code> into the request map, and needs no registration in
+	 * <code>faces-config.xml</code>, because it is only ever used for our own evaluations.
+	 */
+
+	private static class UnderscoreThisELContext
+		extends DelegatingELContext {
+
+		//
+		// Private members
+		//
+
+		private final ELResolver	mELResolver;
+
+		//
+		// Constructor
+		//
+
+		public UnderscoreThisELContext( ELContext delegate, Object underscoreThis ) {
+
+			super( delegate );
+
+			mELResolver = new UnderscoreThisELResolver( delegate.getELResolver(), underscoreThis );
+		}
+
+		//
+		// Public methods
+		//
+
+		@Override
+		public ELResolver getELResolver() {
+
+			return mELResolver;
+		}
+	}
+
+	/**
+	 * Base ELContext that defers to another ELContext (such as the FacesContext's).
+	 * <p>
+	 * The property resolved flag is kept separately, as per any ELContext.
+	 */
+
+	private abstract static class DelegatingELContext
+		extends ELContext {
+
+		//
+		// Private members
+		//
+
+		private final ELContext	mDelegate;
+
+		//
+		// Constructor
+		//
+
+		protected DelegatingELContext( ELContext delegate ) {
+
+			mDelegate = delegate;
+		}
+
+		//
+		// Public methods
+		//
+
+		@Override
+		public ELResolver getELResolver() {
+
+			return mDelegate.getELResolver();
+		}
+
+		@Override
+		public FunctionMapper getFunctionMapper() {
+
+			return mDelegate.getFunctionMapper();
+		}
+
+		@Override
+		public VariableMapper getVariableMapper() {
+
+			return mDelegate.getVariableMapper();
+		}
+
+		@Override
+		@SuppressWarnings( "rawtypes" )
+		public Object getContext( Class key ) {
+
+			return mDelegate.getContext( key );
+		}
+
+		@Override
+		@SuppressWarnings( "rawtypes" )
+		public void putContext( Class key, Object contextObject ) {
+
+			mDelegate.putContext( key, contextObject );
+		}
+
+		@Override
+		public Locale getLocale() {
+
+			return mDelegate.getLocale();
+		}
+
+		@Override
+		public void setLocale( Locale locale ) {
+
+			mDelegate.setLocale( locale );
+		}
+	}
+
+	/**
+	 * ELResolver that resolves the top-level identifier <code>_this</code>, and defers everything
+	 * else to the page's ELResolver.
+	 */
+
+	private static class UnderscoreThisELResolver
+		extends ELResolver {
+
+		//
+		// Private members
+		//
+
+		private final ELResolver	mDelegate;
+
+		private final Object		mUnderscoreThis;
+
+		//
+		// Constructor
+		//
+
+		public UnderscoreThisELResolver( ELResolver delegate, Object underscoreThis ) {
+
+			mDelegate = delegate;
+			mUnderscoreThis = underscoreThis;
+		}
+
+		//
+		// Public methods
+		//
+
+		@Override
+		public Object getValue( ELContext context, Object base, Object property ) {
+
+			if ( isUnderscoreThis( base, property ) ) {
+				context.setPropertyResolved( true );
+				return mUnderscoreThis;
+			}
+
+			return mDelegate.getValue( context, base, property );
+		}
+
+		@Override
+		public Class<?> getType( ELContext context, Object base, Object property ) {
+
+			if ( isUnderscoreThis( base, property ) ) {
+				context.setPropertyResolved( true );
+				return null;
+			}
+
+			return mDelegate.getType( context, base, property );
+		}
+
+		@Override
+		public void setValue( ELContext context, Object base, Object property, Object value ) {
+
+			if ( isUnderscoreThis( base, property ) ) {
+				throw new PropertyNotWritableException( UNDERSCORE_THIS_ATTRIBUTE );
+			}
+
+			mDelegate.setValue( context, base, property, value );
+		}
+
+		@Override
+		public boolean isReadOnly( ELContext context, Object base, Object property ) {
+
+			if ( isUnderscoreThis( base, property ) ) {
+				context.setPropertyResolved( true );
+				return true;
+			}
+
+			return mDelegate.isReadOnly( context, base, property );
+		}
+
+		@Override
+		public Iterator<FeatureDescriptor> getFeatureDescriptors( ELContext context, Object base ) {
+
+			return mDelegate.getFeatureDescriptors( context, base );
+		}
+
+		@Override
+		public Class<?> getCommonPropertyType( ELContext context, Object base ) {
+
+			return mDelegate.getCommonPropertyType( context, base );
+		}
+
+		//
+		// Private methods
+		//
+
+		private boolean isUnderscoreThis( Object base, Object property ) {
+
+			return ( base == null && UNDERSCORE_THIS_ATTRIBUTE.equals( property ) );
+		}
+	}
+
+	/**
+	 * JSF 1.1 ExpressionSegment.
+	 */
+
+	private static class ValueBindingSegment
+		implements ExpressionSegment {
+
+		//
+		// Private members
+		//
+
+		private final ValueBinding	mValueBinding;
+
+		//
+		// Constructor
+		//
+
+		public ValueBindingSegment( ValueBinding valueBinding ) {
+
+			mValueBinding = valueBinding;
+		}
+
+		//
+		// Public methods
+		//
+
+		@SuppressWarnings( "deprecation" )
+		public Object getValue( FacesContext context ) {
+
+			return mValueBinding.getValue( context );
 		}
 	}
 }
@@ -33,6 +33,8 @@ public class FacesInspectionResultProcessorConfig {
 
 	private String[]		mIgnoreAttributes	= new String[] { FACES_AJAX_ACTION, FACES_CONVERTER, FACES_EXPRESSION, FACES_LOOKUP, FACES_LOOKUP_ITEM_LABEL, FACES_LOOKUP_ITEM_VALUE, FACES_SUGGEST };
 
+	private int				mTemplateCacheSize	= 500;
+
 	//
 	// Public methods
 	//
@@ -82,6 +84,23 @@ public class FacesInspectionResultProcessorConfig {
 		return this;
 	}
 
+	/**
+	 * Sets the maximum number of distinct attribute values to keep parsed (as sequences of literal
+	 * and expression segments) per JSF application. Once full, the least recently used attribute
+	 * value is evicted. Defaults to 500. Set to 0 to disable caching.
+	 *
+	 * @return this, as part of a fluent interface
+	 */
+
+	public FacesInspectionResultProcessorConfig setTemplateCacheSize( int templateCacheSize ) {
+
+		mTemplateCacheSize = templateCacheSize;
+
+		// Fluent interface
+
+		return this;
+	}
+
 	@Override
 	public boolean equals( Object that ) {
 
@@ -101,6 +120,10 @@ public class FacesInspectionResultProcessorConfig {
 			return false;
 		}
 
+		if ( mTemplateCacheSize != ( (FacesInspectionResultProcessorConfig) that ).mTemplateCacheSize ) {
+			return false;
+		}
+
 		return true;
 	}
 
@@ -110,6 +133,7 @@ public class FacesInspectionResultProcessorConfig {
 		int hashCode = 1;
 		hashCode = 31 * hashCode + ObjectUtils.nullSafeHashCode( mInjectThis );
 		hashCode = 31 * hashCode + ObjectUtils.nullSafeHashCode( mIgnoreAttributes );
+		hashCode = 31 * hashCode + mTemplateCacheSize;
 
 		return hashCode;
 	}
@@ -127,4 +151,9 @@ public class FacesInspectionResultProcessorConfig {
 
 		return mIgnoreAttributes;
 	}
+
+	protected int getTemplateCacheSize() {
+
+		return mTemplateCacheSize;
+	}
 }
\ No newline at end of file
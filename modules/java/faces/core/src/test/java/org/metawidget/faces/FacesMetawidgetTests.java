@@ -62,6 +62,7 @@ import javax.faces.component.html.HtmlInputTextarea;
 import javax.faces.component.html.HtmlMessage;
 import javax.faces.component.html.HtmlOutputLabel;
 import javax.faces.component.html.HtmlOutputText;
+import javax.faces.component.html.HtmlPanelGroup;
 import javax.faces.component.html.HtmlSelectBooleanCheckbox;
 import javax.faces.component.html.HtmlSelectManyCheckbox;
 import javax.faces.component.html.HtmlSelectOneMenu;
@@ -697,7 +698,10 @@ public class FacesMetawidgetTests {
 		@Override
 		public UIViewRoot getViewRoot() {
 
-			return new UIViewRoot();
+			UIViewRoot viewRoot = new UIViewRoot();
+			viewRoot.setLocale( Locale.getDefault() );
+
+			return viewRoot;
 		}
 
 		//
@@ -1022,6 +1026,12 @@ public class FacesMetawidgetTests {
 			return mResponseWriter;
 		}
 
+		@Override
+		public void setResponseWriter( ResponseWriter responseWriter ) {
+
+			mResponseWriter = responseWriter;
+		}
+
 		@Override
 		public void release() {
 
@@ -1086,12 +1096,6 @@ public class FacesMetawidgetTests {
 			throw new UnsupportedOperationException();
 		}
 
-		@Override
-		public void setResponseWriter( ResponseWriter responsewriter ) {
-
-			throw new UnsupportedOperationException();
-		}
-
 		@Override
 		public void setViewRoot( UIViewRoot uiviewroot ) {
 
@@ -1160,6 +1164,10 @@ public class FacesMetawidgetTests {
 				return new HtmlOutputLabel();
 			}
 
+			if ( HtmlPanelGroup.COMPONENT_TYPE.equals( componentName ) ) {
+				return new HtmlPanelGroup();
+			}
+
 			if ( UISelectItems.COMPONENT_TYPE.equals( componentName ) ) {
 				return new UISelectItems();
 			}
@@ -1378,12 +1386,26 @@ public class FacesMetawidgetTests {
 		// Private members
 		//
 
-		private StringWriter		mWriter						= new StringWriter();
+		private Writer				mWriter;
 
 		private String				mPendingElementName;
 
 		private Map<String, Object>	mPendingElementAttributes	= CollectionUtils.newLinkedHashMap();
 
+		//
+		// Constructor
+		//
+
+		public MockResponseWriter() {
+
+			this( new StringWriter() );
+		}
+
+		public MockResponseWriter( Writer writer ) {
+
+			mWriter = writer;
+		}
+
 		//
 		// Public methods
 		//
@@ -1468,27 +1490,33 @@ public class FacesMetawidgetTests {
 			mWriter.close();
 		}
 
+		@Override
+		public ResponseWriter cloneWithWriter( Writer writer ) {
+
+			return new MockResponseWriter( writer );
+		}
+
 		public String toString() {
 
 			return mWriter.toString();
 		}
 
-		//
-		// Unsupported public methods
-		//
-
 		@Override
 		public String getContentType() {
 
-			throw new UnsupportedOperationException();
+			return "text/html";
 		}
 
 		@Override
 		public String getCharacterEncoding() {
 
-			throw new UnsupportedOperationException();
+			return "UTF-8";
 		}
 
+		//
+		// Unsupported public methods
+		//
+
 		@Override
 		public void writeURIAttribute( String name, Object value, String property )
 			throws IOException {
@@ -1503,17 +1531,12 @@ public class FacesMetawidgetTests {
 			throw new UnsupportedOperationException();
 		}
 
-		@Override
-		public ResponseWriter cloneWithWriter( Writer writer ) {
-
-			throw new UnsupportedOperationException();
-		}
-
 		//
 		// Private methods
 		//
 
-		private void writePendingElement() {
+		private void writePendingElement()
+			throws IOException {
 
 			if ( mPendingElementName == null ) {
 				return;
@@ -14,11 +14,14 @@ package org.metawidget.faces.component;
 import static org.metawidget.inspector.InspectionResultConstants.*;
 
 import java.io.IOException;
+import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 
 import javax.faces.component.UIComponent;
 import javax.faces.component.html.HtmlOutputText;
 import javax.faces.context.FacesContext;
+import javax.faces.event.PostRestoreStateEvent;
 import javax.faces.render.RenderKit;
 
 import junit.framework.TestCase;
@@ -27,12 +30,17 @@ import org.metawidget.config.iface.ConfigReader;
 import org.metawidget.faces.FacesMetawidgetTests.MockFacesContext;
 import org.metawidget.faces.component.html.HtmlMetawidget;
 import org.metawidget.faces.component.html.widgetbuilder.HtmlWidgetBuilder;
+import org.metawidget.faces.component.widgetprocessor.LabelProcessor;
+import org.metawidget.faces.component.widgetprocessor.ReadableIdProcessor;
+import org.metawidget.faces.component.widgetprocessor.StandardBindingProcessor;
 import org.metawidget.iface.MetawidgetException;
+import org.metawidget.inspector.iface.Inspector;
 import org.metawidget.inspector.propertytype.PropertyTypeInspector;
 import org.metawidget.util.CollectionUtils;
 import org.metawidget.util.LogUtils;
 import org.metawidget.util.LogUtilsTest;
 import org.metawidget.widgetbuilder.iface.WidgetBuilder;
+import org.metawidget.widgetprocessor.iface.WidgetProcessor;
 
 /**
  * UIMetawidget test cases.
@@ -270,6 +278,198 @@ public class UIMetawidgetTest
 		assertEquals( "bar", metawidget.getRendererType() );
 	}
 
+	public void testSkipUnchangedRebuild()
+		throws Exception {
+
+		UIMetawidget metawidget = new HtmlMetawidget();
+		metawidget.setInspector( new PropertyTypeInspector() );
+		metawidget.setValue( Foo.class );
+		metawidget.buildWidgets();
+
+		assertEquals( 1, metawidget.getChildCount() );
+		UIComponent child = metawidget.getChildren().get( 0 );
+
+		// Unchanged inspection result: should keep the same components
+
+		metawidget.buildWidgets();
+		assertEquals( 1, metawidget.getChildCount() );
+		assertTrue( child == metawidget.getChildren().get( 0 ) );
+
+		// ...including after save/restore and reconfiguring
+
+		Object state = metawidget.saveState( mContext );
+		UIMetawidget restoredMetawidget = new HtmlMetawidget();
+		restoredMetawidget.restoreState( mContext, state );
+		restoredMetawidget.setValue( Foo.class );
+		restoredMetawidget.getChildren().add( child );
+		restoredMetawidget.mPipeline.setInspector( new PropertyTypeInspector() );
+		restoredMetawidget.buildWidgets();
+		assertTrue( child == restoredMetawidget.getChildren().get( 0 ) );
+
+		// Changed read-only: should rebuild
+
+		metawidget.setReadOnly( true );
+		metawidget.buildWidgets();
+		assertEquals( 1, metawidget.getChildCount() );
+		assertTrue( child != metawidget.getChildren().get( 0 ) );
+		child = metawidget.getChildren().get( 0 );
+
+		// Changed configuration: should rebuild
+
+		metawidget.setWidgetBuilder( new HtmlWidgetBuilder() );
+		metawidget.buildWidgets();
+		assertTrue( child != metawidget.getChildren().get( 0 ) );
+		child = metawidget.getChildren().get( 0 );
+
+		// Changed locale: should rebuild (localized labels are baked into the components)
+
+		Locale defaultLocale = Locale.getDefault();
+
+		try {
+			Locale.setDefault( Locale.GERMAN.equals( defaultLocale ) ? Locale.FRENCH : Locale.GERMAN );
+			metawidget.buildWidgets();
+			assertTrue( child != metawidget.getChildren().get( 0 ) );
+			child = metawidget.getChildren().get( 0 );
+		} finally {
+			Locale.setDefault( defaultLocale );
+		}
+
+		// Changed inspection result: should rebuild
+
+		metawidget.setValue( Bar.class );
+		metawidget.buildWidgets();
+		assertEquals( 2, metawidget.getChildCount() );
+		assertTrue( child != metawidget.getChildren().get( 0 ) );
+	}
+
+	public void testPartiallyRendered() {
+
+		UIMetawidget metawidget = new HtmlMetawidget();
+		metawidget.setId( "parent" );
+		UIMetawidget nestedMetawidget1 = new HtmlMetawidget();
+		nestedMetawidget1.setId( "nested1" );
+		metawidget.getChildren().add( nestedMetawidget1 );
+		UIMetawidget nestedMetawidget2 = new HtmlMetawidget();
+		nestedMetawidget2.setId( "nested2" );
+		metawidget.getChildren().add( nestedMetawidget2 );
+
+		// Only the rendered nested Metawidget, not its siblings or parent
+
+		List<String> renderIds = CollectionUtils.newArrayList( nestedMetawidget1.getClientId() );
+		assertFalse( metawidget.isPartiallyRendered( renderIds ) );
+		assertTrue( nestedMetawidget1.isPartiallyRendered( renderIds ) );
+		assertFalse( nestedMetawidget2.isPartiallyRendered( renderIds ) );
+
+		// Rendering the parent covers all nested Metawidgets
+
+		renderIds = CollectionUtils.newArrayList( metawidget.getClientId() );
+		assertTrue( metawidget.isPartiallyRendered( renderIds ) );
+		assertTrue( nestedMetawidget1.isPartiallyRendered( renderIds ) );
+		assertTrue( nestedMetawidget2.isPartiallyRendered( renderIds ) );
+
+		// Nothing rendered
+
+		assertFalse( metawidget.isPartiallyRendered( null ) );
+		assertFalse( nestedMetawidget1.isPartiallyRendered( CollectionUtils.<String> newArrayList() ) );
+	}
+
+	public void testTransientWidgets()
+		throws Exception {
+
+		UIMetawidget metawidget = new HtmlMetawidget();
+		metawidget.setInspector( new PropertyTypeInspector() );
+		metawidget.setValue( Foo.class );
+		metawidget.setTransientWidgets( true );
+		HtmlOutputText manual = new HtmlOutputText();
+		metawidget.getChildren().add( manual );
+		metawidget.buildWidgets();
+
+		// Generated components should be transient, manual ones should not
+
+		assertEquals( 2, metawidget.getChildCount() );
+		assertTrue( metawidget.getChildren().get( 0 ).isTransient() );
+		assertTrue( manual == metawidget.getChildren().get( 1 ) );
+		assertFalse( manual.isTransient() );
+
+		// Restoring should rebuild the transient components from the saved inspection result,
+		// without re-inspecting, and with the same ids
+
+		String id = metawidget.getChildren().get( 0 ).getId();
+		assertTrue( id != null );
+
+		Object state = metawidget.saveState( mContext );
+		UIMetawidget restoredMetawidget = new HtmlMetawidget();
+		restoredMetawidget.restoreState( mContext, state );
+		restoredMetawidget.getChildren().add( manual );
+		restoredMetawidget.mPipeline.setInspector( new Inspector() {
+
+			public String inspect( Object toInspect, String type, String... names ) {
+
+				throw new UnsupportedOperationException();
+			}
+		} );
+
+		restoredMetawidget.processEvent( new PostRestoreStateEvent( restoredMetawidget ) );
+		assertEquals( 2, restoredMetawidget.getChildCount() );
+		UIComponent child = restoredMetawidget.getChildren().get( 0 );
+		assertTrue( child.isTransient() );
+		assertEquals( id, child.getId() );
+		assertTrue( manual == restoredMetawidget.getChildren().get( 1 ) );
+
+		// ...but only once
+
+		restoredMetawidget.restoreTransientWidgets();
+		assertTrue( child == restoredMetawidget.getChildren().get( 0 ) );
+
+		// Not transient: restoring should not rebuild the components (they are in the view state)
+
+		metawidget.setTransientWidgets( false );
+		metawidget.setReadOnly( true );
+		metawidget.buildWidgets();
+		assertFalse( metawidget.getChildren().get( 0 ).isTransient() );
+
+		restoredMetawidget = new HtmlMetawidget();
+		restoredMetawidget.restoreState( mContext, metawidget.saveState( mContext ) );
+		restoredMetawidget.mPipeline.setInspector( new Inspector() {
+
+			public String inspect( Object toInspect, String type, String... names ) {
+
+				throw new UnsupportedOperationException();
+			}
+		} );
+		restoredMetawidget.processEvent( new PostRestoreStateEvent( restoredMetawidget ) );
+		assertEquals( 0, restoredMetawidget.getChildCount() );
+	}
+
+	public void testTransientWidgetsReadableIds()
+		throws Exception {
+
+		// Transient widgets need stable ids, so should add a ReadableIdProcessor if missing...
+
+		UIMetawidget metawidget = new HtmlMetawidget();
+		metawidget.setInspector( new PropertyTypeInspector() );
+		metawidget.setWidgetProcessors( new StandardBindingProcessor(), new LabelProcessor() );
+		metawidget.setValue( Foo.class );
+		metawidget.setTransientWidgets( true );
+		metawidget.buildWidgets();
+
+		List<WidgetProcessor<UIComponent, UIMetawidget>> widgetProcessors = metawidget.getWidgetProcessors();
+		assertEquals( 3, widgetProcessors.size() );
+		assertTrue( widgetProcessors.get( 0 ) instanceof StandardBindingProcessor );
+		assertTrue( widgetProcessors.get( 1 ) instanceof ReadableIdProcessor );
+		assertTrue( widgetProcessors.get( 2 ) instanceof LabelProcessor );
+		assertTrue( metawidget.getChildren().get( 0 ).getId() != null );
+
+		// ...but not otherwise
+
+		metawidget = new HtmlMetawidget();
+		metawidget.setInspector( new PropertyTypeInspector() );
+		metawidget.setWidgetProcessors( new StandardBindingProcessor() );
+		metawidget.setValue( Foo.class );
+		metawidget.buildWidgets();
+		assertEquals( 1, metawidget.getWidgetProcessors().size() );
+	}
+
 	//
 	// Protected methods
 	//
@@ -291,4 +491,29 @@ public class UIMetawidgetTest
 
 		mContext.release();
 	}
+
+	//
+	// Inner class
+	//
+
+	public static class Foo {
+
+		public String getName() {
+
+			return null;
+		}
+	}
+
+	public static class Bar {
+
+		public String getName() {
+
+			return null;
+		}
+
+		public String getDescription() {
+
+			return null;
+		}
+	}
 }
@@ -0,0 +1,194 @@
+// Metawidget
+//
+// This file is dual licensed under both the LGPL
+// (http://www.gnu.org/licenses/lgpl-2.1.html) and the EPL
+// (http://www.eclipse.org/org/documents/epl-v10.php). As a
+// recipient of Metawidget, you may choose to receive it under either
+// the LGPL or the EPL.
+//
+// Commercial licenses are also available. See http://metawidget.org
+// for details.
+
+package org.metawidget.faces.model;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.List;
+
+import javax.faces.context.FacesContext;
+
+import junit.framework.TestCase;
+
+import org.metawidget.faces.FacesMetawidgetTests.MockFacesContext;
+import org.metawidget.model.iface.PagedDataSource;
+import org.metawidget.util.CollectionUtils;
+
+/**
+ * @author <a href="http://kennardconsulting.com">Richard Kennard</a>
+ */
+
+public class PagedDataModelTest
+	extends TestCase {
+
+	//
+	// Private members
+	//
+
+	private FacesContext	mContext;
+
+	//
+	// Public methods
+	//
+
+	public void testPagedDataModel()
+		throws Exception {
+
+		CountingDataSource dataSource = new CountingDataSource( 25 );
+		PagedDataModel dataModel = new PagedDataModel( dataSource, "#{owner}", "lines", 10 );
+
+		assertEquals( 25, dataModel.getRowCount() );
+		dataModel.setRowIndex( 0 );
+		assertEquals( "result of #{owner}/lines/0", dataModel.getRowData() );
+		dataModel.setRowIndex( 9 );
+		assertEquals( "result of #{owner}/lines/9", dataModel.getRowData() );
+		dataModel.setRowIndex( 24 );
+		assertEquals( "result of #{owner}/lines/24", dataModel.getRowData() );
+		dataModel.setRowIndex( 25 );
+		assertFalse( dataModel.isRowAvailable() );
+
+		// Only the pages containing requested rows should be fetched
+
+		assertEquals( CollectionUtils.newArrayList( 0, 20 ), dataSource.getFetched() );
+
+		// Wrapped data is the PagedDataSource
+
+		assertTrue( dataSource == dataModel.getWrappedData() );
+
+		CountingDataSource newDataSource = new CountingDataSource( 3 );
+		dataModel.setWrappedData( newDataSource );
+		assertEquals( -1, dataModel.getRowIndex() );
+		assertEquals( 3, dataModel.getRowCount() );
+		dataModel.setRowIndex( 2 );
+		assertEquals( "result of #{owner}/lines/2", dataModel.getRowData() );
+
+		dataModel.setWrappedData( null );
+		assertEquals( -1, dataModel.getRowCount() );
+		assertEquals( null, dataModel.getRowData() );
+
+		try {
+			dataModel.setWrappedData( CollectionUtils.newArrayList() );
+			fail();
+		} catch ( IllegalArgumentException e ) {
+			assertEquals( "PagedDataModel must wrap a PagedDataSource, not a java.util.ArrayList", e.getMessage() );
+		}
+	}
+
+	public void testSerialization()
+		throws Exception {
+
+		PagedDataModel dataModel = new PagedDataModel( new CountingDataSource( 25 ), "#{owner}", "lines", 10 );
+		dataModel.setRowIndex( 12 );
+		assertEquals( "result of #{owner}/lines/12", dataModel.getRowData() );
+
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		ObjectOutputStream objectOut = new ObjectOutputStream( out );
+		objectOut.writeObject( dataModel );
+		objectOut.close();
+
+		// Deserialized in a new request, should re-fetch from the (deserialized) PagedDataSource
+
+		mContext.release();
+		mContext = new MockFacesContext();
+
+		PagedDataModel deserialized = (PagedDataModel) new ObjectInputStream( new ByteArrayInputStream( out.toByteArray() ) ).readObject();
+		assertEquals( 12, deserialized.getRowIndex() );
+		assertEquals( 25, deserialized.getRowCount() );
+		assertEquals( "result of #{owner}/lines/12", deserialized.getRowData() );
+		assertEquals( CollectionUtils.newArrayList( 10, 10 ), ( (CountingDataSource) deserialized.getWrappedData() ).getFetched() );
+	}
+
+	//
+	// Protected methods
+	//
+
+	@Override
+	protected final void setUp()
+		throws Exception {
+
+		super.setUp();
+
+		mContext = new MockFacesContext();
+	}
+
+	@Override
+	protected final void tearDown()
+		throws Exception {
+
+		super.tearDown();
+
+		mContext.release();
+	}
+
+	//
+	// Inner class
+	//
+
+	/**
+	 * PagedDataSource that records the first row of each page it fetches.
+	 */
+
+	/* package private */static class CountingDataSource
+		implements PagedDataSource {
+
+		//
+		// Private statics
+		//
+
+		private static final long	serialVersionUID	= 1l;
+
+		//
+		// Private members
+		//
+
+		private int					mRowCount;
+
+		private List<Integer>		mFetched			= CollectionUtils.newArrayList();
+
+		//
+		// Constructor
+		//
+
+		public CountingDataSource( int rowCount ) {
+
+			mRowCount = rowCount;
+		}
+
+		//
+		// Public methods
+		//
+
+		public int getRowCount( Object owner, String propertyName ) {
+
+			return mRowCount;
+		}
+
+		public List<?> getRows( Object owner, String propertyName, int first, int pageSize ) {
+
+			mFetched.add( first );
+			List<String> rows = CollectionUtils.newArrayList();
+
+			for ( int loop = first, length = Math.min( first + pageSize, mRowCount ); loop < length; loop++ ) {
+				rows.add( owner + "/" + propertyName + "/" + loop );
+			}
+
+			return rows;
+		}
+
+		public List<Integer> getFetched() {
+
+			return mFetched;
+		}
+	}
+}
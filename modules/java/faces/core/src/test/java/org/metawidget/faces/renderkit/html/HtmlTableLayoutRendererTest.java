@@ -13,15 +13,22 @@ package org.metawidget.faces.renderkit.html;
 
 import static org.metawidget.inspector.InspectionResultConstants.*;
 
+import java.io.IOException;
+import java.io.Writer;
 import java.util.Map;
 
+import javax.faces.component.NamingContainer;
+import javax.faces.component.UIComponent;
+import javax.faces.component.UIComponentBase;
 import javax.faces.component.html.HtmlInputHidden;
 import javax.faces.component.html.HtmlInputText;
 import javax.faces.context.FacesContext;
+import javax.faces.context.ResponseWriter;
 
 import junit.framework.TestCase;
 
 import org.metawidget.faces.FacesMetawidgetTests.MockFacesContext;
+import org.metawidget.faces.FacesMetawidgetTests.MockResponseWriter;
 import org.metawidget.faces.component.UIMetawidget;
 import org.metawidget.faces.component.UIStub;
 import org.metawidget.faces.component.html.HtmlMetawidget;
@@ -114,6 +121,100 @@ public class HtmlTableLayoutRendererTest
 		renderer.encodeEnd( mContext, metawidget );
 
 		assertEquals( "<div id=\"j_id2\"><htmlInputHidden></htmlInputHidden><table><tbody><tr><th><htmlOutputLabel id=\"foo-label\" for=\"foo\" value=\"Bar:\"></htmlOutputLabel></th><td><htmlInputText id=\"foo\"></htmlInputText><htmlMessage id=\"j_idmw0\" for=\"foo\"></htmlMessage></td><td>*</td></tr></tbody></table></div>", mContext.getResponseWriter().toString() );
+
+		// Same structure: should reuse the pre-rendered template
+
+		mContext = new MockFacesContext();
+		mContext.setResponseWriter( new MockResponseWriter() {
+
+			@Override
+			public ResponseWriter cloneWithWriter( Writer writer ) {
+
+				throw new UnsupportedOperationException( "Should not pre-render again" );
+			}
+		} );
+
+		renderer.encodeBegin( mContext, metawidget );
+		renderer.encodeChildren( mContext, metawidget );
+		renderer.encodeEnd( mContext, metawidget );
+
+		assertEquals( "<div id=\"j_id2\"><htmlInputHidden></htmlInputHidden><table><tbody><tr><th><htmlOutputLabel id=\"foo-label\" for=\"foo\" value=\"Bar:\"></htmlOutputLabel></th><td><htmlInputText id=\"foo\"></htmlInputText><htmlMessage id=\"j_idmw0\" for=\"foo\"></htmlMessage></td><td>*</td></tr></tbody></table></div>", mContext.getResponseWriter().toString() );
+
+		// Different structure: should pre-render again
+
+		mContext = new MockFacesContext();
+		attributes.put( REQUIRED, FALSE );
+		metawidget.setParameter( "labelStyle", "color: red" );
+		renderer.encodeBegin( mContext, metawidget );
+		renderer.encodeChildren( mContext, metawidget );
+		renderer.encodeEnd( mContext, metawidget );
+
+		assertEquals( "<div id=\"j_id2\"><htmlInputHidden></htmlInputHidden><table><tbody><tr><th style=\"color: red\"><htmlOutputLabel id=\"foo-label\" for=\"foo\" value=\"Bar:\"></htmlOutputLabel></th><td><htmlInputText id=\"foo\"></htmlInputText><htmlMessage id=\"j_idmw0\" for=\"foo\"></htmlMessage></td><td><div></div></td></tr></tbody></table></div>", mContext.getResponseWriter().toString() );
+	}
+
+	/**
+	 * Inside a <code>UIData</code>, client ids vary by row but the pre-rendered template should
+	 * not.
+	 */
+
+	public void testRowIndexes()
+		throws Exception {
+
+		RowContainer rowContainer = new RowContainer();
+		HtmlMetawidget metawidget = new HtmlMetawidget();
+		metawidget.setId( "metawidget" );
+		rowContainer.getChildren().add( metawidget );
+		HtmlInputText inputText = new HtmlInputText();
+		inputText.setId( "foo" );
+		Map<String, String> attributes = CollectionUtils.newHashMap();
+		attributes.put( NAME, "Bar" );
+		inputText.getAttributes().put( UIMetawidget.COMPONENT_ATTRIBUTE_METADATA, attributes );
+		metawidget.getChildren().add( inputText );
+		metawidget.setParameter( "inlineMessages", "false" );
+
+		// (write the client id of each child into the pre-rendered markup, as a real label would)
+
+		HtmlTableLayoutRenderer renderer = new HtmlTableLayoutRenderer() {
+
+			@Override
+			protected void layoutBeforeChild( FacesContext context, UIComponent metawidgetComponent, UIComponent childComponent )
+				throws IOException {
+
+				super.layoutBeforeChild( context, metawidgetComponent, childComponent );
+				ResponseWriter writer = context.getResponseWriter();
+				writer.startElement( "span", metawidgetComponent );
+				writer.writeAttribute( "title", childComponent.getClientId( context ), null );
+				writer.endElement( "span" );
+			}
+		};
+
+		for ( int row = 0; row < 3; row++ ) {
+
+			mContext = new MockFacesContext();
+			rowContainer.setRow( row );
+
+			// (UIData resets client ids for each row)
+
+			metawidget.setId( metawidget.getId() );
+			inputText.setId( inputText.getId() );
+
+			if ( row > 0 ) {
+				mContext.setResponseWriter( new MockResponseWriter() {
+
+					@Override
+					public ResponseWriter cloneWithWriter( Writer writer ) {
+
+						throw new UnsupportedOperationException( "Should not pre-render again" );
+					}
+				} );
+			}
+
+			renderer.encodeBegin( mContext, metawidget );
+			renderer.encodeChildren( mContext, metawidget );
+			renderer.encodeEnd( mContext, metawidget );
+
+			assertEquals( "<table id=\"table:" + row + ":metawidget\"><tbody><tr><th><htmlOutputLabel id=\"foo-label\" for=\"foo\" value=\"Bar:\"></htmlOutputLabel></th><td><span title=\"table:" + row + ":foo\"></span><htmlInputText id=\"foo\"></htmlInputText></td><td><div></div></td></tr></tbody></table>", mContext.getResponseWriter().toString() );
+		}
 	}
 
 	//
@@ -137,4 +238,44 @@ public class HtmlTableLayoutRendererTest
 
 		mContext.release();
 	}
+
+	//
+	// Inner class
+	//
+
+	/**
+	 * NamingContainer whose client id includes a row index, like <code>UIData</code>.
+	 */
+
+	/* package private */static class RowContainer
+		extends UIComponentBase
+		implements NamingContainer {
+
+		//
+		// Private members
+		//
+
+		private int	mRow;
+
+		//
+		// Public methods
+		//
+
+		public void setRow( int row ) {
+
+			mRow = row;
+		}
+
+		@Override
+		public String getFamily() {
+
+			return "rowContainer";
+		}
+
+		@Override
+		public String getContainerClientId( FacesContext context ) {
+
+			return "table" + NamingContainer.SEPARATOR_CHAR + mRow;
+		}
+	}
 }
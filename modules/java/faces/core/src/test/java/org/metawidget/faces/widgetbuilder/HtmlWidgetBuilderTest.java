@@ -26,8 +26,11 @@ import javax.faces.component.UIColumn;
 import javax.faces.component.UIComponent;
 import javax.faces.component.UIOutput;
 import javax.faces.component.UISelectItem;
+import javax.faces.component.UISelectItems;
 import javax.faces.component.html.*;
 import javax.faces.context.FacesContext;
+import javax.faces.event.ActionEvent;
+import javax.faces.model.SelectItem;
 
 import junit.framework.TestCase;
 
@@ -40,12 +43,14 @@ import org.metawidget.faces.component.html.widgetbuilder.HtmlWidgetBuilder;
 import org.metawidget.faces.component.html.widgetbuilder.HtmlWidgetBuilderConfig;
 import org.metawidget.faces.component.html.widgetbuilder.ReadOnlyWidgetBuilder;
 import org.metawidget.faces.component.layout.SimpleLayout;
+import org.metawidget.faces.model.PagedDataModel;
 import org.metawidget.inspector.impl.BaseObjectInspectorConfig;
 import org.metawidget.inspector.impl.propertystyle.javabean.JavaBeanPropertyStyle;
 import org.metawidget.inspector.impl.propertystyle.javabean.JavaBeanPropertyStyleConfig;
 import org.metawidget.inspector.propertytype.PropertyTypeInspector;
 import org.metawidget.inspector.xml.XmlInspector;
 import org.metawidget.inspector.xml.XmlInspectorConfig;
+import org.metawidget.model.iface.PagedDataSource;
 import org.metawidget.util.CollectionUtils;
 import org.metawidget.util.MetawidgetTestUtils;
 import org.metawidget.util.XmlUtils;
@@ -462,6 +467,152 @@ public class HtmlWidgetBuilderTest
 		assertEquals( 6, htmlDataTable.getChildCount() );
 	}
 
+	@SuppressWarnings( "unchecked" )
+	public void testSharedSelectItems() {
+
+		WidgetBuilder<UIComponent, UIMetawidget> widgetBuilder = new HtmlWidgetBuilder( new HtmlWidgetBuilderConfig().setSharedSelectItems( true ) );
+		HtmlMetawidget metawidget = new HtmlMetawidget();
+		metawidget.setInspector( new PropertyTypeInspector() );
+
+		Map<String, String> attributes = CollectionUtils.newHashMap();
+		attributes.put( NAME, "status" );
+		attributes.put( TYPE, String.class.getName() );
+		attributes.put( LOOKUP, "Foo, Bar, Baz" );
+		attributes.put( LOOKUP_LABELS, "foo-label, bar-label, baz-label" );
+
+		// Single UISelectItems
+
+		HtmlSelectOneMenu htmlSelectOneMenu = (HtmlSelectOneMenu) widgetBuilder.buildWidget( PROPERTY, attributes, metawidget );
+		assertEquals( 1, htmlSelectOneMenu.getChildCount() );
+		List<SelectItem> selectItems = (List<SelectItem>) ( (UISelectItems) htmlSelectOneMenu.getChildren().get( 0 ) ).getValue();
+		assertEquals( 4, selectItems.size() );
+		assertEquals( "", selectItems.get( 0 ).getLabel() );
+		assertEquals( null, selectItems.get( 0 ).getValue() );
+		assertEquals( "foo-label", selectItems.get( 1 ).getLabel() );
+		assertEquals( "Foo", selectItems.get( 1 ).getValue() );
+		assertEquals( "baz-label", selectItems.get( 3 ).getLabel() );
+		assertEquals( "Baz", selectItems.get( 3 ).getValue() );
+
+		try {
+			selectItems.clear();
+			fail();
+		} catch ( UnsupportedOperationException e ) {
+			// Should fail
+		}
+
+		// Shared between components
+
+		htmlSelectOneMenu = (HtmlSelectOneMenu) widgetBuilder.buildWidget( PROPERTY, attributes, metawidget );
+		assertTrue( selectItems == ( (UISelectItems) htmlSelectOneMenu.getChildren().get( 0 ) ).getValue() );
+
+		// ...but not between different lookups
+
+		attributes.put( REQUIRED, TRUE );
+		htmlSelectOneMenu = (HtmlSelectOneMenu) widgetBuilder.buildWidget( PROPERTY, attributes, metawidget );
+		List<SelectItem> requiredSelectItems = (List<SelectItem>) ( (UISelectItems) htmlSelectOneMenu.getChildren().get( 0 ) ).getValue();
+		assertTrue( selectItems != requiredSelectItems );
+		assertEquals( 3, requiredSelectItems.size() );
+		assertEquals( "Foo", requiredSelectItems.get( 0 ).getValue() );
+		attributes.remove( REQUIRED );
+
+		attributes.put( TYPE, List.class.getName() );
+		attributes.put( LOOKUP, "Foo, Bar, Baz, Abc" );
+		attributes.remove( LOOKUP_LABELS );
+		HtmlSelectManyCheckbox htmlSelectManyCheckbox = (HtmlSelectManyCheckbox) widgetBuilder.buildWidget( PROPERTY, attributes, metawidget );
+		assertEquals( "pageDirection", htmlSelectManyCheckbox.getLayout() );
+		selectItems = (List<SelectItem>) ( (UISelectItems) htmlSelectManyCheckbox.getChildren().get( 0 ) ).getValue();
+		assertEquals( 4, selectItems.size() );
+		assertEquals( "Abc", selectItems.get( 3 ).getLabel() );
+
+		// Labels that are expressions are never shared
+
+		attributes.put( TYPE, String.class.getName() );
+		attributes.put( LOOKUP, "Foo, Bar" );
+		attributes.put( LOOKUP_LABELS, "#{foo}, #{bar}" );
+		htmlSelectOneMenu = (HtmlSelectOneMenu) widgetBuilder.buildWidget( PROPERTY, attributes, metawidget );
+		assertEquals( 3, htmlSelectOneMenu.getChildCount() );
+		assertEquals( "#{foo}", ( (UISelectItem) htmlSelectOneMenu.getChildren().get( 1 ) ).getValueBinding( "itemLabel" ).getExpressionString() );
+	}
+
+	@SuppressWarnings( "deprecation" )
+	public void testCollectionPaging()
+		throws Exception {
+
+		final List<String> calls = CollectionUtils.newArrayList();
+
+		PagedDataSource pagedDataSource = new PagedDataSource() {
+
+			public int getRowCount( Object owner, String propertyName ) {
+
+				calls.add( "getRowCount " + owner + " " + propertyName );
+				return 25;
+			}
+
+			public List<?> getRows( Object owner, String propertyName, int first, int pageSize ) {
+
+				calls.add( "getRows " + first + " " + pageSize );
+				List<String> rows = CollectionUtils.newArrayList();
+
+				for ( int loop = first, length = Math.min( first + pageSize, 25 ); loop < length; loop++ ) {
+					rows.add( "Row " + loop );
+				}
+
+				return rows;
+			}
+		};
+
+		HtmlMetawidget metawidget = new HtmlMetawidget();
+		metawidget.setInspector( new PropertyTypeInspector() );
+		metawidget.setValueBinding( "value", mContext.getApplication().createValueBinding( "#{order}" ) );
+
+		WidgetBuilder<UIComponent, UIMetawidget> widgetBuilder = new HtmlWidgetBuilder( new HtmlWidgetBuilderConfig().setDataTablePageSize( 10 ).setPagedDataSource( pagedDataSource ) );
+		Map<String, String> attributes = CollectionUtils.newHashMap();
+		attributes.put( NAME, "lines" );
+		attributes.put( TYPE, List.class.getName() );
+		HtmlDataTable htmlDataTable = (HtmlDataTable) widgetBuilder.buildWidget( PROPERTY, attributes, metawidget );
+		assertEquals( 10, htmlDataTable.getRows() );
+
+		// Previous/next links
+
+		UIComponent footer = htmlDataTable.getFacet( "footer" );
+		assertTrue( footer instanceof HtmlPanelGroup );
+		assertEquals( 2, footer.getChildCount() );
+		assertEquals( "Previous", ( (HtmlCommandLink) footer.getChildren().get( 0 ) ).getValue() );
+		assertEquals( "Next", ( (HtmlCommandLink) footer.getChildren().get( 1 ) ).getValue() );
+
+		// Rows are fetched a page at a time
+
+		PagedDataModel dataModel = (PagedDataModel) htmlDataTable.getValue();
+		assertEquals( 25, dataModel.getRowCount() );
+		dataModel.setRowIndex( 12 );
+		assertEquals( "Row 12", dataModel.getRowData() );
+		dataModel.setRowIndex( 19 );
+		assertEquals( "Row 19", dataModel.getRowData() );
+		assertEquals( "getRowCount result of #{order} lines", calls.get( 0 ) );
+		assertEquals( "getRows 10 10", calls.get( 1 ) );
+		assertEquals( 2, calls.size() );
+
+		// Paging
+
+		HtmlCommandLink next = (HtmlCommandLink) footer.getChildren().get( 1 );
+		next.getActionListeners()[0].processAction( new ActionEvent( next ) );
+		assertEquals( 10, htmlDataTable.getFirst() );
+		next.getActionListeners()[0].processAction( new ActionEvent( next ) );
+		assertEquals( 20, htmlDataTable.getFirst() );
+		next.getActionListeners()[0].processAction( new ActionEvent( next ) );
+		assertEquals( 20, htmlDataTable.getFirst() );
+
+		HtmlCommandLink previous = (HtmlCommandLink) footer.getChildren().get( 0 );
+		previous.getActionListeners()[0].processAction( new ActionEvent( previous ) );
+		assertEquals( 10, htmlDataTable.getFirst() );
+
+		// No paging by default
+
+		htmlDataTable = (HtmlDataTable) newWidgetBuilder().buildWidget( PROPERTY, attributes, metawidget );
+		assertEquals( 0, htmlDataTable.getRows() );
+		assertTrue( htmlDataTable.getFacet( "footer" ) == null );
+	}
+
 	public void testConfig() {
 
 		MetawidgetTestUtils.testEqualsAndHashcode( HtmlWidgetBuilderConfig.class, new HtmlWidgetBuilderConfig() {
@@ -15,6 +15,7 @@ import static org.metawidget.inspector.InspectionResultConstants.*;
 import static org.metawidget.inspector.faces.FacesInspectionResultConstants.*;
 
 import java.util.Date;
+import java.util.Locale;
 import java.util.Map;
 
 import javax.faces.FacesException;
@@ -145,6 +146,129 @@ public class StandardConverterProcessorTest
 		assertEquals( "currency", numberConverter.getType() );
 	}
 
+	public void testConverterCache() {
+
+		StandardConverterProcessor processor = new StandardConverterProcessor();
+
+		// Standard Converters are shared...
+
+		Map<String, String> attributes = CollectionUtils.newHashMap();
+		attributes.put( NAME, "foo" );
+		attributes.put( TYPE, Date.class.getName() );
+		attributes.put( LOCALE, "fr" );
+		HtmlInputText htmlInputText1 = new HtmlInputText();
+		processor.processWidget( htmlInputText1, PROPERTY, attributes, null );
+		attributes.put( NAME, "bar" );
+		HtmlInputText htmlInputText2 = new HtmlInputText();
+		processor.processWidget( htmlInputText2, PROPERTY, attributes, null );
+		assertTrue( htmlInputText1.getConverter() instanceof DateTimeConverter );
+		assertTrue( htmlInputText1.getConverter() == htmlInputText2.getConverter() );
+
+		attributes.clear();
+		attributes.put( NUMBER_PATTERN, "#0.00" );
+		attributes.put( CURRENCY_CODE, "AUD" );
+		attributes.put( LOCALE, "en" );
+		htmlInputText1 = new HtmlInputText();
+		processor.processWidget( htmlInputText1, PROPERTY, attributes, null );
+		htmlInputText2 = new HtmlInputText();
+		processor.processWidget( htmlInputText2, PROPERTY, attributes, null );
+		assertEquals( "#0.00", ( (NumberConverter) htmlInputText1.getConverter() ).getPattern() );
+		assertTrue( htmlInputText1.getConverter() == htmlInputText2.getConverter() );
+
+		// ...unless their attributes differ...
+
+		attributes.put( CURRENCY_CODE, "USD" );
+		htmlInputText2 = new HtmlInputText();
+		processor.processWidget( htmlInputText2, PROPERTY, attributes, null );
+		assertEquals( "USD", ( (NumberConverter) htmlInputText2.getConverter() ).getCurrencyCode() );
+		assertEquals( "AUD", ( (NumberConverter) htmlInputText1.getConverter() ).getCurrencyCode() );
+		assertTrue( htmlInputText1.getConverter() != htmlInputText2.getConverter() );
+
+		// ...including with no explicit locale (they use the view's)...
+
+		attributes.remove( LOCALE );
+		htmlInputText1 = new HtmlInputText();
+		processor.processWidget( htmlInputText1, PROPERTY, attributes, null );
+		htmlInputText2 = new HtmlInputText();
+		processor.processWidget( htmlInputText2, PROPERTY, attributes, null );
+		assertEquals( "#0.00", ( (NumberConverter) htmlInputText1.getConverter() ).getPattern() );
+		assertEquals( mContext.getViewRoot().getLocale(), ( (NumberConverter) htmlInputText1.getConverter() ).getLocale() );
+		assertTrue( htmlInputText1.getConverter() == htmlInputText2.getConverter() );
+
+		// ...but other Converters are not
+
+		attributes.clear();
+		attributes.put( FACES_CONVERTER, "fooConverter" );
+		htmlInputText1 = new HtmlInputText();
+		processor.processWidget( htmlInputText1, PROPERTY, attributes, null );
+		htmlInputText2 = new HtmlInputText();
+		processor.processWidget( htmlInputText2, PROPERTY, attributes, null );
+		assertEquals( "fooConverter", htmlInputText2.getConverter().toString() );
+		assertTrue( htmlInputText1.getConverter() != htmlInputText2.getConverter() );
+	}
+
+	public void testConverterLocale() {
+
+		StandardConverterProcessor processor = new StandardConverterProcessor();
+		Locale defaultLocale = Locale.getDefault();
+
+		try {
+			Map<String, String> dateAttributes = CollectionUtils.newHashMap();
+			dateAttributes.put( TYPE, Date.class.getName() );
+			dateAttributes.put( DATE_STYLE, "long" );
+			Map<String, String> numberAttributes = CollectionUtils.newHashMap();
+			numberAttributes.put( NUMBER_PATTERN, "#,##0.0" );
+
+			// First view, in French
+
+			Locale.setDefault( Locale.FRANCE );
+			HtmlInputText date1 = new HtmlInputText();
+			processor.processWidget( date1, PROPERTY, dateAttributes, null );
+			assertTrue( date1.getConverter().getAsString( mContext, date1, new Date( 0 ) ).contains( "janvier" ) );
+			HtmlInputText number1 = new HtmlInputText();
+			processor.processWidget( number1, PROPERTY, numberAttributes, null );
+			assertEquals( "1\u00a0234,5", number1.getConverter().getAsString( mContext, number1, 1234.5 ) );
+
+			// Second view, in English, should not inherit the first view's locale
+
+			mContext.release();
+			Locale.setDefault( Locale.US );
+			mContext = newMockFacesContext();
+
+			HtmlInputText date2 = new HtmlInputText();
+			processor.processWidget( date2, PROPERTY, dateAttributes, null );
+			assertTrue( date2.getConverter().getAsString( mContext, date2, new Date( 0 ) ).contains( "January" ) );
+			HtmlInputText number2 = new HtmlInputText();
+			processor.processWidget( number2, PROPERTY, numberAttributes, null );
+			assertEquals( "1,234.5", number2.getConverter().getAsString( mContext, number2, 1234.5 ) );
+			assertTrue( date1.getConverter() != date2.getConverter() );
+
+			// Explicit locales should be honored regardless of the view
+
+			dateAttributes.put( LOCALE, "fr" );
+			HtmlInputText date3 = new HtmlInputText();
+			processor.processWidget( date3, PROPERTY, dateAttributes, null );
+			assertTrue( date3.getConverter().getAsString( mContext, date3, new Date( 0 ) ).contains( "janvier" ) );
+
+			// Third view, in French again, should share the first view's Converters
+
+			mContext.release();
+			Locale.setDefault( Locale.FRANCE );
+			mContext = newMockFacesContext();
+			dateAttributes.remove( LOCALE );
+
+			HtmlInputText date4 = new HtmlInputText();
+			processor.processWidget( date4, PROPERTY, dateAttributes, null );
+			assertTrue( date1.getConverter() == date4.getConverter() );
+			HtmlInputText number4 = new HtmlInputText();
+			processor.processWidget( number4, PROPERTY, numberAttributes, null );
+			assertTrue( number1.getConverter() == number4.getConverter() );
+			assertEquals( "1\u00a0234,5", number4.getConverter().getAsString( mContext, number4, 1234.5 ) );
+		} finally {
+			Locale.setDefault( defaultLocale );
+		}
+	}
+
 	//
 	// Protected methods
 	//
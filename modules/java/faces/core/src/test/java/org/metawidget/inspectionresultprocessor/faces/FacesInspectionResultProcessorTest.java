@@ -13,9 +13,22 @@ package org.metawidget.inspectionresultprocessor.faces;
 
 import static org.metawidget.inspector.InspectionResultConstants.*;
 
+import java.beans.FeatureDescriptor;
+import java.lang.reflect.Method;
+import java.util.Collections;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 
+import javax.el.ELContext;
+import javax.el.ELResolver;
+import javax.el.ExpressionFactory;
+import javax.el.FunctionMapper;
+import javax.el.MethodExpression;
+import javax.el.ValueExpression;
+import javax.el.VariableMapper;
+import javax.faces.application.Application;
+import javax.faces.application.ApplicationWrapper;
 import javax.faces.context.FacesContext;
 
 import junit.framework.TestCase;
@@ -291,6 +304,93 @@ public class FacesInspectionResultProcessorTest
 		assertEquals( entity.getChildNodes().getLength(), 1 );
 	}
 
+	public void testTemplateCache() {
+
+		String xml = "<?xml version=\"1.0\"?>";
+		xml += "<inspection-result xmlns=\"http://www.metawidget.org/inspection-result\" version=\"1.0\">";
+		xml += "<entity type=\"Foo\">";
+		xml += "<property name=\"bar\" value-is-el=\"#{baz}\" value-is-embedded-el=\"first #{abc} middle #{null}#{def} last\" value-is-text=\"text\"/>";
+		xml += "</entity></inspection-result>";
+
+		// Cached and uncached templates should evaluate the same, every time
+
+		for ( FacesInspectionResultProcessorConfig config : new FacesInspectionResultProcessorConfig[] { new FacesInspectionResultProcessorConfig(), new FacesInspectionResultProcessorConfig().setTemplateCacheSize( 1 ), new FacesInspectionResultProcessorConfig().setTemplateCacheSize( 0 ) } ) {
+
+			FacesInspectionResultProcessor inspectionResultProcessor = new FacesInspectionResultProcessor( config );
+
+			for ( int loop = 0; loop < 3; loop++ ) {
+
+				String result = inspectionResultProcessor.processInspectionResult( xml, null, null, "Foo" );
+				Element entity = XmlUtils.getFirstChildElement( XmlUtils.documentFromString( result ).getDocumentElement() );
+				Element property = XmlUtils.getFirstChildElement( entity );
+				assertEquals( "result of #{baz}", property.getAttribute( "value-is-el" ) );
+				assertEquals( "first result of #{abc} middle result of #{def} last", property.getAttribute( "value-is-embedded-el" ) );
+				assertEquals( "text", property.getAttribute( "value-is-text" ) );
+			}
+		}
+
+		// Errors should include the original value
+
+		xml = "<?xml version=\"1.0\"?>";
+		xml += "<inspection-result xmlns=\"http://www.metawidget.org/inspection-result\" version=\"1.0\">";
+		xml += "<entity type=\"Foo\">";
+		xml += "<property name=\"bar\" value-is-error=\"before #{error} after\"/>";
+		xml += "</entity></inspection-result>";
+
+		try {
+			new FacesInspectionResultProcessor().processInspectionResult( xml, null, null, "Foo" );
+			fail();
+		} catch ( InspectionResultProcessorException e ) {
+			assertEquals( "Unable to evaluate before #{error} after", e.getMessage() );
+		}
+	}
+
+	public void testExpressionFactory() {
+
+		String xml = "<?xml version=\"1.0\"?>";
+		xml += "<inspection-result xmlns=\"http://www.metawidget.org/inspection-result\" version=\"1.0\">";
+		xml += "<entity type=\"Foo\">";
+		xml += "<property name=\"bar\" value-is-bean=\"#{bean}\" value-is-variable=\"#{param}\" value-is-this=\"#{_this}\"/>";
+		xml += "</entity></inspection-result>";
+
+		ExpressionFactoryFacesContext context = new ExpressionFactoryFacesContext();
+		context.getBeans().put( "bean", "from resolver" );
+		FacesInspectionResultProcessor inspectionResultProcessor = new FacesInspectionResultProcessor( new FacesInspectionResultProcessorConfig().setInjectThis( new JavaBeanPropertyStyle() ) );
+
+		try {
+			// Variables (such as ui:param) must be resolved against the current page...
+
+			context.getVariables().put( "param", "first page" );
+			String result = inspectionResultProcessor.processInspectionResult( xml, null, new Foo(), Foo.class.getName() );
+			Element property = XmlUtils.getFirstChildElement( XmlUtils.getFirstChildElement( XmlUtils.documentFromString( result ).getDocumentElement() ) );
+			assertEquals( "from resolver", property.getAttribute( "value-is-bean" ) );
+			assertEquals( "first page", property.getAttribute( "value-is-variable" ) );
+			assertTrue( property.getAttribute( "value-is-this" ).startsWith( Foo.class.getName() ) );
+
+			context.getVariables().put( "param", "second page" );
+			result = inspectionResultProcessor.processInspectionResult( xml, null, new Foo(), Foo.class.getName() );
+			property = XmlUtils.getFirstChildElement( XmlUtils.getFirstChildElement( XmlUtils.documentFromString( result ).getDocumentElement() ) );
+			assertEquals( "from resolver", property.getAttribute( "value-is-bean" ) );
+			assertEquals( "second page", property.getAttribute( "value-is-variable" ) );
+			assertTrue( property.getAttribute( "value-is-this" ).startsWith( Foo.class.getName() ) );
+
+			// ...so are never cached, whereas other expressions are parsed only once
+
+			assertEquals( 1, Collections.frequency( context.getParsed(), "#{bean}" ) );
+			assertEquals( 2, Collections.frequency( context.getParsed(), "#{param}" ) );
+			assertEquals( 1, Collections.frequency( context.getParsed(), "#{_this}" ) );
+
+			// _this should be resolved by our own ELResolver, not the page's nor the request map
+
+			assertFalse( context.getResolved().contains( "_this" ) );
+			assertTrue( context.getResolved().contains( "bean" ) );
+			assertFalse( context.getExternalContext().getRequestMap().containsKey( "_this" ) );
+
+		} finally {
+			context.release();
+		}
+	}
+
 	//
 	// Protected methods
 	//
@@ -384,4 +484,299 @@ public class FacesInspectionResultProcessorTest
 			mFoo = foo;
 		}
 	}
+
+	/**
+	 * MockFacesContext that supports a (very simple) JSF 1.2 ExpressionFactory. Like a real
+	 * ExpressionFactory, it resolves variables against the ELContext's VariableMapper at parse
+	 * time.
+	 */
+
+	static class ExpressionFactoryFacesContext
+		extends MockFacesContext {
+
+		//
+		// Private members
+		//
+
+		private final Map<String, Object>	mBeans		= CollectionUtils.newHashMap();
+
+		private final Map<String, Object>	mVariables	= CollectionUtils.newHashMap();
+
+		private final List<String>			mParsed		= CollectionUtils.newArrayList();
+
+		private final List<Object>			mResolved	= CollectionUtils.newArrayList();
+
+		private final Application			mApplication;
+
+		//
+		// Constructor
+		//
+
+		public ExpressionFactoryFacesContext() {
+
+			final Application application = super.getApplication();
+
+			mApplication = new ApplicationWrapper() {
+
+				@Override
+				public Application getWrapped() {
+
+					return application;
+				}
+
+				@Override
+				public ExpressionFactory getExpressionFactory() {
+
+					return new ExpressionFactory() {
+
+						@Override
+						public ValueExpression createValueExpression( ELContext context, String expression, Class<?> expectedType ) {
+
+							mParsed.add( expression );
+							String name = expression.substring( 2, expression.length() - 1 );
+							return new MockValueExpression( name, context.getVariableMapper().resolveVariable( name ), null );
+						}
+
+						@Override
+						public ValueExpression createValueExpression( Object instance, Class<?> expectedType ) {
+
+							throw new UnsupportedOperationException();
+						}
+
+						@Override
+						public MethodExpression createMethodExpression( ELContext context, String expression, Class<?> expectedReturnType, Class<?>[] expectedParamTypes ) {
+
+							throw new UnsupportedOperationException();
+						}
+
+						@Override
+						public Object coerceToType( Object obj, Class<?> targetType ) {
+
+							throw new UnsupportedOperationException();
+						}
+					};
+				}
+			};
+		}
+
+		//
+		// Public methods
+		//
+
+		public Map<String, Object> getBeans() {
+
+			return mBeans;
+		}
+
+		public Map<String, Object> getVariables() {
+
+			return mVariables;
+		}
+
+		public List<String> getParsed() {
+
+			return mParsed;
+		}
+
+		public List<Object> getResolved() {
+
+			return mResolved;
+		}
+
+		@Override
+		public Application getApplication() {
+
+			return mApplication;
+		}
+
+		@Override
+		public ELContext getELContext() {
+
+			return new ELContext() {
+
+				@Override
+				public ELResolver getELResolver() {
+
+					return new ELResolver() {
+
+						@Override
+						public Object getValue( ELContext context, Object base, Object property ) {
+
+							mResolved.add( property );
+							context.setPropertyResolved( true );
+							return mBeans.get( property );
+						}
+
+						@Override
+						public Class<?> getType( ELContext context, Object base, Object property ) {
+
+							throw new UnsupportedOperationException();
+						}
+
+						@Override
+						public void setValue( ELContext context, Object base, Object property, Object value ) {
+
+							throw new UnsupportedOperationException();
+						}
+
+						@Override
+						public boolean isReadOnly( ELContext context, Object base, Object property ) {
+
+							throw new UnsupportedOperationException();
+						}
+
+						@Override
+						public Iterator<FeatureDescriptor> getFeatureDescriptors( ELContext context, Object base ) {
+
+							throw new UnsupportedOperationException();
+						}
+
+						@Override
+						public Class<?> getCommonPropertyType( ELContext context, Object base ) {
+
+							throw new UnsupportedOperationException();
+						}
+					};
+				}
+
+				@Override
+				public FunctionMapper getFunctionMapper() {
+
+					return new FunctionMapper() {
+
+						@Override
+						public Method resolveFunction( String prefix, String localName ) {
+
+							return null;
+						}
+					};
+				}
+
+				@Override
+				public VariableMapper getVariableMapper() {
+
+					return new VariableMapper() {
+
+						@Override
+						public ValueExpression resolveVariable( String variable ) {
+
+							if ( !mVariables.containsKey( variable ) ) {
+								return null;
+							}
+
+							return new MockValueExpression( variable, null, mVariables.get( variable ) );
+						}
+
+						@Override
+						public ValueExpression setVariable( String variable, ValueExpression expression ) {
+
+							throw new UnsupportedOperationException();
+						}
+					};
+				}
+			};
+		}
+	}
+
+	/**
+	 * ValueExpression that either resolves a top-level identifier, or defers to a variable, or
+	 * returns a constant.
+	 */
+
+	static class MockValueExpression
+		extends ValueExpression {
+
+		//
+		// Private statics
+		//
+
+		private static final long		serialVersionUID	= 1l;
+
+		//
+		// Private members
+		//
+
+		private final String			mName;
+
+		private final ValueExpression	mVariable;
+
+		private final Object			mConstant;
+
+		//
+		// Constructor
+		//
+
+		public MockValueExpression( String name, ValueExpression variable, Object constant ) {
+
+			mName = name;
+			mVariable = variable;
+			mConstant = constant;
+		}
+
+		//
+		// Public methods
+		//
+
+		@Override
+		public Object getValue( ELContext context ) {
+
+			if ( mVariable != null ) {
+				return mVariable.getValue( context );
+			}
+
+			if ( mConstant != null ) {
+				return mConstant;
+			}
+
+			return context.getELResolver().getValue( context, null, mName );
+		}
+
+		@Override
+		public void setValue( ELContext context, Object value ) {
+
+			throw new UnsupportedOperationException();
+		}
+
+		@Override
+		public boolean isReadOnly( ELContext context ) {
+
+			return true;
+		}
+
+		@Override
+		public Class<?> getType( ELContext context ) {
+
+			return Object.class;
+		}
+
+		@Override
+		public Class<?> getExpectedType() {
+
+			return Object.class;
+		}
+
+		@Override
+		public String getExpressionString() {
+
+			return "#{" + mName + "}";
+		}
+
+		@Override
+		public boolean isLiteralText() {
+
+			return false;
+		}
+
+		@Override
+		public boolean equals( Object that ) {
+
+			return ( this == that );
+		}
+
+		@Override
+		public int hashCode() {
+
+			return System.identityHashCode( this );
+		}
+	}
 }
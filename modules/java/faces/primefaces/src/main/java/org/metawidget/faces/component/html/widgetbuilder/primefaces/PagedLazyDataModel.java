@@ -0,0 +1,91 @@
+// Metawidget
+//
+// This file is dual licensed under both the LGPL
+// (http://www.gnu.org/licenses/lgpl-2.1.html) and the EPL
+// (http://www.eclipse.org/org/documents/epl-v10.php). As a
+// recipient of Metawidget, you may choose to receive it under either
+// the LGPL or the EPL.
+//
+// Commercial licenses are also available. See http://metawidget.org
+// for details.
+
+package org.metawidget.faces.component.html.widgetbuilder.primefaces;
+
+import java.util.List;
+import java.util.Map;
+
+import javax.faces.context.FacesContext;
+
+import org.metawidget.model.iface.PagedDataSource;
+import org.primefaces.model.LazyDataModel;
+import org.primefaces.model.SortOrder;
+
+/**
+ * PrimeFaces <code>LazyDataModel</code> that fetches the elements of a collection property one
+ * page at a time from a <code>PagedDataSource</code>.
+ *
+ * @author <a href="http://kennardconsulting.com">Richard Kennard</a>
+ */
+
+public class PagedLazyDataModel
+	extends LazyDataModel<Object> {
+
+	//
+	// Private statics
+	//
+
+	private static final long		serialVersionUID	= 1l;
+
+	//
+	// Private members
+	//
+
+	private PagedDataSource			mDataSource;
+
+	private String					mOwnerExpression;
+
+	private String					mPropertyName;
+
+	//
+	// Constructor
+	//
+
+	/**
+	 * @param ownerExpression
+	 *            JSF EL expression for the object that owns the collection property
+	 * @param propertyName
+	 *            name of the collection property
+	 */
+
+	public PagedLazyDataModel( PagedDataSource dataSource, String ownerExpression, String propertyName ) {
+
+		mDataSource = dataSource;
+		mOwnerExpression = ownerExpression;
+		mPropertyName = propertyName;
+	}
+
+	//
+	// Public methods
+	//
+
+	@Override
+	@SuppressWarnings( "unchecked" )
+	public List<Object> load( int first, int pageSize, String sortField, SortOrder sortOrder, Map<String, String> filters ) {
+
+		Object owner = getOwner();
+		setRowCount( mDataSource.getRowCount( owner, mPropertyName ) );
+
+		return (List<Object>) mDataSource.getRows( owner, mPropertyName, first, pageSize );
+	}
+
+	//
+	// Private methods
+	//
+
+	@SuppressWarnings( "deprecation" )
+	private Object getOwner() {
+
+		FacesContext context = FacesContext.getCurrentInstance();
+		return context.getApplication().createValueBinding( mOwnerExpression ).getValue( context );
+	}
+}
@@ -28,6 +28,7 @@ import org.metawidget.faces.FacesUtils;
 import org.metawidget.faces.component.UIMetawidget;
 import org.metawidget.faces.component.UIStub;
 import org.metawidget.faces.component.html.widgetbuilder.HtmlWidgetBuilder;
+import org.metawidget.model.iface.PagedDataSource;
 import org.metawidget.util.WidgetBuilderUtils;
 import org.primefaces.component.autocomplete.AutoComplete;
 import org.primefaces.component.calendar.Calendar;
@@ -75,6 +76,10 @@ public class PrimeFacesWidgetBuilder
 
 	private int     mMaximumColumnsInDataTable;
 
+	private int     mDataTablePageSize;
+
+	private PagedDataSource mPagedDataSource;
+
 	//
 	// Constructor
 	//
@@ -89,6 +94,8 @@ public class PrimeFacesWidgetBuilder
 		mDataTableRowStyleClass = config.getDataTableRowStyleClass();
 		mDataTableTableStyleClass = config.getDataTableTableStyleClass();
 		mMaximumColumnsInDataTable = config.getMaximumColumnsInDataTable();
+		mDataTablePageSize = config.getDataTablePageSize();
+		mPagedDataSource = config.getPagedDataSource();
 	}
 
 	//
@@ -353,6 +360,30 @@ public class PrimeFacesWidgetBuilder
 		dataTable.setTableStyleClass( mDataTableTableStyleClass );
 	}
 
+	/**
+	 * Uses PrimeFaces' own paginator and, if a <code>PagedDataSource</code> is configured, a
+	 * <code>LazyDataModel</code>.
+	 */
+
+	@Override
+	protected void configureDataTablePaging( UIData uiData, Map<String, String> attributes, UIMetawidget metawidget ) {
+
+		if ( mDataTablePageSize == 0 ) {
+			return;
+		}
+
+		DataTable dataTable = (DataTable) uiData;
+		dataTable.setPaginator( true );
+		dataTable.setRows( mDataTablePageSize );
+
+		String ownerExpression = getPagedOwnerExpression( attributes, metawidget );
+
+		if ( mPagedDataSource != null && ownerExpression != null ) {
+			dataTable.setLazy( true );
+			dataTable.setValue( new PagedLazyDataModel( mPagedDataSource, ownerExpression, attributes.get( NAME ) ) );
+		}
+	}
+
 	@Override
 	protected UIColumn createColumnComponent() {
 		
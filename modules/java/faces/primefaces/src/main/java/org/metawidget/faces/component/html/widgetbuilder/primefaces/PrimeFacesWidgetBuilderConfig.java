@@ -11,6 +11,7 @@
 
 package org.metawidget.faces.component.html.widgetbuilder.primefaces;
 
+import org.metawidget.model.iface.PagedDataSource;
 import org.metawidget.util.simple.ObjectUtils;
 
 /**
@@ -33,6 +34,10 @@ public class PrimeFacesWidgetBuilderConfig {
 
     private int     mMaximumColumnsInDataTable  =   5;
 
+    private int     mDataTablePageSize;
+
+    private PagedDataSource mPagedDataSource;
+
     //
     // Public methods
     //
@@ -85,6 +90,35 @@ public class PrimeFacesWidgetBuilderConfig {
         return this;
     }
 
+    /**
+     * Sets the number of rows to display per page in a generated data table. The data table's
+     * paginator is enabled.
+     *
+     * @param dataTablePageSize
+     *            the number of rows per page, or 0 for no paging
+     * @return this, as part of a fluent interface
+     */
+
+    public PrimeFacesWidgetBuilderConfig setDataTablePageSize( int dataTablePageSize ) {
+        this.mDataTablePageSize = dataTablePageSize;
+
+        return this;
+    }
+
+    /**
+     * Sets the source to fetch data table rows from, a page at a time, rather than loading the
+     * entire collection. Only used if a data table page size is also set. Data tables are made
+     * <code>lazy</code>.
+     *
+     * @return this, as part of a fluent interface
+     */
+
+    public PrimeFacesWidgetBuilderConfig setPagedDataSource( PagedDataSource pagedDataSource ) {
+        this.mPagedDataSource = pagedDataSource;
+
+        return this;
+    }
+
     @Override
     public boolean equals( Object that ) {
 
@@ -112,6 +146,14 @@ public class PrimeFacesWidgetBuilderConfig {
             return false;
         }
 
+        if ( mDataTablePageSize != ( (PrimeFacesWidgetBuilderConfig) that ).mDataTablePageSize ) {
+            return false;
+        }
+
+        if ( !ObjectUtils.nullSafeEquals( mPagedDataSource, ( (PrimeFacesWidgetBuilderConfig) that ).mPagedDataSource ) ) {
+            return false;
+        }
+
         return true;
     }
 
@@ -123,6 +165,8 @@ public class PrimeFacesWidgetBuilderConfig {
         hashCode = 31 * hashCode + ObjectUtils.nullSafeHashCode( mDataTableRowStyleClass );
         hashCode = 31 * hashCode + ObjectUtils.nullSafeHashCode( mDataTableTableStyleClass );
         hashCode = 31 * hashCode + mMaximumColumnsInDataTable;
+        hashCode = 31 * hashCode + mDataTablePageSize;
+        hashCode = 31 * hashCode + ObjectUtils.nullSafeHashCode( mPagedDataSource );
 
         return hashCode;
     }
@@ -150,4 +194,14 @@ public class PrimeFacesWidgetBuilderConfig {
 
         return mMaximumColumnsInDataTable;
     }
+
+    protected int getDataTablePageSize() {
+
+        return mDataTablePageSize;
+    }
+
+    protected PagedDataSource getPagedDataSource() {
+
+        return mPagedDataSource;
+    }
 }
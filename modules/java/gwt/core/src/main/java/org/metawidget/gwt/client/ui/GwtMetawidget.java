@@ -14,8 +14,10 @@ package org.metawidget.gwt.client.ui;
 import static org.metawidget.inspector.InspectionResultConstants.*;
 import static org.metawidget.util.simple.StringUtils.*;
 
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.MissingResourceException;
 import java.util.Set;
@@ -89,6 +91,36 @@ public class GwtMetawidget
 
 	private static final int								BUILD_DELAY				= 50;
 
+	/**
+	 * Maximum number of inspection results cached per Inspector.
+	 */
+
+	private static final int								INSPECTION_RESULT_CACHE_SIZE	= 100;
+
+	/**
+	 * GwtMetawidgets waiting to be built, or null if none.
+	 * <p>
+	 * Shared by all GwtMetawidgets, so that a single <code>Timer</code> builds them all in one
+	 * pass. This lets <code>GwtRemoteInspectorProxy</code> batch their AJAX calls together.
+	 */
+
+	private static List<GwtMetawidget>						PENDING_BUILDS;
+
+	/**
+	 * Timer that builds <code>PENDING_BUILDS</code>. Rescheduled on every
+	 * <code>invalidateWidgets</code>, so that multiple invalidate requests are batched into one.
+	 */
+
+	private static Timer									BUILD_PENDING_WIDGETS;
+
+	/**
+	 * Static cache of remote inspection results, keyed by Inspector and then by path.
+	 * <p>
+	 * Only used by GwtMetawidgets that <code>setCacheInspectionResults</code>.
+	 */
+
+	private static InspectionResultCache					INSPECTION_RESULT_CACHE;
+
 	/**
 	 * Static cache of the default Inspector.
 	 * <p>
@@ -134,10 +166,10 @@ public class GwtMetawidget
 
 	private Map<String, Widget>								mAddedWidgets			= new HashMap<String, Widget>();
 
-	private Timer											mBuildWidgets;
-
 	private Map<Object, Object>								mClientProperties;
 
+	private boolean											mCacheInspectionResults;
+
 	//
 	// Package-private members
 	//
@@ -294,6 +326,33 @@ public class GwtMetawidget
 		return mPipeline.inspect( toInspect, type, names );
 	}
 
+	/**
+	 * Sets whether to cache remote inspection results client-side, keyed by path. The cache is
+	 * shared by all GwtMetawidgets (for example, re-opening the same dialog need not repeat the
+	 * AJAX call to the server).
+	 * <p>
+	 * Caching ignores the <em>value</em> being inspected, so should only be enabled if the
+	 * server-side Inspectors do not depend on it.
+	 */
+
+	public void setCacheInspectionResults( boolean cacheInspectionResults ) {
+
+		mCacheInspectionResults = cacheInspectionResults;
+	}
+
+	/**
+	 * Clears the inspection results cached by <code>setCacheInspectionResults</code>. The cache
+	 * holds at most 100 results per Inspector, but clients should clear it if the server-side
+	 * Inspectors change (for example, following a redeploy or a change of user).
+	 */
+
+	public static void clearInspectionResultCache() {
+
+		if ( INSPECTION_RESULT_CACHE != null ) {
+			INSPECTION_RESULT_CACHE.clear();
+		}
+	}
+
 	public void addInspectionResultProcessor( InspectionResultProcessor<GwtMetawidget> inspectionResultProcessor ) {
 
 		mPipeline.addInspectionResultProcessor( inspectionResultProcessor );
@@ -776,40 +835,47 @@ public class GwtMetawidget
 	/**
 	 * Invalidates the widgets.
 	 * <p>
-	 * If the widgets are already invalidated, but rebuilding is not yet in progress, cancels the
-	 * pending rebuild and resets the timer. This tries to 'batch' multiple invalidate requests into
-	 * one.
+	 * Rebuilding is deferred by <code>BUILD_DELAY</code>, and each invalidate request restarts the
+	 * delay. This tries to 'batch' multiple invalidate requests (and the AJAX calls of multiple
+	 * GwtMetawidgets) into one.
 	 */
 
 	protected void invalidateWidgets() {
 
-		// If widgets are already invalidated...
-
-		if ( mNeedToBuildWidgets == BUILDING_NEEDED ) {
-			// ...cancel the pending rebuild...
+		// If widgets are not already invalidated...
 
-			mBuildWidgets.cancel();
-		} else {
+		if ( mNeedToBuildWidgets != BUILDING_NEEDED ) {
 			mNeedToBuildWidgets = BUILDING_NEEDED;
 
-			// ...otherwise, clear the widgets
+			// ...clear the widgets...
 
 			super.clear();
 			mAddedWidgets.clear();
+
+			// ...and add ourselves to the pending builds (shared with any other GwtMetawidgets)
+
+			if ( PENDING_BUILDS == null ) {
+				PENDING_BUILDS = new ArrayList<GwtMetawidget>();
+			}
+
+			PENDING_BUILDS.add( this );
 		}
 
-		// Schedule a new build
+		// (re)schedule the build. Timer.schedule cancels any pending build, so successive
+		// invalidate requests push the build back
 
-		mBuildWidgets = new Timer() {
+		if ( BUILD_PENDING_WIDGETS == null ) {
+			BUILD_PENDING_WIDGETS = new Timer() {
 
-			@Override
-			public void run() {
+				@Override
+				public void run() {
 
-				buildWidgets();
-			}
-		};
+					buildPendingWidgets();
+				}
+			};
+		}
 
-		mBuildWidgets.schedule( BUILD_DELAY );
+		BUILD_PENDING_WIDGETS.schedule( BUILD_DELAY );
 	}
 
 	/**
@@ -853,43 +919,62 @@ public class GwtMetawidget
 				// Special support for GwtRemoteInspectorProxy
 
 				if ( inspector instanceof GwtRemoteInspectorProxy ) {
-					TypeAndNames typeAndNames = PathUtils.parsePath( mPath );
-					( (GwtRemoteInspectorProxy) inspector ).inspect( mToInspect, typeAndNames.getType(), typeAndNames.getNamesAsArray(), new AsyncCallback<String>() {
+					final InspectionResultCache inspectionResultCache = getInspectionResultCache();
+					final Inspector cacheKey = inspector;
+					final String path = mPath;
+					String cachedInspectionResult = null;
 
-						public void onFailure( Throwable caught ) {
+					if ( inspectionResultCache != null ) {
+						cachedInspectionResult = inspectionResultCache.get( inspector, path );
+					}
 
-							GwtUtils.alert( caught );
+					// (previously cached, so no need for an AJAX call)
 
-							mNeedToBuildWidgets = BUILDING_COMPLETE;
-						}
+					if ( cachedInspectionResult != null ) {
+						mLastInspection = mPipeline.stringToElement( cachedInspectionResult );
+					} else {
+						TypeAndNames typeAndNames = PathUtils.parsePath( mPath );
+						( (GwtRemoteInspectorProxy) inspector ).inspect( mToInspect, typeAndNames.getType(), typeAndNames.getNamesAsArray(), new AsyncCallback<String>() {
 
-						public void onSuccess( String inspectionResult ) {
+							public void onFailure( Throwable caught ) {
 
-							mLastInspection = mPipeline.stringToElement( inspectionResult );
+								GwtUtils.alert( caught );
 
-							try {
-								mIgnoreAddRemove = true;
-								mPipeline.buildWidgets( mLastInspection );
-							} catch ( Exception e ) {
-								GwtUtils.alert( e );
-							} finally {
-								mIgnoreAddRemove = false;
+								mNeedToBuildWidgets = BUILDING_COMPLETE;
 							}
 
-							mNeedToBuildWidgets = BUILDING_COMPLETE;
+							public void onSuccess( String inspectionResult ) {
+
+								if ( inspectionResultCache != null && inspectionResult != null ) {
+									inspectionResultCache.put( cacheKey, path, inspectionResult );
+								}
+
+								mLastInspection = mPipeline.stringToElement( inspectionResult );
+
+								try {
+									mIgnoreAddRemove = true;
+									mPipeline.buildWidgets( mLastInspection );
+								} catch ( Exception e ) {
+									GwtUtils.alert( e );
+								} finally {
+									mIgnoreAddRemove = false;
+								}
 
-							// For unit tests
+								mNeedToBuildWidgets = BUILDING_COMPLETE;
 
-							if ( mExecuteAfterBuildWidgets != null ) {
-								Timer executeAfterBuildWidgets = mExecuteAfterBuildWidgets;
-								mExecuteAfterBuildWidgets = null;
+								// For unit tests
 
-								executeAfterBuildWidgets.run();
+								if ( mExecuteAfterBuildWidgets != null ) {
+									Timer executeAfterBuildWidgets = mExecuteAfterBuildWidgets;
+									mExecuteAfterBuildWidgets = null;
+
+									executeAfterBuildWidgets.run();
+								}
 							}
-						}
-					} );
+						} );
 
-					return;
+						return;
+					}
 				}
 			}
 
@@ -953,6 +1038,7 @@ public class GwtMetawidget
 		mPipeline.initNestedPipeline( nestedMetawidget.mPipeline, attributes );
 		nestedMetawidget.setPath( mPath + StringUtils.SEPARATOR_FORWARD_SLASH_CHAR + attributes.get( NAME ) );
 		nestedMetawidget.setDictionaryName( mDictionaryName );
+		nestedMetawidget.setCacheInspectionResults( mCacheInspectionResults );
 		nestedMetawidget.setToInspect( mToInspect );
 	}
 
@@ -1032,6 +1118,45 @@ public class GwtMetawidget
 		return false;
 	}
 
+	//
+	// Private methods
+	//
+
+	/**
+	 * Builds all pending GwtMetawidgets in a single pass.
+	 * <p>
+	 * Any GwtMetawidgets invalidated during the pass (such as nested GwtMetawidgets) are scheduled
+	 * for the next pass.
+	 */
+
+	/* package private */static void buildPendingWidgets() {
+
+		List<GwtMetawidget> pendingBuilds = PENDING_BUILDS;
+		PENDING_BUILDS = null;
+
+		for ( GwtMetawidget metawidget : pendingBuilds ) {
+			metawidget.buildWidgets();
+		}
+	}
+
+	/**
+	 * @return the cache of inspection results, or null if this GwtMetawidget is not caching
+	 *         inspection results
+	 */
+
+	private InspectionResultCache getInspectionResultCache() {
+
+		if ( !mCacheInspectionResults ) {
+			return null;
+		}
+
+		if ( INSPECTION_RESULT_CACHE == null ) {
+			INSPECTION_RESULT_CACHE = new InspectionResultCache( INSPECTION_RESULT_CACHE_SIZE );
+		}
+
+		return INSPECTION_RESULT_CACHE;
+	}
+
 	//
 	// Inner class
 	//
@@ -1076,6 +1201,19 @@ public class GwtMetawidget
 			return null;
 		}
 
+		@Override
+		protected void buildDeferredWidget( String elementName, Map<String, String> attributes, boolean forcedReadOnly )
+			throws Exception {
+
+			mIgnoreAddRemove = true;
+
+			try {
+				super.buildDeferredWidget( elementName, attributes, forcedReadOnly );
+			} finally {
+				mIgnoreAddRemove = false;
+			}
+		}
+
 		@Override
 		protected void layoutWidget( Widget widget, String elementName, Map<String, String> attributes ) {
 
@@ -0,0 +1,89 @@
+// Metawidget
+//
+// This file is dual licensed under both the LGPL
+// (http://www.gnu.org/licenses/lgpl-2.1.html) and the EPL
+// (http://www.eclipse.org/org/documents/epl-v10.php). As a
+// recipient of Metawidget, you may choose to receive it under either
+// the LGPL or the EPL.
+//
+// Commercial licenses are also available. See http://metawidget.org
+// for details.
+
+package org.metawidget.gwt.client.ui;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Client-side cache of remote inspection results, keyed by Inspector and then by path.
+ * <p>
+ * Each Inspector's results are bounded, evicting the least recently used path. Note this needn't
+ * be <code>synchronized</code> because JavaScript is not multi-threaded.
+ *
+ * @author <a href="http://kennardconsulting.com">Richard Kennard</a>
+ */
+
+/* package private */class InspectionResultCache {
+
+	//
+	// Private members
+	//
+
+	private final int						mMaximumSize;
+
+	private final Map<Object, Map<String, String>>	mCache	= new HashMap<Object, Map<String, String>>();
+
+	//
+	// Constructor
+	//
+
+	/* package private */InspectionResultCache( int maximumSize ) {
+
+		mMaximumSize = maximumSize;
+	}
+
+	//
+	// Public methods
+	//
+
+	/**
+	 * @return the cached inspection result, or null if none
+	 */
+
+	public String get( Object inspector, String path ) {
+
+		Map<String, String> inspectionResults = mCache.get( inspector );
+
+		if ( inspectionResults == null ) {
+			return null;
+		}
+
+		return inspectionResults.get( path );
+	}
+
+	public void put( Object inspector, String path, String inspectionResult ) {
+
+		Map<String, String> inspectionResults = mCache.get( inspector );
+
+		if ( inspectionResults == null ) {
+			inspectionResults = new LinkedHashMap<String, String>( 16, 0.75f, true ) {
+
+				@Override
+				protected boolean removeEldestEntry( Map.Entry<String, String> eldest ) {
+
+					return size() > mMaximumSize;
+				}
+			};
+
+			mCache.put( inspector, inspectionResults );
+		}
+
+		inspectionResults.put( path, inspectionResult );
+	}
+
+	public void clear() {
+
+		mCache.clear();
+	}
+}
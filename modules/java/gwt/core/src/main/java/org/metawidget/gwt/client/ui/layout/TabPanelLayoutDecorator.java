@@ -20,6 +20,8 @@ import org.metawidget.gwt.client.ui.GwtMetawidget;
 import org.metawidget.layout.decorator.LayoutDecoratorConfig;
 import org.metawidget.util.simple.StringUtils;
 
+import com.google.gwt.event.logical.shared.SelectionEvent;
+import com.google.gwt.event.logical.shared.SelectionHandler;
 import com.google.gwt.user.client.ui.FlowPanel;
 import com.google.gwt.user.client.ui.Panel;
 import com.google.gwt.user.client.ui.TabPanel;
@@ -48,15 +50,27 @@ public class TabPanelLayoutDecorator
 	//
 
 	@Override
-	protected Panel createSectionWidget( Panel previousSectionWidget, String section, Map<String, String> attributes, Panel container, GwtMetawidget metawidget ) {
+	protected Panel createSectionWidget( Panel previousSectionWidget, String section, Map<String, String> attributes, final Panel container, final GwtMetawidget metawidget ) {
 
 		// Whole new tab panel?
 
-		TabPanel tabPanel;
+		final TabPanel tabPanel;
 
 		if ( previousSectionWidget == null ) {
 			tabPanel = new TabPanel();
 
+			// Build lazy tabs when first selected
+
+			if ( isLazySections() ) {
+				tabPanel.addSelectionHandler( new SelectionHandler<Integer>() {
+
+					public void onSelection( SelectionEvent<Integer> event ) {
+
+						buildSection( (Panel) tabPanel.getWidget( event.getSelectedItem() ), container, metawidget );
+					}
+				} );
+			}
+
 			// Add to parent container
 
 			Map<String, String> tabPanelAttributes = new HashMap<String, String>();
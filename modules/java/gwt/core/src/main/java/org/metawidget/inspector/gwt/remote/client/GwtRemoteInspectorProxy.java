@@ -12,12 +12,15 @@
 package org.metawidget.inspector.gwt.remote.client;
 
 import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
 
 import org.metawidget.inspector.gwt.remote.iface.GwtRemoteInspector;
 import org.metawidget.inspector.gwt.remote.iface.GwtRemoteInspectorAsync;
 import org.metawidget.inspector.iface.Inspector;
 
 import com.google.gwt.core.client.GWT;
+import com.google.gwt.user.client.Timer;
 import com.google.gwt.user.client.rpc.AsyncCallback;
 import com.google.gwt.user.client.rpc.ServiceDefTarget;
 
@@ -32,6 +35,9 @@ import com.google.gwt.user.client.rpc.ServiceDefTarget;
  * rather than the entire object. This is because some <code>Inspectors</code> inspect the
  * <em>value</em> of the properties (eg. <code>PropertyTypeInspector</code>). On a case-by-case
  * basis, however, such optimization is possible - see <code>GwtMetawidget.rebind</code>.
+ * <p>
+ * Inspections requested at around the same time (eg. by several <code>GwtMetawidget</code>s on the
+ * same page) are batched into a single round trip to the server.
  *
  * @author <a href="http://kennardconsulting.com">Richard Kennard</a>
  */
@@ -39,11 +45,27 @@ import com.google.gwt.user.client.rpc.ServiceDefTarget;
 public class GwtRemoteInspectorProxy
 	implements Inspector {
 
+	//
+	// Private statics
+	//
+
+	/**
+	 * Delay before sending batched inspections to the server. Long enough to collect inspections
+	 * from <code>GwtMetawidget</code>s built at around the same time, short enough not to be
+	 * noticeable.
+	 */
+
+	private static final int					BATCH_DELAY	= 10;
+
 	//
 	// Private members
 	//
 
-	private GwtRemoteInspectorAsync	mInspector;
+	private GwtRemoteInspectorAsync				mInspector;
+
+	private List<PendingInspection>				mPendingInspections;
+
+	private Timer								mSendPendingInspections;
 
 	//
 	// Constructor
@@ -85,24 +107,156 @@ public class GwtRemoteInspectorProxy
 		throw new UnsupportedOperationException( "Use async inspection instead" );
 	}
 
-	public void inspect( Object toInspect, String type, String[] names, final AsyncCallback<String> callback ) {
+	public void inspect( Object toInspect, String type, String[] names, AsyncCallback<String> callback ) {
 
 		if ( !( toInspect instanceof Serializable ) ) {
 			throw new RuntimeException( "Objects passed to GwtRemoteInspector must be Serializable" );
 		}
 
-		mInspector.inspect( (Serializable) toInspect, type, names, new AsyncCallback<String>() {
+		// Queue the inspection, and schedule sending the queue
+
+		if ( mPendingInspections == null ) {
+			mPendingInspections = new ArrayList<PendingInspection>();
+		}
+
+		mPendingInspections.add( new PendingInspection( (Serializable) toInspect, type, names, callback ) );
+
+		if ( mSendPendingInspections == null ) {
+
+			mSendPendingInspections = new Timer() {
+
+				@Override
+				public void run() {
+
+					sendPendingInspections();
+				}
+			};
+
+			mSendPendingInspections.schedule( BATCH_DELAY );
+		}
+	}
+
+	//
+	// Private methods
+	//
+
+	/* package private */void sendPendingInspections() {
+
+		final List<PendingInspection> pendingInspections = mPendingInspections;
+		mPendingInspections = null;
+		mSendPendingInspections = null;
+
+		// Single inspection
+
+		if ( pendingInspections.size() == 1 ) {
+
+			final PendingInspection pendingInspection = pendingInspections.get( 0 );
+
+			mInspector.inspect( pendingInspection.getToInspect(), pendingInspection.getType(), pendingInspection.getNames(), new AsyncCallback<String>() {
+
+				public void onFailure( Throwable caught ) {
+
+					pendingInspection.getCallback().onFailure( caught );
+				}
+
+				public void onSuccess( String xml ) {
+
+					pendingInspection.getCallback().onSuccess( xml );
+				}
+			} );
+
+			return;
+		}
+
+		// Batched inspections
+
+		int size = pendingInspections.size();
+		Serializable[] toInspect = new Serializable[size];
+		String[] types = new String[size];
+		String[][] names = new String[size][];
+
+		for ( int loop = 0; loop < size; loop++ ) {
+
+			PendingInspection pendingInspection = pendingInspections.get( loop );
+			toInspect[loop] = pendingInspection.getToInspect();
+			types[loop] = pendingInspection.getType();
+			names[loop] = pendingInspection.getNames();
+		}
+
+		mInspector.inspectAll( toInspect, types, names, new AsyncCallback<String[]>() {
 
 			public void onFailure( Throwable caught ) {
 
-				callback.onFailure( caught );
+				for ( PendingInspection pendingInspection : pendingInspections ) {
+					pendingInspection.getCallback().onFailure( caught );
+				}
 			}
 
-			public void onSuccess( String xml ) {
+			public void onSuccess( String[] xml ) {
 
-				callback.onSuccess( xml );
+				for ( int loop = 0, length = xml.length; loop < length; loop++ ) {
+					pendingInspections.get( loop ).getCallback().onSuccess( xml[loop] );
+				}
 			}
 		} );
+	}
+
+	//
+	// Inner class
+	//
+
+	/**
+	 * Inspection waiting to be sent to the server.
+	 */
+
+	private static class PendingInspection {
+
+		//
+		// Private members
+		//
+
+		private Serializable			mToInspect;
+
+		private String					mType;
+
+		private String[]				mNames;
 
+		private AsyncCallback<String>	mCallback;
+
+		//
+		// Constructor
+		//
+
+		public PendingInspection( Serializable toInspect, String type, String[] names, AsyncCallback<String> callback ) {
+
+			mToInspect = toInspect;
+			mType = type;
+			mNames = names;
+			mCallback = callback;
+		}
+
+		//
+		// Public methods
+		//
+
+		public Serializable getToInspect() {
+
+			return mToInspect;
+		}
+
+		public String getType() {
+
+			return mType;
+		}
+
+		public String[] getNames() {
+
+			return mNames;
+		}
+
+		public AsyncCallback<String> getCallback() {
+
+			return mCallback;
+		}
 	}
 }
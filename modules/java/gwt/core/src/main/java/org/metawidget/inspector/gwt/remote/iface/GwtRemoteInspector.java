@@ -47,4 +47,11 @@ public interface GwtRemoteInspector
 	//
 
 	String inspect( Serializable toInspect, String type, String[] names );
+
+	/**
+	 * Batched version of <code>inspect</code>, to save round trips when many inspections are
+	 * needed at once (eg. a page with many <code>GwtMetawidget</code>s).
+	 */
+
+	String[] inspectAll( Serializable[] toInspect, String[] types, String[][] names );
 }
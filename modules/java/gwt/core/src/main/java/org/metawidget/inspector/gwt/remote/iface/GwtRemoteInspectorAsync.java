@@ -35,4 +35,6 @@ public interface GwtRemoteInspectorAsync {
 	//
 
 	void inspect( Serializable toInspect, String type, String[] names, AsyncCallback<String> callback );
+
+	void inspectAll( Serializable[] toInspect, String[] types, String[][] names, AsyncCallback<String[]> callback );
 }
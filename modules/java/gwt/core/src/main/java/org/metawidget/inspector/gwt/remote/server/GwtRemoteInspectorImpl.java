@@ -12,6 +12,8 @@
 package org.metawidget.inspector.gwt.remote.server;
 
 import java.io.Serializable;
+import java.util.Collections;
+import java.util.List;
 import java.util.Map;
 
 import javax.servlet.ServletConfig;
@@ -22,8 +24,10 @@ import org.metawidget.config.impl.ServletResourceResolver;
 import org.metawidget.inspectionresultprocessor.iface.InspectionResultProcessor;
 import org.metawidget.inspector.gwt.remote.iface.GwtRemoteInspector;
 import org.metawidget.inspector.iface.Inspector;
+import org.metawidget.inspector.iface.InspectorException;
 import org.metawidget.pipeline.w3c.W3CPipeline;
 import org.metawidget.util.ClassUtils;
+import org.metawidget.util.CollectionUtils;
 
 import com.google.gwt.user.server.rpc.RemoteServiceServlet;
 
@@ -36,6 +40,10 @@ import com.google.gwt.user.server.rpc.RemoteServiceServlet;
  * example <code>com/foo/metawidget.xml</code>.
  * </ul>
  * <p>
+ * Inspection results can optionally be cached, by type and names, using <code>setCacheSize</code>
+ * (for example in <code>metawidget.xml</code>). This is only appropriate if the configured
+ * Inspectors and InspectionResultProcessors do not depend on the <em>values</em> being inspected.
+ * <p>
  * <strong>This Inspector is designed to work 'out of the box' for most cases. However, use of
  * Serializable as a parameter type is not optimal for GWT. We recommend deriving your own interface
  * with your own business-model-specific base class instead.</strong>
@@ -53,6 +61,13 @@ public class GwtRemoteInspectorImpl
 
 	private transient GwtRemoteInspectorImplPipeline	mPipeline;
 
+	/**
+	 * Cache of inspection results, keyed by type and names. Null if caching is disabled.
+	 * Synchronized on itself.
+	 */
+
+	private transient Map<List<String>, String>		mCache;
+
 	//
 	// Constructor
 	//
@@ -94,17 +109,91 @@ public class GwtRemoteInspectorImpl
 
 	public String inspect( Serializable toInspect, String type, String[] names ) {
 
-		return mPipeline.inspect( toInspect, type, names );
+		Map<List<String>, String> cache = mCache;
+
+		if ( cache == null ) {
+			return mPipeline.inspect( toInspect, type, names );
+		}
+
+		// (Inspectors treat null names the same as no names)
+
+		List<String> key = CollectionUtils.newArrayList();
+		key.add( type );
+
+		if ( names != null ) {
+			Collections.addAll( key, names );
+		}
+
+		synchronized ( cache ) {
+			if ( cache.containsKey( key ) ) {
+				return cache.get( key );
+			}
+		}
+
+		String inspectionResult = mPipeline.inspect( toInspect, type, names );
+
+		synchronized ( cache ) {
+			cache.put( key, inspectionResult );
+		}
+
+		return inspectionResult;
+	}
+
+	/**
+	 * Inspect a batch of Serializables/types in a single round trip. Each element of the given
+	 * arrays is one inspection, as if passed to <code>inspect</code>.
+	 *
+	 * @return the inspection results, in the same order as the inspections
+	 */
+
+	public String[] inspectAll( Serializable[] toInspect, String[] types, String[][] names ) {
+
+		if ( toInspect == null || types == null || names == null ) {
+			throw InspectorException.newException( "Batched inspection arrays must not be null" );
+		}
+
+		if ( toInspect.length != types.length || types.length != names.length ) {
+			throw InspectorException.newException( "Batched inspection arrays must be the same length (" + toInspect.length + ", " + types.length + ", " + names.length + ")" );
+		}
+
+		String[] inspectionResults = new String[types.length];
+
+		for ( int loop = 0, length = types.length; loop < length; loop++ ) {
+			inspectionResults[loop] = inspect( toInspect[loop], types[loop], names[loop] );
+		}
+
+		return inspectionResults;
 	}
 
 	public void setInspector( Inspector inspector ) {
 
 		mPipeline.setInspector( inspector );
+		clearCache();
 	}
 
 	public void setInspectionResultProcessors( InspectionResultProcessor<GwtRemoteInspectorImpl>... inspectionResultProcessors ) {
 
 		mPipeline.setInspectionResultProcessors( inspectionResultProcessors );
+		clearCache();
+	}
+
+	/**
+	 * Sets the maximum number of inspection results to cache, keyed by type and names. Defaults to
+	 * 0 (no caching).
+	 * <p>
+	 * Caching ignores the <em>value</em> being inspected, so should only be enabled if the
+	 * configured Inspectors and InspectionResultProcessors do not depend on it (for example,
+	 * <code>PropertyTypeInspector</code> looks at the value of properties declared as
+	 * <code>Object</code>).
+	 */
+
+	public void setCacheSize( int cacheSize ) {
+
+		if ( cacheSize > 0 ) {
+			mCache = CollectionUtils.newLruMap( cacheSize );
+		} else {
+			mCache = null;
+		}
 	}
 
 	//
@@ -132,6 +221,21 @@ public class GwtRemoteInspectorImpl
 		return getServletConfig().getInitParameter( "config" );
 	}
 
+	//
+	// Private methods
+	//
+
+	private void clearCache() {
+
+		Map<List<String>, String> cache = mCache;
+
+		if ( cache != null ) {
+			synchronized ( cache ) {
+				cache.clear();
+			}
+		}
+	}
+
 	//
 	// Inner class
 	//
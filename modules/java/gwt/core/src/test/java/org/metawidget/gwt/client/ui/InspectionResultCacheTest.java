@@ -0,0 +1,59 @@
+// Metawidget
+//
+// This file is dual licensed under both the LGPL
+// (http://www.gnu.org/licenses/lgpl-2.1.html) and the EPL
+// (http://www.eclipse.org/org/documents/epl-v10.php). As a
+// recipient of Metawidget, you may choose to receive it under either
+// the LGPL or the EPL.
+//
+// Commercial licenses are also available. See http://metawidget.org
+// for details.
+
+package org.metawidget.gwt.client.ui;
+
+import junit.framework.TestCase;
+
+/**
+ * @author <a href="http://kennardconsulting.com">Richard Kennard</a>
+ */
+
+public class InspectionResultCacheTest
+	extends TestCase {
+
+	//
+	// Public methods
+	//
+
+	public void testCache() {
+
+		InspectionResultCache cache = new InspectionResultCache( 2 );
+		Object inspector1 = new Object();
+		Object inspector2 = new Object();
+
+		assertEquals( null, cache.get( inspector1, "Foo" ) );
+
+		// Results should be keyed by Inspector and path
+
+		cache.put( inspector1, "Foo", "foo1" );
+		cache.put( inspector2, "Foo", "foo2" );
+		assertEquals( "foo1", cache.get( inspector1, "Foo" ) );
+		assertEquals( "foo2", cache.get( inspector2, "Foo" ) );
+		assertEquals( null, cache.get( inspector1, "Bar" ) );
+
+		// Least recently used results should be evicted (per Inspector)
+
+		cache.put( inspector1, "Bar", "bar1" );
+		assertEquals( "foo1", cache.get( inspector1, "Foo" ) );
+		cache.put( inspector1, "Baz", "baz1" );
+		assertEquals( "foo1", cache.get( inspector1, "Foo" ) );
+		assertEquals( null, cache.get( inspector1, "Bar" ) );
+		assertEquals( "baz1", cache.get( inspector1, "Baz" ) );
+		assertEquals( "foo2", cache.get( inspector2, "Foo" ) );
+
+		// Clearing
+
+		cache.clear();
+		assertEquals( null, cache.get( inspector1, "Foo" ) );
+		assertEquals( null, cache.get( inspector2, "Foo" ) );
+	}
+}
@@ -0,0 +1,163 @@
+// Metawidget
+//
+// This file is dual licensed under both the LGPL
+// (http://www.gnu.org/licenses/lgpl-2.1.html) and the EPL
+// (http://www.eclipse.org/org/documents/epl-v10.php). As a
+// recipient of Metawidget, you may choose to receive it under either
+// the LGPL or the EPL.
+//
+// Commercial licenses are also available. See http://metawidget.org
+// for details.
+
+package org.metawidget.inspector.gwt.remote.server;
+
+import java.io.Serializable;
+import java.util.List;
+
+import junit.framework.TestCase;
+
+import org.metawidget.inspector.iface.Inspector;
+import org.metawidget.inspector.iface.InspectorException;
+import org.metawidget.util.CollectionUtils;
+import org.metawidget.util.simple.StringUtils;
+
+/**
+ * @author <a href="http://kennardconsulting.com">Richard Kennard</a>
+ */
+
+public class GwtRemoteInspectorImplTest
+	extends TestCase {
+
+	//
+	// Public methods
+	//
+
+	public void testInspectAll() {
+
+		GwtRemoteInspectorImpl remoteInspector = new GwtRemoteInspectorImpl();
+		CountingInspector inspector = new CountingInspector();
+		remoteInspector.setInspector( inspector );
+
+		// Results should come back in the same order as the inspections
+
+		String[] inspectionResults = remoteInspector.inspectAll( new Serializable[] { null, null, null }, new String[] { "Foo", "Bar", "Foo" }, new String[][] { new String[0], new String[] { "baz" }, new String[0] } );
+		assertEquals( 3, inspectionResults.length );
+		assertTrue( inspectionResults[0].contains( "type=\"Foo\"" ) );
+		assertTrue( inspectionResults[1].contains( "type=\"Bar/baz\"" ) );
+		assertTrue( inspectionResults[2].contains( "type=\"Foo\"" ) );
+
+		// Without a cache, every inspection should reach the Inspector
+
+		assertEquals( CollectionUtils.newArrayList( "Foo", "Bar/baz", "Foo" ), inspector.getInspected() );
+
+		// Mismatched arrays
+
+		try {
+			remoteInspector.inspectAll( new Serializable[] { null }, new String[] { "Foo", "Bar" }, new String[][] { new String[0] } );
+			fail();
+		} catch ( InspectorException e ) {
+			assertEquals( "Batched inspection arrays must be the same length (1, 2, 1)", e.getMessage() );
+		}
+
+		// Null arrays
+
+		try {
+			remoteInspector.inspectAll( new Serializable[] { null }, new String[] { "Foo" }, null );
+			fail();
+		} catch ( InspectorException e ) {
+			assertEquals( "Batched inspection arrays must not be null", e.getMessage() );
+		}
+	}
+
+	public void testCache() {
+
+		GwtRemoteInspectorImpl remoteInspector = new GwtRemoteInspectorImpl();
+		CountingInspector inspector = new CountingInspector();
+		remoteInspector.setInspector( inspector );
+		remoteInspector.setCacheSize( 2 );
+
+		// Repeated inspections (including within a batch) should be served from the cache
+
+		String inspectionResult = remoteInspector.inspect( null, "Foo", new String[0] );
+		assertEquals( inspectionResult, remoteInspector.inspect( null, "Foo", new String[0] ) );
+		String[] inspectionResults = remoteInspector.inspectAll( new Serializable[] { null, null }, new String[] { "Foo", "Foo" }, new String[][] { new String[0], new String[] { "bar" } } );
+		assertEquals( inspectionResult, inspectionResults[0] );
+		assertTrue( inspectionResults[1].contains( "type=\"Foo/bar\"" ) );
+		assertEquals( CollectionUtils.newArrayList( "Foo", "Foo/bar" ), inspector.getInspected() );
+
+		// Names are part of the key (so 'Foo', 'bar' is not the same as 'Foobar')
+
+		remoteInspector.inspect( null, "Foobar", new String[0] );
+		assertEquals( CollectionUtils.newArrayList( "Foo", "Foo/bar", "Foobar" ), inspector.getInspected() );
+
+		// Null names are the same as no names
+
+		remoteInspector.inspect( null, "Foobar", null );
+		remoteInspector.inspectAll( new Serializable[] { null }, new String[] { "Foobar" }, new String[][] { null } );
+		assertEquals( CollectionUtils.newArrayList( "Foo", "Foo/bar", "Foobar" ), inspector.getInspected() );
+
+		// Least recently used results should be evicted
+
+		remoteInspector.inspect( null, "Foo", new String[] { "bar" } );
+		remoteInspector.inspect( null, "Foo", new String[0] );
+		assertEquals( CollectionUtils.newArrayList( "Foo", "Foo/bar", "Foobar", "Foo" ), inspector.getInspected() );
+
+		// Changing the Inspector should clear the cache
+
+		remoteInspector.setInspector( inspector );
+		remoteInspector.inspect( null, "Foo", new String[0] );
+		assertEquals( 5, inspector.getInspected().size() );
+
+		// Disabling the cache
+
+		remoteInspector.setCacheSize( 0 );
+		remoteInspector.inspect( null, "Foo", new String[0] );
+		remoteInspector.inspect( null, "Foo", new String[0] );
+		assertEquals( 7, inspector.getInspected().size() );
+	}
+
+	//
+	// Inner class
+	//
+
+	/**
+	 * Inspector that records each inspection, and returns the path inspected as the type.
+	 */
+
+	static class CountingInspector
+		implements Inspector {
+
+		//
+		// Private members
+		//
+
+		private final List<String>	mInspected	= CollectionUtils.newArrayList();
+
+		//
+		// Public methods
+		//
+
+		public String inspect( Object toInspect, String type, String... names ) {
+
+			StringBuilder path = new StringBuilder( type );
+
+			if ( names != null ) {
+				for ( String name : names ) {
+					path.append( StringUtils.SEPARATOR_FORWARD_SLASH_CHAR );
+					path.append( name );
+				}
+			}
+
+			synchronized ( mInspected ) {
+				mInspected.add( path.toString() );
+			}
+
+			return "<inspection-result xmlns=\"http://metawidget.org/inspection-result\" version=\"1.0\"><entity type=\"" + path + "\"/></inspection-result>";
+		}
+
+		public List<String> getInspected() {
+
+			return mInspected;
+		}
+	}
+}
@@ -13,12 +13,21 @@ package org.metawidget.inspector.json;
 
 import static org.metawidget.inspector.InspectionResultConstants.*;
 
+import java.io.File;
+import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.io.Reader;
+import java.net.URL;
 import java.util.Map;
 
+import org.metawidget.config.iface.ResourceResolver;
+import org.metawidget.config.impl.SimpleResourceResolver;
 import org.metawidget.inspector.iface.DomInspector;
 import org.metawidget.inspector.iface.InspectorException;
+import org.metawidget.util.CollectionUtils;
+import org.metawidget.util.LogUtils;
+import org.metawidget.util.LogUtils.Log;
 import org.metawidget.util.XmlUtils;
 import org.w3c.dom.Document;
 import org.w3c.dom.Element;
@@ -27,9 +36,20 @@ import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
 import com.google.gson.JsonParser;
 import com.google.gson.JsonPrimitive;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
 
 /**
  * Inspector to look for metadata in JSON files.
+ * <p>
+ * The JSON is read using a streaming parser into a compact index of property names and types,
+ * rather than being held in memory as a tree. The inspection result for each path is built the
+ * first time that path is requested, then cached. This keeps memory and per-call cost
+ * proportional to the paths actually inspected, rather than to the size of the JSON.
+ * <p>
+ * Subclasses that need the JSON values as well as their names (such as
+ * <code>JsonSchemaInspector</code>) can ask to retain the whole JSON tree, and access it using
+ * <code>getRoot</code>.
  *
  * @author <a href="http://kennardconsulting.com">Richard Kennard</a>
  */
@@ -37,11 +57,35 @@ import com.google.gson.JsonPrimitive;
 public class JsonInspector
 	implements DomInspector<Element> {
 
+	//
+	// Private statics
+	//
+
+	private static final String	ARRAY	= "array";
+
+	private static final Log	LOG		= LogUtils.getLog( JsonInspector.class );
+
 	//
 	// Private members
 	//
 
-	private JsonObject	mRoot;
+	private String						mFile;
+
+	private ResourceResolver			mResourceResolver;
+
+	private int							mReloadCheckInterval;
+
+	private URL							mReloadUrl;
+
+	private long						mLastModified;
+
+	private volatile long				mLastReloadCheck;
+
+	private final boolean				mRetainTree;
+
+	private volatile JsonObject			mRoot;
+
+	private volatile JsonObjectIndex	mIndex;
 
 	//
 	// Constructor
@@ -49,15 +93,51 @@ public class JsonInspector
 
 	public JsonInspector( JsonInspectorConfig config ) {
 
+		this( config, false );
+	}
+
+	/**
+	 * @param retainTree
+	 *            whether to retain the whole JSON tree (for use by <code>getRoot</code>), as well as
+	 *            the compact index
+	 */
+
+	protected JsonInspector( JsonInspectorConfig config, boolean retainTree ) {
+
 		InputStream inputStream = config.getInputStream();
+		mFile = config.getFile();
+		mRetainTree = retainTree;
 
-		if ( inputStream == null ) {
+		if ( inputStream == null && mFile == null ) {
 			throw InspectorException.newException( "No JSON input stream specified" );
 		}
 
-		// Parse the JSON
+		mResourceResolver = config.getResourceResolver();
+		mReloadCheckInterval = config.getReloadCheckInterval();
+
+		// Prepare to check for changes
+
+		if ( mReloadCheckInterval > 0 ) {
+
+			if ( mFile == null ) {
+				throw InspectorException.newException( "Reloading requires a JSON file, not an input stream" );
+			}
+
+			mReloadUrl = getUrl( mFile );
+
+			if ( mReloadUrl != null ) {
+				mLastModified = getLastModified( mReloadUrl );
+				mLastReloadCheck = System.currentTimeMillis();
+			}
+		}
+
+		// Parse the JSON (fail fast if it is invalid)
+
+		if ( inputStream == null ) {
+			inputStream = mResourceResolver.openResource( mFile );
+		}
 
-		mRoot = (JsonObject) new JsonParser().parse( new InputStreamReader( inputStream ) );
+		load( inputStream );
 	}
 
 	//
@@ -77,17 +157,17 @@ public class JsonInspector
 
 	public Element inspectAsDom( Object toInspect, String type, String... names ) {
 
-		JsonObject root = getRoot();
+		JsonObjectIndex index = getIndex();
 
 		// Traverse names
 
-		for( String name : names ) {
+		for ( String name : names ) {
 
-			if ( !root.has( name )) {
+			index = index.getChild( name );
+
+			if ( index == null ) {
 				return null;
 			}
-
-			root = root.getAsJsonObject( name );
 		}
 
 		// Start the DOM
@@ -96,54 +176,339 @@ public class JsonInspector
 		Element documentRoot = document.createElementNS( NAMESPACE, ROOT );
 		documentRoot.setAttribute( VERSION, "1.0" );
 		document.appendChild( documentRoot );
-		Element entity = document.createElementNS( NAMESPACE, ENTITY );
+
+		// Copy the cached entity into it (DomInspectors must return DOMs the caller can modify)
+
+		Element entity = index.importEntity( document );
 		entity.setAttribute( TYPE, type );
 		documentRoot.appendChild( entity );
 
-		// Write all JSON values into it
+		// Return the DOM
 
-		for ( Map.Entry<String, JsonElement> entry : root.entrySet() ) {
+		return documentRoot;
+	}
 
-			JsonElement element = entry.getValue();
+	//
+	// Protected methods
+	//
+
+	/**
+	 * Returns the whole JSON tree.
+	 * <p>
+	 * Only available if <code>retainTree</code> was passed to the constructor. By default,
+	 * JsonInspector retains only a compact index of property names and types.
+	 */
+
+	protected JsonObject getRoot() {
+
+		if ( !mRetainTree ) {
+			throw InspectorException.newException( "JSON tree not retained. Use the JsonInspector( JsonInspectorConfig, boolean ) constructor" );
+		}
+
+		reloadIfChanged();
+		return mRoot;
+	}
+
+	//
+	// Private methods
+	//
+
+	private JsonObjectIndex getIndex() {
+
+		reloadIfChanged();
+		return mIndex;
+	}
+
+	/**
+	 * Re-read the JSON file if it has changed since it was last read.
+	 * <p>
+	 * Changes are only checked for if <code>JsonInspectorConfig.setReloadCheckInterval</code> is
+	 * used, and no more often than that interval. Otherwise this method takes no lock.
+	 */
+
+	private void reloadIfChanged() {
+
+		if ( mReloadUrl == null || System.currentTimeMillis() - mLastReloadCheck < mReloadCheckInterval ) {
+			return;
+		}
+
+		synchronized ( this ) {
+
+			// Changed since last read? (check again, in case another thread just reloaded)
+
+			long now = System.currentTimeMillis();
+
+			if ( now - mLastReloadCheck < mReloadCheckInterval ) {
+				return;
+			}
+
+			mLastReloadCheck = now;
+			long lastModified = getLastModified( mReloadUrl );
+
+			if ( lastModified == mLastModified ) {
+				return;
+			}
+
+			LOG.debug( "Reloading {0}", mFile );
+			mLastModified = lastModified;
+			load( mResourceResolver.openResource( mFile ) );
+		}
+	}
+
+	private void load( InputStream inputStream ) {
+
+		try {
+			Reader reader = new InputStreamReader( inputStream );
+
+			try {
+				if ( mRetainTree ) {
+					JsonObject root = (JsonObject) new JsonParser().parse( reader );
+					mIndex = index( root );
+					mRoot = root;
+					return;
+				}
+
+				JsonReader jsonReader = new JsonReader( reader );
+				jsonReader.setLenient( true );
+				JsonObjectIndex index = index( jsonReader );
+
+				if ( !JsonToken.END_DOCUMENT.equals( jsonReader.peek() ) ) {
+					throw InspectorException.newException( "Unexpected content after JSON object" );
+				}
+
+				mIndex = index;
+			} finally {
+				reader.close();
+			}
+		} catch ( InspectorException e ) {
+			throw e;
+		} catch ( Exception e ) {
+			throw InspectorException.newException( e );
+		}
+	}
+
+	/**
+	 * Index the JSON object at the reader's current position, skipping over (rather than
+	 * retaining) its values.
+	 */
+
+	private static JsonObjectIndex index( JsonReader reader )
+		throws IOException {
+
+		Map<String, String> types = CollectionUtils.newLinkedHashMap();
+		Map<String, JsonObjectIndex> children = CollectionUtils.newHashMap();
+
+		reader.beginObject();
+
+		while ( reader.hasNext() ) {
+
+			String name = reader.nextName();
+			JsonToken token = reader.peek();
+			children.remove( name );
+
+			if ( JsonToken.BEGIN_OBJECT.equals( token ) ) {
+				types.put( name, Object.class.getName() );
+				children.put( name, index( reader ) );
+				continue;
+			}
+
+			if ( JsonToken.BEGIN_ARRAY.equals( token ) ) {
+				types.put( name, ARRAY );
+			} else if ( JsonToken.NUMBER.equals( token ) ) {
+				types.put( name, int.class.getName() );
+			} else if ( JsonToken.BOOLEAN.equals( token ) ) {
+				types.put( name, boolean.class.getName() );
+			} else if ( JsonToken.STRING.equals( token ) ) {
+				types.put( name, String.class.getName() );
+			} else {
+				types.put( name, Object.class.getName() );
+			}
+
+			reader.skipValue();
+		}
+
+		reader.endObject();
 
-			// Write the name
+		return new JsonObjectIndex( types, children );
+	}
+
+	/**
+	 * Index the given, already parsed, JSON object.
+	 */
 
-			Element child = document.createElementNS( NAMESPACE, PROPERTY );
-			child.setAttribute( NAME, entry.getKey() );
+	private static JsonObjectIndex index( JsonObject object ) {
 
-			// Write the type
+		Map<String, String> types = CollectionUtils.newLinkedHashMap();
+		Map<String, JsonObjectIndex> children = CollectionUtils.newHashMap();
 
-			if ( element.isJsonPrimitive() ) {
+		for ( Map.Entry<String, JsonElement> entry : object.entrySet() ) {
 
-				JsonPrimitive primitive = (JsonPrimitive) element;
+			String name = entry.getKey();
+			JsonElement element = entry.getValue();
+
+			if ( element.isJsonObject() ) {
+				types.put( name, Object.class.getName() );
+				children.put( name, index( element.getAsJsonObject() ) );
+			} else if ( element.isJsonArray() ) {
+				types.put( name, ARRAY );
+			} else if ( element.isJsonPrimitive() ) {
+				JsonPrimitive primitive = element.getAsJsonPrimitive();
 
 				if ( primitive.isNumber() ) {
-					child.setAttribute( TYPE, int.class.getName() );
+					types.put( name, int.class.getName() );
 				} else if ( primitive.isBoolean() ) {
-					child.setAttribute( TYPE, boolean.class.getName() );
+					types.put( name, boolean.class.getName() );
 				} else {
-					child.setAttribute( TYPE, String.class.getName() );
+					types.put( name, String.class.getName() );
 				}
-			} else if ( element.isJsonArray() ) {
-				child.setAttribute( TYPE, "array" );
 			} else {
-				child.setAttribute( TYPE, Object.class.getName() );
+				types.put( name, Object.class.getName() );
 			}
+		}
+
+		return new JsonObjectIndex( types, children );
+	}
+
+	/**
+	 * Resolve the JSON file to a URL, so that it can be checked for changes. Uses the
+	 * ResourceResolver where possible (such as <code>ServletResourceResolver</code>, which looks in
+	 * <code>/WEB-INF/</code>), so that the same file is checked as is read.
+	 *
+	 * @return the URL, or null if the file cannot be resolved to one (in which case it will not be
+	 *         reloaded)
+	 */
 
-			entity.appendChild( child );
+	private URL getUrl( String file ) {
+
+		// ResourceResolver
+
+		if ( mResourceResolver instanceof SimpleResourceResolver ) {
+			URL url = ( (SimpleResourceResolver) mResourceResolver ).getResource( file );
+
+			if ( url != null ) {
+				return url;
+			}
 		}
 
-		// Return the DOM
+		// Thread's ClassLoader
 
-		return documentRoot;
+		ClassLoader loaderContext = Thread.currentThread().getContextClassLoader();
+
+		if ( loaderContext != null ) {
+			URL url = loaderContext.getResource( file );
+
+			if ( url != null ) {
+				return url;
+			}
+		}
+
+		// Our ClassLoader
+
+		URL url = getClass().getResource( file );
+
+		if ( url != null ) {
+			return url;
+		}
+
+		// File system
+
+		try {
+			File fileOnDisk = new File( file );
+
+			if ( fileOnDisk.exists() ) {
+				return fileOnDisk.toURI().toURL();
+			}
+		} catch ( IOException e ) {
+			throw InspectorException.newException( e );
+		}
+
+		LOG.warn( "Unable to locate {0} to check for changes. It will not be reloaded", file );
+		return null;
+	}
+
+	private static long getLastModified( URL url ) {
+
+		try {
+			return url.openConnection().getLastModified();
+		} catch ( IOException e ) {
+			throw InspectorException.newException( e );
+		}
 	}
 
 	//
-	// Protected methods
+	// Inner class
 	//
 
-	protected JsonObject getRoot() {
+	/**
+	 * Names and types of the properties of a single JSON object, plus the indexes of any nested
+	 * JSON objects.
+	 */
 
-		return mRoot;
+	private static class JsonObjectIndex {
+
+		//
+		// Private members
+		//
+
+		private String[]						mNames;
+
+		private String[]						mTypes;
+
+		private Map<String, JsonObjectIndex>	mChildren;
+
+		/**
+		 * Inspection result built from mNames and mTypes, in its own Document. Created lazily and
+		 * guarded by <code>synchronized</code> (DOM implementations are not thread-safe, even for
+		 * reading).
+		 */
+
+		private Element							mEntity;
+
+		//
+		// Constructor
+		//
+
+		public JsonObjectIndex( Map<String, String> types, Map<String, JsonObjectIndex> children ) {
+
+			mNames = types.keySet().toArray( new String[types.size()] );
+			mTypes = types.values().toArray( new String[types.size()] );
+
+			if ( !children.isEmpty() ) {
+				mChildren = children;
+			}
+		}
+
+		//
+		// Public methods
+		//
+
+		public JsonObjectIndex getChild( String name ) {
+
+			if ( mChildren == null ) {
+				return null;
+			}
+
+			return mChildren.get( name );
+		}
+
+		public synchronized Element importEntity( Document document ) {
+
+			if ( mEntity == null ) {
+
+				Document entityDocument = XmlUtils.newDocument();
+				mEntity = entityDocument.createElementNS( NAMESPACE, ENTITY );
+				entityDocument.appendChild( mEntity );
+
+				for ( int loop = 0, length = mNames.length; loop < length; loop++ ) {
+
+					Element child = entityDocument.createElementNS( NAMESPACE, PROPERTY );
+					child.setAttribute( NAME, mNames[loop] );
+					child.setAttribute( TYPE, mTypes[loop] );
+					mEntity.appendChild( child );
+				}
+			}
+
+			return XmlUtils.importElement( document, mEntity );
+		}
 	}
 }
@@ -13,6 +13,9 @@ package org.metawidget.inspector.json;
 
 import java.io.InputStream;
 
+import org.metawidget.config.iface.NeedsResourceResolver;
+import org.metawidget.config.iface.ResourceResolver;
+import org.metawidget.config.impl.SimpleResourceResolver;
 import org.metawidget.util.simple.ObjectUtils;
 
 /**
@@ -21,13 +24,20 @@ import org.metawidget.util.simple.ObjectUtils;
  * @author <a href="http://kennardconsulting.com">Richard Kennard</a>
  */
 
-public class JsonInspectorConfig {
+public class JsonInspectorConfig
+	implements NeedsResourceResolver {
 
 	//
 	// Private members
 	//
 
-	private InputStream	mInputStream;
+	private InputStream			mInputStream;
+
+	private String				mFile;
+
+	private ResourceResolver	mResourceResolver;
+
+	private int					mReloadCheckInterval;
 
 	//
 	// Public methods
@@ -48,6 +58,45 @@ public class JsonInspectorConfig {
 		return this;
 	}
 
+	/**
+	 * Sets the name of the JSON file, resolved using the <code>ResourceResolver</code>. Unlike
+	 * <code>setInputStream</code>, a file can be re-read if <code>setReloadCheckInterval</code> is
+	 * used.
+	 *
+	 * @return this, as part of a fluent interface
+	 */
+
+	public JsonInspectorConfig setFile( String file ) {
+
+		mFile = file;
+
+		// Fluent interface
+
+		return this;
+	}
+
+	public void setResourceResolver( ResourceResolver resourceResolver ) {
+
+		mResourceResolver = resourceResolver;
+	}
+
+	/**
+	 * Sets how often, in milliseconds, to check whether the JSON file has changed and, if so,
+	 * re-read it. Checks are made during inspection, not on a background thread. Defaults to 0,
+	 * which never re-reads the file. Only applies when using <code>setFile</code>.
+	 *
+	 * @return this, as part of a fluent interface
+	 */
+
+	public JsonInspectorConfig setReloadCheckInterval( int reloadCheckInterval ) {
+
+		mReloadCheckInterval = reloadCheckInterval;
+
+		// Fluent interface
+
+		return this;
+	}
+
 	@Override
 	public boolean equals( Object that ) {
 
@@ -63,6 +112,18 @@ public class JsonInspectorConfig {
 			return false;
 		}
 
+		if ( !ObjectUtils.nullSafeEquals( mFile, ( (JsonInspectorConfig) that ).mFile ) ) {
+			return false;
+		}
+
+		if ( !ObjectUtils.nullSafeEquals( mResourceResolver, ( (JsonInspectorConfig) that ).mResourceResolver ) ) {
+			return false;
+		}
+
+		if ( mReloadCheckInterval != ( (JsonInspectorConfig) that ).mReloadCheckInterval ) {
+			return false;
+		}
+
 		return true;
 	}
 
@@ -71,6 +132,9 @@ public class JsonInspectorConfig {
 
 		int hashCode = 1;
 		hashCode = 31 * hashCode + ObjectUtils.nullSafeHashCode( mInputStream );
+		hashCode = 31 * hashCode + ObjectUtils.nullSafeHashCode( mFile );
+		hashCode = 31 * hashCode + ObjectUtils.nullSafeHashCode( mResourceResolver );
+		hashCode = 31 * hashCode + mReloadCheckInterval;
 
 		return hashCode;
 	}
@@ -83,4 +147,28 @@ public class JsonInspectorConfig {
 
 		return mInputStream;
 	}
+
+	protected String getFile() {
+
+		return mFile;
+	}
+
+	protected ResourceResolver getResourceResolver() {
+
+		if ( mResourceResolver == null ) {
+
+			// Support programmatic configuration (ie. mResourceResolver is specified automatically
+			// by ConfigReader when using metawidget.xml, but is generally not set manually when
+			// people are creating Inspectors by hand)
+
+			return new SimpleResourceResolver();
+		}
+
+		return mResourceResolver;
+	}
+
+	protected int getReloadCheckInterval() {
+
+		return mReloadCheckInterval;
+	}
 }
@@ -14,9 +14,16 @@ package org.metawidget.inspector.json;
 import static org.metawidget.inspector.InspectionResultConstants.*;
 
 import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileWriter;
+import java.io.InputStream;
+import java.io.Writer;
+import java.net.URL;
 
 import junit.framework.TestCase;
 
+import org.metawidget.config.impl.SimpleResourceResolver;
 import org.metawidget.inspector.iface.InspectorException;
 import org.metawidget.util.MetawidgetTestUtils;
 import org.metawidget.util.XmlUtils;
@@ -135,10 +142,214 @@ public class JsonInspectorTest
 		assertEquals( null, XmlUtils.documentFromString( inspector.inspect( null, "fooObject", "badPath" ) ) );
 	}
 
+	public void testCachedPaths() {
+
+		String json = "{ \"path1\": { \"foo\": \"Foo\", \"path2\": { \"bar\": 42 }}, \"baz\": \"Baz\" }";
+		JsonInspector inspector = new JsonInspector( new JsonInspectorConfig().setInputStream( new ByteArrayInputStream( json.getBytes() ) ) );
+
+		// Returned DOMs should be independent copies
+
+		Element documentRoot = inspector.inspectAsDom( null, "fooObject", "path1", "path2" );
+		Element entity = (Element) documentRoot.getFirstChild();
+		assertEquals( "fooObject", entity.getAttribute( TYPE ) );
+		assertEquals( "bar", ( (Element) entity.getFirstChild() ).getAttribute( NAME ) );
+		entity.removeChild( entity.getFirstChild() );
+
+		documentRoot = inspector.inspectAsDom( null, "barObject", "path1", "path2" );
+		entity = (Element) documentRoot.getFirstChild();
+		assertEquals( "barObject", entity.getAttribute( TYPE ) );
+		assertEquals( "bar", ( (Element) entity.getFirstChild() ).getAttribute( NAME ) );
+
+		// Non-objects cannot be traversed
+
+		assertEquals( null, inspector.inspectAsDom( null, "fooObject", "baz" ) );
+		assertEquals( null, inspector.inspectAsDom( null, "fooObject", "path1", "foo" ) );
+	}
+
+	public void testReload()
+		throws Exception {
+
+		File file = File.createTempFile( "metawidget-", ".json" );
+		file.deleteOnExit();
+		writeFile( file, "{ \"foo\": \"Foo\" }" );
+
+		try {
+			new JsonInspector( new JsonInspectorConfig().setInputStream( new ByteArrayInputStream( "{}".getBytes() ) ).setReloadCheckInterval( 1 ) );
+			fail();
+		} catch ( InspectorException e ) {
+			assertEquals( "Reloading requires a JSON file, not an input stream", e.getMessage() );
+		}
+
+		JsonInspectorConfig config = new JsonInspectorConfig().setFile( file.getAbsolutePath() ).setReloadCheckInterval( 1 );
+		config.setResourceResolver( new SimpleResourceResolver() {
+
+			@Override
+			public InputStream openResource( String resource ) {
+
+				try {
+					return new FileInputStream( resource );
+				} catch ( Exception e ) {
+					throw InspectorException.newException( e );
+				}
+			}
+		} );
+
+		JsonInspector inspector = new JsonInspector( config );
+		Element entity = (Element) inspector.inspectAsDom( null, "fooObject" ).getFirstChild();
+		assertEquals( "foo", ( (Element) entity.getFirstChild() ).getAttribute( NAME ) );
+
+		// Change the file
+
+		writeFile( file, "{ \"bar\": 42 }" );
+		file.setLastModified( file.lastModified() + 10000 );
+		Thread.sleep( 10 );
+
+		entity = (Element) inspector.inspectAsDom( null, "fooObject" ).getFirstChild();
+		assertEquals( "bar", ( (Element) entity.getFirstChild() ).getAttribute( NAME ) );
+		assertEquals( int.class.getName(), ( (Element) entity.getFirstChild() ).getAttribute( TYPE ) );
+	}
+
+	public void testReloadViaResourceResolver()
+		throws Exception {
+
+		final File file = File.createTempFile( "metawidget-", ".json" );
+		file.deleteOnExit();
+		writeFile( file, "{ \"foo\": \"Foo\" }" );
+
+		// Files that only the ResourceResolver can locate should still be reloaded
+
+		JsonInspectorConfig config = new JsonInspectorConfig().setFile( "resolved-only.json" ).setReloadCheckInterval( 1 );
+		config.setResourceResolver( new SimpleResourceResolver() {
+
+			@Override
+			public InputStream openResource( String resource ) {
+
+				assertEquals( "resolved-only.json", resource );
+
+				try {
+					return new FileInputStream( file );
+				} catch ( Exception e ) {
+					throw InspectorException.newException( e );
+				}
+			}
+
+			@Override
+			public URL getResource( String resource ) {
+
+				assertEquals( "resolved-only.json", resource );
+
+				try {
+					return file.toURI().toURL();
+				} catch ( Exception e ) {
+					throw InspectorException.newException( e );
+				}
+			}
+		} );
+
+		JsonInspector inspector = new JsonInspector( config );
+		Element entity = (Element) inspector.inspectAsDom( null, "fooObject" ).getFirstChild();
+		assertEquals( "foo", ( (Element) entity.getFirstChild() ).getAttribute( NAME ) );
+
+		writeFile( file, "{ \"bar\": 42 }" );
+		file.setLastModified( file.lastModified() + 10000 );
+		Thread.sleep( 10 );
+
+		entity = (Element) inspector.inspectAsDom( null, "fooObject" ).getFirstChild();
+		assertEquals( "bar", ( (Element) entity.getFirstChild() ).getAttribute( NAME ) );
+
+		// Files that cannot be resolved to a URL at all should just not be reloaded
+
+		config = new JsonInspectorConfig().setFile( "resolved-only.json" ).setReloadCheckInterval( 1 );
+		config.setResourceResolver( new SimpleResourceResolver() {
+
+			@Override
+			public InputStream openResource( String resource ) {
+
+				return new ByteArrayInputStream( "{ \"baz\": true }".getBytes() );
+			}
+		} );
+
+		inspector = new JsonInspector( config );
+		entity = (Element) inspector.inspectAsDom( null, "fooObject" ).getFirstChild();
+		assertEquals( "baz", ( (Element) entity.getFirstChild() ).getAttribute( NAME ) );
+	}
+
+	@SuppressWarnings( "unused" )
+	public void testParseErrors() {
+
+		// Invalid JSON should fail at construction time, not first inspection
+
+		try {
+			new JsonInspector( new JsonInspectorConfig().setInputStream( new ByteArrayInputStream( "{ \"foo\": ".getBytes() ) ) );
+			fail();
+		} catch ( InspectorException e ) {
+			// Should fail
+		}
+
+		try {
+			new JsonInspector( new JsonInspectorConfig().setInputStream( new ByteArrayInputStream( "[ \"foo\" ]".getBytes() ) ) );
+			fail();
+		} catch ( InspectorException e ) {
+			// Should fail
+		}
+
+		try {
+			new JsonInspector( new JsonInspectorConfig().setInputStream( new ByteArrayInputStream( "{ \"foo\": \"Foo\" } { \"bar\": \"Bar\" }".getBytes() ) ) );
+			fail();
+		} catch ( InspectorException e ) {
+			assertEquals( "Unexpected content after JSON object", e.getMessage() );
+		}
+	}
+
+	public void testGetRoot() {
+
+		// By default, the JSON tree is not retained
+
+		JsonInspector inspector = new JsonInspector( new JsonInspectorConfig().setInputStream( new ByteArrayInputStream( "{ \"foo\": \"Foo\" }".getBytes() ) ) );
+
+		try {
+			inspector.getRoot();
+			fail();
+		} catch ( InspectorException e ) {
+			assertEquals( "JSON tree not retained. Use the JsonInspector( JsonInspectorConfig, boolean ) constructor", e.getMessage() );
+		}
+
+		// Subclasses can ask to retain it
+
+		inspector = new JsonInspector( new JsonInspectorConfig().setInputStream( new ByteArrayInputStream( "{ \"foo\": \"Foo\", \"bar\": { \"baz\": 42 } }".getBytes() ) ), true ) {
+			// Subclass
+		};
+
+		assertEquals( "Foo", inspector.getRoot().get( "foo" ).getAsString() );
+		assertEquals( 42, inspector.getRoot().getAsJsonObject( "bar" ).get( "baz" ).getAsInt() );
+
+		// ...and still inspect as normal
+
+		Element entity = (Element) inspector.inspectAsDom( null, "fooObject", "bar" ).getFirstChild();
+		assertEquals( "baz", ( (Element) entity.getFirstChild() ).getAttribute( NAME ) );
+		assertEquals( int.class.getName(), ( (Element) entity.getFirstChild() ).getAttribute( TYPE ) );
+	}
+
 	public void testConfig() {
 
 		MetawidgetTestUtils.testEqualsAndHashcode( JsonInspectorConfig.class, new JsonInspectorConfig() {
 			// Subclass
 		} );
 	}
+
+	//
+	// Private methods
+	//
+
+	private void writeFile( File file, String contents )
+		throws Exception {
+
+		Writer writer = new FileWriter( file );
+
+		try {
+			writer.write( contents );
+		} finally {
+			writer.close();
+		}
+	}
 }
@@ -50,7 +50,7 @@ public class JsonSchemaInspector
 
 	public JsonSchemaInspector( JsonInspectorConfig config ) {
 
-		super( config );
+		super( config, true );
 	}
 
 	//
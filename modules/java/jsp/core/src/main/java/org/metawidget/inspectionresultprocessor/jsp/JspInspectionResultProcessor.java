@@ -32,6 +32,9 @@ import org.metawidget.util.CollectionUtils;
 /**
  * Processes the inspection result and evaluates any expressions of the form <code>${...}</code>
  * using JSP EL.
+ * <p>
+ * Because the result of an expression may vary per request, a Metawidget recording a read-only
+ * fragment that evaluates any expressions is excluded from the fragment cache.
  *
  * @author <a href="http://kennardconsulting.com">Richard Kennard</a>
  */
@@ -74,7 +77,9 @@ public class JspInspectionResultProcessor
 
 				String expression = matcher.group( 0 );
 
-				// ...evaluate it...
+				// ...evaluate it (afresh each request)...
+
+				metawidgetTag.excludeFragmentFromCache();
 
 				PageContext pageContext = metawidgetTag.getPageContext();
 				ExpressionEvaluator expressionEvaluator;
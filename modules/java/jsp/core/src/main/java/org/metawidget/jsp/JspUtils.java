@@ -74,6 +74,19 @@ public final class JspUtils {
 		return delegateContext.getOut().toString();
 	}
 
+	/**
+	 * Writes the given Tag directly to the given context's <code>getOut</code>.
+	 * <p>
+	 * Unlike <code>writeTag</code>, this does not buffer the Tag's output, so should be preferred
+	 * wherever the output need not be inspected or reordered.
+	 */
+
+	public static void streamTag( PageContext context, Tag tag, Tag parentTag )
+		throws JspException {
+
+		writeTagInternal( context, tag, parentTag );
+	}
+
 	/**
 	 * Simulates adding the given child Tag to the given parent Tag.
 	 * <p>
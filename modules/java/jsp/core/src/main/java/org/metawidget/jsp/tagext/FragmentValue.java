@@ -0,0 +1,44 @@
+// Metawidget
+//
+// This file is dual licensed under both the LGPL
+// (http://www.gnu.org/licenses/lgpl-2.1.html) and the EPL
+// (http://www.eclipse.org/org/documents/epl-v10.php). As a
+// recipient of Metawidget, you may choose to receive it under either
+// the LGPL or the EPL.
+//
+// Commercial licenses are also available. See http://metawidget.org
+// for details.
+
+
+package org.metawidget.jsp.tagext;
+
+import javax.servlet.jsp.tagext.Tag;
+
+/**
+ * A value within a cached read-only fragment (see <code>MetawidgetTag.setReadOnlyFragmentCache</code>).
+ * <p>
+ * WidgetBuilders and WidgetProcessors that render values should, whilst the Metawidget is
+ * recording a fragment, return a placeholder (see <code>MetawidgetTag.putFragmentValue</code>)
+ * instead. The FragmentValue is then asked to render the value each time the fragment is written.
+ * <p>
+ * FragmentValues are shared between requests, so must be immutable.
+ *
+ * @author <a href="http://kennardconsulting.com">Richard Kennard</a>
+ */
+
+public interface FragmentValue {
+
+	//
+	// Methods
+	//
+
+	/**
+	 * Creates a Tag to render the value for the current request.
+	 *
+	 * @param metawidget
+	 *            the Metawidget being written. Its path and path prefix will be those at the time
+	 *            the placeholder was recorded
+	 */
+
+	Tag createTag( MetawidgetTag metawidget );
+}
@@ -52,6 +52,11 @@ public class LiteralTag
 	// Public methods
 	//
 
+	public String getLiteral() {
+
+		return mLiteral;
+	}
+
 	@Override
 	public int doEndTag()
 		throws JspException {
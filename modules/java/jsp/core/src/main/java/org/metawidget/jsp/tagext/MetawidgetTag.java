@@ -14,9 +14,15 @@ package org.metawidget.jsp.tagext;
 import static org.metawidget.inspector.InspectionResultConstants.*;
 
 import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.Collections;
+import java.util.List;
 import java.util.Map;
 import java.util.MissingResourceException;
 import java.util.ResourceBundle;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 import javax.servlet.ServletContext;
 import javax.servlet.jsp.JspException;
@@ -24,18 +30,22 @@ import javax.servlet.jsp.PageContext;
 import javax.servlet.jsp.tagext.BodyTag;
 import javax.servlet.jsp.tagext.BodyTagSupport;
 import javax.servlet.jsp.tagext.Tag;
+import javax.servlet.jsp.tagext.TagSupport;
 
 import org.metawidget.config.iface.ConfigReader;
 import org.metawidget.config.impl.BaseConfigReader;
 import org.metawidget.config.impl.ServletResourceResolver;
 import org.metawidget.iface.MetawidgetException;
 import org.metawidget.inspectionresultprocessor.iface.InspectionResultProcessor;
+import org.metawidget.jsp.JspUtils;
 import org.metawidget.inspector.iface.Inspector;
 import org.metawidget.layout.iface.Layout;
 import org.metawidget.pipeline.w3c.W3CPipeline;
+import org.metawidget.util.ClassUtils;
 import org.metawidget.util.CollectionUtils;
 import org.metawidget.util.LogUtils;
 import org.metawidget.util.XmlUtils;
+import org.metawidget.util.simple.ObjectUtils;
 import org.metawidget.util.simple.PathUtils;
 import org.metawidget.util.simple.PathUtils.TypeAndNames;
 import org.metawidget.util.simple.StringUtils;
@@ -61,9 +71,48 @@ public abstract class MetawidgetTag
 	 * different ConfigReader if needed (ie. for Grails).
 	 */
 
-	private static final String										CONFIG_READER_ATTRIBUTE	= "metawidget-config-reader";
+	private static final String										CONFIG_READER_ATTRIBUTE			= "metawidget-config-reader";
 
-	private static final String										DEFAULT_USER_CONFIG		= "metawidget.xml";
+	/**
+	 * Cache configured pipeline templates at the ServletContext level, so that each tag need not
+	 * replay its config file (and the default config file) every time it is configured.
+	 */
+
+	private static final String										PIPELINE_TEMPLATES_ATTRIBUTE	= "metawidget-pipeline-templates";
+
+	private static final int										PIPELINE_TEMPLATES_CACHE_SIZE	= 100;
+
+	/**
+	 * Name of the field holding the pipeline, which <code>configureFromTemplate</code> must not
+	 * copy.
+	 */
+
+	private static final String										PIPELINE_FIELD					= "mPipeline";
+
+	private static final String										DEFAULT_USER_CONFIG				= "metawidget.xml";
+
+	/**
+	 * Cache recorded read-only fragments at the ServletContext level, so that they are discarded on
+	 * redeploy.
+	 */
+
+	private static final String										READ_ONLY_FRAGMENTS_ATTRIBUTE	= "metawidget-read-only-fragments";
+
+	private static final int										READ_ONLY_FRAGMENTS_CACHE_SIZE	= 100;
+
+	/**
+	 * Maximum number of fragments cached under the same key, each recorded with different runtime
+	 * classes (see <code>ReadOnlyFragment.isFor</code>).
+	 */
+
+	private static final int										READ_ONLY_FRAGMENT_VARIANTS		= 10;
+
+	/**
+	 * Delimits the markers of placeholders in a recorded read-only fragment. Unlikely to appear in
+	 * genuine markup.
+	 */
+
+	private static final char										FRAGMENT_MARKER_DELIMITER		= '\u0000';
 
 	/* package private */static boolean								LOGGED_MISSING_CONFIG;
 
@@ -96,6 +145,15 @@ public abstract class MetawidgetTag
 
 	private Map<Object, Object>										mClientProperties;
 
+	private boolean													mReadOnlyFragmentCache;
+
+	/**
+	 * The read-only fragment being recorded. Shared with nested Metawidgets. Null when not
+	 * recording.
+	 */
+
+	private ReadOnlyFragment.Recording								mFragmentRecording;
+
 	/* package private */W3CPipeline<Tag, BodyTag, MetawidgetTag>	mPipeline;
 
 	//
@@ -288,6 +346,102 @@ public abstract class MetawidgetTag
 		mPipeline.setReadOnly( readOnly );
 	}
 
+	public boolean isReadOnlyFragmentCache() {
+
+		return mReadOnlyFragmentCache;
+	}
+
+	/**
+	 * Whether to cache the markup of this Metawidget when it is read-only.
+	 * <p>
+	 * The markup is recorded once, with placeholders for its values, and cached (at the
+	 * ServletContext level) by Metawidget class, path, config, bundle, style and the contents of
+	 * any facets and stubs. Subsequent requests write the cached markup directly, only rendering
+	 * the values. This is suitable for display pages that render the same read-only Metawidget
+	 * many times. Markup that resolves per-request EL (eg. labels or <code>UiJspAttribute</code>s
+	 * evaluated by <code>JspInspectionResultProcessor</code>) is never cached.
+	 */
+
+	public void setReadOnlyFragmentCache( boolean readOnlyFragmentCache ) {
+
+		mReadOnlyFragmentCache = readOnlyFragmentCache;
+	}
+
+	/**
+	 * Whether this Metawidget is recording a read-only fragment (see
+	 * <code>setReadOnlyFragmentCache</code>). If so, WidgetBuilders and WidgetProcessors that render
+	 * values should return placeholders (see <code>putFragmentValue</code>) instead.
+	 */
+
+	public boolean isRecordingFragment() {
+
+		return ( mFragmentRecording != null );
+	}
+
+	/**
+	 * Records a placeholder for a value in a read-only fragment.
+	 *
+	 * @param hidden
+	 *            whether the value is rendered as just hidden fields. If so, the returned marker
+	 *            will look like a hidden field to Layouts
+	 * @return a marker, to be output in place of the value
+	 */
+
+	public String putFragmentValue( FragmentValue value, boolean hidden ) {
+
+		List<ReadOnlyFragment.Placeholder> placeholders = mFragmentRecording.getPlaceholders();
+		String marker = FRAGMENT_MARKER_DELIMITER + String.valueOf( placeholders.size() ) + FRAGMENT_MARKER_DELIMITER;
+
+		if ( hidden ) {
+			marker = "<input type=\"hidden\" name=\"" + marker + "\"/>";
+		}
+
+		placeholders.add( new ReadOnlyFragment.Placeholder( value, mPath, mPathPrefix, marker ) );
+
+		return marker;
+	}
+
+	/**
+	 * Gets the FragmentValue recorded for the given marker.
+	 * <p>
+	 * This allows WidgetProcessors that decorate a placeholder to defer their own decisions until
+	 * the value is rendered.
+	 *
+	 * @param marker
+	 *            a marker previously returned by <code>putFragmentValue</code>
+	 * @return the FragmentValue, or null if not recording or the given String is not a marker
+	 */
+
+	public FragmentValue getFragmentValue( String marker ) {
+
+		if ( mFragmentRecording == null ) {
+			return null;
+		}
+
+		for ( ReadOnlyFragment.Placeholder placeholder : mFragmentRecording.getPlaceholders() ) {
+			if ( placeholder.getMarker().equals( marker ) ) {
+				return placeholder.getValue();
+			}
+		}
+
+		return null;
+	}
+
+	/**
+	 * Excludes the read-only fragment being recorded from the cache.
+	 * <p>
+	 * Clients that resolve per-request state into the markup (eg. EL-based labels, or values) should call
+	 * this method. The fragment is still written for the current request, but is recorded afresh
+	 * next time. Does nothing if not recording.
+	 */
+
+	public void excludeFragmentFromCache() {
+
+		if ( mFragmentRecording != null ) {
+			mFragmentRecording.setCacheable( false );
+		}
+	}
+
 	public void setInspector( Inspector inspector ) {
 
 		mPipeline.setInspector( inspector );
@@ -395,7 +549,11 @@ public abstract class MetawidgetTag
 		mPipeline.configureOnce();
 
 		try {
-			mPipeline.buildWidgets( inspect() );
+			if ( mReadOnlyFragmentCache && isReadOnly() && pageContext != null ) {
+				writeReadOnlyFragment();
+			} else {
+				mPipeline.buildWidgets( inspect() );
+			}
 		} catch ( Exception e ) {
 			throw MetawidgetException.newException( e );
 		}
@@ -471,6 +629,112 @@ public abstract class MetawidgetTag
 
 	protected abstract void beforeBuildCompoundWidget( Element element );
 
+	/**
+	 * Initialise this Metawidget from a configured template.
+	 * <p>
+	 * Copies every field, declared by this class or its subclasses, whose value in the configured
+	 * template differs from its value in the defaults template. That is, everything the
+	 * template's config file set. Runtime state (such as the path, facets and stubs) is never set
+	 * on templates, so is never copied. The pipeline is copied by the
+	 * <code>MetawidgetTagPipeline</code>.
+	 */
+
+	protected void configureFromTemplate( MetawidgetTag template, MetawidgetTag defaults ) {
+
+		try {
+			for ( Class<?> clazz = getClass(); clazz != MetawidgetTag.class.getSuperclass(); clazz = clazz.getSuperclass() ) {
+
+				for ( Field field : clazz.getDeclaredFields() ) {
+
+					int modifiers = field.getModifiers();
+
+					if ( Modifier.isStatic( modifiers ) || Modifier.isFinal( modifiers ) || field.isSynthetic() || PIPELINE_FIELD.equals( field.getName() ) ) {
+						continue;
+					}
+
+					field.setAccessible( true );
+					Object value = field.get( template );
+
+					if ( !ObjectUtils.nullSafeEquals( value, field.get( defaults ) ) ) {
+						field.set( this, value );
+					}
+				}
+			}
+		} catch ( IllegalAccessException e ) {
+			throw MetawidgetException.newException( e );
+		}
+	}
+
+	/**
+	 * Key to cache the read-only fragment of this Metawidget by.
+	 * <p>
+	 * Subclasses should override this method to add any other properties that affect the markup.
+	 */
+
+	protected List<Object> getFragmentKey() {
+
+		List<Object> key = CollectionUtils.newArrayList();
+		key.add( getClass() );
+		key.add( mPath );
+		key.add( mPipeline.getConfig() );
+		key.add( mBundle );
+
+		// Runtime bean (may inspect differently, see inspect())
+
+		Object obj = pageContext.findAttribute( PathUtils.parsePath( mPath, StringUtils.SEPARATOR_DOT_CHAR ).getType() );
+
+		if ( obj != null ) {
+			key.add( obj.getClass() );
+		}
+
+		// Facets and stubs (their content is part of the markup)
+
+		if ( mFacets != null ) {
+			for ( Map.Entry<String, FacetTag> entry : mFacets.entrySet() ) {
+				key.add( entry.getKey() );
+				key.add( entry.getValue().getSavedBodyContent() );
+			}
+		}
+
+		if ( mStubs != null ) {
+			for ( Map.Entry<String, StubTag> entry : mStubs.entrySet() ) {
+				key.add( entry.getKey() );
+				key.add( entry.getValue().getSavedBodyContent() );
+				key.add( entry.getValue().getAttributesMap() );
+			}
+		}
+
+		return key;
+	}
+
+	/**
+	 * Gets the runtime class of the value at the given path, or null if the value is null or EL is
+	 * unavailable.
+	 */
+
+	/* package private */Class<?> getRuntimeClass( String path ) {
+
+		Object value;
+
+		try {
+			value = pageContext.getExpressionEvaluator().evaluate( "${" + path + "}", Object.class, pageContext.getVariableResolver(), null );
+		} catch ( NoSuchMethodError e ) {
+			// pageContext.getExpressionEvaluator() is only available with JSP 2.0
+
+			return null;
+		} catch ( Exception e ) {
+			// EL should fail gracefully
+
+			return null;
+		}
+
+		if ( value == null ) {
+			return null;
+		}
+
+		return value.getClass();
+	}
+
 	protected void initNestedMetawidget( MetawidgetTag nestedMetawidget, Map<String, String> attributes ) {
 
 		// Don't reconfigure...
@@ -482,6 +746,7 @@ public abstract class MetawidgetTag
 		mPipeline.initNestedPipeline( nestedMetawidget.mPipeline, attributes );
 		nestedMetawidget.setPathInternal( mPath + StringUtils.SEPARATOR_DOT_CHAR + attributes.get( NAME ) );
 		nestedMetawidget.setBundle( mBundle );
+		nestedMetawidget.mFragmentRecording = mFragmentRecording;
 	}
 
 	protected Element inspect() {
@@ -525,6 +790,96 @@ public abstract class MetawidgetTag
 
 	protected abstract String getDefaultConfiguration();
 
+	//
+	// Private methods
+	//
+
+	private void writeReadOnlyFragment()
+		throws JspException, IOException {
+
+		ServletContext servletContext = pageContext.getServletContext();
+
+		@SuppressWarnings( "unchecked" )
+		Map<List<Object>, List<ReadOnlyFragment>> fragments = (Map<List<Object>, List<ReadOnlyFragment>>) servletContext.getAttribute( READ_ONLY_FRAGMENTS_ATTRIBUTE );
+
+		if ( fragments == null ) {
+			fragments = Collections.synchronizedMap( CollectionUtils.<List<Object>, List<ReadOnlyFragment>> newLruMap( READ_ONLY_FRAGMENTS_CACHE_SIZE ) );
+			servletContext.setAttribute( READ_ONLY_FRAGMENTS_ATTRIBUTE, fragments );
+		}
+
+		// Find a fragment recorded with the same runtime classes (nested values may be polymorphic)
+
+		List<Object> key = getFragmentKey();
+		List<ReadOnlyFragment> variants = fragments.get( key );
+		ReadOnlyFragment fragment = null;
+
+		if ( variants != null ) {
+			for ( ReadOnlyFragment variant : variants ) {
+
+				if ( variant.isFor( this ) ) {
+					fragment = variant;
+					break;
+				}
+			}
+		}
+
+		if ( fragment == null ) {
+			ReadOnlyFragment.Recording recording = new ReadOnlyFragment.Recording();
+			fragment = recordReadOnlyFragment( recording );
+
+			if ( recording.isCacheable() ) {
+				if ( variants == null ) {
+					variants = new CopyOnWriteArrayList<ReadOnlyFragment>();
+					fragments.put( key, variants );
+				} else if ( variants.size() >= READ_ONLY_FRAGMENT_VARIANTS ) {
+					variants.remove( 0 );
+				}
+
+				variants.add( fragment );
+			}
+		}
+
+		fragment.write( this );
+	}
+
+	/**
+	 * Builds the widgets into a buffer (rather than the page), recording placeholders for their
+	 * values.
+	 */
+
+	private ReadOnlyFragment recordReadOnlyFragment( ReadOnlyFragment.Recording recording )
+		throws JspException {
+
+		PageContext originalPageContext = pageContext;
+		mFragmentRecording = recording;
+
+		try {
+			String markup = JspUtils.writeTag( pageContext, new TagSupport() {
+
+				@Override
+				public int doEndTag() {
+
+					// Layouts write to the Metawidget's own PageContext, so point it at the buffer
+
+					MetawidgetTag.this.pageContext = pageContext;
+
+					try {
+						mPipeline.buildWidgets( inspect() );
+					} catch ( Exception e ) {
+						throw MetawidgetException.newException( e );
+					}
+
+					return EVAL_PAGE;
+				}
+			}, null );
+
+			return new ReadOnlyFragment( markup, recording );
+		} finally {
+			pageContext = originalPageContext;
+			mFragmentRecording = null;
+		}
+	}
+
 	//
 	// Inner class
 	//
@@ -532,6 +887,12 @@ public abstract class MetawidgetTag
 	protected class MetawidgetTagPipeline
 		extends W3CPipeline<Tag, BodyTag, MetawidgetTag> {
 
+		//
+		// Private members
+		//
+
+		private int	mPlaceholdersBeforeWidget;
+
 		//
 		// Protected methods
 		//
@@ -548,9 +909,91 @@ public abstract class MetawidgetTag
 			return MetawidgetTag.this.getDefaultConfiguration();
 		}
 
+		/**
+		 * Configures this pipeline from templates cached at the ServletContext level.
+		 * <p>
+		 * Each template is a Metawidget of the same class, configured once per config file. Its
+		 * Inspectors, InspectionResultProcessors, WidgetBuilders, WidgetProcessors and Layouts can
+		 * be shared because they are immutable. Values the config file set (ie. that differ from
+		 * the defaults template) are always copied, whereas defaults are only copied if this
+		 * pipeline does not already have a value. This is the same as replaying the config file,
+		 * followed by <code>configureDefaults</code>.
+		 * <p>
+		 * Templates are keyed by class and config file. Config files are usually literals in the
+		 * page, but an LRU bound still guards against them being generated (an evicted template is
+		 * simply configured again).
+		 */
+
 		@Override
 		protected void configure() {
 
+			// (pageContext may be null in unit tests, and is always null for templates)
+
+			if ( pageContext == null ) {
+				configureFromConfigReader();
+				return;
+			}
+
+			MetawidgetTag defaultsTemplate = getPipelineTemplate( null );
+			W3CPipeline<Tag, BodyTag, MetawidgetTag> defaults = defaultsTemplate.mPipeline;
+			W3CPipeline<Tag, BodyTag, MetawidgetTag> template = defaults;
+			Object config = getConfig();
+
+			if ( config != null ) {
+				MetawidgetTag configuredTemplate = getPipelineTemplate( (String) config );
+				MetawidgetTag.this.configureFromTemplate( configuredTemplate, defaultsTemplate );
+				template = configuredTemplate.mPipeline;
+			}
+
+			if ( template.isReadOnly() != defaults.isReadOnly() ) {
+				setReadOnly( template.isReadOnly() );
+			}
+
+			if ( getInspector() == null || template.getInspector() != defaults.getInspector() ) {
+				setInspector( template.getInspector() );
+			}
+
+			if ( getInspectionResultProcessors() == null || !ObjectUtils.nullSafeEquals( template.getInspectionResultProcessors(), defaults.getInspectionResultProcessors() ) ) {
+				setInspectionResultProcessors( copyInspectionResultProcessors( template.getInspectionResultProcessors() ) );
+			}
+
+			if ( getWidgetBuilder() == null || template.getWidgetBuilder() != defaults.getWidgetBuilder() ) {
+				setWidgetBuilder( template.getWidgetBuilder() );
+			}
+
+			if ( getWidgetProcessors() == null || !ObjectUtils.nullSafeEquals( template.getWidgetProcessors(), defaults.getWidgetProcessors() ) ) {
+				setWidgetProcessors( copyWidgetProcessors( template.getWidgetProcessors() ) );
+			}
+
+			if ( getLayout() == null || template.getLayout() != defaults.getLayout() ) {
+				setLayout( template.getLayout() );
+			}
+		}
+
+		//
+		// Private methods
+		//
+
+		/**
+		 * Whether the given widget renders no value, so need not use placeholders. Nested
+		 * Metawidgets record their own widgets, and stubs are part of the fragment key.
+		 */
+
+		private boolean isValueless( Tag tag, String elementName ) {
+
+			if ( ACTION.equals( elementName ) ) {
+				return true;
+			}
+
+			if ( tag instanceof StubTag || tag instanceof MetawidgetTag ) {
+				return true;
+			}
+
+			return ( tag instanceof LiteralTag && "".equals( ( (LiteralTag) tag ).getLiteral() ) );
+		}
+
+		private void configureFromConfigReader() {
+
 			try {
 				super.configure();
 			} catch ( MetawidgetException e ) {
@@ -573,6 +1016,115 @@ public abstract class MetawidgetTag
 			}
 		}
 
+		/**
+		 * Gets the template for the given config file, configuring one if necessary.
+		 *
+		 * @param config
+		 *            the config file, or null for a template with just the defaults
+		 */
+
+		private MetawidgetTag getPipelineTemplate( String config ) {
+
+			ServletContext servletContext = pageContext.getServletContext();
+
+			@SuppressWarnings( "unchecked" )
+			Map<String, MetawidgetTag> templates = (Map<String, MetawidgetTag>) servletContext.getAttribute( PIPELINE_TEMPLATES_ATTRIBUTE );
+
+			if ( templates == null ) {
+				templates = Collections.synchronizedMap( CollectionUtils.<String, MetawidgetTag> newLruMap( PIPELINE_TEMPLATES_CACHE_SIZE ) );
+				servletContext.setAttribute( PIPELINE_TEMPLATES_ATTRIBUTE, templates );
+			}
+
+			String key = MetawidgetTag.this.getClass().getName();
+
+			if ( config != null ) {
+				key += StringUtils.SEPARATOR_FORWARD_SLASH_CHAR + config;
+			}
+
+			MetawidgetTag template = templates.get( key );
+
+			if ( template == null ) {
+				try {
+					template = MetawidgetTag.this.getClass().newInstance();
+				} catch ( Exception e ) {
+					throw MetawidgetException.newException( e );
+				}
+
+				// (configures immediately, so that the template is never reconfigured once shared)
+
+				template.mPipeline.setConfigReader( getConfigReader() );
+				template.mPipeline.setConfig( config );
+				template.mPipeline.configureOnce();
+
+				templates.put( key, template );
+			}
+
+			return template;
+		}
+
+		@SuppressWarnings( "unchecked" )
+		private InspectionResultProcessor<MetawidgetTag>[] copyInspectionResultProcessors( List<InspectionResultProcessor<MetawidgetTag>> inspectionResultProcessors ) {
+
+			if ( inspectionResultProcessors == null ) {
+				return null;
+			}
+
+			return inspectionResultProcessors.toArray( new InspectionResultProcessor[inspectionResultProcessors.size()] );
+		}
+
+		@SuppressWarnings( "unchecked" )
+		private WidgetProcessor<Tag, MetawidgetTag>[] copyWidgetProcessors( List<WidgetProcessor<Tag, MetawidgetTag>> widgetProcessors ) {
+
+			if ( widgetProcessors == null ) {
+				return null;
+			}
+
+			return widgetProcessors.toArray( new WidgetProcessor[widgetProcessors.size()] );
+		}
+
+		@Override
+		protected Tag buildWidget( String elementName, Map<String, String> attributes ) {
+
+			if ( mFragmentRecording != null ) {
+				mPlaceholdersBeforeWidget = mFragmentRecording.getPlaceholders().size();
+
+				// Record the runtime class of any value that may be polymorphic, as Inspectors
+				// (eg. PropertyTypeInspector) may inspect it differently
+
+				if ( PROPERTY.equals( elementName ) ) {
+					String type = attributes.get( TYPE );
+
+					if ( type != null ) {
+						Class<?> declaredClass = ClassUtils.niceForName( type );
+
+						if ( declaredClass == null || !Modifier.isFinal( declaredClass.getModifiers() ) ) {
+							String path = mPath + StringUtils.SEPARATOR_DOT_CHAR + attributes.get( NAME );
+							mFragmentRecording.getRuntimeClasses().put( path, getRuntimeClass( path ) );
+						}
+					}
+				}
+			}
+
+			return super.buildWidget( elementName, attributes );
+		}
+
+		/**
+		 * Overridden to exclude the read-only fragment being recorded from the cache if a widget
+		 * did not use placeholders for its value. This is fail-safe: otherwise a WidgetBuilder or
+		 * WidgetProcessor that renders the current value directly would leak it into every
+		 * subsequent request.
+		 */
+
+		@Override
+		protected void layoutWidget( Tag tag, String elementName, Map<String, String> attributes ) {
+
+			if ( mFragmentRecording != null && mFragmentRecording.getPlaceholders().size() == mPlaceholdersBeforeWidget && !isValueless( tag, elementName ) ) {
+				excludeFragmentFromCache();
+			}
+
+			super.layoutWidget( tag, elementName, attributes );
+		}
+
 		@Override
 		protected Map<String, String> getAdditionalAttributes( Tag tag ) {
 
@@ -0,0 +1,239 @@
+// Metawidget
+//
+// This file is dual licensed under both the LGPL
+// (http://www.gnu.org/licenses/lgpl-2.1.html) and the EPL
+// (http://www.eclipse.org/org/documents/epl-v10.php). As a
+// recipient of Metawidget, you may choose to receive it under either
+// the LGPL or the EPL.
+//
+// Commercial licenses are also available. See http://metawidget.org
+// for details.
+
+
+package org.metawidget.jsp.tagext;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+
+import javax.servlet.jsp.JspException;
+import javax.servlet.jsp.JspWriter;
+
+import org.metawidget.jsp.JspUtils;
+import org.metawidget.util.CollectionUtils;
+
+/**
+ * Markup of a read-only Metawidget, recorded once and written many times.
+ * <p>
+ * The markup is split around the placeholders recorded by <code>MetawidgetTag.putFragmentValue</code>.
+ * Writing the fragment writes the literal markup directly, and asks each <code>FragmentValue</code>
+ * to render its value for the current request. A fragment also remembers the runtime classes of
+ * the values it was recorded with, because those may change the inspection result (eg. a
+ * polymorphic property). ReadOnlyFragments are immutable.
+ *
+ * @author <a href="http://kennardconsulting.com">Richard Kennard</a>
+ */
+
+/* package private */class ReadOnlyFragment {
+
+	//
+	// Private members
+	//
+
+	private final String[]				mLiterals;
+
+	private final Placeholder[]			mPlaceholders;
+
+	private final Map<String, Class<?>>	mRuntimeClasses;
+
+	//
+	// Constructor
+	//
+
+	public ReadOnlyFragment( String markup, Recording recording ) {
+
+		List<Placeholder> placeholders = recording.getPlaceholders();
+		mRuntimeClasses = CollectionUtils.newLinkedHashMap( recording.getRuntimeClasses() );
+
+		// Locate every occurrence of every placeholder (WidgetProcessors and Layouts may have
+		// reordered, dropped or repeated them)
+
+		Map<Integer, Placeholder> placeholdersByIndex = CollectionUtils.newTreeMap();
+
+		for ( Placeholder placeholder : placeholders ) {
+
+			String marker = placeholder.getMarker();
+			int indexOf = markup.indexOf( marker );
+
+			while ( indexOf != -1 ) {
+				placeholdersByIndex.put( indexOf, placeholder );
+				indexOf = markup.indexOf( marker, indexOf + marker.length() );
+			}
+		}
+
+		// Split the markup around them
+
+		List<String> literals = CollectionUtils.newArrayList();
+		int lastIndex = 0;
+
+		for ( Map.Entry<Integer, Placeholder> entry : placeholdersByIndex.entrySet() ) {
+
+			literals.add( markup.substring( lastIndex, entry.getKey() ) );
+			lastIndex = entry.getKey() + entry.getValue().getMarker().length();
+		}
+
+		literals.add( markup.substring( lastIndex ) );
+
+		mLiterals = literals.toArray( new String[literals.size()] );
+		mPlaceholders = placeholdersByIndex.values().toArray( new Placeholder[placeholdersByIndex.size()] );
+	}
+
+	//
+	// Public methods
+	//
+
+	/**
+	 * Whether this fragment was recorded with the same runtime classes as the given Metawidget's
+	 * values currently have.
+	 */
+
+	public boolean isFor( MetawidgetTag metawidget ) {
+
+		for ( Map.Entry<String, Class<?>> entry : mRuntimeClasses.entrySet() ) {
+
+			if ( metawidget.getRuntimeClass( entry.getKey() ) != entry.getValue() ) {
+				return false;
+			}
+		}
+
+		return true;
+	}
+
+	public void write( MetawidgetTag metawidget )
+		throws JspException, IOException {
+
+		JspWriter writer = metawidget.getPageContext().getOut();
+		String path = metawidget.getPath();
+		String pathPrefix = metawidget.getPathPrefix();
+
+		try {
+			for ( int loop = 0, length = mPlaceholders.length; loop < length; loop++ ) {
+
+				writer.write( mLiterals[loop] );
+
+				// Render the value using the path it was recorded with (it may belong to a nested
+				// Metawidget)
+
+				Placeholder placeholder = mPlaceholders[loop];
+				metawidget.setPathInternal( placeholder.getPath() );
+				metawidget.setPathPrefix( placeholder.getPathPrefix() );
+				JspUtils.streamTag( metawidget.getPageContext(), placeholder.getValue().createTag( metawidget ), metawidget );
+			}
+
+			writer.write( mLiterals[mPlaceholders.length] );
+		} finally {
+			metawidget.setPathInternal( path );
+			metawidget.setPathPrefix( pathPrefix );
+		}
+	}
+
+	//
+	// Inner class
+	//
+
+	/**
+	 * State of a fragment being recorded. Shared between a Metawidget and its nested Metawidgets.
+	 */
+
+	/* package private */static class Recording {
+
+		//
+		// Private members
+		//
+
+		private final List<Placeholder>		mPlaceholders		= CollectionUtils.newArrayList();
+
+		private final Map<String, Class<?>>	mRuntimeClasses		= CollectionUtils.newLinkedHashMap();
+
+		private boolean						mCacheable			= true;
+
+		//
+		// Public methods
+		//
+
+		public List<Placeholder> getPlaceholders() {
+
+			return mPlaceholders;
+		}
+
+		/**
+		 * Runtime classes of the values the fragment was recorded with, keyed by path.
+		 */
+
+		public Map<String, Class<?>> getRuntimeClasses() {
+
+			return mRuntimeClasses;
+		}
+
+		public boolean isCacheable() {
+
+			return mCacheable;
+		}
+
+		public void setCacheable( boolean cacheable ) {
+
+			mCacheable = cacheable;
+		}
+	}
+
+	/* package private */static class Placeholder {
+
+		//
+		// Private members
+		//
+
+		private final FragmentValue	mValue;
+
+		private final String		mPath;
+
+		private final String		mPathPrefix;
+
+		private final String		mMarker;
+
+		//
+		// Constructor
+		//
+
+		public Placeholder( FragmentValue value, String path, String pathPrefix, String marker ) {
+
+			mValue = value;
+			mPath = path;
+			mPathPrefix = pathPrefix;
+			mMarker = marker;
+		}
+
+		//
+		// Public methods
+		//
+
+		public FragmentValue getValue() {
+
+			return mValue;
+		}
+
+		public String getPath() {
+
+			return mPath;
+		}
+
+		public String getPathPrefix() {
+
+			return mPathPrefix;
+		}
+
+		public String getMarker() {
+
+			return mMarker;
+		}
+	}
+}
@@ -11,6 +11,7 @@
 
 package org.metawidget.jsp.tagext.html;
 
+import java.util.List;
 import java.util.Map;
 
 import org.metawidget.jsp.tagext.MetawidgetTag;
@@ -70,4 +71,14 @@ public abstract class BaseHtmlMetawidgetTag
 		tag.setStyle( mStyle );
 		tag.setStyleClass( mStyleClass );
 	}
+
+	@Override
+	protected List<Object> getFragmentKey() {
+
+		List<Object> key = super.getFragmentKey();
+		key.add( mStyle );
+		key.add( mStyleClass );
+
+		return key;
+	}
 }
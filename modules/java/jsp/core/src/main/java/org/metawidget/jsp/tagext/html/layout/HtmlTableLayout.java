@@ -23,6 +23,7 @@ import javax.servlet.jsp.tagext.Tag;
 
 import org.metawidget.jsp.JspUtils;
 import org.metawidget.jsp.tagext.FacetTag;
+import org.metawidget.jsp.tagext.LiteralTag;
 import org.metawidget.jsp.tagext.MetawidgetTag;
 import org.metawidget.jsp.tagext.StubTag;
 import org.metawidget.layout.iface.AdvancedLayout;
@@ -71,6 +72,8 @@ public class HtmlTableLayout
 
 	private final String		mFooterStyleClass;
 
+	private final boolean		mStreaming;
+
 	//
 	// Constructor
 	//
@@ -88,6 +91,7 @@ public class HtmlTableLayout
 		mColumnStyleClasses = config.getColumnStyleClasses();
 		mFooterStyle = config.getFooterStyle();
 		mFooterStyleClass = config.getFooterStyleClass();
+		mStreaming = config.isStreaming();
 	}
 
 	//
@@ -192,6 +196,16 @@ public class HtmlTableLayout
 				if ( literal == null || literal.length() == 0 ) {
 					return;
 				}
+			} else if ( tag instanceof LiteralTag ) {
+				literal = ( (LiteralTag) tag ).getLiteral();
+			} else if ( mStreaming && !TRUE.equals( attributes.get( HIDDEN ) ) ) {
+
+				// Stream child directly to the page, without buffering it
+
+				layoutBeforeChild( tag, elementName, attributes, metawidgetTag );
+				JspUtils.streamTag( metawidgetTag.getPageContext(), tag, containerTag );
+				layoutAfterChild( attributes, metawidgetTag );
+				return;
 			} else {
 				literal = JspUtils.writeTag( metawidgetTag.getPageContext(), tag, containerTag );
 			}
@@ -38,6 +38,8 @@ public class HtmlTableLayoutConfig {
 
 	private String		mFooterStyleClass;
 
+	private boolean		mStreaming;
+
 	//
 	// Public methods
 	//
@@ -109,6 +111,23 @@ public class HtmlTableLayoutConfig {
 		return this;
 	}
 
+	/**
+	 * Whether to write widgets directly to the page's <code>JspWriter</code>, in layout order,
+	 * rather than rendering each one to a String first. Widgets whose attributes mark them as
+	 * <code>hidden</code>, and literals consisting only of hidden fields, are still buffered so
+	 * they can be moved out of the table. Other widgets always get a table row, even if they
+	 * render nothing but hidden fields.
+	 *
+	 * @return this, as part of a fluent interface
+	 */
+
+	public HtmlTableLayoutConfig setStreaming( boolean streaming ) {
+
+		mStreaming = streaming;
+
+		return this;
+	}
+
 	@Override
 	public boolean equals( Object that ) {
 
@@ -144,6 +163,10 @@ public class HtmlTableLayoutConfig {
 			return false;
 		}
 
+		if ( mStreaming != ( (HtmlTableLayoutConfig) that ).mStreaming ) {
+			return false;
+		}
+
 		return true;
 	}
 
@@ -157,6 +180,7 @@ public class HtmlTableLayoutConfig {
 		hashCode = 31 * hashCode + ObjectUtils.nullSafeHashCode( mColumnStyleClasses );
 		hashCode = 31 * hashCode + ObjectUtils.nullSafeHashCode( mFooterStyle );
 		hashCode = 31 * hashCode + ObjectUtils.nullSafeHashCode( mFooterStyleClass );
+		hashCode = 31 * hashCode + ObjectUtils.nullSafeHashCode( mStreaming );
 
 		return hashCode;
 	}
@@ -194,4 +218,9 @@ public class HtmlTableLayoutConfig {
 
 		return mFooterStyleClass;
 	}
+
+	protected boolean isStreaming() {
+
+		return mStreaming;
+	}
 }
@@ -146,6 +146,10 @@ public final class HtmlWidgetBuilderUtils {
 
 	public static Object evaluate( String expression, MetawidgetTag metawidget ) {
 
+		// A value evaluated while recording a read-only fragment would be baked into it
+
+		metawidget.excludeFragmentFromCache();
+
 		try {
 			PageContext context = metawidget.getPageContext();
 			return context.getExpressionEvaluator().evaluate( expression, Object.class, context.getVariableResolver(), null );
@@ -21,6 +21,7 @@ import java.util.Map;
 
 import javax.servlet.jsp.tagext.Tag;
 
+import org.metawidget.jsp.tagext.FragmentValue;
 import org.metawidget.jsp.tagext.LiteralTag;
 import org.metawidget.jsp.tagext.MetawidgetTag;
 import org.metawidget.jsp.tagext.html.HtmlStubTag;
@@ -185,6 +186,21 @@ public class ReadOnlyWidgetBuilder
 	protected Tag setAttributeAndCreateReadOnlyLabelTag( Map<String, String> attributes, MetawidgetTag metawidget ) {
 
 		attributes.put( HiddenFieldProcessor.ATTRIBUTE_NEEDS_HIDDEN_FIELD, TRUE );
+
+		// Recording a read-only fragment? Render the label afresh each time
+
+		if ( metawidget.isRecordingFragment() ) {
+			final Map<String, String> fragmentAttributes = CollectionUtils.newHashMap( attributes );
+
+			return new LiteralTag( metawidget.putFragmentValue( new FragmentValue() {
+
+				public Tag createTag( MetawidgetTag metawidgetToWrite ) {
+
+					return createReadOnlyLabelTag( fragmentAttributes, metawidgetToWrite );
+				}
+			}, false ) );
+		}
+
 		return createReadOnlyLabelTag( attributes, metawidget );
 	}
 }
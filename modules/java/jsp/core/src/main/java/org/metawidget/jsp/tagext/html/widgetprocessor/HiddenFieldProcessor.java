@@ -19,9 +19,11 @@ import javax.servlet.jsp.JspException;
 import javax.servlet.jsp.tagext.Tag;
 
 import org.metawidget.jsp.JspUtils;
+import org.metawidget.jsp.tagext.FragmentValue;
 import org.metawidget.jsp.tagext.LiteralTag;
 import org.metawidget.jsp.tagext.MetawidgetTag;
 import org.metawidget.jsp.tagext.html.widgetbuilder.HtmlWidgetBuilderUtils;
+import org.metawidget.util.CollectionUtils;
 import org.metawidget.widgetbuilder.iface.WidgetBuilderException;
 import org.metawidget.widgetprocessor.iface.WidgetProcessor;
 
@@ -81,11 +83,47 @@ public class HiddenFieldProcessor
 			// Write the tag...
 
 			String value = JspUtils.writeTag( metawidget.getPageContext(), tag, metawidget );
+
+			// Recording a read-only fragment, and the value is a placeholder? Wrap the value afresh
+			// each time, so that whether it is empty is decided once it is known
+
+			final FragmentValue fragmentValue = metawidget.getFragmentValue( value );
+
+			if ( fragmentValue != null && !TRUE.equals( attributes.get( HIDDEN ) ) ) {
+				final Map<String, String> fragmentAttributes = CollectionUtils.newHashMap( attributes );
+
+				return new LiteralTag( metawidget.putFragmentValue( new FragmentValue() {
+
+					public Tag createTag( MetawidgetTag metawidgetToWrite ) {
+
+						return wrapTag( fragmentValue.createTag( metawidgetToWrite ), fragmentAttributes, metawidgetToWrite );
+					}
+				}, false ) );
+			}
+
 			builder.append( value );
 
 			// ...together with a hidden tag
 
-			Tag hiddenTag = createHiddenTag( attributes, metawidget );
+			Tag hiddenTag;
+
+			if ( metawidget.isRecordingFragment() ) {
+
+				// Recording a read-only fragment? Render the hidden field afresh each time
+
+				final Map<String, String> fragmentAttributes = CollectionUtils.newHashMap( attributes );
+
+				hiddenTag = new LiteralTag( metawidget.putFragmentValue( new FragmentValue() {
+
+					public Tag createTag( MetawidgetTag metawidgetToWrite ) {
+
+						return createHiddenTag( fragmentAttributes, metawidgetToWrite );
+					}
+				}, true ) );
+			} else {
+				hiddenTag = createHiddenTag( attributes, metawidget );
+			}
+
 			builder.append( JspUtils.writeTag( metawidget.getPageContext(), hiddenTag, metawidget ) );
 
 			// If value is empty, output a SPAN to stop HtmlTableLayout treating this field as 'just
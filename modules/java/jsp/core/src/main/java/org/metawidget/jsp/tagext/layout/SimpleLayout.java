@@ -13,7 +13,6 @@ package org.metawidget.jsp.tagext.layout;
 
 import java.util.Map;
 
-import javax.servlet.jsp.JspWriter;
 import javax.servlet.jsp.tagext.BodyTag;
 import javax.servlet.jsp.tagext.Tag;
 
@@ -41,8 +40,7 @@ public class SimpleLayout
 	public void layoutWidget( Tag tag, String elementName, Map<String, String> attributes, BodyTag containerTag, MetawidgetTag metawidgetTag ) {
 
 		try {
-			JspWriter writer = metawidgetTag.getPageContext().getOut();
-			writer.write( JspUtils.writeTag( metawidgetTag.getPageContext(), tag, containerTag ) );
+			JspUtils.streamTag( metawidgetTag.getPageContext(), tag, containerTag );
 		} catch ( Exception e ) {
 			throw LayoutException.newException( e );
 		}
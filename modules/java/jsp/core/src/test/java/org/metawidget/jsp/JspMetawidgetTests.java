@@ -76,6 +76,12 @@ public class JspMetawidgetTests {
 			mAttributes.put( name, value );
 		}
 
+		@Override
+		public Object findAttribute( String name ) {
+
+			return mAttributes.get( name );
+		}
+
 		//
 		// Unsupported public methods
 		//
@@ -159,12 +165,6 @@ public class JspMetawidgetTests {
 			throw new UnsupportedOperationException();
 		}
 
-		@Override
-		public Object findAttribute( String arg0 ) {
-
-			throw new UnsupportedOperationException();
-		}
-
 		@Override
 		public Object getAttribute( String name, int index ) {
 
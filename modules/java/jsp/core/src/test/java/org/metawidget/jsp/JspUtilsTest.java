@@ -177,6 +177,32 @@ public class JspUtilsTest
 		assertEquals( "", JspUtils.writeTag( dummyPageContext, testTag, null ) );
 	}
 
+	public void testStreamTag()
+		throws Exception {
+
+		Tag testTag = new TagSupport() {
+
+			@Override
+			public int doEndTag()
+				throws JspException {
+
+				try {
+					pageContext.getOut().write( "Foo" );
+					JspUtils.streamTag( pageContext, new LiteralTag( "Bar" ), this );
+					pageContext.getOut().write( "Baz" );
+				} catch ( Exception e ) {
+					throw new JspException( e );
+				}
+
+				return Tag.EVAL_PAGE;
+			}
+		};
+
+		// Streamed output should arrive in order, in the enclosing writer
+
+		assertEquals( "FooBarBaz", JspUtils.writeTag( new DummyPageContext(), testTag, null ) );
+	}
+
 	int	mRepeat;
 
 	public void testRepeatBody()
@@ -11,14 +11,41 @@
 
 package org.metawidget.jsp.tagext.html;
 
+import java.io.InputStream;
 import java.lang.reflect.Field;
+import java.sql.Timestamp;
+import java.util.Date;
+import java.util.List;
+import java.util.ListResourceBundle;
+import java.util.Map;
+
+import javax.servlet.jsp.el.Expression;
+import javax.servlet.jsp.el.ExpressionEvaluator;
+import javax.servlet.jsp.el.FunctionMapper;
+import javax.servlet.jsp.el.VariableResolver;
+import javax.servlet.jsp.jstl.fmt.LocalizationContext;
+import javax.servlet.jsp.tagext.BodyTag;
+import javax.servlet.jsp.tagext.Tag;
 
 import junit.framework.TestCase;
 
+import org.metawidget.config.iface.ConfigReader;
+import org.metawidget.inspectionresultprocessor.jsp.JspInspectionResultProcessor;
+import org.metawidget.inspector.iface.Inspector;
+import org.metawidget.jsp.JspUtils;
+import org.metawidget.jsp.JspMetawidgetTests.MockPageContext;
 import org.metawidget.jsp.tagext.FacetTag;
+import org.metawidget.jsp.tagext.LiteralTag;
 import org.metawidget.jsp.tagext.MetawidgetTag;
 import org.metawidget.jsp.tagext.StubTag;
+import org.metawidget.jsp.tagext.html.layout.HtmlTableLayout;
+import org.metawidget.jsp.tagext.html.widgetbuilder.ReadOnlyWidgetBuilder;
+import org.metawidget.jsp.tagext.html.widgetprocessor.HiddenFieldProcessor;
+import org.metawidget.jsp.tagext.layout.SimpleLayout;
+import org.metawidget.layout.iface.Layout;
 import org.metawidget.pipeline.base.BasePipeline;
+import org.metawidget.util.CollectionUtils;
+import org.metawidget.widgetbuilder.iface.WidgetBuilder;
 
 /**
  * HtmlMetawidgetTag test cases.
@@ -98,4 +125,324 @@ public class HtmlMetawidgetTagTest
 		assertEquals( null, stubs.get( metawidget ) );
 		assertTrue( true == (Boolean) needsConfiguringField.get( pipeline ) );
 	}
+
+	public void testPipelineTemplates() {
+
+		final List<String> configured = CollectionUtils.newArrayList();
+
+		ConfigReader configReader = new ConfigReader() {
+
+			public Object configure( String resource, Object toConfigure, String... names ) {
+
+				configured.add( resource );
+				HtmlMetawidgetTag metawidget = (HtmlMetawidgetTag) toConfigure;
+
+				if ( names.length == 0 ) {
+					metawidget.setReadOnly( true );
+					metawidget.setStyle( "foo" );
+					metawidget.setStyleClass( "baz" );
+					metawidget.setReadOnlyFragmentCache( true );
+					metawidget.setBundle( new LocalizationContext( new ListResourceBundle() {
+
+						@Override
+						protected Object[][] getContents() {
+
+							return new Object[][] { { "bar", "Localized Bar" } };
+						}
+					} ) );
+				} else if ( "layout".equals( names[0] ) ) {
+					metawidget.setLayout( new HtmlTableLayout() );
+				}
+
+				return toConfigure;
+			}
+
+			public Object configure( InputStream stream, Object toConfigure, String... names ) {
+
+				throw new UnsupportedOperationException();
+			}
+		};
+
+		MockPageContext pageContext = new MockPageContext();
+		pageContext.getServletContext().setAttribute( "metawidget-config-reader", configReader );
+
+		HtmlMetawidgetTag metawidget1 = new HtmlMetawidgetTag();
+		metawidget1.setPageContext( pageContext );
+		metawidget1.setConfig( "metawidget-test.xml" );
+		Layout<Tag, BodyTag, MetawidgetTag> layout = metawidget1.getLayout();
+		assertTrue( layout instanceof HtmlTableLayout );
+		assertTrue( metawidget1.isReadOnly() );
+		assertEquals( "foo", metawidget1.getStyle() );
+		assertEquals( "baz", metawidget1.getStyleClass() );
+		assertTrue( metawidget1.isReadOnlyFragmentCache() );
+		assertEquals( "Localized Bar", metawidget1.getLocalizedKey( "bar" ) );
+		assertTrue( configured.contains( "metawidget-test.xml" ) );
+		assertEquals( 2, ( (Map<?, ?>) pageContext.getServletContext().getAttribute( "metawidget-pipeline-templates" ) ).size() );
+
+		// Second tag should copy the template, not replay the config
+
+		configured.clear();
+		HtmlMetawidgetTag metawidget2 = new HtmlMetawidgetTag();
+		metawidget2.setPageContext( pageContext );
+		metawidget2.setValue( "abc" );
+		metawidget2.setConfig( "metawidget-test.xml" );
+		assertTrue( layout == metawidget2.getLayout() );
+		assertTrue( metawidget2.isReadOnly() );
+		assertEquals( "foo", metawidget2.getStyle() );
+		assertEquals( "baz", metawidget2.getStyleClass() );
+		assertTrue( metawidget2.isReadOnlyFragmentCache() );
+		assertEquals( "abc", metawidget2.getPath() );
+		assertEquals( "Localized Bar", metawidget2.getLocalizedKey( "bar" ) );
+		assertTrue( configured.isEmpty() );
+
+		// Defaults should not override values set explicitly
+
+		HtmlMetawidgetTag metawidget3 = new HtmlMetawidgetTag();
+		metawidget3.setPageContext( pageContext );
+		metawidget3.setConfig( null );
+		SimpleLayout simpleLayout = new SimpleLayout();
+		metawidget3.setLayout( simpleLayout );
+		assertTrue( simpleLayout == metawidget3.getLayout() );
+		assertFalse( metawidget3.isReadOnly() );
+		assertEquals( null, metawidget3.getLocalizedKey( "bar" ) );
+		assertTrue( configured.isEmpty() );
+	}
+
+	public void testReadOnlyFragmentCache()
+		throws Exception {
+
+		MockPageContext pageContext = new MockPageContext();
+		pageContext.getServletContext().setAttribute( "metawidget-config-reader", new ConfigReader() {
+
+			public Object configure( String resource, Object toConfigure, String... names ) {
+
+				return toConfigure;
+			}
+
+			public Object configure( InputStream stream, Object toConfigure, String... names ) {
+
+				throw new UnsupportedOperationException();
+			}
+		} );
+
+		// Uncached
+
+		String uncached = JspUtils.writeTag( pageContext, createReadOnlyMetawidget( false ), null );
+		assertTrue( uncached.contains( "label1" ) );
+		assertTrue( uncached.contains( "<input type=\"hidden\" value=\"result of ${foo.baz}\" name=\"foo.baz\"/>" ) );
+		assertEquals( 1, mInspections );
+
+		// Recorded
+
+		assertEquals( uncached.replace( "label1", "label2" ), JspUtils.writeTag( pageContext, createReadOnlyMetawidget( true ), null ) );
+		assertEquals( 2, mInspections );
+
+		// Replayed (should not inspect, but should render the values afresh)
+
+		assertEquals( uncached.replace( "label1", "label3" ), JspUtils.writeTag( pageContext, createReadOnlyMetawidget( true ), null ) );
+		assertEquals( 2, mInspections );
+
+		// Different style, different markup
+
+		HtmlMetawidgetTag metawidget = createReadOnlyMetawidget( true );
+		metawidget.setStyleClass( "bar" );
+		assertTrue( JspUtils.writeTag( pageContext, metawidget, null ).contains( " class=\"bar\"" ) );
+		assertEquals( 3, mInspections );
+
+		// Empty values should be decided when written, not when recorded
+
+		mEmptyLabels = true;
+		String replayed = JspUtils.writeTag( pageContext, createReadOnlyMetawidget( true ), null );
+		assertEquals( 3, mInspections );
+		assertTrue( replayed.contains( "<input type=\"hidden\" value=\"result of ${foo.bar}\" name=\"foo.bar\"/><span></span>" ) );
+		assertEquals( JspUtils.writeTag( pageContext, createReadOnlyMetawidget( false ), null ), replayed );
+		assertEquals( 4, mInspections );
+		mEmptyLabels = false;
+
+		// EL-based labels should not be cached
+
+		mBarLabel = "${bar.label}";
+		metawidget = createReadOnlyMetawidget( true );
+		metawidget.setStyle( "el" );
+		metawidget.setInspectionResultProcessors( new JspInspectionResultProcessor() );
+		assertTrue( JspUtils.writeTag( pageContext, metawidget, null ).contains( "<label>result of ${bar.label}:</label>" ) );
+		assertEquals( 5, mInspections );
+
+		metawidget = createReadOnlyMetawidget( true );
+		metawidget.setStyle( "el" );
+		metawidget.setInspectionResultProcessors( new JspInspectionResultProcessor() );
+		assertTrue( JspUtils.writeTag( pageContext, metawidget, null ).contains( "<label>result of ${bar.label}:</label>" ) );
+		assertEquals( 6, mInspections );
+		mBarLabel = null;
+	}
+
+	@SuppressWarnings( { "unchecked", "rawtypes" } )
+	public void testReadOnlyFragmentCacheFailSafe()
+		throws Exception {
+
+		MockPageContext pageContext = new MockPageContext() {
+
+			@Override
+			public ExpressionEvaluator getExpressionEvaluator() {
+
+				return new ExpressionEvaluator() {
+
+					@Override
+					@SuppressWarnings( "rawtypes" )
+					public Object evaluate( String expression, Class expectedType, VariableResolver resolver, FunctionMapper functionMapper ) {
+
+						if ( "${foo.bar}".equals( expression ) ) {
+							return mBarValue;
+						}
+
+						return "result of " + expression;
+					}
+
+					@Override
+					@SuppressWarnings( "rawtypes" )
+					public Expression parseExpression( String expression, Class expectedType, FunctionMapper functionMapper ) {
+
+						throw new UnsupportedOperationException();
+					}
+				};
+			}
+		};
+
+		pageContext.getServletContext().setAttribute( "metawidget-config-reader", new ConfigReader() {
+
+			public Object configure( String resource, Object toConfigure, String... names ) {
+
+				return toConfigure;
+			}
+
+			public Object configure( InputStream stream, Object toConfigure, String... names ) {
+
+				throw new UnsupportedOperationException();
+			}
+		} );
+
+		// Widgets that render their value directly should never be cached
+
+		HtmlMetawidgetTag metawidget = createReadOnlyMetawidget( true );
+		metawidget.setWidgetBuilder( (WidgetBuilder) new WidgetBuilder<Tag, MetawidgetTag>() {
+
+			public Tag buildWidget( String elementName, Map<String, String> attributes, MetawidgetTag metawidgetTag ) {
+
+				if ( !"property".equals( elementName ) ) {
+					return null;
+				}
+
+				mLabels++;
+				return new LiteralTag( "value" + mLabels );
+			}
+		} );
+		assertTrue( JspUtils.writeTag( pageContext, metawidget, null ).contains( "value1" ) );
+		assertEquals( 1, mInspections );
+
+		metawidget = createReadOnlyMetawidget( true );
+		metawidget.setWidgetBuilder( (WidgetBuilder) new WidgetBuilder<Tag, MetawidgetTag>() {
+
+			public Tag buildWidget( String elementName, Map<String, String> attributes, MetawidgetTag metawidgetTag ) {
+
+				if ( !"property".equals( elementName ) ) {
+					return null;
+				}
+
+				mLabels++;
+				return new LiteralTag( "value" + mLabels );
+			}
+		} );
+		assertTrue( JspUtils.writeTag( pageContext, metawidget, null ).contains( "value3" ) );
+		assertEquals( 2, mInspections );
+
+		// Polymorphic values should be recorded per runtime class
+
+		mBarType = Date.class.getName();
+		mBarValue = new Date();
+		JspUtils.writeTag( pageContext, createReadOnlyMetawidget( true ), null );
+		assertEquals( 3, mInspections );
+		JspUtils.writeTag( pageContext, createReadOnlyMetawidget( true ), null );
+		assertEquals( 3, mInspections );
+
+		mBarValue = new Timestamp( 0 );
+		JspUtils.writeTag( pageContext, createReadOnlyMetawidget( true ), null );
+		assertEquals( 4, mInspections );
+		JspUtils.writeTag( pageContext, createReadOnlyMetawidget( true ), null );
+		assertEquals( 4, mInspections );
+
+		mBarValue = new Date();
+		JspUtils.writeTag( pageContext, createReadOnlyMetawidget( true ), null );
+		assertEquals( 4, mInspections );
+
+		// Final classes cannot be polymorphic
+
+		mBarType = String.class.getName();
+		mBarValue = "bar";
+		JspUtils.writeTag( pageContext, createReadOnlyMetawidget( true ), null );
+		assertEquals( 5, mInspections );
+		mBarValue = null;
+		JspUtils.writeTag( pageContext, createReadOnlyMetawidget( true ), null );
+		assertEquals( 5, mInspections );
+		mBarType = null;
+	}
+
+	//
+	// Private methods
+	//
+
+	/* package private */int	mInspections;
+
+	/* package private */int	mLabels;
+
+	/* package private */boolean	mEmptyLabels;
+
+	/* package private */String	mBarLabel;
+
+	/* package private */String	mBarType;
+
+	/* package private */Object	mBarValue;
+
+	@SuppressWarnings( { "unchecked", "rawtypes" } )
+	private HtmlMetawidgetTag createReadOnlyMetawidget( boolean readOnlyFragmentCache ) {
+
+		HtmlMetawidgetTag metawidget = new HtmlMetawidgetTag();
+		metawidget.setValue( "foo" );
+		metawidget.setReadOnly( true );
+		metawidget.setReadOnlyFragmentCache( readOnlyFragmentCache );
+		metawidget.setInspector( new Inspector() {
+
+			public String inspect( Object toInspect, String type, String... names ) {
+
+				mInspections++;
+				String barLabel = "";
+
+				if ( mBarLabel != null ) {
+					barLabel = " label=\"" + mBarLabel + "\"";
+				}
+
+				if ( mBarType != null ) {
+					barLabel += " type=\"" + mBarType + "\"";
+				}
+
+				return "<inspection-result xmlns=\"http://www.metawidget.org/inspection-result\" version=\"1.0\"><entity type=\"foo\"><property name=\"bar\"" + barLabel + "/><property name=\"baz\" hidden=\"true\"/></entity></inspection-result>";
+			}
+		} );
+		metawidget.setWidgetBuilder( (WidgetBuilder) new ReadOnlyWidgetBuilder() {
+
+			@Override
+			protected Tag createReadOnlyLabelTag( Map<String, String> attributes, MetawidgetTag metawidgetTag ) {
+
+				if ( mEmptyLabels ) {
+					return new LiteralTag( "" );
+				}
+
+				mLabels++;
+				return new LiteralTag( "label" + mLabels );
+			}
+		} );
+		metawidget.setWidgetProcessors( new HiddenFieldProcessor() );
+		metawidget.setLayout( new HtmlTableLayout() );
+
+		return metawidget;
+	}
 }
@@ -11,9 +11,25 @@
 
 package org.metawidget.jsp.tagext.html.layout;
 
+import static org.metawidget.inspector.InspectionResultConstants.*;
+
+import java.lang.reflect.Field;
+import java.util.Map;
+
+import javax.servlet.jsp.JspException;
+import javax.servlet.jsp.tagext.Tag;
+import javax.servlet.jsp.tagext.TagSupport;
+
 import junit.framework.TestCase;
 
+import org.metawidget.jsp.JspMetawidgetTests.MockPageContext;
+import org.metawidget.jsp.JspUtils;
+import org.metawidget.jsp.tagext.FacetTag;
+import org.metawidget.jsp.tagext.LiteralTag;
+import org.metawidget.jsp.tagext.MetawidgetTag;
+import org.metawidget.jsp.tagext.html.HtmlMetawidgetTag;
 import org.metawidget.layout.iface.LayoutException;
+import org.metawidget.util.CollectionUtils;
 import org.metawidget.util.MetawidgetTestUtils;
 
 /**
@@ -49,4 +65,139 @@ public class HtmlTableLayoutTest
 			assertEquals( "numberOfColumns must be >= 0", e.getMessage() );
 		}
 	}
+
+	public void testStreaming()
+		throws Exception {
+
+		String buffered = layout( false );
+
+		assertEquals( "<table id=\"table-fooBar\" class=\"table\">\r\n<tfoot><tr><td colspan=\"3\" class=\"footer\"><input type=\"submit\"/></td></tr></tfoot><tbody>" +
+				"\r\n<tr id=\"table-fooBarName-row\"><th><label>Name:</label></th><td id=\"table-fooBarName-cell\"><input name=\"name\"/><span class=\"error\">name error</span></td><td>*</td></tr>" +
+				"\r\n<tr><th></th><td><h1>Section</h1></td><td><div></div></td></tr>" +
+				"\r\n<tr id=\"table-fooBarAge-row\"><th><label>Age:</label></th><td id=\"table-fooBarAge-cell\"><input name=\"age\"/><span class=\"error\">age error</span></td><td><div></div></td></tr>" +
+				"</tbody></table>\r\n<input type=\"hidden\" name=\"id\"/>", buffered );
+
+		// Streamed output should be identical, including footer, error and hidden rows
+
+		assertEquals( buffered, layout( true ) );
+	}
+
+	//
+	// Private methods
+	//
+
+	/**
+	 * Lays out a footer facet, a section heading and some widgets (one hidden) with a layout that
+	 * also renders an inline error after each widget (like <code>SpringTableLayout</code>).
+	 */
+
+	private String layout( boolean streaming )
+		throws Exception {
+
+		final HtmlMetawidgetTag metawidgetTag = new HtmlMetawidgetTag();
+		metawidgetTag.setValue( "foo.bar" );
+
+		FacetTag footer = new FacetTag();
+		Field savedBodyContentField = FacetTag.class.getDeclaredField( "mSavedBodyContent" );
+		savedBodyContentField.setAccessible( true );
+		savedBodyContentField.set( footer, "<input type=\"submit\"/>" );
+		metawidgetTag.setFacet( "footer", footer );
+
+		HtmlTableLayoutConfig config = new HtmlTableLayoutConfig().setTableStyleClass( "table" ).setFooterStyleClass( "footer" ).setStreaming( streaming );
+
+		final HtmlTableLayout layout = new HtmlTableLayout( config ) {
+
+			@Override
+			protected void layoutAfterChild( Map<String, String> attributes, MetawidgetTag metawidget ) {
+
+				if ( attributes != null && attributes.get( NAME ) != null ) {
+					try {
+						JspUtils.streamTag( metawidget.getPageContext(), new LiteralTag( "<span class=\"error\">" + attributes.get( NAME ) + " error</span>" ), metawidget );
+					} catch ( JspException e ) {
+						throw LayoutException.newException( e );
+					}
+				}
+
+				super.layoutAfterChild( attributes, metawidget );
+			}
+		};
+
+		Tag pageTag = new TagSupport() {
+
+			@Override
+			public int doEndTag() {
+
+				metawidgetTag.setPageContext( pageContext );
+
+				layout.onStartBuild( metawidgetTag );
+				layout.startContainerLayout( metawidgetTag, metawidgetTag );
+				layout.layoutWidget( new WidgetTag( "<input name=\"name\"/>" ), PROPERTY, newAttributes( "name", REQUIRED ), metawidgetTag, metawidgetTag );
+				layout.layoutWidget( new WidgetTag( "<input type=\"hidden\" name=\"id\"/>" ), PROPERTY, newAttributes( "id", HIDDEN ), metawidgetTag, metawidgetTag );
+				layout.layoutWidget( new LiteralTag( "<h1>Section</h1>" ), PROPERTY, null, metawidgetTag, metawidgetTag );
+				layout.layoutWidget( new WidgetTag( "<input name=\"age\"/>" ), PROPERTY, newAttributes( "age", null ), metawidgetTag, metawidgetTag );
+				layout.endContainerLayout( metawidgetTag, metawidgetTag );
+				layout.onEndBuild( metawidgetTag );
+
+				return EVAL_PAGE;
+			}
+		};
+
+		return JspUtils.writeTag( new MockPageContext(), pageTag, null );
+	}
+
+	private Map<String, String> newAttributes( String name, String trueAttribute ) {
+
+		Map<String, String> attributes = CollectionUtils.newHashMap();
+		attributes.put( NAME, name );
+
+		if ( trueAttribute != null ) {
+			attributes.put( trueAttribute, TRUE );
+		}
+
+		return attributes;
+	}
+
+	//
+	// Inner class
+	//
+
+	/**
+	 * Tag that writes a fixed widget to the page.
+	 */
+
+	/* package private */static class WidgetTag
+		extends TagSupport {
+
+		//
+		// Private members
+		//
+
+		private String	mWidget;
+
+		//
+		// Constructor
+		//
+
+		public WidgetTag( String widget ) {
+
+			mWidget = widget;
+		}
+
+		//
+		// Public methods
+		//
+
+		@Override
+		public int doEndTag()
+			throws JspException {
+
+			try {
+				pageContext.getOut().write( mWidget );
+			} catch ( Exception e ) {
+				throw new JspException( e );
+			}
+
+			return EVAL_PAGE;
+		}
+	}
 }
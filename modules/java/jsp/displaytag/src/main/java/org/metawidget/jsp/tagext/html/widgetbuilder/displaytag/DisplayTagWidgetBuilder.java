@@ -79,7 +79,10 @@ public class DisplayTagWidgetBuilder
 			// Note: we tried using just .setName( "foo.bar" ), but DisplayTag requires
 			// you to put 'sessionScope' or 'pageScope' at times, and doesn't seem
 			// to have an 'allScope' like JSP does?
+			//
+			// The table renders the current rows, so cannot be part of a cached read-only fragment
 
+			metawidgetTag.excludeFragmentFromCache();
 			PageContext context = metawidgetTag.getPageContext();
 			Object toDisplay = context.getExpressionEvaluator().evaluate( "${" + metawidgetTag.getPath() + StringUtils.SEPARATOR_DOT_CHAR + attributes.get( NAME ) + "}", Object.class, context.getVariableResolver(), null );
 
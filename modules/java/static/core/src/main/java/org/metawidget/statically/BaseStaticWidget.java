@@ -70,6 +70,7 @@ public abstract class BaseStaticWidget
 														( (BaseStaticWidget) element ).setParent( BaseStaticWidget.this );
 													}
 
+													streamChildren();
 													return super.add( element );
 												}
 
@@ -82,6 +83,7 @@ public abstract class BaseStaticWidget
 														}
 													}
 
+													streamChildren();
 													return super.addAll( c );
 												}
 
@@ -100,6 +102,18 @@ public abstract class BaseStaticWidget
 
 	private Map<Object, Object>	mClientProperties;
 
+	/**
+	 * Writer to stream to, if this widget is the root of a streaming write.
+	 */
+
+	private Writer				mStreamWriter;
+
+	/**
+	 * Whether everything before this widget's children has already been streamed.
+	 */
+
+	private boolean				mStreamOpened;
+
 	//
 	// Methods
 	//
@@ -161,6 +175,35 @@ public abstract class BaseStaticWidget
 		}
 	}
 
+	//
+	// Protected methods
+	//
+
+	/**
+	 * Writes everything that comes before this widget's children, for a widget that has children.
+	 * Used when streaming (see <code>StaticMetawidget.setStreaming</code>).
+	 * <p>
+	 * Subclasses that override <code>write</code> should also override this method and
+	 * <code>writeClosing</code>, such that writing the opening, then the children, then the
+	 * closing is the same as calling <code>write</code>.
+	 */
+
+	protected void writeOpening( Writer writer )
+		throws IOException {
+
+		// Do nothing by default
+	}
+
+	/**
+	 * Writes everything that comes after this widget's children, for a widget that has children.
+	 */
+
+	protected void writeClosing( Writer writer )
+		throws IOException {
+
+		// Do nothing by default
+	}
+
 	//
 	// Private methods
 	//
@@ -169,4 +212,157 @@ public abstract class BaseStaticWidget
 
 		mParent = widget;
 	}
+
+	/**
+	 * Start streaming this widget's children to the given Writer, as they are added.
+	 */
+
+	/* package private */void startStreaming( Writer writer ) {
+
+		mStreamWriter = writer;
+		mStreamOpened = true;
+	}
+
+	/**
+	 * Write whatever has not yet been streamed.
+	 */
+
+	/* package private */void endStreaming()
+		throws IOException {
+
+		closeStream( mStreamWriter );
+	}
+
+	/**
+	 * Stop streaming, whether or not <code>endStreaming</code> was reached.
+	 */
+
+	/* package private */void stopStreaming() {
+
+		mStreamWriter = null;
+		mStreamOpened = false;
+	}
+
+	/**
+	 * Called before a child is appended to this widget. If this widget is part of a streaming
+	 * write, every existing child must be complete. So open this widget (if it is not already) and
+	 * write (then discard) its existing children.
+	 */
+
+	/* package private */void streamChildren() {
+
+		Writer writer = getStreamWriter();
+
+		if ( writer == null ) {
+			return;
+		}
+
+		try {
+			if ( openStream( writer ) ) {
+				writeStreamedChildren( writer );
+			}
+		} catch ( IOException e ) {
+			throw MetawidgetException.newException( e );
+		}
+	}
+
+	/**
+	 * Find the Writer of the streaming write (if any) this widget is part of. Each
+	 * <code>StaticMetawidget</code> is the root of its own streaming write (or not).
+	 */
+
+	private Writer getStreamWriter() {
+
+		StaticWidget widget = this;
+
+		while ( widget instanceof BaseStaticWidget ) {
+
+			BaseStaticWidget baseWidget = (BaseStaticWidget) widget;
+
+			if ( baseWidget.mStreamWriter != null ) {
+				return baseWidget.mStreamWriter;
+			}
+
+			if ( baseWidget instanceof StaticMetawidget ) {
+				return null;
+			}
+
+			widget = baseWidget.mParent;
+		}
+
+		return null;
+	}
+
+	/**
+	 * Write everything before this widget's children, first opening its parent and writing its
+	 * preceding siblings if necessary.
+	 *
+	 * @return true if this widget is open, false if it cannot be streamed (eg. because it has not
+	 *         yet been added to the tree, or it has following siblings)
+	 */
+
+	private boolean openStream( Writer writer )
+		throws IOException {
+
+		if ( mStreamOpened ) {
+			return true;
+		}
+
+		if ( !( mParent instanceof BaseStaticWidget ) ) {
+			return false;
+		}
+
+		BaseStaticWidget parent = (BaseStaticWidget) mParent;
+		List<StaticWidget> siblings = parent.mChildren;
+
+		if ( siblings.isEmpty() || siblings.get( siblings.size() - 1 ) != this ) {
+			return false;
+		}
+
+		if ( !parent.openStream( writer ) ) {
+			return false;
+		}
+
+		// Preceding siblings must be complete
+
+		while ( siblings.size() > 1 ) {
+			writeStreamedChild( siblings.remove( 0 ), writer );
+		}
+
+		writeOpening( writer );
+		mStreamOpened = true;
+
+		return true;
+	}
+
+	private void writeStreamedChildren( Writer writer )
+		throws IOException {
+
+		for ( StaticWidget child : mChildren ) {
+			writeStreamedChild( child, writer );
+		}
+
+		mChildren.clear();
+	}
+
+	private static void writeStreamedChild( StaticWidget child, Writer writer )
+		throws IOException {
+
+		// If the child is open, only write what has not yet been streamed
+
+		if ( child instanceof BaseStaticWidget && ( (BaseStaticWidget) child ).mStreamOpened ) {
+			( (BaseStaticWidget) child ).closeStream( writer );
+			return;
+		}
+
+		child.write( writer );
+	}
+
+	private void closeStream( Writer writer )
+		throws IOException {
+
+		writeStreamedChildren( writer );
+		writeClosing( writer );
+		mStreamOpened = false;
+	}
 }
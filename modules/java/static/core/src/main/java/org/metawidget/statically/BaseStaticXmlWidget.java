@@ -160,27 +160,9 @@ public abstract class BaseStaticXmlWidget
 				}
 			}
 		} else {
-			writeStartTag( writer );
-			if ( mTagName != null ) {
-				writer.append( ">" );
-			}
-			if ( writer instanceof IndentedWriter ) {
-				writer.append( "\r\n" );
-				( (IndentedWriter) writer ).indent();
-			}
-
+			writeOpening( writer );
 			super.write( writer );
-
-			// Indented text content
-
-			if ( getTextContent() != null && getTextContent().length() > 0 ) {
-				writer.append( mTextContent );
-				if ( writer instanceof IndentedWriter ) {
-					writer.append( "\r\n" );
-				}
-			}
-
-			writeEndTag( writer );
+			writeClosing( writer );
 		}
 	}
 
@@ -210,6 +192,36 @@ public abstract class BaseStaticXmlWidget
 		writer.append( "\"" );
 	}
 
+	@Override
+	protected void writeOpening( Writer writer )
+		throws IOException {
+
+		writeStartTag( writer );
+		if ( mTagName != null ) {
+			writer.append( ">" );
+		}
+		if ( writer instanceof IndentedWriter ) {
+			writer.append( "\r\n" );
+			( (IndentedWriter) writer ).indent();
+		}
+	}
+
+	@Override
+	protected void writeClosing( Writer writer )
+		throws IOException {
+
+		// Indented text content
+
+		if ( getTextContent() != null && getTextContent().length() > 0 ) {
+			writer.append( mTextContent );
+			if ( writer instanceof IndentedWriter ) {
+				writer.append( "\r\n" );
+			}
+		}
+
+		writeEndTag( writer );
+	}
+
 	/**
 	 * Returns true if this widget is self closing (i.e. will be written as &lt;foo/&gt; rather than
 	 * &lt;foo&gt;&lt;/foo&gt;).
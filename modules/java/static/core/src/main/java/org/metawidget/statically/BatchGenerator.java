@@ -0,0 +1,362 @@
+// Metawidget
+//
+// This file is dual licensed under both the LGPL
+// (http://www.gnu.org/licenses/lgpl-2.1.html) and the EPL
+// (http://www.eclipse.org/org/documents/epl-v10.php). As a
+// recipient of Metawidget, you may choose to receive it under either
+// the LGPL or the EPL.
+//
+// Commercial licenses are also available. See http://metawidget.org
+// for details.
+
+package org.metawidget.statically;
+
+import java.io.Writer;
+import java.nio.charset.Charset;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.metawidget.iface.MetawidgetException;
+import org.metawidget.inspector.iface.DomInspector;
+import org.metawidget.inspector.iface.Inspector;
+import org.metawidget.statically.BatchReport.Entry;
+import org.metawidget.util.CollectionUtils;
+import org.metawidget.util.XmlUtils;
+import org.metawidget.util.simple.PathUtils;
+import org.metawidget.util.simple.PathUtils.TypeAndNames;
+import org.metawidget.util.simple.StringUtils;
+import org.w3c.dom.Element;
+
+/**
+ * Generates many static Metawidget outputs (eg. scaffolding for every entity in an application) in
+ * parallel.
+ * <p>
+ * Every combination of path and <code>BatchTemplate</code> is generated as a separate task, spread
+ * across a pool of threads. Each template's prototype <code>StaticMetawidget</code> is configured
+ * once up front, and its (immutable) Inspectors, WidgetBuilders and so on are then shared by every
+ * task. This includes any caches those Inspectors maintain.
+ * <p>
+ * A failure to generate one output does not stop the others. Failures are recorded in the
+ * returned <code>BatchReport</code>.
+ * <p>
+ * Given a <code>BatchManifest</code>, generation is incremental: outputs whose inputs are unchanged
+ * since the last run are neither regenerated nor rewritten.
+ *
+ * @author <a href="http://kennardconsulting.com">Richard Kennard</a>
+ */
+
+public class BatchGenerator {
+
+	//
+	// Private members
+	//
+
+	private final int	mThreads;
+
+	//
+	// Constructor
+	//
+
+	/**
+	 * Create a BatchGenerator that uses one thread per available processor.
+	 */
+
+	public BatchGenerator() {
+
+		this( Runtime.getRuntime().availableProcessors() );
+	}
+
+	public BatchGenerator( int threads ) {
+
+		if ( threads < 1 ) {
+			throw MetawidgetException.newException( "Must use at least 1 thread" );
+		}
+
+		mThreads = threads;
+	}
+
+	//
+	// Public methods
+	//
+
+	/**
+	 * Generate an output for every combination of the given paths and templates.
+	 */
+
+	public BatchReport generate( Collection<String> paths, BatchTemplate... templates ) {
+
+		return generate( paths, null, templates );
+	}
+
+	/**
+	 * Generate an output for every combination of the given paths and templates, skipping any
+	 * outputs that are unchanged since the last run.
+	 *
+	 * @param manifest
+	 *            record of the last run (see <code>BatchManifest</code>). Updated and saved once all
+	 *            outputs have been generated. May be null, to always regenerate
+	 */
+
+	public BatchReport generate( Collection<String> paths, BatchManifest manifest, BatchTemplate... templates ) {
+
+		long start = System.currentTimeMillis();
+
+		// Configure each prototype up front, on this thread
+
+		try {
+			for ( BatchTemplate template : templates ) {
+				template.configurePrototype();
+			}
+		} catch ( Exception e ) {
+			throw MetawidgetException.newException( e );
+		}
+
+		// Generate
+
+		ExecutorService executor = Executors.newFixedThreadPool( mThreads );
+
+		try {
+			List<Future<Entry>> futures = CollectionUtils.newArrayList();
+
+			for ( BatchTemplate template : templates ) {
+				for ( String path : paths ) {
+					futures.add( executor.submit( new BatchTask( template, path, manifest ) ) );
+				}
+			}
+
+			// Collect the results (in the order they were requested)
+
+			List<Entry> entries = CollectionUtils.newArrayList( futures.size() );
+
+			for ( Future<Entry> future : futures ) {
+				entries.add( future.get() );
+			}
+
+			if ( manifest != null ) {
+				manifest.save();
+			}
+
+			return new BatchReport( entries, System.currentTimeMillis() - start, mThreads );
+		} catch ( InterruptedException e ) {
+			Thread.currentThread().interrupt();
+			throw MetawidgetException.newException( e );
+		} catch ( ExecutionException e ) {
+			throw MetawidgetException.newException( e.getCause() );
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	//
+	// Inner class
+	//
+
+	/**
+	 * Generates a single output. Also used by <code>StaticMetawidget.write( File, int,
+	 * BatchManifest )</code>.
+	 */
+
+	/* package private */static class BatchTask
+		implements Callable<Entry> {
+
+		//
+		// Private members
+		//
+
+		private final BatchTemplate	mTemplate;
+
+		private final String		mPath;
+
+		private final BatchManifest	mManifest;
+
+		//
+		// Constructor
+		//
+
+		public BatchTask( BatchTemplate template, String path, BatchManifest manifest ) {
+
+			mTemplate = template;
+			mPath = path;
+			mManifest = manifest;
+		}
+
+		//
+		// Public methods
+		//
+
+		public Entry call() {
+
+			long start = System.currentTimeMillis();
+
+			try {
+				StaticMetawidget metawidget = mTemplate.newMetawidget( mPath );
+
+				if ( mManifest == null ) {
+					write( metawidget );
+				} else {
+					// Skip if unchanged...
+
+					if ( isUpToDate( metawidget ) ) {
+						return new Entry( mTemplate.getName(), mPath, System.currentTimeMillis() - start, true, null );
+					}
+
+					// ...otherwise record everything inspected along the way
+
+					Inspector originalInspector = metawidget.getInspector();
+					RecordingInspector inspector = new RecordingInspector( originalInspector );
+					metawidget.setInspector( inspector );
+
+					try {
+						mManifest.remove( mTemplate, mPath );
+						write( metawidget );
+						mManifest.put( mTemplate, mPath, getFingerprint( inspector ), inspector.getInspectedPaths() );
+					} finally {
+						metawidget.setInspector( originalInspector );
+					}
+				}
+
+				return new Entry( mTemplate.getName(), mPath, System.currentTimeMillis() - start, false, null );
+			} catch ( Exception e ) {
+				return new Entry( mTemplate.getName(), mPath, System.currentTimeMillis() - start, false, e );
+			}
+		}
+
+		//
+		// Private methods
+		//
+
+		private void write( StaticMetawidget metawidget )
+			throws Exception {
+
+			Writer writer = mTemplate.newWriter( mPath );
+
+			try {
+				metawidget.write( writer, mTemplate.getInitialIndent() );
+			} finally {
+				writer.close();
+			}
+		}
+
+		/**
+		 * Re-inspect the paths inspected last time, and compare the fingerprint.
+		 */
+
+		private boolean isUpToDate( StaticMetawidget metawidget ) {
+
+			String fingerprint = mManifest.getFingerprint( mTemplate, mPath );
+
+			if ( fingerprint == null || !mTemplate.hasOutput( mPath ) ) {
+				return false;
+			}
+
+			RecordingInspector inspector = new RecordingInspector( metawidget.getInspector() );
+
+			for ( String inspectedPath : mManifest.getInspectedPaths( mTemplate, mPath ) ) {
+				TypeAndNames typeAndNames = PathUtils.parsePath( inspectedPath, StringUtils.SEPARATOR_FORWARD_SLASH_CHAR );
+				inspector.inspect( null, typeAndNames.getType(), typeAndNames.getNamesAsArray() );
+			}
+
+			return fingerprint.equals( getFingerprint( inspector ) );
+		}
+
+		private String getFingerprint( RecordingInspector inspector ) {
+
+			StringBuilder builder = new StringBuilder();
+			builder.append( mTemplate.getConfiguredFingerprint() );
+			builder.append( '\n' );
+			builder.append( mTemplate.getVersion() );
+
+			for ( Map.Entry<String, String> inspection : inspector.getInspections().entrySet() ) {
+				builder.append( '\n' );
+				builder.append( inspection.getKey() );
+				builder.append( '\n' );
+				builder.append( inspection.getValue() );
+			}
+
+			return XmlUtils.digest( builder.toString().getBytes( Charset.forName( "UTF-8" ) ) );
+		}
+	}
+
+	/**
+	 * Inspector that records the (serialized) result of every inspection it delegates, keyed by
+	 * path.
+	 * <p>
+	 * Nested Metawidgets share their parent's Inspector, so this captures every inspection that
+	 * contributes to an output.
+	 */
+
+	private static class RecordingInspector
+		implements DomInspector<Element> {
+
+		//
+		// Private members
+		//
+
+		private final Inspector				mInspector;
+
+		private final Map<String, String>	mInspections	= CollectionUtils.newLinkedHashMap();
+
+		//
+		// Constructor
+		//
+
+		public RecordingInspector( Inspector inspector ) {
+
+			mInspector = inspector;
+		}
+
+		//
+		// Public methods
+		//
+
+		public String inspect( Object toInspect, String type, String... names ) {
+
+			Element element = inspectAsDom( toInspect, type, names );
+
+			if ( element == null ) {
+				return null;
+			}
+
+			return XmlUtils.nodeToString( element, false );
+		}
+
+		public Element inspectAsDom( Object toInspect, String type, String... names ) {
+
+			Element element;
+
+			if ( mInspector instanceof DomInspector<?> ) {
+				element = (Element) ( (DomInspector<?>) mInspector ).inspectAsDom( toInspect, type, names );
+			} else {
+				String xml = mInspector.inspect( toInspect, type, names );
+				element = ( xml == null ? null : XmlUtils.documentFromString( xml ).getDocumentElement() );
+			}
+
+			StringBuilder path = new StringBuilder( type );
+
+			for ( String name : names ) {
+				path.append( StringUtils.SEPARATOR_FORWARD_SLASH_CHAR );
+				path.append( name );
+			}
+
+			mInspections.put( path.toString(), ( element == null ? null : XmlUtils.nodeToString( element, false ) ) );
+
+			return element;
+		}
+
+		public Map<String, String> getInspections() {
+
+			return mInspections;
+		}
+
+		public List<String> getInspectedPaths() {
+
+			return CollectionUtils.newArrayList( mInspections.keySet() );
+		}
+	}
+}
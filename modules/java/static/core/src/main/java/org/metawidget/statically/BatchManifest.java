@@ -0,0 +1,171 @@
+// Metawidget
+//
+// This file is dual licensed under both the LGPL
+// (http://www.gnu.org/licenses/lgpl-2.1.html) and the EPL
+// (http://www.eclipse.org/org/documents/epl-v10.php). As a
+// recipient of Metawidget, you may choose to receive it under either
+// the LGPL or the EPL.
+//
+// Commercial licenses are also available. See http://metawidget.org
+// for details.
+
+package org.metawidget.statically;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.Properties;
+
+import org.metawidget.iface.MetawidgetException;
+import org.metawidget.util.CollectionUtils;
+
+/**
+ * Record of what a <code>BatchGenerator</code> generated last time, for incremental generation.
+ * <p>
+ * For each template and path, the manifest stores a fingerprint of everything that went into the
+ * output: the template's configuration and version, plus the (raw) inspection result of every
+ * path that was inspected while generating it, including those of nested Metawidgets. On the next
+ * run, <code>BatchGenerator</code> re-inspects just those paths (which is cheap, compared to
+ * building and writing the output) and skips any output whose fingerprint is unchanged. This
+ * avoids rewriting unchanged files, which would otherwise invalidate downstream caches.
+ * <p>
+ * A manifest can also be used to write a single static Metawidget incrementally, using
+ * <code>StaticMetawidget.write( File, int, BatchManifest )</code>.
+ * <p>
+ * The manifest is stored as a <code>.properties</code> file.
+ *
+ * @author <a href="http://kennardconsulting.com">Richard Kennard</a>
+ */
+
+public class BatchManifest {
+
+	//
+	// Private members
+	//
+
+	private final File			mFile;
+
+	private final Properties	mProperties	= new Properties();
+
+	//
+	// Constructor
+	//
+
+	/**
+	 * Create a BatchManifest backed by the given file. If the file already exists, it is read.
+	 */
+
+	public BatchManifest( File file ) {
+
+		mFile = file;
+
+		if ( !mFile.exists() ) {
+			return;
+		}
+
+		try {
+			InputStream in = new FileInputStream( mFile );
+
+			try {
+				mProperties.load( in );
+			} finally {
+				in.close();
+			}
+		} catch ( Exception e ) {
+			throw MetawidgetException.newException( e );
+		}
+	}
+
+	//
+	// Public methods
+	//
+
+	/**
+	 * Forget everything, so that the next run regenerates all outputs.
+	 */
+
+	public synchronized void clear() {
+
+		mProperties.clear();
+	}
+
+	public synchronized void save() {
+
+		try {
+			OutputStream out = new FileOutputStream( mFile );
+
+			try {
+				mProperties.store( out, "Metawidget BatchGenerator manifest" );
+			} finally {
+				out.close();
+			}
+		} catch ( Exception e ) {
+			throw MetawidgetException.newException( e );
+		}
+	}
+
+	//
+	// Package private methods
+	//
+
+	/**
+	 * @return the fingerprint stored for the given output, or null if there is none
+	 */
+
+	/* package private */synchronized String getFingerprint( BatchTemplate template, String path ) {
+
+		String value = mProperties.getProperty( getKey( template, path ) );
+
+		if ( value == null ) {
+			return null;
+		}
+
+		return CollectionUtils.fromString( value ).get( 0 );
+	}
+
+	/**
+	 * @return the paths that were inspected while generating the given output, or null if there
+	 *         are none
+	 */
+
+	/* package private */synchronized List<String> getInspectedPaths( BatchTemplate template, String path ) {
+
+		String value = mProperties.getProperty( getKey( template, path ) );
+
+		if ( value == null ) {
+			return null;
+		}
+
+		List<String> values = CollectionUtils.fromString( value );
+		return values.subList( 1, values.size() );
+	}
+
+	/* package private */synchronized void put( BatchTemplate template, String path, String fingerprint, List<String> inspectedPaths ) {
+
+		StringBuilder builder = new StringBuilder( fingerprint );
+
+		for ( String inspectedPath : inspectedPaths ) {
+			builder.append( ',' );
+			builder.append( inspectedPath );
+		}
+
+		mProperties.setProperty( getKey( template, path ), builder.toString() );
+	}
+
+	/* package private */synchronized void remove( BatchTemplate template, String path ) {
+
+		mProperties.remove( getKey( template, path ) );
+	}
+
+	//
+	// Private methods
+	//
+
+	private String getKey( BatchTemplate template, String path ) {
+
+		return template.getName() + ":" + path;
+	}
+}
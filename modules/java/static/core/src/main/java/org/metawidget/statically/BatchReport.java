@@ -0,0 +1,237 @@
+// Metawidget
+//
+// This file is dual licensed under both the LGPL
+// (http://www.gnu.org/licenses/lgpl-2.1.html) and the EPL
+// (http://www.eclipse.org/org/documents/epl-v10.php). As a
+// recipient of Metawidget, you may choose to receive it under either
+// the LGPL or the EPL.
+//
+// Commercial licenses are also available. See http://metawidget.org
+// for details.
+
+package org.metawidget.statically;
+
+import java.util.Collections;
+import java.util.List;
+
+import org.metawidget.util.CollectionUtils;
+
+/**
+ * Summary of a <code>BatchGenerator</code> run.
+ *
+ * @author <a href="http://kennardconsulting.com">Richard Kennard</a>
+ */
+
+public class BatchReport {
+
+	//
+	// Private members
+	//
+
+	private final List<Entry>	mEntries;
+
+	private final long			mElapsedTime;
+
+	private final int			mThreads;
+
+	//
+	// Constructor
+	//
+
+	/* package private */BatchReport( List<Entry> entries, long elapsedTime, int threads ) {
+
+		mEntries = Collections.unmodifiableList( entries );
+		mElapsedTime = elapsedTime;
+		mThreads = threads;
+	}
+
+	//
+	// Public methods
+	//
+
+	/**
+	 * @return one entry per generated output, in the order the outputs were requested (not the
+	 *         order they completed)
+	 */
+
+	public List<Entry> getEntries() {
+
+		return mEntries;
+	}
+
+	/**
+	 * @return entries that were skipped because they were unchanged since the last run
+	 */
+
+	public List<Entry> getUpToDate() {
+
+		List<Entry> upToDate = CollectionUtils.newArrayList();
+
+		for ( Entry entry : mEntries ) {
+			if ( entry.isUpToDate() ) {
+				upToDate.add( entry );
+			}
+		}
+
+		return upToDate;
+	}
+
+	public List<Entry> getFailures() {
+
+		List<Entry> failures = CollectionUtils.newArrayList();
+
+		for ( Entry entry : mEntries ) {
+			if ( !entry.isSuccessful() ) {
+				failures.add( entry );
+			}
+		}
+
+		return failures;
+	}
+
+	/**
+	 * @return elapsed (wall clock) time of the whole run, in milliseconds
+	 */
+
+	public long getElapsedTime() {
+
+		return mElapsedTime;
+	}
+
+	public int getThreads() {
+
+		return mThreads;
+	}
+
+	@Override
+	public String toString() {
+
+		List<Entry> failures = getFailures();
+		int upToDate = getUpToDate().size();
+		StringBuilder builder = new StringBuilder();
+		builder.append( "Generated " );
+		builder.append( mEntries.size() - failures.size() - upToDate );
+		builder.append( " of " );
+		builder.append( mEntries.size() );
+		builder.append( " outputs" );
+
+		if ( upToDate > 0 ) {
+			builder.append( " (" );
+			builder.append( upToDate );
+			builder.append( " up to date)" );
+		}
+
+		builder.append( " in " );
+		builder.append( mElapsedTime );
+		builder.append( "ms using " );
+		builder.append( mThreads );
+		builder.append( " thread(s)" );
+
+		for ( Entry failure : failures ) {
+			builder.append( "\r\n\tFailed " );
+			builder.append( failure );
+		}
+
+		return builder.toString();
+	}
+
+	//
+	// Inner class
+	//
+
+	/**
+	 * Result of generating a single output.
+	 */
+
+	public static class Entry {
+
+		//
+		// Private members
+		//
+
+		private final String	mTemplate;
+
+		private final String	mPath;
+
+		private final long		mElapsedTime;
+
+		private final boolean	mUpToDate;
+
+		private final Exception	mException;
+
+		//
+		// Constructor
+		//
+
+		/* package private */Entry( String template, String path, long elapsedTime, boolean upToDate, Exception exception ) {
+
+			mTemplate = template;
+			mPath = path;
+			mElapsedTime = elapsedTime;
+			mUpToDate = upToDate;
+			mException = exception;
+		}
+
+		//
+		// Public methods
+		//
+
+		public String getTemplate() {
+
+			return mTemplate;
+		}
+
+		public String getPath() {
+
+			return mPath;
+		}
+
+		/**
+		 * @return time taken to generate this output, in milliseconds
+		 */
+
+		public long getElapsedTime() {
+
+			return mElapsedTime;
+		}
+
+		/**
+		 * @return true if this output was skipped because it was unchanged since the last run (see
+		 *         <code>BatchManifest</code>)
+		 */
+
+		public boolean isUpToDate() {
+
+			return mUpToDate;
+		}
+
+		public boolean isSuccessful() {
+
+			return ( mException == null );
+		}
+
+		/**
+		 * @return the Exception that stopped this output being generated, or null if it was
+		 *         successful
+		 */
+
+		public Exception getException() {
+
+			return mException;
+		}
+
+		@Override
+		public String toString() {
+
+			if ( mUpToDate ) {
+				return mTemplate + ": " + mPath + " (up to date)";
+			}
+
+			if ( mException == null ) {
+				return mTemplate + ": " + mPath;
+			}
+
+			return mTemplate + ": " + mPath + " (" + mException + ")";
+		}
+	}
+}
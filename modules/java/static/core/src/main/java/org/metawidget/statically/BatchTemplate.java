@@ -0,0 +1,304 @@
+// Metawidget
+//
+// This file is dual licensed under both the LGPL
+// (http://www.gnu.org/licenses/lgpl-2.1.html) and the EPL
+// (http://www.eclipse.org/org/documents/epl-v10.php). As a
+// recipient of Metawidget, you may choose to receive it under either
+// the LGPL or the EPL.
+//
+// Commercial licenses are also available. See http://metawidget.org
+// for details.
+
+package org.metawidget.statically;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Writer;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.List;
+import java.util.Map;
+
+import org.metawidget.config.iface.ConfigReader;
+import org.metawidget.config.iface.ResourceResolver;
+import org.metawidget.config.impl.BaseConfigReader;
+import org.metawidget.config.impl.SimpleResourceResolver;
+import org.metawidget.util.CollectionUtils;
+import org.metawidget.util.IOUtils;
+import org.metawidget.util.XmlUtils;
+
+/**
+ * Template for use with <code>BatchGenerator</code>, such as 'HTML forms' or 'JSF views'.
+ * <p>
+ * Each template is based on a configured, prototype <code>StaticMetawidget</code>. For every path
+ * being generated, the template creates a new instance of the prototype's class which shares the
+ * prototype's configuration (rather than configuring its own pipeline). Subclasses determine
+ * where each output is written.
+ * <p>
+ * Templates are used by many threads at once, so subclasses must be thread-safe.
+ *
+ * @author <a href="http://kennardconsulting.com">Richard Kennard</a>
+ */
+
+public abstract class BatchTemplate {
+
+	//
+	// Private members
+	//
+
+	private final String			mName;
+
+	private final StaticMetawidget	mPrototype;
+
+	private volatile String			mConfigurationFingerprint;
+
+	//
+	// Constructor
+	//
+
+	/**
+	 * @param name
+	 *            name of this template, for reporting
+	 * @param prototype
+	 *            configured Metawidget to base each output on. Its class must have a public,
+	 *            no-args constructor
+	 */
+
+	protected BatchTemplate( String name, StaticMetawidget prototype ) {
+
+		mName = name;
+		mPrototype = prototype;
+	}
+
+	//
+	// Public methods
+	//
+
+	public String getName() {
+
+		return mName;
+	}
+
+	//
+	// Protected methods
+	//
+
+	/**
+	 * Creates a Metawidget for the given path, sharing the prototype's configuration.
+	 * <p>
+	 * Subclasses can override this method to further initialize the Metawidget (eg. to set a
+	 * value expression based on the path).
+	 */
+
+	protected StaticMetawidget newMetawidget( String path )
+		throws Exception {
+
+		StaticMetawidget metawidget = mPrototype.getClass().newInstance();
+		mPrototype.copyConfigurationTo( metawidget );
+		metawidget.setPath( path );
+
+		return metawidget;
+	}
+
+	/**
+	 * Opens a Writer for the output of the given path (eg. a <code>FileWriter</code>). The
+	 * <code>BatchGenerator</code> will close it once the output has been written.
+	 */
+
+	protected abstract Writer newWriter( String path )
+		throws Exception;
+
+	/**
+	 * @return the initialIndent to pass to <code>StaticMetawidget.write</code>. Defaults to 0
+	 */
+
+	protected int getInitialIndent() {
+
+		return 0;
+	}
+
+	/**
+	 * Whether the output for the given path still exists. Used in incremental mode (see
+	 * <code>BatchManifest</code>) so that deleted outputs are regenerated even if their
+	 * fingerprint is unchanged.
+	 * <p>
+	 * Defaults to true. Subclasses that write to files should override this method.
+	 */
+
+	protected boolean hasOutput( String path ) {
+
+		return true;
+	}
+
+	/**
+	 * Describes the configuration of this template, for incremental mode. If this description
+	 * changes, all outputs are regenerated.
+	 * <p>
+	 * By default, includes the prototype's class, read-only state, a digest of the contents of its
+	 * config file and a description of its Inspector, InspectionResultProcessors, WidgetBuilder,
+	 * WidgetProcessors and Layout. Components are described by their <code>toString</code> if they
+	 * override it, or else by the values of their simple (String, primitive, enum and Class)
+	 * fields. Subclasses that further initialize Metawidgets in <code>newMetawidget</code> should
+	 * override this method to include that initialization.
+	 * <p>
+	 * Called once per <code>BatchGenerator.generate</code>, after the prototype has been
+	 * configured.
+	 */
+
+	protected String getConfigurationFingerprint()
+		throws Exception {
+
+		List<Object> components = CollectionUtils.newArrayList();
+		components.add( mPrototype.getInspector() );
+
+		if ( mPrototype.getInspectionResultProcessors() != null ) {
+			components.addAll( mPrototype.getInspectionResultProcessors() );
+		}
+
+		components.add( mPrototype.getWidgetBuilder() );
+
+		if ( mPrototype.getWidgetProcessors() != null ) {
+			components.addAll( mPrototype.getWidgetProcessors() );
+		}
+
+		components.add( mPrototype.getLayout() );
+
+		StringBuilder builder = new StringBuilder();
+		builder.append( mPrototype.getClass().getName() );
+		builder.append( ',' );
+		builder.append( mPrototype.isReadOnly() );
+		builder.append( ',' );
+		builder.append( mPrototype.getConfig() );
+
+		// (hash the config file's contents, so that editing it forces regeneration)
+
+		if ( mPrototype.getConfig() != null ) {
+			ResourceResolver resourceResolver = null;
+			ConfigReader configReader = mPrototype.getConfigReader();
+
+			if ( configReader instanceof BaseConfigReader ) {
+				resourceResolver = ( (BaseConfigReader) configReader ).getResourceResolver();
+			}
+
+			if ( resourceResolver == null ) {
+				resourceResolver = new SimpleResourceResolver();
+			}
+
+			ByteArrayOutputStream out = new ByteArrayOutputStream();
+			IOUtils.streamBetween( resourceResolver.openResource( mPrototype.getConfig() ), out );
+			builder.append( '=' );
+			builder.append( XmlUtils.digest( out.toByteArray() ) );
+		}
+
+		for ( Object component : components ) {
+			builder.append( ',' );
+			appendComponent( builder, component );
+		}
+
+		return builder.toString();
+	}
+
+	/**
+	 * Version of the generator, for incremental mode. If the version changes, all outputs are
+	 * regenerated.
+	 * <p>
+	 * Defaults to the <code>Implementation-Version</code> of the prototype's package (if any).
+	 */
+
+	protected String getVersion() {
+
+		Package thePackage = mPrototype.getClass().getPackage();
+
+		if ( thePackage == null ) {
+			return null;
+		}
+
+		return thePackage.getImplementationVersion();
+	}
+
+	//
+	// Package private methods
+	//
+
+	/**
+	 * Configures the prototype, so that it is not configured lazily (and concurrently) by the
+	 * first <code>newMetawidget</code>.
+	 */
+
+	/* package private */void configurePrototype()
+		throws Exception {
+
+		// (getInspector triggers configuring the entire pipeline)
+
+		mPrototype.getInspector();
+		mConfigurationFingerprint = getConfigurationFingerprint();
+	}
+
+	/**
+	 * @return the <code>getConfigurationFingerprint</code> computed by
+	 *         <code>configurePrototype</code>
+	 */
+
+	/* package private */String getConfiguredFingerprint() {
+
+		return mConfigurationFingerprint;
+	}
+
+	//
+	// Private methods
+	//
+
+	/**
+	 * Describes the given component by its <code>toString</code> (if overridden) or else by the
+	 * values of its simple fields. Unlike <code>Object.toString</code> and
+	 * <code>Object.hashCode</code>, this description is stable across runs.
+	 */
+
+	private static void appendComponent( StringBuilder builder, Object component )
+		throws Exception {
+
+		if ( component == null ) {
+			return;
+		}
+
+		Class<?> componentClass = component.getClass();
+		builder.append( componentClass.getName() );
+
+		if ( !Object.class.equals( componentClass.getMethod( "toString" ).getDeclaringClass() ) ) {
+			builder.append( '=' );
+			builder.append( component );
+			return;
+		}
+
+		for ( Class<?> declaringClass = componentClass; !Object.class.equals( declaringClass ); declaringClass = declaringClass.getSuperclass() ) {
+
+			// (sort fields, as getDeclaredFields does not guarantee an order)
+
+			Map<String, Field> fields = CollectionUtils.newTreeMap();
+
+			for ( Field field : declaringClass.getDeclaredFields() ) {
+				if ( Modifier.isStatic( field.getModifiers() ) || field.isSynthetic() ) {
+					continue;
+				}
+
+				fields.put( field.getName(), field );
+			}
+
+			for ( Field field : fields.values() ) {
+				field.setAccessible( true );
+				Object value = field.get( component );
+
+				builder.append( ';' );
+				builder.append( field.getName() );
+				builder.append( '=' );
+
+				if ( value == null || value instanceof String || value instanceof Number || value instanceof Boolean || value instanceof Character || value instanceof Enum<?> ) {
+					builder.append( value );
+				} else if ( value instanceof Class<?> ) {
+					builder.append( ( (Class<?>) value ).getName() );
+				} else {
+					builder.append( value.getClass().getName() );
+				}
+			}
+		}
+	}
+}
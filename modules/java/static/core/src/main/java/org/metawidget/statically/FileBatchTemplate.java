@@ -0,0 +1,108 @@
+// Metawidget
+//
+// This file is dual licensed under both the LGPL
+// (http://www.gnu.org/licenses/lgpl-2.1.html) and the EPL
+// (http://www.eclipse.org/org/documents/epl-v10.php). As a
+// recipient of Metawidget, you may choose to receive it under either
+// the LGPL or the EPL.
+//
+// Commercial licenses are also available. See http://metawidget.org
+// for details.
+
+package org.metawidget.statically;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.Writer;
+
+import org.metawidget.util.ClassUtils;
+import org.metawidget.util.simple.PathUtils;
+import org.metawidget.util.simple.PathUtils.TypeAndNames;
+import org.metawidget.util.simple.StringUtils;
+
+/**
+ * <code>BatchTemplate</code> that writes each output to its own file in a given directory.
+ * <p>
+ * By default, each file is named after the simple name of the path's type, plus the names of any
+ * nested properties, plus a file extension. For example <code>com.myapp.Person/address</code>
+ * is written to <code>Person-address.html</code>.
+ *
+ * @author <a href="http://kennardconsulting.com">Richard Kennard</a>
+ */
+
+public class FileBatchTemplate
+	extends BatchTemplate {
+
+	//
+	// Private members
+	//
+
+	private final File		mDirectory;
+
+	private final String	mExtension;
+
+	//
+	// Constructor
+	//
+
+	/**
+	 * @param extension
+	 *            file extension to append to each file name, including the dot (eg. '.html')
+	 */
+
+	public FileBatchTemplate( String name, StaticMetawidget prototype, File directory, String extension ) {
+
+		super( name, prototype );
+
+		mDirectory = directory;
+		mExtension = extension;
+	}
+
+	//
+	// Public methods
+	//
+
+	public File getDirectory() {
+
+		return mDirectory;
+	}
+
+	/**
+	 * Gets the file the output for the given path is written to.
+	 */
+
+	public File getFile( String path ) {
+
+		TypeAndNames typeAndNames = PathUtils.parsePath( path, StringUtils.SEPARATOR_FORWARD_SLASH_CHAR );
+		StringBuilder builder = new StringBuilder( ClassUtils.getSimpleName( typeAndNames.getType() ) );
+
+		for ( String name : typeAndNames.getNamesAsArray() ) {
+			builder.append( '-' );
+			builder.append( name );
+		}
+
+		builder.append( mExtension );
+
+		return new File( mDirectory, builder.toString() );
+	}
+
+	//
+	// Protected methods
+	//
+
+	@Override
+	protected Writer newWriter( String path )
+		throws Exception {
+
+		File file = getFile( path );
+		file.getParentFile().mkdirs();
+
+		return new FileWriter( file );
+	}
+
+	@Override
+	protected boolean hasOutput( String path ) {
+
+		return getFile( path ).exists();
+	}
+}
@@ -13,6 +13,8 @@ package org.metawidget.statically;
 
 import static org.metawidget.inspector.InspectionResultConstants.*;
 
+import java.io.File;
+import java.io.FileWriter;
 import java.io.Writer;
 import java.util.List;
 import java.util.Map;
@@ -23,6 +25,8 @@ import org.metawidget.inspectionresultprocessor.iface.InspectionResultProcessor;
 import org.metawidget.inspector.iface.Inspector;
 import org.metawidget.layout.iface.Layout;
 import org.metawidget.pipeline.w3c.W3CPipeline;
+import org.metawidget.statically.BatchGenerator.BatchTask;
+import org.metawidget.statically.BatchReport.Entry;
 import org.metawidget.statically.StaticUtils.IndentedWriter;
 import org.metawidget.util.simple.PathUtils;
 import org.metawidget.util.simple.PathUtils.TypeAndNames;
@@ -65,6 +69,8 @@ public abstract class StaticMetawidget
 
 	private Pipeline	mPipeline;
 
+	private boolean		mStreaming;
+
 	//
 	// Constructor
 	//
@@ -108,6 +114,29 @@ public abstract class StaticMetawidget
 		mPipeline.setConfig( config );
 	}
 
+	public boolean isStreaming() {
+
+		return mStreaming;
+	}
+
+	/**
+	 * Whether to stream output as it is generated, rather than first building the entire widget
+	 * tree in memory.
+	 * <p>
+	 * When streaming, each widget is written as soon as the Layout moves on to the next (ie. adds a
+	 * following sibling), and is then discarded. Only the chain of widgets still being added to is
+	 * kept in memory. This suits very large outputs (eg. wide forms, many data table columns). It
+	 * requires that Layouts and WidgetProcessors do not modify a widget once a following sibling
+	 * has been added, and that the whole tree has been discarded by the time
+	 * <code>write</code> returns (so, for example, <code>StaticXmlMetawidget.getNamespaces</code>
+	 * cannot be used afterwards).
+	 */
+
+	public void setStreaming( boolean streaming ) {
+
+		mStreaming = streaming;
+	}
+
 	public void setMaximumInspectionDepth( int maximumInspectionDepth ) {
 
 		mPipeline.setMaximumInspectionDepth( maximumInspectionDepth );
@@ -187,12 +216,41 @@ public abstract class StaticMetawidget
 		// ...instead, copy runtime values
 
 		mPipeline.initNestedPipeline( nestedMetawidget.mPipeline, attributes );
+		nestedMetawidget.setStreaming( mStreaming );
 
 		if ( nestedMetawidget.getPath() == null ) {
 			nestedMetawidget.setPath( mPath + StringUtils.SEPARATOR_FORWARD_SLASH_CHAR + attributes.get( NAME ) );
 		}
 	}
 
+	/**
+	 * Copies this Metawidget's configuration (its Inspector, InspectionResultProcessors,
+	 * WidgetBuilder, WidgetProcessors, Layout, ConfigReader, read-only state, streaming state and
+	 * maximum inspection depth) to the given Metawidget. The given Metawidget's own
+	 * <code>setConfig</code> is discarded, so it will not reconfigure itself.
+	 * <p>
+	 * Useful for generating many outputs from a single, already configured Metawidget (see
+	 * <code>BatchGenerator</code>). Inspectors, WidgetBuilders etc. are immutable, so can be
+	 * safely shared.
+	 */
+
+	public void copyConfigurationTo( StaticMetawidget metawidget ) {
+
+		metawidget.setConfig( null );
+
+		// (initNestedPipeline copies the ConfigReader, read-only state, Inspector etc. but
+		// decrements the maximum inspection depth, so restore it)
+
+		mPipeline.initNestedPipeline( metawidget.mPipeline, null );
+		metawidget.mPipeline.setMaximumInspectionDepth( mPipeline.getMaximumInspectionDepth() );
+		metawidget.setStreaming( mStreaming );
+	}
+
+	public List<InspectionResultProcessor<StaticMetawidget>> getInspectionResultProcessors() {
+
+		return mPipeline.getInspectionResultProcessors();
+	}
+
 	@SuppressWarnings( { "unchecked" } )
 	public void setInspectionResultProcessors( InspectionResultProcessor<? extends StaticMetawidget>... inspectionResultProcessors ) {
 
@@ -274,20 +332,91 @@ public abstract class StaticMetawidget
 	public void write( Writer writer, int initialIndent ) {
 
 		try {
-			mPipeline.buildWidgets( inspect() );
-
 			Writer writerToUse = writer;
 
 			if ( initialIndent >= 0 ) {
 				writerToUse = new IndentedWriter( writer, initialIndent );
 			}
 
-			super.write( writerToUse );
+			if ( mStreaming ) {
+
+				// Widgets will be written as the Layout adds them
+
+				startStreaming( writerToUse );
+
+				try {
+					mPipeline.buildWidgets( inspect() );
+					endStreaming();
+				} finally {
+					stopStreaming();
+				}
+			} else {
+				mPipeline.buildWidgets( inspect() );
+				super.write( writerToUse );
+			}
 		} catch ( Exception e ) {
 			throw MetawidgetException.newException( e );
 		}
 	}
 
+	/**
+	 * Write the Metawidget output to the given file, unless it is unchanged since it was last
+	 * written.
+	 * <p>
+	 * This is the incremental mode of <code>BatchGenerator</code>, for a single output. The
+	 * fingerprint of everything that went into the output (this Metawidget's configuration, its
+	 * version and the inspection result of every path inspected) is recorded in the given
+	 * <code>BatchManifest</code>, keyed by file. Clients should call <code>manifest.save</code>
+	 * once all outputs have been written.
+	 *
+	 * @return true if the file was written, false if it was up to date
+	 */
+
+	public boolean write( final File file, final int initialIndent, BatchManifest manifest ) {
+
+		BatchTemplate template = new BatchTemplate( file.getPath(), this ) {
+
+			@Override
+			protected StaticMetawidget newMetawidget( String path ) {
+
+				return StaticMetawidget.this;
+			}
+
+			@Override
+			protected Writer newWriter( String path )
+				throws Exception {
+
+				return new FileWriter( file );
+			}
+
+			@Override
+			protected int getInitialIndent() {
+
+				return initialIndent;
+			}
+
+			@Override
+			protected boolean hasOutput( String path ) {
+
+				return file.exists();
+			}
+		};
+
+		try {
+			template.configurePrototype();
+		} catch ( Exception e ) {
+			throw MetawidgetException.newException( e );
+		}
+
+		Entry entry = new BatchTask( template, mPath, manifest ).call();
+
+		if ( !entry.isSuccessful() ) {
+			throw MetawidgetException.newException( entry.getException() );
+		}
+
+		return !entry.isUpToDate();
+	}
+
 	//
 	// Protected methods
 	//
@@ -0,0 +1,114 @@
+// Metawidget
+//
+// This file is dual licensed under both the LGPL
+// (http://www.gnu.org/licenses/lgpl-2.1.html) and the EPL
+// (http://www.eclipse.org/org/documents/epl-v10.php). As a
+// recipient of Metawidget, you may choose to receive it under either
+// the LGPL or the EPL.
+//
+// Commercial licenses are also available. See http://metawidget.org
+// for details.
+
+package org.metawidget.statically.faces.component.html;
+
+import java.io.File;
+
+import org.metawidget.statically.FileBatchTemplate;
+import org.metawidget.statically.StaticMetawidget;
+import org.metawidget.statically.faces.StaticFacesUtils;
+import org.metawidget.util.ClassUtils;
+import org.metawidget.util.simple.PathUtils;
+import org.metawidget.util.simple.PathUtils.TypeAndNames;
+import org.metawidget.util.simple.StringUtils;
+
+/**
+ * <code>BatchTemplate</code> that generates Java Server Faces views, one <code>.xhtml</code> file
+ * per path.
+ * <p>
+ * Because we are working statically, each Metawidget needs a value binding expression as well as
+ * a path (see <code>StaticUIMetawidget.setValue</code>). By default, this is the decapitalized
+ * simple name of the path's type, plus the names of any nested properties. For example
+ * <code>com.myapp.Person/address</code> is bound to <code>#{person.address}</code>.
+ *
+ * @author <a href="http://kennardconsulting.com">Richard Kennard</a>
+ */
+
+public class HtmlBatchTemplate
+	extends FileBatchTemplate {
+
+	//
+	// Private members
+	//
+
+	private final StaticHtmlMetawidget	mPrototype;
+
+	//
+	// Constructor
+	//
+
+	/**
+	 * Create a template based on a <code>StaticHtmlMetawidget</code> with the default
+	 * configuration.
+	 */
+
+	public HtmlBatchTemplate( File directory ) {
+
+		this( new StaticHtmlMetawidget(), directory );
+	}
+
+	public HtmlBatchTemplate( StaticHtmlMetawidget prototype, File directory ) {
+
+		super( "jsf", prototype, directory, ".xhtml" );
+
+		mPrototype = prototype;
+	}
+
+	//
+	// Protected methods
+	//
+
+	/**
+	 * Overridden to set the value binding expression, and carry across CSS style attributes.
+	 */
+
+	@Override
+	protected StaticMetawidget newMetawidget( String path )
+		throws Exception {
+
+		StaticHtmlMetawidget metawidget = (StaticHtmlMetawidget) super.newMetawidget( path );
+		metawidget.setValue( getValueExpression( path ) );
+		metawidget.setStyle( mPrototype.getStyle() );
+		metawidget.setStyleClass( mPrototype.getStyleClass() );
+
+		return metawidget;
+	}
+
+	/**
+	 * Overridden to include the CSS style attributes carried across by <code>newMetawidget</code>.
+	 */
+
+	@Override
+	protected String getConfigurationFingerprint()
+		throws Exception {
+
+		return super.getConfigurationFingerprint() + ",style=" + mPrototype.getStyle() + ",styleClass=" + mPrototype.getStyleClass();
+	}
+
+	/**
+	 * Gets the value binding expression for the given path.
+	 */
+
+	protected String getValueExpression( String path ) {
+
+		TypeAndNames typeAndNames = PathUtils.parsePath( path, StringUtils.SEPARATOR_FORWARD_SLASH_CHAR );
+		String simpleName = StringUtils.substringAfterLast( ClassUtils.getSimpleName( typeAndNames.getType() ), '$' );
+		StringBuilder builder = new StringBuilder( StringUtils.decapitalize( simpleName ) );
+
+		for ( String name : typeAndNames.getNamesAsArray() ) {
+			builder.append( StringUtils.SEPARATOR_DOT_CHAR );
+			builder.append( name );
+		}
+
+		return StaticFacesUtils.wrapExpression( builder.toString() );
+	}
+}
@@ -0,0 +1,95 @@
+// Metawidget
+//
+// This file is dual licensed under both the LGPL
+// (http://www.gnu.org/licenses/lgpl-2.1.html) and the EPL
+// (http://www.eclipse.org/org/documents/epl-v10.php). As a
+// recipient of Metawidget, you may choose to receive it under either
+// the LGPL or the EPL.
+//
+// Commercial licenses are also available. See http://metawidget.org
+// for details.
+
+package org.metawidget.statically.faces.component.html;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.util.List;
+
+import junit.framework.TestCase;
+
+import org.metawidget.statically.BatchGenerator;
+import org.metawidget.statically.BatchManifest;
+import org.metawidget.statically.BatchReport;
+import org.metawidget.statically.faces.component.html.StaticHtmlMetawidgetTest.Foo;
+import org.metawidget.statically.faces.component.html.StaticHtmlMetawidgetTest.NestedFoo;
+import org.metawidget.util.CollectionUtils;
+import org.metawidget.util.IOUtils;
+
+/**
+ * @author <a href="http://kennardconsulting.com">Richard Kennard</a>
+ */
+
+public class HtmlBatchTemplateTest
+	extends TestCase {
+
+	//
+	// Public methods
+	//
+
+	public void testHtmlBatchTemplate()
+		throws Exception {
+
+		File directory = File.createTempFile( "jsf", "" );
+		directory.delete();
+		File manifestFile = new File( directory, "manifest.properties" );
+
+		try {
+			StaticHtmlMetawidget prototype = new StaticHtmlMetawidget();
+			prototype.setStyleClass( "form" );
+			HtmlBatchTemplate template = new HtmlBatchTemplate( prototype, directory );
+			assertEquals( "#{foo}", template.getValueExpression( Foo.class.getName() ) );
+			assertEquals( "#{foo.bar}", template.getValueExpression( Foo.class.getName() + "/bar" ) );
+			assertEquals( new File( directory, "StaticHtmlMetawidgetTest$Foo.xhtml" ), template.getFile( Foo.class.getName() ) );
+
+			// Generate
+
+			List<String> paths = CollectionUtils.newArrayList( Foo.class.getName(), NestedFoo.class.getName() );
+			BatchReport report = new BatchGenerator( 2 ).generate( paths, new BatchManifest( manifestFile ), template );
+			assertTrue( report.getFailures().isEmpty() );
+			assertEquals( "jsf: " + Foo.class.getName(), report.getEntries().get( 0 ).toString() );
+
+			String foo = readFile( template.getFile( Foo.class.getName() ) );
+			assertTrue( foo.startsWith( "<h:panelGrid columns=\"3\">\r\n" ) );
+			assertTrue( foo.contains( "<h:inputText id=\"fooBar\" styleClass=\"form\" value=\"#{foo.bar}\"/>" ) );
+			assertTrue( readFile( template.getFile( NestedFoo.class.getName() ) ).contains( "value=\"#{nestedFoo.abc}\"" ) );
+
+			// Changed styles are regenerated
+
+			assertEquals( 2, new BatchGenerator( 2 ).generate( paths, new BatchManifest( manifestFile ), template ).getUpToDate().size() );
+			prototype.setStyleClass( "wide-form" );
+			report = new BatchGenerator( 2 ).generate( paths, new BatchManifest( manifestFile ), template );
+			assertTrue( report.getUpToDate().isEmpty() );
+			assertTrue( readFile( template.getFile( Foo.class.getName() ) ).contains( "<h:inputText id=\"fooBar\" styleClass=\"wide-form\" value=\"#{foo.bar}\"/>" ) );
+		} finally {
+			for ( File file : directory.listFiles() ) {
+				file.delete();
+			}
+
+			directory.delete();
+		}
+	}
+
+	//
+	// Private methods
+	//
+
+	private String readFile( File file )
+		throws IOException {
+
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		IOUtils.streamBetween( new FileInputStream( file ), out );
+		return out.toString();
+	}
+}
@@ -244,6 +244,28 @@ public class StaticHtmlMetawidgetTest
 		assertEquals( result, writer.toString() );
 	}
 
+	public void testStreaming() {
+
+		for ( String path : new String[] { Foo.class.getName(), NestedFoo.class.getName(), Sections.class.getName() } ) {
+
+			StaticHtmlMetawidget metawidget = new StaticHtmlMetawidget();
+			metawidget.setValue( "#{foo}" );
+			metawidget.setPath( path );
+			StringWriter writer = new StringWriter();
+			metawidget.write( writer, 1 );
+
+			StaticHtmlMetawidget streamingMetawidget = new StaticHtmlMetawidget();
+			streamingMetawidget.setValue( "#{foo}" );
+			streamingMetawidget.setPath( path );
+			streamingMetawidget.setStreaming( true );
+			StringWriter streamingWriter = new StringWriter();
+			streamingMetawidget.write( streamingWriter, 1 );
+
+			assertEquals( writer.toString(), streamingWriter.toString() );
+			assertTrue( streamingMetawidget.getChildren().isEmpty() );
+		}
+	}
+
 	//
 	// Inner class
 	//
@@ -0,0 +1,46 @@
+// Metawidget
+//
+// This file is dual licensed under both the LGPL
+// (http://www.gnu.org/licenses/lgpl-2.1.html) and the EPL
+// (http://www.eclipse.org/org/documents/epl-v10.php). As a
+// recipient of Metawidget, you may choose to receive it under either
+// the LGPL or the EPL.
+//
+// Commercial licenses are also available. See http://metawidget.org
+// for details.
+
+package org.metawidget.statically.html;
+
+import java.io.File;
+
+import org.metawidget.statically.FileBatchTemplate;
+
+/**
+ * <code>BatchTemplate</code> that generates Plain Old HTML forms, one <code>.html</code> file per
+ * path.
+ *
+ * @author <a href="http://kennardconsulting.com">Richard Kennard</a>
+ */
+
+public class HtmlBatchTemplate
+	extends FileBatchTemplate {
+
+	//
+	// Constructor
+	//
+
+	/**
+	 * Create a template based on a <code>StaticHtmlMetawidget</code> with the default
+	 * configuration.
+	 */
+
+	public HtmlBatchTemplate( File directory ) {
+
+		this( new StaticHtmlMetawidget(), directory );
+	}
+
+	public HtmlBatchTemplate( StaticHtmlMetawidget prototype, File directory ) {
+
+		super( "html", prototype, directory, ".html" );
+	}
+}
@@ -0,0 +1,468 @@
+// Metawidget
+//
+// This file is dual licensed under both the LGPL
+// (http://www.gnu.org/licenses/lgpl-2.1.html) and the EPL
+// (http://www.eclipse.org/org/documents/epl-v10.php). As a
+// recipient of Metawidget, you may choose to receive it under either
+// the LGPL or the EPL.
+//
+// Commercial licenses are also available. See http://metawidget.org
+// for details.
+
+package org.metawidget.statically;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import junit.framework.TestCase;
+
+import org.metawidget.config.iface.ConfigReader;
+import org.metawidget.config.iface.ResourceResolver;
+import org.metawidget.config.impl.BaseConfigReader;
+import org.metawidget.config.impl.SimpleResourceResolver;
+import org.metawidget.inspector.iface.Inspector;
+import org.metawidget.inspector.propertytype.PropertyTypeInspector;
+import org.metawidget.statically.html.StaticHtmlMetawidget;
+import org.metawidget.statically.html.StaticHtmlMetawidgetTest.Foo;
+import org.metawidget.statically.html.StaticHtmlMetawidgetTest.NestedFoo;
+import org.metawidget.statically.html.layout.HtmlTableLayout;
+import org.metawidget.statically.html.layout.HtmlTableLayoutConfig;
+import org.metawidget.util.CollectionUtils;
+import org.metawidget.util.IOUtils;
+
+/**
+ * @author <a href="http://kennardconsulting.com">Richard Kennard</a>
+ */
+
+public class BatchGeneratorTest
+	extends TestCase {
+
+	//
+	// Public methods
+	//
+
+	public void testBatchGenerator() {
+
+		StaticHtmlMetawidget prototype = new StaticHtmlMetawidget();
+		prototype.setReadOnly( true );
+		StringWriterTemplate template = new StringWriterTemplate( "html", prototype );
+
+		List<String> paths = CollectionUtils.newArrayList();
+
+		for ( int loop = 0; loop < 20; loop++ ) {
+			paths.add( Foo.class.getName() );
+			paths.add( NestedFoo.class.getName() );
+		}
+
+		BatchReport report = new BatchGenerator( 4 ).generate( paths, template );
+
+		assertEquals( 40, report.getEntries().size() );
+		assertTrue( report.getFailures().isEmpty() );
+		assertEquals( 4, report.getThreads() );
+		assertEquals( "html", report.getEntries().get( 0 ).getTemplate() );
+		assertEquals( Foo.class.getName(), report.getEntries().get( 0 ).getPath() );
+		assertEquals( NestedFoo.class.getName(), report.getEntries().get( 1 ).getPath() );
+		assertTrue( report.toString().startsWith( "Generated 40 of 40 outputs in " ) );
+
+		try {
+			report.getEntries().clear();
+			fail();
+		} catch ( UnsupportedOperationException e ) {
+			// Should fail
+		}
+
+		// Should match generating sequentially
+
+		for ( String path : new String[] { Foo.class.getName(), NestedFoo.class.getName() } ) {
+
+			StaticHtmlMetawidget metawidget = new StaticHtmlMetawidget();
+			metawidget.setReadOnly( true );
+			metawidget.setPath( path );
+			StringWriter writer = new StringWriter();
+			metawidget.write( writer, 0 );
+
+			assertEquals( writer.toString(), template.getOutput( path ) );
+		}
+	}
+
+	public void testFailures() {
+
+		StringWriterTemplate template = new StringWriterTemplate( "html", new StaticHtmlMetawidget() ) {
+
+			@Override
+			protected Writer newWriter( String path )
+				throws Exception {
+
+				if ( NestedFoo.class.getName().equals( path ) ) {
+					throw new IOException( "Disk full" );
+				}
+
+				return super.newWriter( path );
+			}
+		};
+
+		List<String> paths = CollectionUtils.newArrayList( Foo.class.getName(), NestedFoo.class.getName() );
+		BatchReport report = new BatchGenerator( 2 ).generate( paths, template );
+
+		assertEquals( 2, report.getEntries().size() );
+		assertTrue( report.getEntries().get( 0 ).isSuccessful() );
+		assertTrue( template.getOutput( Foo.class.getName() ).startsWith( "<table>" ) );
+
+		List<BatchReport.Entry> failures = report.getFailures();
+		assertEquals( 1, failures.size() );
+		assertEquals( NestedFoo.class.getName(), failures.get( 0 ).getPath() );
+		assertEquals( "Disk full", failures.get( 0 ).getException().getMessage() );
+		assertTrue( report.toString().startsWith( "Generated 1 of 2 outputs in " ) );
+		assertTrue( report.toString().endsWith( "\r\n\tFailed html: " + NestedFoo.class.getName() + " (java.io.IOException: Disk full)" ) );
+
+		try {
+			new BatchGenerator( 0 );
+			fail();
+		} catch ( Exception e ) {
+			assertEquals( "Must use at least 1 thread", e.getMessage() );
+		}
+	}
+
+	public void testIncremental()
+		throws Exception {
+
+		File file = File.createTempFile( "manifest", ".properties" );
+		file.delete();
+
+		try {
+			boolean[] changeInspection = new boolean[1];
+			StaticHtmlMetawidget prototype = new StaticHtmlMetawidget();
+			prototype.setInspector( newInspector( changeInspection ) );
+
+			List<String> paths = CollectionUtils.newArrayList( Foo.class.getName(), NestedFoo.class.getName() );
+			BatchGenerator batchGenerator = new BatchGenerator( 2 );
+
+			// First run generates everything
+
+			StringWriterTemplate template = new StringWriterTemplate( "html", prototype );
+			BatchReport report = batchGenerator.generate( paths, new BatchManifest( file ), template );
+			assertTrue( report.getUpToDate().isEmpty() );
+			assertTrue( report.toString().startsWith( "Generated 2 of 2 outputs in " ) );
+			assertTrue( file.exists() );
+			assertTrue( template.getOutput( NestedFoo.class.getName() ).contains( "<label for=\"nestedFoo-baz\">Baz:</label>" ) );
+
+			// Second run generates nothing
+
+			template = new StringWriterTemplate( "html", prototype );
+			report = batchGenerator.generate( paths, new BatchManifest( file ), template );
+			assertEquals( 2, report.getUpToDate().size() );
+			assertTrue( report.getFailures().isEmpty() );
+			assertTrue( report.toString().startsWith( "Generated 0 of 2 outputs (2 up to date) in " ) );
+			assertEquals( "html: " + Foo.class.getName() + " (up to date)", report.getEntries().get( 0 ).toString() );
+			assertFalse( template.isWritten( Foo.class.getName() ) );
+			assertFalse( template.isWritten( NestedFoo.class.getName() ) );
+
+			// Changed inspection results (including those of nested Metawidgets) are regenerated
+
+			changeInspection[0] = true;
+			template = new StringWriterTemplate( "html", prototype );
+			report = batchGenerator.generate( paths, new BatchManifest( file ), template );
+			assertTrue( report.getUpToDate().isEmpty() );
+			assertTrue( template.getOutput( Foo.class.getName() ).contains( "Changed:" ) );
+			assertTrue( template.getOutput( NestedFoo.class.getName() ).contains( "<label for=\"nestedFoo-baz\">Changed:</label>" ) );
+
+			// Changed configuration is regenerated
+
+			prototype.setReadOnly( true );
+			template = new StringWriterTemplate( "html", prototype );
+			report = batchGenerator.generate( paths, new BatchManifest( file ), template );
+			assertTrue( report.getUpToDate().isEmpty() );
+
+			// Cleared manifest is regenerated
+
+			BatchManifest manifest = new BatchManifest( file );
+			manifest.clear();
+			template = new StringWriterTemplate( "html", prototype );
+			report = batchGenerator.generate( paths, manifest, template );
+			assertTrue( report.getUpToDate().isEmpty() );
+			assertEquals( 2, new BatchGenerator().generate( paths, new BatchManifest( file ), template ).getUpToDate().size() );
+		} finally {
+			file.delete();
+		}
+	}
+
+	public void testIncrementalWrite()
+		throws Exception {
+
+		File file = File.createTempFile( "manifest", ".properties" );
+		file.delete();
+		File output = File.createTempFile( "foo", ".html" );
+		output.delete();
+
+		try {
+			boolean[] changeInspection = new boolean[1];
+			Inspector inspector = newInspector( changeInspection );
+			StaticHtmlMetawidget metawidget = new StaticHtmlMetawidget();
+			metawidget.setInspector( inspector );
+			metawidget.setPath( Foo.class.getName() );
+
+			// First write
+
+			BatchManifest manifest = new BatchManifest( file );
+			assertTrue( metawidget.write( output, 0, manifest ) );
+			manifest.save();
+			assertTrue( readFile( output ).contains( "<label for=\"baz\">Baz:</label>" ) );
+			assertTrue( inspector == metawidget.getInspector() );
+
+			// Unchanged output is not rewritten
+
+			assertTrue( output.setLastModified( 1000 ) );
+			manifest = new BatchManifest( file );
+			assertFalse( metawidget.write( output, 0, manifest ) );
+			assertEquals( 1000, output.lastModified() );
+
+			// Changed inspection results are rewritten
+
+			changeInspection[0] = true;
+			assertTrue( metawidget.write( output, 0, manifest ) );
+			assertTrue( readFile( output ).contains( "<label for=\"baz\">Changed:</label>" ) );
+			assertFalse( metawidget.write( output, 0, manifest ) );
+
+			// Deleted output is rewritten
+
+			assertTrue( output.delete() );
+			assertTrue( metawidget.write( output, 0, manifest ) );
+			assertTrue( output.exists() );
+		} finally {
+			file.delete();
+			output.delete();
+		}
+	}
+
+	public void testConfigurationChange()
+		throws Exception {
+
+		File file = File.createTempFile( "manifest", ".properties" );
+		file.delete();
+		final File configFile = File.createTempFile( "metawidget", ".xml" );
+
+		try {
+			ResourceResolver resourceResolver = new SimpleResourceResolver() {
+
+				@Override
+				public InputStream openResource( String resource ) {
+
+					if ( !"metawidget.xml".equals( resource ) ) {
+						return super.openResource( resource );
+					}
+
+					try {
+						return new FileInputStream( configFile );
+					} catch ( IOException e ) {
+						throw new RuntimeException( e );
+					}
+				}
+			};
+
+			List<String> paths = CollectionUtils.newArrayList( Foo.class.getName() );
+			BatchGenerator batchGenerator = new BatchGenerator( 2 );
+			writeConfig( configFile, "foo" );
+
+			// First run generates everything, second run generates nothing
+
+			StringWriterTemplate template = new StringWriterTemplate( "html", newPrototype( resourceResolver ) );
+			assertTrue( batchGenerator.generate( paths, new BatchManifest( file ), template ).getUpToDate().isEmpty() );
+			assertTrue( template.getOutput( Foo.class.getName() ).startsWith( "<table class=\"foo\">" ) );
+			template = new StringWriterTemplate( "html", newPrototype( resourceResolver ) );
+			assertEquals( 1, batchGenerator.generate( paths, new BatchManifest( file ), template ).getUpToDate().size() );
+
+			// Changed config file is regenerated
+
+			writeConfig( configFile, "bar" );
+			template = new StringWriterTemplate( "html", newPrototype( resourceResolver ) );
+			assertTrue( batchGenerator.generate( paths, new BatchManifest( file ), template ).getUpToDate().isEmpty() );
+			assertTrue( template.getOutput( Foo.class.getName() ).startsWith( "<table class=\"bar\">" ) );
+
+			// Changed component configuration is regenerated
+
+			StaticHtmlMetawidget prototype = new StaticHtmlMetawidget();
+			prototype.setLayout( new HtmlTableLayout( new HtmlTableLayoutConfig().setTableStyleClass( "baz" ) ) );
+			template = new StringWriterTemplate( "html", prototype );
+			assertTrue( batchGenerator.generate( paths, new BatchManifest( file ), template ).getUpToDate().isEmpty() );
+			assertTrue( template.getOutput( Foo.class.getName() ).startsWith( "<table class=\"baz\">" ) );
+
+			prototype = new StaticHtmlMetawidget();
+			prototype.setLayout( new HtmlTableLayout( new HtmlTableLayoutConfig().setTableStyleClass( "baz" ) ) );
+			template = new StringWriterTemplate( "html", prototype );
+			assertEquals( 1, batchGenerator.generate( paths, new BatchManifest( file ), template ).getUpToDate().size() );
+
+			prototype = new StaticHtmlMetawidget();
+			prototype.setLayout( new HtmlTableLayout( new HtmlTableLayoutConfig().setTableStyleClass( "abc" ) ) );
+			template = new StringWriterTemplate( "html", prototype );
+			assertTrue( batchGenerator.generate( paths, new BatchManifest( file ), template ).getUpToDate().isEmpty() );
+			assertTrue( template.getOutput( Foo.class.getName() ).startsWith( "<table class=\"abc\">" ) );
+
+			// Changed InspectionResultProcessors are regenerated
+
+			prototype.setInspectionResultProcessors();
+			template = new StringWriterTemplate( "html", prototype );
+			assertTrue( batchGenerator.generate( paths, new BatchManifest( file ), template ).getUpToDate().isEmpty() );
+		} finally {
+			file.delete();
+			configFile.delete();
+		}
+	}
+
+	public void testCopyConfiguration() {
+
+		StaticHtmlMetawidget prototype = new StaticHtmlMetawidget();
+		ConfigReader configReader = new BaseConfigReader();
+		prototype.setConfigReader( configReader );
+		prototype.setReadOnly( true );
+		prototype.setStreaming( true );
+		prototype.setMaximumInspectionDepth( 1 );
+		prototype.setConfig( "org/metawidget/statically/html/metawidget-static-html-default.xml" );
+
+		StaticHtmlMetawidget metawidget = new StaticHtmlMetawidget();
+		metawidget.setConfig( "does-not-exist.xml" );
+		prototype.copyConfigurationTo( metawidget );
+
+		assertTrue( configReader == metawidget.getConfigReader() );
+		assertTrue( metawidget.isReadOnly() );
+		assertTrue( metawidget.isStreaming() );
+		assertEquals( null, metawidget.getConfig() );
+		assertTrue( prototype.getInspector() == metawidget.getInspector() );
+		assertTrue( prototype.getWidgetBuilder() == metawidget.getWidgetBuilder() );
+		assertTrue( prototype.getLayout() == metawidget.getLayout() );
+
+		// Maximum inspection depth should be copied, not decremented as for nested Metawidgets
+
+		prototype.setPath( NestedFoo.class.getName() );
+		metawidget.setPath( NestedFoo.class.getName() );
+
+		StringWriter prototypeWriter = new StringWriter();
+		prototype.write( prototypeWriter );
+		StringWriter metawidgetWriter = new StringWriter();
+		metawidget.write( metawidgetWriter );
+		assertEquals( prototypeWriter.toString(), metawidgetWriter.toString() );
+	}
+
+	//
+	// Private methods
+	//
+
+	private Inspector newInspector( final boolean[] changeInspection ) {
+
+		return new Inspector() {
+
+			private Inspector	mInspector	= new PropertyTypeInspector();
+
+			public String inspect( Object toInspect, String type, String... names ) {
+
+				// (PropertyTypeInspector cannot traverse static paths, so look up nested types directly)
+
+				String inspectionResult;
+
+				if ( names.length == 0 ) {
+					inspectionResult = mInspector.inspect( toInspect, type );
+				} else {
+					inspectionResult = mInspector.inspect( toInspect, Foo.class.getName() );
+				}
+
+				if ( changeInspection[0] ) {
+					return inspectionResult.replace( "name=\"baz\"", "label=\"Changed\" name=\"baz\"" );
+				}
+
+				return inspectionResult;
+			}
+		};
+	}
+
+	private String readFile( File file )
+		throws IOException {
+
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		IOUtils.streamBetween( new FileInputStream( file ), out );
+		return out.toString();
+	}
+
+	private StaticHtmlMetawidget newPrototype( ResourceResolver resourceResolver ) {
+
+		StaticHtmlMetawidget prototype = new StaticHtmlMetawidget();
+		prototype.setConfigReader( new BaseConfigReader( resourceResolver ) );
+		prototype.setConfig( "metawidget.xml" );
+
+		return prototype;
+	}
+
+	private void writeConfig( File configFile, String tableStyleClass )
+		throws IOException {
+
+		Writer writer = new FileWriter( configFile );
+
+		try {
+			writer.write( "<metawidget xmlns=\"http://metawidget.org\" version=\"1.0\">" );
+			writer.write( "<staticHtmlMetawidget xmlns=\"java:org.metawidget.statically.html\">" );
+			writer.write( "<layout><htmlTableLayout xmlns=\"java:org.metawidget.statically.html.layout\" config=\"HtmlTableLayoutConfig\">" );
+			writer.write( "<tableStyleClass><string>" + tableStyleClass + "</string></tableStyleClass>" );
+			writer.write( "</htmlTableLayout></layout>" );
+			writer.write( "</staticHtmlMetawidget></metawidget>" );
+		} finally {
+			writer.close();
+		}
+	}
+
+	//
+	// Inner class
+	//
+
+	/* package private */static class StringWriterTemplate
+		extends BatchTemplate {
+
+		//
+		// Private members
+		//
+
+		private Map<String, StringWriter>	mOutputs	= Collections.synchronizedMap( CollectionUtils.<String, StringWriter> newHashMap() );
+
+		//
+		// Constructor
+		//
+
+		public StringWriterTemplate( String name, StaticMetawidget prototype ) {
+
+			super( name, prototype );
+		}
+
+		//
+		// Public methods
+		//
+
+		public String getOutput( String path ) {
+
+			return mOutputs.get( path ).toString();
+		}
+
+		public boolean isWritten( String path ) {
+
+			return mOutputs.containsKey( path );
+		}
+
+		//
+		// Protected methods
+		//
+
+		@Override
+		protected Writer newWriter( String path )
+			throws Exception {
+
+			StringWriter writer = new StringWriter();
+			mOutputs.put( path, writer );
+			return writer;
+		}
+	}
+}
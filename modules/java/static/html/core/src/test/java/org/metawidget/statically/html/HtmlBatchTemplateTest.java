@@ -0,0 +1,97 @@
+// Metawidget
+//
+// This file is dual licensed under both the LGPL
+// (http://www.gnu.org/licenses/lgpl-2.1.html) and the EPL
+// (http://www.eclipse.org/org/documents/epl-v10.php). As a
+// recipient of Metawidget, you may choose to receive it under either
+// the LGPL or the EPL.
+//
+// Commercial licenses are also available. See http://metawidget.org
+// for details.
+
+package org.metawidget.statically.html;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.util.List;
+
+import junit.framework.TestCase;
+
+import org.metawidget.statically.BatchGenerator;
+import org.metawidget.statically.BatchManifest;
+import org.metawidget.statically.BatchReport;
+import org.metawidget.statically.html.StaticHtmlMetawidgetTest.Foo;
+import org.metawidget.statically.html.StaticHtmlMetawidgetTest.NestedFoo;
+import org.metawidget.util.CollectionUtils;
+import org.metawidget.util.IOUtils;
+
+/**
+ * @author <a href="http://kennardconsulting.com">Richard Kennard</a>
+ */
+
+public class HtmlBatchTemplateTest
+	extends TestCase {
+
+	//
+	// Public methods
+	//
+
+	public void testHtmlBatchTemplate()
+		throws Exception {
+
+		File directory = File.createTempFile( "html", "" );
+		directory.delete();
+		File manifestFile = new File( directory, "manifest.properties" );
+
+		try {
+			HtmlBatchTemplate template = new HtmlBatchTemplate( new File( directory, "forms" ) );
+			File fooFile = template.getFile( Foo.class.getName() );
+			File nestedFooFile = template.getFile( NestedFoo.class.getName() );
+			assertEquals( new File( directory, "forms/StaticHtmlMetawidgetTest$Foo.html" ), fooFile );
+			assertEquals( new File( directory, "forms/StaticHtmlMetawidgetTest$Foo-bar.html" ), template.getFile( Foo.class.getName() + "/bar" ) );
+
+			// Generate (creating the directory)
+
+			List<String> paths = CollectionUtils.newArrayList( Foo.class.getName(), NestedFoo.class.getName() );
+			BatchReport report = new BatchGenerator( 2 ).generate( paths, new BatchManifest( manifestFile ), template );
+			assertTrue( report.getFailures().isEmpty() );
+			assertEquals( "html: " + Foo.class.getName(), report.getEntries().get( 0 ).toString() );
+
+			String foo = readFile( fooFile );
+			assertTrue( foo.startsWith( "<table>\r\n" ) );
+			assertTrue( foo.contains( "<label for=\"bar\">Bar:</label>" ) );
+			assertTrue( foo.contains( "<input id=\"baz\" name=\"baz\" type=\"text\"/>" ) );
+			assertTrue( readFile( nestedFooFile ).contains( "<input id=\"nestedFoo-bar\" name=\"nestedFooBar\" type=\"text\"/>" ) );
+
+			// Unchanged files are not rewritten, deleted files are
+
+			assertTrue( nestedFooFile.delete() );
+			report = new BatchGenerator( 2 ).generate( paths, new BatchManifest( manifestFile ), template );
+			assertEquals( 1, report.getUpToDate().size() );
+			assertEquals( "html: " + Foo.class.getName() + " (up to date)", report.getUpToDate().get( 0 ).toString() );
+			assertTrue( nestedFooFile.exists() );
+		} finally {
+			for ( File file : new File( directory, "forms" ).listFiles() ) {
+				file.delete();
+			}
+
+			new File( directory, "forms" ).delete();
+			manifestFile.delete();
+			directory.delete();
+		}
+	}
+
+	//
+	// Private methods
+	//
+
+	private String readFile( File file )
+		throws IOException {
+
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		IOUtils.streamBetween( new FileInputStream( file ), out );
+		return out.toString();
+	}
+}
@@ -12,9 +12,13 @@
 package org.metawidget.statically.html;
 
 import java.io.StringWriter;
+import java.util.Map;
 
 import junit.framework.TestCase;
 
+import org.metawidget.statically.StaticXmlWidget;
+import org.metawidget.statically.html.layout.HtmlTableLayout;
+
 /**
  * @author <a href="http://kennardconsulting.com">Richard Kennard</a>
  */
@@ -115,6 +119,56 @@ public class StaticHtmlMetawidgetTest
 		assertEquals( result, writer.toString() );
 	}
 
+	public void testStreaming() {
+
+		for ( String path : new String[] { Foo.class.getName(), NestedFoo.class.getName() } ) {
+
+			for ( int initialIndent : new int[] { -1, 0, 2 } ) {
+
+				StaticHtmlMetawidget metawidget = new StaticHtmlMetawidget();
+				metawidget.setId( "foo" );
+				metawidget.setPath( path );
+				StringWriter writer = new StringWriter();
+				metawidget.write( writer, initialIndent );
+
+				StaticHtmlMetawidget streamingMetawidget = new StaticHtmlMetawidget();
+				streamingMetawidget.setId( "foo" );
+				streamingMetawidget.setPath( path );
+				streamingMetawidget.setStreaming( true );
+				StringWriter streamingWriter = new StringWriter();
+				streamingMetawidget.write( streamingWriter, initialIndent );
+
+				assertEquals( writer.toString(), streamingWriter.toString() );
+				assertTrue( streamingMetawidget.getChildren().isEmpty() );
+			}
+		}
+
+		// Table should be opened as soon as its first row is added (rows are written as soon
+		// as the next one is added)
+
+		final StringWriter writer = new StringWriter();
+		final int[] writtenWhenLaidOut = new int[2];
+		StaticHtmlMetawidget metawidget = new StaticHtmlMetawidget();
+		metawidget.setPath( Foo.class.getName() );
+		metawidget.setStreaming( true );
+		metawidget.setLayout( new HtmlTableLayout() {
+
+			private int	mWidgets;
+
+			@Override
+			public void layoutWidget( StaticXmlWidget widget, String elementName, Map<String, String> attributes, StaticXmlWidget container, StaticHtmlMetawidget layoutMetawidget ) {
+
+				writtenWhenLaidOut[mWidgets++] = writer.getBuffer().length();
+				super.layoutWidget( widget, elementName, attributes, container, layoutMetawidget );
+			}
+		} );
+		metawidget.write( writer, 0 );
+
+		assertEquals( 0, writtenWhenLaidOut[0] );
+		assertEquals( "<table>\r\n\t<tbody>\r\n", writer.toString().substring( 0, writtenWhenLaidOut[1] ) );
+		assertTrue( writer.toString().endsWith( "</table>\r\n" ) );
+	}
+
 	//
 	// Inner class
 	//
@@ -66,11 +66,10 @@ public abstract class BaseStaticJavaWidget
 	public void write( Writer writer )
 		throws IOException {
 
-		writer.append( mTextContent );
-
 		// Without children
 
 		if ( getChildren().isEmpty() ) {
+			writer.append( mTextContent );
 			writer.append( ';' );
 			if ( writer instanceof IndentedWriter ) {
 				writer.append( "\r\n" );
@@ -81,6 +80,20 @@ public abstract class BaseStaticJavaWidget
 
 		// With children
 
+		writeOpening( writer );
+		super.write( writer );
+		writeClosing( writer );
+	}
+
+	//
+	// Protected methods
+	//
+
+	@Override
+	protected void writeOpening( Writer writer )
+		throws IOException {
+
+		writer.append( mTextContent );
 		writer.append( " {" );
 
 		if ( writer instanceof IndentedWriter ) {
@@ -89,8 +102,11 @@ public abstract class BaseStaticJavaWidget
 		} else {
 			writer.append( ' ' );
 		}
+	}
 
-		super.write( writer );
+	@Override
+	protected void writeClosing( Writer writer )
+		throws IOException {
 
 		if ( writer instanceof IndentedWriter ) {
 			( (IndentedWriter) writer ).outdent();
@@ -105,10 +121,6 @@ public abstract class BaseStaticJavaWidget
 		}
 	}
 
-	//
-	// Protected methods
-	//
-
 	protected String getTextContent() {
 
 		return mTextContent;
@@ -0,0 +1,321 @@
+// Metawidget
+//
+// This file is dual licensed under both the LGPL
+// (http://www.gnu.org/licenses/lgpl-2.1.html) and the EPL
+// (http://www.eclipse.org/org/documents/epl-v10.php). As a
+// recipient of Metawidget, you may choose to receive it under either
+// the LGPL or the EPL.
+//
+// Commercial licenses are also available. See http://metawidget.org
+// for details.
+
+package org.metawidget.statically.javacode.swing;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+
+import org.metawidget.iface.MetawidgetException;
+import org.metawidget.statically.StaticUtils.IndentedWriter;
+import org.metawidget.statically.StaticWidget;
+import org.metawidget.statically.javacode.JavaStatement;
+import org.metawidget.statically.javacode.StaticJavaMetawidget;
+import org.metawidget.statically.javacode.swing.widgetbuilder.SwingComponent;
+import org.metawidget.util.ClassUtils;
+import org.metawidget.util.CollectionUtils;
+import org.metawidget.util.simple.PathUtils;
+import org.metawidget.util.simple.StringUtils;
+
+/**
+ * Static Metawidget for generating Swing panels ahead of time.
+ * <p>
+ * Writes the source code of a complete <code>JPanel</code> subclass for the type given by
+ * <code>setPath</code>. The generated class lays out the same components as a
+ * <code>SwingMetawidget</code> would at runtime, but without any runtime inspection, widget
+ * building or layout. It has a <code>setValue</code> method to load its components from an
+ * object, and a <code>save</code> method to save them back.
+ * <p>
+ * Properties of nested types are generated as fields of <code>[NestedType]Panel</code>. These
+ * nested panels must also be generated (see <code>getNestedTypes</code> and
+ * <code>SwingPanelGenerator</code>). <code>setStreaming</code> is not supported, because the
+ * fields of the generated class must be known before its constructor can be written.
+ *
+ * @author <a href="http://kennardconsulting.com">Richard Kennard</a>
+ */
+
+public class StaticSwingMetawidget
+	extends StaticJavaMetawidget {
+
+	//
+	// Private statics
+	//
+
+	private static final String	PANEL_SUFFIX	= "Panel";
+
+	//
+	// Private members
+	//
+
+	private String				mPackageName;
+
+	private final Set<String>	mNestedTypes	= new LinkedHashSet<String>();
+
+	//
+	// Public methods
+	//
+
+	public String getPackageName() {
+
+		return mPackageName;
+	}
+
+	/**
+	 * Package of the generated class. If <code>null</code>, defaults to the package of the type
+	 * being generated.
+	 */
+
+	public void setPackageName( String packageName ) {
+
+		mPackageName = packageName;
+	}
+
+	/**
+	 * Fully qualified name of the class generated for the given type (eg.
+	 * <code>com.myapp.PersonPanel</code> for <code>com.myapp.Person</code>).
+	 */
+
+	public String getPanelClassName( String type ) {
+
+		String simpleName = StringUtils.substringAfterLast( ClassUtils.getSimpleName( type ), '$' ) + PANEL_SUFFIX;
+		String packageName = mPackageName;
+
+		if ( packageName == null ) {
+			packageName = getPackageName( type );
+		}
+
+		if ( packageName == null ) {
+			return simpleName;
+		}
+
+		return packageName + StringUtils.SEPARATOR_DOT_CHAR + simpleName;
+	}
+
+	/**
+	 * Type being generated (ie. the type portion of <code>getPath</code>).
+	 */
+
+	public String getType() {
+
+		if ( getPath() == null ) {
+			return null;
+		}
+
+		return PathUtils.parsePath( getPath(), StringUtils.SEPARATOR_FORWARD_SLASH_CHAR ).getType();
+	}
+
+	/**
+	 * Types of the nested panels the generated class refers to. Available after <code>write</code>.
+	 */
+
+	public Set<String> getNestedTypes() {
+
+		return mNestedTypes;
+	}
+
+	/**
+	 * Useful for WidgetBuilders to record a nested panel.
+	 */
+
+	public void putNestedType( String type ) {
+
+		mNestedTypes.add( type );
+	}
+
+	@Override
+	public void setStreaming( boolean streaming ) {
+
+		if ( streaming ) {
+			throw MetawidgetException.newException( "StaticSwingMetawidget does not support streaming" );
+		}
+
+		super.setStreaming( streaming );
+	}
+
+	@Override
+	public void write( Writer writer, int initialIndent ) {
+
+		int indent = Math.max( 0, initialIndent );
+
+		// Build the constructor body first, so we know what the class needs
+
+		StringWriter constructorBody = new StringWriter();
+		super.write( constructorBody, indent + 2 );
+
+		String type = getType();
+		String valueClassName = ClassUtils.getSimpleName( type ).replace( '$', '.' );
+		String className = ClassUtils.getSimpleName( getPanelClassName( type ) );
+		String packageName = getPackageName( getPanelClassName( type ) );
+
+		List<SwingComponent> components = CollectionUtils.newArrayList();
+
+		for ( StaticWidget child : getChildren() ) {
+
+			if ( child instanceof SwingComponent ) {
+				components.add( (SwingComponent) child );
+			}
+		}
+
+		Set<String> imports = getImports();
+		imports.add( type );
+		imports.add( "java.awt.GridBagLayout" );
+		imports.add( "java.awt.Insets" );
+		imports.add( "javax.swing.JLabel" );
+		imports.add( "javax.swing.JPanel" );
+		imports.add( "javax.swing.JTextField" );
+
+		try {
+			StringWriter classBuffer = new StringWriter();
+			IndentedWriter classWriter = new IndentedWriter( classBuffer, indent );
+
+			// Package and imports
+
+			if ( packageName != null ) {
+				classWriter.write( "package " + packageName + ";\r\n\r\n" );
+			}
+
+			Set<String> importsToWrite = new TreeSet<String>();
+
+			for ( String importToWrite : imports ) {
+
+				// (import the outermost class of an inner class)
+
+				importToWrite = StringUtils.substringBefore( importToWrite, "$" );
+				String importPackageName = getPackageName( importToWrite );
+
+				if ( importPackageName == null || "java.lang".equals( importPackageName ) || importPackageName.equals( packageName ) ) {
+					continue;
+				}
+
+				importsToWrite.add( importToWrite );
+			}
+
+			for ( String importToWrite : importsToWrite ) {
+				classWriter.write( "import " + importToWrite + ";\r\n" );
+			}
+
+			// Class
+
+			classWriter.write( "\r\npublic class " + className + "\r\n" );
+			classWriter.write( "\textends JPanel {\r\n\r\n" );
+			classWriter.indent();
+
+			classWriter.write( "//\r\n// Private statics\r\n//\r\n\r\n" );
+			classWriter.write( "private static final long serialVersionUID = 1l;\r\n\r\n" );
+
+			// Fields
+
+			if ( !components.isEmpty() ) {
+				classWriter.write( "//\r\n// Private members\r\n//\r\n\r\n" );
+
+				for ( SwingComponent component : components ) {
+					classWriter.write( "private final " + ClassUtils.getSimpleName( component.getType() ) + " " + component.getFieldName() + " = " + component.getInitializer() + ";\r\n\r\n" );
+				}
+			}
+
+			// Constructor
+
+			classWriter.write( "//\r\n// Constructor\r\n//\r\n\r\n" );
+			classWriter.write( "public " + className + "() {\r\n\r\n" );
+			classWriter.indent();
+			classWriter.write( "setLayout( new GridBagLayout() );\r\n\r\n" );
+			classWriter.write( "// Calculate default label inset (same as org.metawidget.swing.layout.GridBagLayout)\r\n\r\n" );
+			classWriter.write( "double textFieldHeight = new JTextField().getPreferredSize().getHeight();\r\n" );
+			classWriter.write( "double labelHeight = new JLabel( \"X\" ).getPreferredSize().getHeight();\r\n" );
+			classWriter.write( "int labelPadding = (int) Math.max( 0, Math.floor( ( textFieldHeight - labelHeight ) / 2 ) );\r\n" );
+			classWriter.write( "Insets labelInsets = new Insets( labelPadding, 0, labelPadding, 3 );\r\n\r\n" );
+			classWriter.outdent();
+			classBuffer.write( constructorBody.toString() );
+			classWriter.write( "}\r\n\r\n" );
+
+			// setValue
+
+			classWriter.write( "//\r\n// Public methods\r\n//\r\n\r\n" );
+			classWriter.write( "public void setValue( " + valueClassName + " value ) {\r\n\r\n" );
+			classWriter.indent();
+			classWriter.write( "if ( value == null ) {\r\n" );
+			classWriter.write( "\treturn;\r\n" );
+			classWriter.write( "}\r\n\r\n" );
+
+			for ( SwingComponent component : components ) {
+				writeStatements( component.getLoadStatements(), classWriter );
+			}
+
+			classWriter.outdent();
+			classWriter.write( "}\r\n\r\n" );
+
+			// save
+
+			classWriter.write( "public void save( " + valueClassName + " value ) {\r\n\r\n" );
+			classWriter.indent();
+
+			for ( SwingComponent component : components ) {
+				writeStatements( component.getSaveStatements(), classWriter );
+			}
+
+			classWriter.outdent();
+			classWriter.write( "}\r\n" );
+			classWriter.outdent();
+			classWriter.write( "}\r\n" );
+
+			// (IndentedWriter indents blank lines too)
+
+			writer.write( classBuffer.toString().replaceAll( "[ \t]+\r\n", "\r\n" ) );
+		} catch ( IOException e ) {
+			throw MetawidgetException.newException( e );
+		}
+	}
+
+	//
+	// Protected methods
+	//
+
+	@Override
+	protected void startBuild() {
+
+		super.startBuild();
+		mNestedTypes.clear();
+	}
+
+	@Override
+	protected String getDefaultConfiguration() {
+
+		return ClassUtils.getPackagesAsFolderNames( StaticSwingMetawidget.class ) + "/metawidget-static-swing-default.xml";
+	}
+
+	//
+	// Private methods
+	//
+
+	private static void writeStatements( List<JavaStatement> statements, Writer writer )
+		throws IOException {
+
+		for ( JavaStatement statement : statements ) {
+			statement.write( writer );
+		}
+	}
+
+	private static String getPackageName( String className ) {
+
+		int lastIndexOf = className.lastIndexOf( StringUtils.SEPARATOR_DOT_CHAR );
+
+		if ( lastIndexOf == -1 ) {
+			return null;
+		}
+
+		return className.substring( 0, lastIndexOf );
+	}
+}
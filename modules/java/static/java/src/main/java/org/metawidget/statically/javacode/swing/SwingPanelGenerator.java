@@ -0,0 +1,271 @@
+// Metawidget
+//
+// This file is dual licensed under both the LGPL
+// (http://www.gnu.org/licenses/lgpl-2.1.html) and the EPL
+// (http://www.eclipse.org/org/documents/epl-v10.php). As a
+// recipient of Metawidget, you may choose to receive it under either
+// the LGPL or the EPL.
+//
+// Commercial licenses are also available. See http://metawidget.org
+// for details.
+
+package org.metawidget.statically.javacode.swing;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.metawidget.iface.MetawidgetException;
+import org.metawidget.statically.BatchGenerator;
+import org.metawidget.statically.BatchReport;
+import org.metawidget.statically.BatchTemplate;
+import org.metawidget.statically.StaticMetawidget;
+import org.metawidget.util.CollectionUtils;
+import org.metawidget.util.IOUtils;
+import org.metawidget.util.LogUtils;
+import org.metawidget.util.LogUtils.Log;
+
+/**
+ * Generates Swing panel classes (see <code>StaticSwingMetawidget</code>) for a set of types, plus
+ * all the nested types they refer to, as part of a build.
+ * <p>
+ * Each class is written to a <code>.java</code> file under the output directory. Files whose
+ * content has not changed are not rewritten, so their timestamps are preserved and the compiler
+ * need not recompile them.
+ * <p>
+ * There is no dedicated Maven goal. To run during a Maven build, bind the
+ * <code>exec-maven-plugin</code>'s <code>java</code> goal to the <code>generate-sources</code>
+ * phase, with a <code>mainClass</code> of
+ * <code>org.metawidget.statically.javacode.swing.SwingPanelGenerator</code> and arguments of the
+ * output directory (eg. <code>target/generated-sources/metawidget</code>), the package name (or
+ * <code>-</code> to use the package of each type) and the types to generate. Then add the output
+ * directory as a source folder (eg. using <code>build-helper-maven-plugin</code>). Reports are
+ * logged at <code>INFO</code> level.
+ *
+ * @author <a href="http://kennardconsulting.com">Richard Kennard</a>
+ */
+
+public class SwingPanelGenerator {
+
+	//
+	// Private statics
+	//
+
+	private static final Log			LOG				= LogUtils.getLog( SwingPanelGenerator.class );
+
+	//
+	// Private members
+	//
+
+	private final StaticSwingMetawidget	mPrototype;
+
+	private final File					mOutputDirectory;
+
+	private final BatchGenerator		mBatchGenerator	= new BatchGenerator();
+
+	//
+	// Constructor
+	//
+
+	/**
+	 * @param prototype
+	 *            configured Metawidget to base each panel on
+	 * @param outputDirectory
+	 *            root directory to write <code>.java</code> files to (packages become
+	 *            subdirectories)
+	 */
+
+	public SwingPanelGenerator( StaticSwingMetawidget prototype, File outputDirectory ) {
+
+		mPrototype = prototype;
+		mOutputDirectory = outputDirectory;
+	}
+
+	//
+	// Public methods
+	//
+
+	/**
+	 * Generates a panel for each of the given types, then for each of the nested types those
+	 * panels refer to, and so on.
+	 *
+	 * @return one report per round of generation
+	 */
+
+	public List<BatchReport> generate( String... types ) {
+
+		List<BatchReport> reports = CollectionUtils.newArrayList();
+		Set<String> generated = CollectionUtils.newHashSet();
+		List<String> toGenerate = CollectionUtils.newArrayList( types );
+
+		while ( !toGenerate.isEmpty() ) {
+
+			generated.addAll( toGenerate );
+			PanelTemplate template = new PanelTemplate();
+			reports.add( mBatchGenerator.generate( toGenerate, template ) );
+
+			toGenerate = CollectionUtils.newArrayList();
+
+			for ( String nestedType : template.getNestedTypes() ) {
+
+				if ( !generated.contains( nestedType ) && !toGenerate.contains( nestedType ) ) {
+					toGenerate.add( nestedType );
+				}
+			}
+		}
+
+		return reports;
+	}
+
+	/**
+	 * Entry point for build tools.
+	 *
+	 * @param args
+	 *            output directory, package name (or <code>-</code>) and types to generate
+	 */
+
+	public static void main( String[] args ) {
+
+		if ( args.length < 3 ) {
+			throw MetawidgetException.newException( "Usage: SwingPanelGenerator <outputDirectory> <packageName or -> <type> [<type>...]" );
+		}
+
+		StaticSwingMetawidget prototype = new StaticSwingMetawidget();
+
+		if ( !"-".equals( args[1] ) ) {
+			prototype.setPackageName( args[1] );
+		}
+
+		List<String> types = Arrays.asList( args ).subList( 2, args.length );
+		List<BatchReport> reports = new SwingPanelGenerator( prototype, new File( args[0] ) ).generate( types.toArray( new String[types.size()] ) );
+
+		for ( BatchReport report : reports ) {
+
+			LOG.info( "{0}", report );
+
+			if ( !report.getFailures().isEmpty() ) {
+				throw MetawidgetException.newException( "Unable to generate Swing panels" );
+			}
+		}
+	}
+
+	//
+	// Private methods
+	//
+
+	private static void writeIfChanged( File file, String content )
+		throws IOException {
+
+		byte[] bytes = content.getBytes( "UTF-8" );
+
+		if ( file.exists() ) {
+			ByteArrayOutputStream existing = new ByteArrayOutputStream();
+			IOUtils.streamBetween( new FileInputStream( file ), existing );
+
+			if ( Arrays.equals( bytes, existing.toByteArray() ) ) {
+				return;
+			}
+		}
+
+		File parent = file.getParentFile();
+
+		if ( parent != null && !parent.exists() && !parent.mkdirs() ) {
+			throw new IOException( "Unable to create " + parent );
+		}
+
+		OutputStream out = new FileOutputStream( file );
+
+		try {
+			out.write( bytes );
+		} finally {
+			out.close();
+		}
+	}
+
+	//
+	// Inner class
+	//
+
+	/**
+	 * Template for one round of generation. Remembers the nested types each panel refers to.
+	 */
+
+	private class PanelTemplate
+		extends BatchTemplate {
+
+		//
+		// Private members
+		//
+
+		private final Map<String, StaticSwingMetawidget>	mMetawidgets	= CollectionUtils.newHashMap();
+
+		//
+		// Constructor
+		//
+
+		public PanelTemplate() {
+
+			super( "Swing panels", mPrototype );
+		}
+
+		//
+		// Public methods
+		//
+
+		public synchronized Set<String> getNestedTypes() {
+
+			Set<String> nestedTypes = CollectionUtils.newHashSet();
+
+			for ( StaticSwingMetawidget metawidget : mMetawidgets.values() ) {
+				nestedTypes.addAll( metawidget.getNestedTypes() );
+			}
+
+			return nestedTypes;
+		}
+
+		//
+		// Protected methods
+		//
+
+		@Override
+		protected StaticMetawidget newMetawidget( String path )
+			throws Exception {
+
+			StaticSwingMetawidget metawidget = (StaticSwingMetawidget) super.newMetawidget( path );
+			metawidget.setPackageName( mPrototype.getPackageName() );
+
+			synchronized ( this ) {
+				mMetawidgets.put( path, metawidget );
+			}
+
+			return metawidget;
+		}
+
+		@Override
+		protected Writer newWriter( String path ) {
+
+			String panelClassName = mPrototype.getPanelClassName( path );
+			final File file = new File( mOutputDirectory, panelClassName.replace( '.', File.separatorChar ) + ".java" );
+
+			return new StringWriter() {
+
+				@Override
+				public void close()
+					throws IOException {
+
+					super.close();
+					writeIfChanged( file, toString() );
+				}
+			};
+		}
+	}
+}
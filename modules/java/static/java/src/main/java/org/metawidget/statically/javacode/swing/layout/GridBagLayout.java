@@ -0,0 +1,238 @@
+// Metawidget
+//
+// This file is dual licensed under both the LGPL
+// (http://www.gnu.org/licenses/lgpl-2.1.html) and the EPL
+// (http://www.eclipse.org/org/documents/epl-v10.php). As a
+// recipient of Metawidget, you may choose to receive it under either
+// the LGPL or the EPL.
+//
+// Commercial licenses are also available. See http://metawidget.org
+// for details.
+
+package org.metawidget.statically.javacode.swing.layout;
+
+import static org.metawidget.inspector.InspectionResultConstants.*;
+
+import java.util.Map;
+
+import org.metawidget.layout.iface.AdvancedLayout;
+import org.metawidget.statically.javacode.JavaStatement;
+import org.metawidget.statically.javacode.StaticJavaStub;
+import org.metawidget.statically.javacode.StaticJavaWidget;
+import org.metawidget.statically.javacode.swing.StaticSwingMetawidget;
+import org.metawidget.statically.javacode.swing.widgetbuilder.SwingComponent;
+import org.metawidget.util.WidgetBuilderUtils;
+import org.metawidget.util.simple.SimpleLayoutUtils;
+import org.metawidget.util.simple.SimpleLayoutUtils.StrippedMnemonicAndFirstIndex;
+
+/**
+ * Layout for generated Swing panels.
+ * <p>
+ * Generates the same <code>java.awt.GridBagLayout</code> constraints as
+ * <code>org.metawidget.swing.layout.GridBagLayout</code> does at runtime with its default
+ * configuration (a single column, left-aligned labels suffixed with a colon, and required fields
+ * marked with a star).
+ * <p>
+ * Expects the generated constructor to declare an <code>Insets</code> variable named
+ * <code>labelInsets</code> (see <code>StaticSwingMetawidget</code>).
+ *
+ * @author <a href="http://kennardconsulting.com">Richard Kennard</a>
+ */
+
+public class GridBagLayout
+	implements AdvancedLayout<StaticJavaWidget, StaticJavaWidget, StaticSwingMetawidget> {
+
+	//
+	// Private statics
+	//
+
+	private static final String	LABEL_NAME_SUFFIX	= "Label";
+
+	private static final String	REQUIRED_TEXT		= "*";
+
+	private static final String	LABEL_SUFFIX		= ":";
+
+	private static final int	SMALL_GAP			= 3;
+
+	//
+	// Public methods
+	//
+
+	public void onStartBuild( StaticSwingMetawidget metawidget ) {
+
+		// Do nothing
+	}
+
+	public void startContainerLayout( StaticJavaWidget container, StaticSwingMetawidget metawidget ) {
+
+		container.putClientProperty( GridBagLayout.class, null );
+	}
+
+	public void layoutWidget( StaticJavaWidget widget, String elementName, Map<String, String> attributes, StaticJavaWidget container, StaticSwingMetawidget metawidget ) {
+
+		// Do not render empty stubs
+
+		if ( widget instanceof StaticJavaStub && widget.getChildren().isEmpty() ) {
+			return;
+		}
+
+		if ( !( widget instanceof SwingComponent ) ) {
+			container.getChildren().add( widget );
+			return;
+		}
+
+		SwingComponent component = (SwingComponent) widget;
+		State state = getState( container );
+
+		// Layout a label...
+
+		String labelText = null;
+
+		if ( attributes != null ) {
+			labelText = metawidget.getLabelString( attributes );
+		}
+
+		layoutBeforeChild( component, labelText, elementName, attributes, container, metawidget );
+
+		// ...and layout the component
+
+		container.getChildren().add( component );
+		container.getChildren().add( new JavaStatement( component.getFieldName() + ".setName( \"" + component.getName() + "\" )" ) );
+
+		int gridx = 0;
+		String gridwidth = "1";
+
+		if ( labelText != null ) {
+			gridx++;
+		} else {
+			gridwidth = "2";
+		}
+
+		if ( component.isScrollable() || component.isNested() || SimpleLayoutUtils.isSpanAllColumns( attributes ) ) {
+			gridwidth = "GridBagConstraints.REMAINDER";
+		}
+
+		String weighty = "0.0";
+
+		if ( component.isScrollable() || ( attributes != null && TRUE.equals( attributes.get( LARGE ) ) ) ) {
+			weighty = "1.0";
+			state.needSpacerRow = false;
+		}
+
+		container.getChildren().add( newAddStatement( component.getLayoutExpression(), String.valueOf( gridx ), state.currentRow, gridwidth, "1.0", weighty, "WEST", "BOTH", "new Insets( 0, 0, " + SMALL_GAP + ", 0 )" ) );
+		state.currentRow++;
+	}
+
+	public void endContainerLayout( StaticJavaWidget container, StaticSwingMetawidget metawidget ) {
+
+		// Spacer row: same as org.metawidget.swing.layout.GridBagLayout
+
+		State state = getState( container );
+
+		if ( state.needSpacerRow && state.currentRow > 0 ) {
+			JavaStatement spacerPanel = new JavaStatement( "JPanel spacerPanel = new JPanel()" );
+			spacerPanel.putImport( "javax.swing.JPanel" );
+			container.getChildren().add( spacerPanel );
+			container.getChildren().add( new JavaStatement( "spacerPanel.setOpaque( false )" ) );
+			container.getChildren().add( newAddStatement( "spacerPanel", "GridBagConstraints.RELATIVE", state.currentRow, "1", "0.0", "1.0", "CENTER", "NONE", "new Insets( 0, 0, 0, 0 )" ) );
+		}
+	}
+
+	public void onEndBuild( StaticSwingMetawidget metawidget ) {
+
+		// Do nothing
+	}
+
+	//
+	// Protected methods
+	//
+
+	protected void layoutBeforeChild( SwingComponent component, String labelText, String elementName, Map<String, String> attributes, StaticJavaWidget container, StaticSwingMetawidget metawidget ) {
+
+		if ( !SimpleLayoutUtils.needsLabel( labelText, elementName ) ) {
+			return;
+		}
+
+		String label = component.getName() + LABEL_NAME_SUFFIX;
+
+		JavaStatement declaration = new JavaStatement( "JLabel " + label + " = new JLabel()" );
+		declaration.putImport( "javax.swing.JLabel" );
+		declaration.putImport( "javax.swing.SwingConstants" );
+		container.getChildren().add( declaration );
+		container.getChildren().add( new JavaStatement( label + ".setName( \"" + label + "\" )" ) );
+		container.getChildren().add( new JavaStatement( label + ".setHorizontalAlignment( SwingConstants.LEFT )" ) );
+
+		// Required
+
+		StrippedMnemonicAndFirstIndex strippedMnemonicAndFirstIndex = SimpleLayoutUtils.stripMnemonic( labelText );
+		String labelTextToUse = strippedMnemonicAndFirstIndex.getStrippedMnemonic();
+
+		if ( TRUE.equals( attributes.get( REQUIRED ) ) && !WidgetBuilderUtils.isReadOnly( attributes ) && !metawidget.isReadOnly() ) {
+			labelTextToUse += REQUIRED_TEXT;
+		}
+
+		labelTextToUse += LABEL_SUFFIX;
+		container.getChildren().add( new JavaStatement( label + ".setText( \"" + labelTextToUse.replace( "\\", "\\\\" ).replace( "\"", "\\\"" ) + "\" )" ) );
+
+		// Mnemonic
+
+		container.getChildren().add( new JavaStatement( label + ".setLabelFor( " + component.getFieldName() + " )" ) );
+
+		int mnemonicIndex = strippedMnemonicAndFirstIndex.getFirstIndex();
+
+		if ( mnemonicIndex != -1 ) {
+			container.getChildren().add( new JavaStatement( label + ".setDisplayedMnemonic( '" + labelTextToUse.charAt( mnemonicIndex ) + "' )" ) );
+			container.getChildren().add( new JavaStatement( label + ".setDisplayedMnemonicIndex( " + mnemonicIndex + " )" ) );
+		}
+
+		// Top align all labels, so that tall components, regular components and nested panels all
+		// line up
+
+		container.getChildren().add( newAddStatement( label, "0", getState( container ).currentRow, "1", "0.1", "0.0", "NORTHWEST", "HORIZONTAL", "labelInsets" ) );
+	}
+
+	//
+	// Private methods
+	//
+
+	private JavaStatement newAddStatement( String component, String gridx, int gridy, String gridwidth, String weightx, String weighty, String anchor, String fill, String insets ) {
+
+		JavaStatement add = new JavaStatement( "add( " + component + ", new GridBagConstraints( " + gridx + ", " + gridy + ", " + gridwidth + ", 1, " + weightx + ", " + weighty + ", GridBagConstraints." + anchor + ", GridBagConstraints." + fill + ", " + insets + ", 0, 0 ) )" );
+		add.putImport( "java.awt.GridBagConstraints" );
+		add.putImport( "java.awt.Insets" );
+
+		return add;
+	}
+
+	private State getState( StaticJavaWidget container ) {
+
+		State state = (State) container.getClientProperty( GridBagLayout.class );
+
+		if ( state == null ) {
+			state = new State();
+			container.putClientProperty( GridBagLayout.class, state );
+		}
+
+		return state;
+	}
+
+	//
+	// Inner class
+	//
+
+	/**
+	 * Simple, lightweight structure for saving state.
+	 */
+
+	/* package private */static class State {
+
+		/* package private */int		currentRow;
+
+		/**
+		 * Same as <code>org.metawidget.swing.layout.GridBagLayout</code>: stop the components
+		 * being vertically centered, unless one of them fills vertically itself.
+		 */
+
+		/* package private */boolean	needSpacerRow	= true;
+	}
+}
@@ -0,0 +1,192 @@
+// Metawidget
+//
+// This file is dual licensed under both the LGPL
+// (http://www.gnu.org/licenses/lgpl-2.1.html) and the EPL
+// (http://www.eclipse.org/org/documents/epl-v10.php). As a
+// recipient of Metawidget, you may choose to receive it under either
+// the LGPL or the EPL.
+//
+// Commercial licenses are also available. See http://metawidget.org
+// for details.
+
+package org.metawidget.statically.javacode.swing.widgetbuilder;
+
+import java.util.List;
+import java.util.Set;
+
+import org.metawidget.statically.BaseStaticWidget;
+import org.metawidget.statically.javacode.JavaStatement;
+import org.metawidget.statically.javacode.StaticJavaWidget;
+import org.metawidget.util.ClassUtils;
+import org.metawidget.util.CollectionUtils;
+import org.metawidget.util.simple.StringUtils;
+
+/**
+ * A Swing component in a generated panel class.
+ * <p>
+ * Each component becomes a field of the generated class. Its children are the statements that
+ * initialize it (written into the class' constructor). It also carries the statements that load
+ * it from, and save it to, the object being edited (written into the class'
+ * <code>setValue</code> and <code>save</code> methods).
+ *
+ * @author <a href="http://kennardconsulting.com">Richard Kennard</a>
+ */
+
+public class SwingComponent
+	extends BaseStaticWidget
+	implements StaticJavaWidget {
+
+	//
+	// Private members
+	//
+
+	private final String				mName;
+
+	private final String				mType;
+
+	private String						mInitializer;
+
+	private boolean						mScrollable;
+
+	private boolean						mNested;
+
+	private final Set<String>			mImports		= CollectionUtils.newHashSet();
+
+	private final List<JavaStatement>	mLoadStatements	= CollectionUtils.newArrayList();
+
+	private final List<JavaStatement>	mSaveStatements	= CollectionUtils.newArrayList();
+
+	//
+	// Constructor
+	//
+
+	/**
+	 * @param name
+	 *            name of the property this component represents
+	 * @param type
+	 *            fully qualified class name of this component (eg. <code>javax.swing.JTextField</code>)
+	 */
+
+	public SwingComponent( String name, String type ) {
+
+		mName = name;
+		mType = type;
+		mInitializer = "new " + ClassUtils.getSimpleName( type ) + "()";
+
+		putImport( type );
+	}
+
+	//
+	// Public methods
+	//
+
+	public String getName() {
+
+		return mName;
+	}
+
+	public String getType() {
+
+		return mType;
+	}
+
+	/**
+	 * Name of the field that will hold this component in the generated class.
+	 */
+
+	public String getFieldName() {
+
+		return "m" + StringUtils.capitalize( mName );
+	}
+
+	/**
+	 * Java expression used to initialize the field (eg. <code>new JTextField()</code>).
+	 */
+
+	public String getInitializer() {
+
+		return mInitializer;
+	}
+
+	public void setInitializer( String initializer ) {
+
+		mInitializer = initializer;
+	}
+
+	/**
+	 * Java expression added to the panel for this component. This is the field itself, unless the
+	 * component is scrollable.
+	 */
+
+	public String getLayoutExpression() {
+
+		if ( mScrollable ) {
+			return "new JScrollPane( " + getFieldName() + " )";
+		}
+
+		return getFieldName();
+	}
+
+	/**
+	 * Whether this component should be wrapped in a <code>JScrollPane</code>.
+	 */
+
+	public boolean isScrollable() {
+
+		return mScrollable;
+	}
+
+	public void setScrollable( boolean scrollable ) {
+
+		mScrollable = scrollable;
+
+		if ( scrollable ) {
+			putImport( "javax.swing.JScrollPane" );
+		}
+	}
+
+	/**
+	 * Whether this component is another generated panel (ie. the equivalent of a nested
+	 * <code>SwingMetawidget</code>).
+	 */
+
+	public boolean isNested() {
+
+		return mNested;
+	}
+
+	public void setNested( boolean nested ) {
+
+		mNested = nested;
+	}
+
+	public Set<String> getImports() {
+
+		return mImports;
+	}
+
+	public void putImport( String type ) {
+
+		mImports.add( type );
+	}
+
+	/**
+	 * Statements that load this component from the object being edited. The object is available as
+	 * a variable named <code>value</code>.
+	 */
+
+	public List<JavaStatement> getLoadStatements() {
+
+		return mLoadStatements;
+	}
+
+	/**
+	 * Statements that save this component to the object being edited. The object is available as
+	 * a variable named <code>value</code>.
+	 */
+
+	public List<JavaStatement> getSaveStatements() {
+
+		return mSaveStatements;
+	}
+}
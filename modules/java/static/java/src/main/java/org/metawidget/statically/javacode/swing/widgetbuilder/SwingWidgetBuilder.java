@@ -0,0 +1,533 @@
+// Metawidget
+//
+// This file is dual licensed under both the LGPL
+// (http://www.gnu.org/licenses/lgpl-2.1.html) and the EPL
+// (http://www.eclipse.org/org/documents/epl-v10.php). As a
+// recipient of Metawidget, you may choose to receive it under either
+// the LGPL or the EPL.
+//
+// Commercial licenses are also available. See http://metawidget.org
+// for details.
+
+package org.metawidget.statically.javacode.swing.widgetbuilder;
+
+import static org.metawidget.inspector.InspectionResultConstants.*;
+import static org.metawidget.inspector.propertytype.PropertyTypeInspectionResultConstants.*;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+
+import org.metawidget.statically.javacode.JavaStatement;
+import org.metawidget.statically.javacode.StaticJavaStub;
+import org.metawidget.statically.javacode.StaticJavaWidget;
+import org.metawidget.statically.javacode.swing.StaticSwingMetawidget;
+import org.metawidget.util.ClassUtils;
+import org.metawidget.util.CollectionUtils;
+import org.metawidget.util.WidgetBuilderUtils;
+import org.metawidget.util.simple.StringUtils;
+import org.metawidget.widgetbuilder.iface.WidgetBuilder;
+
+/**
+ * WidgetBuilder for generated Swing panels.
+ * <p>
+ * Chooses the same <code>JComponents</code> as <code>SwingWidgetBuilder</code> (and, for
+ * read-only fields, <code>ReadOnlyWidgetBuilder</code>) would at runtime. It also generates code to
+ * load and save each component using the property's getter and setter, in place of a runtime
+ * binding. Getters and setters are assumed to follow JavaBean naming conventions.
+ * <p>
+ * Collections, actions and <code>java.util.Date</code> values are not generated.
+ *
+ * @author <a href="http://kennardconsulting.com">Richard Kennard</a>
+ */
+
+public class SwingWidgetBuilder
+	implements WidgetBuilder<StaticJavaWidget, StaticSwingMetawidget> {
+
+	//
+	// Private statics
+	//
+
+	private static final String	SWING_PACKAGE	= "javax.swing.";
+
+	//
+	// Public methods
+	//
+
+	public StaticJavaWidget buildWidget( String elementName, Map<String, String> attributes, StaticSwingMetawidget metawidget ) {
+
+		// Hidden
+
+		if ( TRUE.equals( attributes.get( HIDDEN ) ) ) {
+			return new StaticJavaStub();
+		}
+
+		// Action (not generated)
+
+		if ( ACTION.equals( elementName ) ) {
+			return new StaticJavaStub();
+		}
+
+		Class<?> clazz = WidgetBuilderUtils.getActualClassOrType( attributes, String.class );
+		String name = attributes.get( NAME );
+
+		// Read-only
+
+		if ( metawidget.isReadOnly() || WidgetBuilderUtils.isReadOnly( attributes ) ) {
+			return buildReadOnlyWidget( elementName, attributes, clazz, name, metawidget );
+		}
+
+		// Support mandatory Booleans (can be rendered as a checkbox, even though they have a
+		// Lookup)
+
+		if ( Boolean.class.equals( clazz ) && TRUE.equals( attributes.get( REQUIRED ) ) ) {
+			SwingComponent checkBox = new SwingComponent( name, SWING_PACKAGE + "JCheckBox" );
+			addLoad( checkBox, checkBox.getFieldName() + ".setSelected( Boolean.TRUE.equals( " + getter( name, clazz ) + " ) )" );
+			addSave( checkBox, setter( name, checkBox.getFieldName() + ".isSelected()" ) );
+			return checkBox;
+		}
+
+		// Lookups
+
+		String lookup = attributes.get( LOOKUP );
+
+		if ( lookup != null && !"".equals( lookup ) ) {
+			return buildLookup( attributes, clazz, name, lookup );
+		}
+
+		if ( clazz != null ) {
+			// Primitives
+
+			if ( clazz.isPrimitive() ) {
+				return buildPrimitive( attributes, clazz, name );
+			}
+
+			// Strings
+
+			if ( String.class.equals( clazz ) ) {
+				SwingComponent textComponent;
+
+				if ( TRUE.equals( attributes.get( MASKED ) ) ) {
+					textComponent = new SwingComponent( name, SWING_PACKAGE + "JPasswordField" );
+					addSave( textComponent, setter( name, "new String( " + textComponent.getFieldName() + ".getPassword() )" ) );
+				} else {
+					if ( TRUE.equals( attributes.get( LARGE ) ) ) {
+						textComponent = new SwingComponent( name, SWING_PACKAGE + "JTextArea" );
+						addInitialization( textComponent, "setLineWrap( true )" );
+						addInitialization( textComponent, "setWrapStyleWord( true )" );
+						addInitialization( textComponent, "setRows( 2 )" );
+						textComponent.setScrollable( true );
+					} else {
+						textComponent = new SwingComponent( name, SWING_PACKAGE + "JTextField" );
+					}
+
+					addSave( textComponent, setter( name, textComponent.getFieldName() + ".getText()" ) );
+				}
+
+				addLoad( textComponent, textComponent.getFieldName() + ".setText( " + getter( name, clazz ) + " )" );
+				return textComponent;
+			}
+
+			// Characters
+
+			if ( Character.class.isAssignableFrom( clazz ) ) {
+				SwingComponent textField = buildTextField( name, clazz );
+				String text = textField.getFieldName() + ".getText()";
+				addSave( textField, setter( name, text + ".length() == 0 ? null : Character.valueOf( " + text + ".charAt( 0 ) )" ) );
+				return textField;
+			}
+
+			// Dates (not bound: needs a Converter)
+
+			if ( Date.class.equals( clazz ) ) {
+				return new SwingComponent( name, SWING_PACKAGE + "JTextField" );
+			}
+
+			// Numbers
+			//
+			// Note: we use a text field, not a JSpinner or JSlider, same as SwingWidgetBuilder
+
+			if ( Number.class.isAssignableFrom( clazz ) ) {
+				SwingComponent textField = buildTextField( name, clazz );
+				String text = textField.getFieldName() + ".getText()";
+
+				if ( BigDecimal.class.equals( clazz ) || BigInteger.class.equals( clazz ) ) {
+					putImport( textField, clazz );
+					addSave( textField, setter( name, text + ".length() == 0 ? null : new " + clazz.getSimpleName() + "( " + text + " )" ) );
+				} else if ( ClassUtils.isPrimitiveWrapper( clazz ) ) {
+					addSave( textField, setter( name, text + ".length() == 0 ? null : " + clazz.getSimpleName() + ".valueOf( " + text + " )" ) );
+				}
+
+				return textField;
+			}
+
+			// Collections (not generated)
+
+			if ( Collection.class.isAssignableFrom( clazz ) ) {
+				return new StaticJavaStub();
+			}
+		}
+
+		// Not simple, but don't expand
+
+		if ( TRUE.equals( attributes.get( DONT_EXPAND ) ) ) {
+			return new SwingComponent( name, SWING_PACKAGE + "JTextField" );
+		}
+
+		// Entities: iterate over their properties
+
+		if ( ENTITY.equals( elementName ) ) {
+			return null;
+		}
+
+		// Nested panel (the equivalent of a nested SwingMetawidget)
+
+		return buildNestedPanel( name, getActualClassOrType( attributes ), metawidget );
+	}
+
+	//
+	// Protected methods
+	//
+
+	/**
+	 * Builds the same components as <code>ReadOnlyWidgetBuilder</code>: a <code>JLabel</code> for
+	 * simple types, an empty <code>JPanel</code> for masked fields, and a nested panel otherwise.
+	 */
+
+	protected StaticJavaWidget buildReadOnlyWidget( String elementName, Map<String, String> attributes, Class<?> clazz, String name, StaticSwingMetawidget metawidget ) {
+
+		if ( TRUE.equals( attributes.get( MASKED ) ) ) {
+			return new SwingComponent( name, SWING_PACKAGE + "JPanel" );
+		}
+
+		String lookup = attributes.get( LOOKUP );
+
+		if ( ( lookup != null && !"".equals( lookup ) ) || clazz == null || clazz.isPrimitive() || ClassUtils.isPrimitiveWrapper( clazz ) || String.class.equals( clazz ) || Date.class.equals( clazz ) || Number.class.isAssignableFrom( clazz ) || TRUE.equals( attributes.get( DONT_EXPAND ) ) ) {
+			SwingComponent label = new SwingComponent( name, SWING_PACKAGE + "JLabel" );
+
+			if ( clazz != null ) {
+				String getter = getter( name, clazz );
+
+				if ( clazz.isPrimitive() ) {
+					addLoad( label, label.getFieldName() + ".setText( String.valueOf( " + getter + " ) )" );
+				} else {
+					addLoad( label, label.getFieldName() + ".setText( " + getter + " == null ? \"\" : String.valueOf( " + getter + " ) )" );
+				}
+			}
+
+			return label;
+		}
+
+		if ( Collection.class.isAssignableFrom( clazz ) ) {
+			return new StaticJavaStub();
+		}
+
+		if ( ENTITY.equals( elementName ) ) {
+			return null;
+		}
+
+		return buildNestedPanel( name, getActualClassOrType( attributes ), metawidget );
+	}
+
+	//
+	// Private methods
+	//
+
+	private SwingComponent buildLookup( Map<String, String> attributes, Class<?> clazz, String name, String lookup ) {
+
+		SwingComponent comboBox = new SwingComponent( name, SWING_PACKAGE + "JComboBox" );
+
+		// Add an empty choice (if nullable, and not required)
+
+		if ( WidgetBuilderUtils.needsEmptyLookupItem( attributes ) ) {
+			addInitialization( comboBox, "addItem( null )" );
+		}
+
+		// Enums can be referenced directly, Strings can be quoted. Other types would need a
+		// Converter, so are not bound
+
+		boolean isEnum = ( clazz != null && clazz.isEnum() );
+		List<String> values = CollectionUtils.fromString( lookup );
+
+		for ( String value : values ) {
+
+			if ( isEnum ) {
+				addInitialization( comboBox, "addItem( " + getSourceName( clazz ) + "." + value + " )" );
+			} else {
+				addInitialization( comboBox, "addItem( \"" + escape( value ) + "\" )" );
+			}
+		}
+
+		if ( isEnum || String.class.equals( clazz ) ) {
+			putImport( comboBox, clazz );
+			addLoad( comboBox, comboBox.getFieldName() + ".setSelectedItem( " + getter( name, clazz ) + " )" );
+			addSave( comboBox, setter( name, "(" + getSourceName( clazz ) + ") " + comboBox.getFieldName() + ".getSelectedItem()" ) );
+		}
+
+		return comboBox;
+	}
+
+	private SwingComponent buildPrimitive( Map<String, String> attributes, Class<?> clazz, String name ) {
+
+		// booleans
+
+		if ( boolean.class.equals( clazz ) ) {
+			SwingComponent checkBox = new SwingComponent( name, SWING_PACKAGE + "JCheckBox" );
+			addLoad( checkBox, checkBox.getFieldName() + ".setSelected( " + getter( name, clazz ) + " )" );
+			addSave( checkBox, setter( name, checkBox.getFieldName() + ".isSelected()" ) );
+			return checkBox;
+		}
+
+		// chars
+
+		if ( char.class.equals( clazz ) ) {
+			SwingComponent textField = buildTextField( name, clazz );
+			String text = textField.getFieldName() + ".getText()";
+			JavaStatement ifNotEmpty = new JavaStatement( "if ( " + text + ".length() > 0 )" );
+			ifNotEmpty.getChildren().add( new JavaStatement( setter( name, text + ".charAt( 0 )" ) ) );
+			textField.getSaveStatements().add( ifNotEmpty );
+			return textField;
+		}
+
+		// Ranged
+
+		String minimumValue = attributes.get( MINIMUM_VALUE );
+		String maximumValue = attributes.get( MAXIMUM_VALUE );
+
+		if ( minimumValue != null && !"".equals( minimumValue ) && maximumValue != null && !"".equals( maximumValue ) ) {
+			SwingComponent slider = new SwingComponent( name, SWING_PACKAGE + "JSlider" );
+			addInitialization( slider, "setMinimum( " + Integer.parseInt( minimumValue ) + " )" );
+			addInitialization( slider, "setValue( " + Integer.parseInt( minimumValue ) + " )" );
+			addInitialization( slider, "setMaximum( " + Integer.parseInt( maximumValue ) + " )" );
+
+			if ( int.class.equals( clazz ) ) {
+				addLoad( slider, slider.getFieldName() + ".setValue( " + getter( name, clazz ) + " )" );
+				addSave( slider, setter( name, slider.getFieldName() + ".getValue()" ) );
+			} else {
+				addLoad( slider, slider.getFieldName() + ".setValue( (int) " + getter( name, clazz ) + " )" );
+				addSave( slider, setter( name, "(" + clazz.getName() + ") " + slider.getFieldName() + ".getValue()" ) );
+			}
+
+			return slider;
+		}
+
+		// Not-ranged
+
+		Object minimum;
+		Object maximum;
+
+		if ( minimumValue != null && !"".equals( minimumValue ) ) {
+			minimum = ClassUtils.parseNumber( clazz, minimumValue );
+		} else {
+			minimum = ClassUtils.getNumberMinValue( clazz );
+		}
+
+		if ( maximumValue != null && !"".equals( maximumValue ) ) {
+			maximum = ClassUtils.parseNumber( clazz, maximumValue );
+		} else {
+			maximum = ClassUtils.getNumberMaxValue( clazz );
+		}
+
+		// Configurable step
+
+		String stepSize;
+
+		if ( attributes.containsKey( MAXIMUM_FRACTIONAL_DIGITS ) ) {
+			stepSize = "Double.valueOf( \"" + Math.pow( 10, -Integer.parseInt( attributes.get( MAXIMUM_FRACTIONAL_DIGITS ) ) ) + "\" )";
+		} else if ( float.class.equals( clazz ) || double.class.equals( clazz ) ) {
+			stepSize = "Float.valueOf( 0.1f )";
+		} else {
+			stepSize = "Integer.valueOf( 1 )";
+		}
+
+		// Note it is very important we set the initial value of the JSpinner to the same type as
+		// the property it maps to (eg. float or double, int or long)
+
+		@SuppressWarnings( "unchecked" )
+		Comparable<Object> value = (Comparable<Object>) ClassUtils.parseNumber( clazz, "0" );
+
+		if ( value.compareTo( minimum ) < 0 ) {
+			value = getComparable( minimum );
+		} else if ( value.compareTo( maximum ) > 0 ) {
+			value = getComparable( maximum );
+		}
+
+		String wrapper = ClassUtils.getWrapperClass( clazz ).getSimpleName();
+		SwingComponent spinner = new SwingComponent( name, SWING_PACKAGE + "JSpinner" );
+		spinner.putImport( SWING_PACKAGE + "SpinnerNumberModel" );
+		spinner.setInitializer( "new JSpinner( new SpinnerNumberModel( " + wrapper + ".valueOf( \"" + value + "\" ), " + wrapper + ".valueOf( \"" + minimum + "\" ), " + wrapper + ".valueOf( \"" + maximum + "\" ), " + stepSize + " ) )" );
+
+		// By default, a JSpinner calls setColumns. For numbers like Integer.MAX_VALUE and
+		// Double.MAX_VALUE, this can be very large and mess up the layout. Here, we reset
+		// setColumns to 0
+
+		String editor = "( (JSpinner.NumberEditor) " + spinner.getFieldName() + ".getEditor() )";
+		spinner.getChildren().add( new JavaStatement( editor + ".getTextField().setColumns( 0 )" ) );
+
+		if ( attributes.containsKey( MINIMUM_FRACTIONAL_DIGITS ) ) {
+			spinner.getChildren().add( new JavaStatement( editor + ".getFormat().setMinimumFractionDigits( " + Integer.parseInt( attributes.get( MINIMUM_FRACTIONAL_DIGITS ) ) + " )" ) );
+		}
+
+		if ( attributes.containsKey( MAXIMUM_FRACTIONAL_DIGITS ) ) {
+			spinner.getChildren().add( new JavaStatement( editor + ".getFormat().setMaximumFractionDigits( " + Integer.parseInt( attributes.get( MAXIMUM_FRACTIONAL_DIGITS ) ) + " )" ) );
+		}
+
+		if ( attributes.containsKey( MINIMUM_INTEGER_DIGITS ) ) {
+			spinner.getChildren().add( new JavaStatement( editor + ".getFormat().setMinimumIntegerDigits( " + Integer.parseInt( attributes.get( MINIMUM_INTEGER_DIGITS ) ) + " )" ) );
+		}
+
+		if ( attributes.containsKey( MAXIMUM_INTEGER_DIGITS ) ) {
+			spinner.getChildren().add( new JavaStatement( editor + ".getFormat().setMaximumIntegerDigits( " + Integer.parseInt( attributes.get( MAXIMUM_INTEGER_DIGITS ) ) + " )" ) );
+		}
+
+		addLoad( spinner, spinner.getFieldName() + ".setValue( " + wrapper + ".valueOf( " + getter( name, clazz ) + " ) )" );
+		addSave( spinner, setter( name, "( (Number) " + spinner.getFieldName() + ".getValue() )." + clazz.getName() + "Value()" ) );
+
+		return spinner;
+	}
+
+	/**
+	 * Builds a <code>JTextField</code> that loads (but does not save) the given property.
+	 */
+
+	private SwingComponent buildTextField( String name, Class<?> clazz ) {
+
+		SwingComponent textField = new SwingComponent( name, SWING_PACKAGE + "JTextField" );
+		String getter = getter( name, clazz );
+
+		if ( clazz.isPrimitive() ) {
+			addLoad( textField, textField.getFieldName() + ".setText( String.valueOf( " + getter + " ) )" );
+		} else {
+			addLoad( textField, textField.getFieldName() + ".setText( " + getter + " == null ? \"\" : String.valueOf( " + getter + " ) )" );
+		}
+
+		return textField;
+	}
+
+	private SwingComponent buildNestedPanel( String name, String type, StaticSwingMetawidget metawidget ) {
+
+		String panelClassName = metawidget.getPanelClassName( type );
+		SwingComponent panel = new SwingComponent( name, panelClassName );
+		panel.setNested( true );
+		metawidget.putNestedType( type );
+
+		String getter = "value.get" + StringUtils.capitalize( name ) + "()";
+		addLoad( panel, panel.getFieldName() + ".setValue( " + getter + " )" );
+
+		JavaStatement ifNotNull = new JavaStatement( "if ( " + getter + " != null )" );
+		ifNotNull.getChildren().add( new JavaStatement( panel.getFieldName() + ".save( " + getter + " )" ) );
+		panel.getSaveStatements().add( ifNotNull );
+
+		return panel;
+	}
+
+	private static String getActualClassOrType( Map<String, String> attributes ) {
+
+		String type = attributes.get( ACTUAL_CLASS );
+
+		if ( type == null || "".equals( type ) ) {
+			type = attributes.get( TYPE );
+		}
+
+		return type;
+	}
+
+	private static void addInitialization( SwingComponent component, String methodCall ) {
+
+		component.getChildren().add( new JavaStatement( component.getFieldName() + "." + methodCall ) );
+	}
+
+	private static void addLoad( SwingComponent component, String statement ) {
+
+		component.getLoadStatements().add( new JavaStatement( statement ) );
+	}
+
+	private static void addSave( SwingComponent component, String statement ) {
+
+		component.getSaveStatements().add( new JavaStatement( statement ) );
+	}
+
+	private static String getter( String name, Class<?> clazz ) {
+
+		if ( boolean.class.equals( clazz ) ) {
+			return "value." + ClassUtils.JAVABEAN_IS_PREFIX + StringUtils.capitalize( name ) + "()";
+		}
+
+		return "value." + ClassUtils.JAVABEAN_GET_PREFIX + StringUtils.capitalize( name ) + "()";
+	}
+
+	private static String setter( String name, String expression ) {
+
+		return "value." + ClassUtils.JAVABEAN_SET_PREFIX + StringUtils.capitalize( name ) + "( " + expression + " )";
+	}
+
+	/**
+	 * Imports the given class, unless it is in <code>java.lang</code>. Nested classes are imported
+	 * by the canonical name of their outermost class, and referenced through it (see
+	 * <code>getSourceName</code>).
+	 */
+
+	private static void putImport( SwingComponent component, Class<?> clazz ) {
+
+		Class<?> outermostClass = getOutermostClass( clazz );
+		String canonicalName = outermostClass.getCanonicalName();
+
+		if ( outermostClass.isPrimitive() || "java.lang".equals( getPackageName( canonicalName ) ) ) {
+			return;
+		}
+
+		component.putImport( canonicalName );
+	}
+
+	/**
+	 * @return the name to use for the given class in source code, relative to its imported
+	 *         outermost class (eg. <code>Outer.Inner</code>)
+	 */
+
+	private static String getSourceName( Class<?> clazz ) {
+
+		String packageName = getPackageName( getOutermostClass( clazz ).getCanonicalName() );
+
+		if ( packageName == null ) {
+			return clazz.getCanonicalName();
+		}
+
+		return clazz.getCanonicalName().substring( packageName.length() + 1 );
+	}
+
+	private static Class<?> getOutermostClass( Class<?> clazz ) {
+
+		Class<?> outermostClass = clazz;
+
+		while ( outermostClass.getEnclosingClass() != null ) {
+			outermostClass = outermostClass.getEnclosingClass();
+		}
+
+		return outermostClass;
+	}
+
+	private static String getPackageName( String canonicalName ) {
+
+		int lastIndexOf = canonicalName.lastIndexOf( '.' );
+
+		if ( lastIndexOf == -1 ) {
+			return null;
+		}
+
+		return canonicalName.substring( 0, lastIndexOf );
+	}
+
+	private static String escape( String value ) {
+
+		return value.replace( "\\", "\\\\" ).replace( "\"", "\\\"" );
+	}
+
+	@SuppressWarnings( "unchecked" )
+	private static Comparable<Object> getComparable( Object value ) {
+
+		return (Comparable<Object>) value;
+	}
+}
@@ -0,0 +1,375 @@
+// Metawidget
+//
+// This file is dual licensed under both the LGPL
+// (http://www.gnu.org/licenses/lgpl-2.1.html) and the EPL
+// (http://www.eclipse.org/org/documents/epl-v10.php). As a
+// recipient of Metawidget, you may choose to receive it under either
+// the LGPL or the EPL.
+//
+// Commercial licenses are also available. See http://metawidget.org
+// for details.
+
+package org.metawidget.statically.javacode.swing;
+
+import java.awt.Component;
+import java.awt.Container;
+import java.io.File;
+import java.io.StringWriter;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.List;
+
+import javax.swing.JCheckBox;
+import javax.swing.JComboBox;
+import javax.swing.JLabel;
+import javax.swing.JPanel;
+import javax.swing.JSpinner;
+import javax.swing.JTextField;
+import javax.tools.JavaCompiler;
+import javax.tools.ToolProvider;
+
+import junit.framework.TestCase;
+
+import org.metawidget.iface.MetawidgetException;
+import org.metawidget.inspector.annotation.UiComesAfter;
+import org.metawidget.inspector.annotation.UiLarge;
+import org.metawidget.inspector.annotation.UiRequired;
+import org.metawidget.statically.BatchReport;
+import org.metawidget.util.CollectionUtils;
+
+/**
+ * @author <a href="http://kennardconsulting.com">Richard Kennard</a>
+ */
+
+public class StaticSwingMetawidgetTest
+	extends TestCase {
+
+	//
+	// Public methods
+	//
+
+	public void testMetawidget() {
+
+		StaticSwingMetawidget metawidget = new StaticSwingMetawidget();
+		metawidget.setPath( Address.class.getName() );
+		metawidget.setPackageName( "com.myapp" );
+
+		String result = "package com.myapp;\r\n" +
+				"\r\n" +
+				"import java.awt.GridBagConstraints;\r\n" +
+				"import java.awt.GridBagLayout;\r\n" +
+				"import java.awt.Insets;\r\n" +
+				"import javax.swing.JLabel;\r\n" +
+				"import javax.swing.JPanel;\r\n" +
+				"import javax.swing.JTextField;\r\n" +
+				"import javax.swing.SwingConstants;\r\n" +
+				"import org.metawidget.statically.javacode.swing.StaticSwingMetawidgetTest;\r\n" +
+				"\r\n" +
+				"public class AddressPanel\r\n" +
+				"\textends JPanel {\r\n" +
+				"\r\n" +
+				"\t//\r\n" +
+				"\t// Private statics\r\n" +
+				"\t//\r\n" +
+				"\r\n" +
+				"\tprivate static final long serialVersionUID = 1l;\r\n" +
+				"\r\n" +
+				"\t//\r\n" +
+				"\t// Private members\r\n" +
+				"\t//\r\n" +
+				"\r\n" +
+				"\tprivate final JTextField mStreet = new JTextField();\r\n" +
+				"\r\n" +
+				"\t//\r\n" +
+				"\t// Constructor\r\n" +
+				"\t//\r\n" +
+				"\r\n" +
+				"\tpublic AddressPanel() {\r\n" +
+				"\r\n" +
+				"\t\tsetLayout( new GridBagLayout() );\r\n" +
+				"\r\n" +
+				"\t\t// Calculate default label inset (same as org.metawidget.swing.layout.GridBagLayout)\r\n" +
+				"\r\n" +
+				"\t\tdouble textFieldHeight = new JTextField().getPreferredSize().getHeight();\r\n" +
+				"\t\tdouble labelHeight = new JLabel( \"X\" ).getPreferredSize().getHeight();\r\n" +
+				"\t\tint labelPadding = (int) Math.max( 0, Math.floor( ( textFieldHeight - labelHeight ) / 2 ) );\r\n" +
+				"\t\tInsets labelInsets = new Insets( labelPadding, 0, labelPadding, 3 );\r\n" +
+				"\r\n" +
+				"\t\tJLabel streetLabel = new JLabel();\r\n" +
+				"\t\tstreetLabel.setName( \"streetLabel\" );\r\n" +
+				"\t\tstreetLabel.setHorizontalAlignment( SwingConstants.LEFT );\r\n" +
+				"\t\tstreetLabel.setText( \"Street:\" );\r\n" +
+				"\t\tstreetLabel.setLabelFor( mStreet );\r\n" +
+				"\t\tadd( streetLabel, new GridBagConstraints( 0, 0, 1, 1, 0.1, 0.0, GridBagConstraints.NORTHWEST, GridBagConstraints.HORIZONTAL, labelInsets, 0, 0 ) );\r\n" +
+				"\t\tmStreet.setName( \"street\" );\r\n" +
+				"\t\tadd( mStreet, new GridBagConstraints( 1, 0, 1, 1, 1.0, 0.0, GridBagConstraints.WEST, GridBagConstraints.BOTH, new Insets( 0, 0, 3, 0 ), 0, 0 ) );\r\n" +
+				"\t\tJPanel spacerPanel = new JPanel();\r\n" +
+				"\t\tspacerPanel.setOpaque( false );\r\n" +
+				"\t\tadd( spacerPanel, new GridBagConstraints( GridBagConstraints.RELATIVE, 1, 1, 1, 0.0, 1.0, GridBagConstraints.CENTER, GridBagConstraints.NONE, new Insets( 0, 0, 0, 0 ), 0, 0 ) );\r\n" +
+				"\t}\r\n" +
+				"\r\n" +
+				"\t//\r\n" +
+				"\t// Public methods\r\n" +
+				"\t//\r\n" +
+				"\r\n" +
+				"\tpublic void setValue( StaticSwingMetawidgetTest.Address value ) {\r\n" +
+				"\r\n" +
+				"\t\tif ( value == null ) {\r\n" +
+				"\t\t\treturn;\r\n" +
+				"\t\t}\r\n" +
+				"\r\n" +
+				"\t\tmStreet.setText( value.getStreet() );\r\n" +
+				"\t}\r\n" +
+				"\r\n" +
+				"\tpublic void save( StaticSwingMetawidgetTest.Address value ) {\r\n" +
+				"\r\n" +
+				"\t\tvalue.setStreet( mStreet.getText() );\r\n" +
+				"\t}\r\n" +
+				"}\r\n";
+
+		StringWriter writer = new StringWriter();
+		metawidget.write( writer, 0 );
+		assertEquals( result, writer.toString() );
+		assertTrue( metawidget.getNestedTypes().isEmpty() );
+	}
+
+	public void testNestedTypes() {
+
+		StaticSwingMetawidget metawidget = new StaticSwingMetawidget();
+		metawidget.setPath( Person.class.getName() );
+
+		StringWriter writer = new StringWriter();
+		metawidget.write( writer, 0 );
+		String result = writer.toString();
+
+		assertTrue( result.startsWith( "package org.metawidget.statically.javacode.swing;\r\n" ) );
+		assertTrue( result.contains( "\tprivate final AddressPanel mAddress = new AddressPanel();\r\n" ) );
+		assertTrue( result.contains( "\t\tnameLabel.setText( \"Name*:\" );\r\n" ) );
+		assertTrue( result.contains( "\t\tmGender.addItem( StaticSwingMetawidgetTest.Gender.MALE );\r\n" ) );
+		assertTrue( result.contains( "\t\tvalue.setAge( ( (Number) mAge.getValue() ).intValue() );\r\n" ) );
+		assertFalse( result.contains( "spacerPanel" ) );
+		assertEquals( CollectionUtils.newHashSet( Address.class.getName() ), metawidget.getNestedTypes() );
+
+		// Nested classes should be imported by the canonical name of their outermost class, and
+		// java.lang classes not at all
+
+		assertTrue( metawidget.getImports().contains( StaticSwingMetawidgetTest.class.getName() ) );
+		assertFalse( metawidget.getImports().contains( Gender.class.getName() ) );
+		assertFalse( metawidget.getImports().contains( String.class.getName() ) );
+
+		try {
+			metawidget.setStreaming( true );
+			fail();
+		} catch ( MetawidgetException e ) {
+			assertEquals( "StaticSwingMetawidget does not support streaming", e.getMessage() );
+		}
+	}
+
+	/**
+	 * Generate, compile and run panels, if a compiler is available.
+	 */
+
+	public void testGenerator()
+		throws Exception {
+
+		File outputDirectory = new File( System.getProperty( "java.io.tmpdir" ), "metawidget-swing-" + System.nanoTime() );
+		StaticSwingMetawidget prototype = new StaticSwingMetawidget();
+		prototype.setPackageName( "com.myapp" );
+
+		List<BatchReport> reports = new SwingPanelGenerator( prototype, outputDirectory ).generate( Person.class.getName() );
+		assertEquals( 2, reports.size() );
+		assertTrue( reports.get( 0 ).getFailures().isEmpty() );
+		assertTrue( reports.get( 1 ).getFailures().isEmpty() );
+
+		File personPanel = new File( outputDirectory, "com/myapp/PersonPanel.java" );
+		File addressPanel = new File( outputDirectory, "com/myapp/AddressPanel.java" );
+		assertTrue( personPanel.exists() );
+		assertTrue( addressPanel.exists() );
+
+		// Unchanged files should not be rewritten
+
+		assertTrue( personPanel.setLastModified( 1000 ) );
+		new SwingPanelGenerator( prototype, outputDirectory ).generate( Person.class.getName() );
+		assertEquals( 1000, personPanel.lastModified() );
+
+		// Compile
+
+		JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+
+		if ( compiler == null ) {
+			return;
+		}
+
+		assertEquals( 0, compiler.run( null, null, null, "-classpath", System.getProperty( "java.class.path" ), "-d", outputDirectory.getPath(), personPanel.getPath(), addressPanel.getPath() ) );
+
+		// Run
+
+		ClassLoader classLoader = new URLClassLoader( new URL[] { outputDirectory.toURI().toURL() }, getClass().getClassLoader() );
+		JPanel panel = (JPanel) classLoader.loadClass( "com.myapp.PersonPanel" ).newInstance();
+
+		Person person = new Person();
+		person.setName( "Homer" );
+		person.setAge( 39 );
+		person.setGender( Gender.MALE );
+		person.setAddress( new Address() );
+		person.getAddress().setStreet( "742 Evergreen Terrace" );
+		panel.getClass().getMethod( "setValue", Person.class ).invoke( panel, person );
+
+		JTextField name = (JTextField) getComponent( panel, "name" );
+		assertEquals( "Homer", name.getText() );
+		assertEquals( 39, ( (JSpinner) getComponent( panel, "age" ) ).getValue() );
+		assertEquals( Gender.MALE, ( (JComboBox) getComponent( panel, "gender" ) ).getSelectedItem() );
+		assertEquals( "Name*:", ( (JLabel) getComponent( panel, "nameLabel" ) ).getText() );
+
+		JPanel address = (JPanel) getComponent( panel, "address" );
+		JTextField street = (JTextField) getComponent( address, "street" );
+		assertEquals( "742 Evergreen Terrace", street.getText() );
+
+		name.setText( "Marge" );
+		( (JCheckBox) getComponent( panel, "retired" ) ).setSelected( true );
+		street.setText( "Evergreen Terrace" );
+		panel.getClass().getMethod( "save", Person.class ).invoke( panel, person );
+
+		assertEquals( "Marge", person.getName() );
+		assertTrue( person.isRetired() );
+		assertEquals( "Evergreen Terrace", person.getAddress().getStreet() );
+	}
+
+	//
+	// Private methods
+	//
+
+	private static Component getComponent( Container container, String name ) {
+
+		for ( Component component : container.getComponents() ) {
+
+			if ( name.equals( component.getName() ) ) {
+				return component;
+			}
+		}
+
+		throw new RuntimeException( "No component named " + name );
+	}
+
+	//
+	// Inner class
+	//
+
+	public static class Person {
+
+		//
+		// Private members
+		//
+
+		private String	mName;
+
+		private int		mAge;
+
+		private boolean	mRetired;
+
+		private Gender	mGender;
+
+		private String	mNotes;
+
+		private Address	mAddress;
+
+		//
+		// Public methods
+		//
+
+		@UiRequired
+		public String getName() {
+
+			return mName;
+		}
+
+		public void setName( String name ) {
+
+			mName = name;
+		}
+
+		@UiComesAfter( "name" )
+		public int getAge() {
+
+			return mAge;
+		}
+
+		public void setAge( int age ) {
+
+			mAge = age;
+		}
+
+		@UiComesAfter( "age" )
+		public boolean isRetired() {
+
+			return mRetired;
+		}
+
+		public void setRetired( boolean retired ) {
+
+			mRetired = retired;
+		}
+
+		@UiComesAfter( "retired" )
+		public Gender getGender() {
+
+			return mGender;
+		}
+
+		public void setGender( Gender gender ) {
+
+			mGender = gender;
+		}
+
+		@UiComesAfter( "gender" )
+		public Address getAddress() {
+
+			return mAddress;
+		}
+
+		public void setAddress( Address address ) {
+
+			mAddress = address;
+		}
+
+		@UiComesAfter( "address" )
+		@UiLarge
+		public String getNotes() {
+
+			return mNotes;
+		}
+
+		public void setNotes( String notes ) {
+
+			mNotes = notes;
+		}
+	}
+
+	public static class Address {
+
+		//
+		// Private members
+		//
+
+		private String	mStreet;
+
+		//
+		// Public methods
+		//
+
+		public String getStreet() {
+
+			return mStreet;
+		}
+
+		public void setStreet( String street ) {
+
+			mStreet = street;
+		}
+	}
+
+	public enum Gender {
+
+		MALE, FEMALE
+	}
+}
@@ -20,8 +20,10 @@ import javax.servlet.jsp.tagext.Tag;
 
 import org.apache.struts.taglib.html.HiddenTag;
 import org.metawidget.jsp.JspUtils;
+import org.metawidget.jsp.tagext.FragmentValue;
 import org.metawidget.jsp.tagext.LiteralTag;
 import org.metawidget.jsp.tagext.MetawidgetTag;
+import org.metawidget.util.CollectionUtils;
 import org.metawidget.widgetbuilder.iface.WidgetBuilderException;
 
 /**
@@ -41,7 +43,21 @@ extends org.metawidget.jsp.tagext.html.widgetprocessor.HiddenFieldProcessor {
 	//
 
 	@Override
-	protected Tag wrapTag( Tag tag, Map<String, String> attributes, MetawidgetTag metawidget ) {
+	protected Tag wrapTag( final Tag tag, Map<String, String> attributes, MetawidgetTag metawidget ) {
+
+		// Recording a read-only fragment? Render the field afresh each time
+
+		if ( metawidget.isRecordingFragment() ) {
+			final Map<String, String> fragmentAttributes = CollectionUtils.newHashMap( attributes );
+
+			return new LiteralTag( metawidget.putFragmentValue( new FragmentValue() {
+
+				public Tag createTag( MetawidgetTag metawidgetToWrite ) {
+
+					return wrapTag( tag, fragmentAttributes, metawidgetToWrite );
+				}
+			}, TRUE.equals( attributes.get( HIDDEN ) ) ) );
+		}
 
 		// Hidden field?
 
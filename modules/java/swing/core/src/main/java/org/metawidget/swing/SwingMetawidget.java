@@ -27,13 +27,19 @@ import java.util.List;
 import java.util.Map;
 import java.util.MissingResourceException;
 import java.util.ResourceBundle;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
 
 import javax.swing.JComponent;
 import javax.swing.JScrollPane;
+import javax.swing.SwingUtilities;
 
 import org.metawidget.iface.Immutable;
 import org.metawidget.iface.MetawidgetException;
 import org.metawidget.inspectionresultprocessor.iface.InspectionResultProcessor;
+import org.metawidget.inspector.iface.DomInspector;
 import org.metawidget.inspector.iface.Inspector;
 import org.metawidget.layout.iface.Layout;
 import org.metawidget.pipeline.w3c.W3CPipeline;
@@ -83,6 +89,16 @@ public class SwingMetawidget
 
 	private boolean					mIgnoreAddRemove;
 
+	private Executor				mInspectionExecutor;
+
+	private JComponent				mInspectionPlaceholder;
+
+	/**
+	 * Inspection currently running on mInspectionExecutor, if any.
+	 */
+
+	private FutureTask<Object>		mInspectionTask;
+
 	/**
 	 * List of existing, manually added components.
 	 * <p>
@@ -285,6 +301,37 @@ public class SwingMetawidget
 		return mPipeline.getLayout();
 	}
 
+	/**
+	 * Sets an <code>Executor</code> to run inspections on.
+	 * <p>
+	 * By default, SwingMetawidget inspects just-in-time on the Event Dispatch Thread. For complex
+	 * domain objects this can block the UI. If an <code>Executor</code> is set, the
+	 * <code>Inspector</code> is instead run on the <code>Executor</code> (so must be thread-safe, as
+	 * immutable Inspectors are). InspectionResultProcessors, widget building and layout are still
+	 * run on the Event Dispatch Thread once the inspection completes, as they may access Swing
+	 * components. If the inspection is invalidated before it completes (eg. by calling
+	 * <code>setToInspect</code>) it is cancelled and its result discarded.
+	 * <p>
+	 * Nested Metawidgets are still inspected synchronously, as part of building their parent.
+	 */
+
+	public void setInspectionExecutor( Executor inspectionExecutor ) {
+
+		mInspectionExecutor = inspectionExecutor;
+		invalidateInspection();
+	}
+
+	/**
+	 * Sets a component to display while an inspection is running on the
+	 * <code>setInspectionExecutor</code>.
+	 */
+
+	public void setInspectionPlaceholder( JComponent inspectionPlaceholder ) {
+
+		mInspectionPlaceholder = inspectionPlaceholder;
+		invalidateWidgets();
+	}
+
 	public void setBundle( ResourceBundle bundle ) {
 
 		mBundle = bundle;
@@ -761,6 +808,13 @@ public class SwingMetawidget
 	protected void invalidateInspection() {
 
 		mLastInspectionResult = null;
+
+		if ( mInspectionTask != null ) {
+			FutureTask<Object> inspectionTask = mInspectionTask;
+			mInspectionTask = null;
+			inspectionTask.cancel( true );
+		}
+
 		invalidateWidgets();
 	}
 
@@ -824,11 +878,50 @@ public class SwingMetawidget
 
 		mPipeline.configureOnce();
 
+		// Inspect asynchronously?
+
+		boolean needToInspect = ( mLastInspectionResult == null );
+
+		if ( needToInspect && mInspectionExecutor != null && mPath != null ) {
+
+			if ( mInspectionTask == null ) {
+				startInspection();
+				return;
+			}
+
+			if ( !mInspectionTask.isDone() ) {
+				return;
+			}
+
+			Object inspectionResult;
+
+			try {
+				inspectionResult = mInspectionTask.get();
+			} catch ( ExecutionException e ) {
+				throw MetawidgetException.newException( e.getCause() );
+			} catch ( InterruptedException e ) {
+				throw MetawidgetException.newException( e );
+			} finally {
+				mInspectionTask = null;
+
+				// (removing the placeholder calls getComponent, which must not build again)
+
+				mNeedToBuildWidgets = false;
+				removeInspectionPlaceholder();
+			}
+
+			// Process the inspection result here, on the EDT
+
+			TypeAndNames typeAndNames = PathUtils.parsePath( mPath );
+			mLastInspectionResult = mPipeline.processRawInspectionResult( inspectionResult, mToInspect, typeAndNames.getType(), typeAndNames.getNamesAsArray() );
+			needToInspect = false;
+		}
+
 		mNeedToBuildWidgets = false;
 		mIgnoreAddRemove = true;
 
 		try {
-			if ( mLastInspectionResult == null ) {
+			if ( needToInspect ) {
 				mLastInspectionResult = inspect();
 			}
 
@@ -903,6 +996,80 @@ public class SwingMetawidget
 	// Private methods
 	//
 
+	/**
+	 * Starts inspecting on <code>mInspectionExecutor</code>. When the inspection completes,
+	 * <code>buildWidgets</code> is called back on the Event Dispatch Thread to process the
+	 * inspection result and build the widgets.
+	 */
+
+	private void startInspection() {
+
+		final Object toInspect = mToInspect;
+		final TypeAndNames typeAndNames = PathUtils.parsePath( mPath );
+
+		mInspectionTask = new FutureTask<Object>( new Callable<Object>() {
+
+			public Object call() {
+
+				return mPipeline.inspectRaw( toInspect, typeAndNames.getType(), typeAndNames.getNamesAsArray() );
+			}
+		} ) {
+
+			@Override
+			protected void done() {
+
+				final FutureTask<Object> task = this;
+
+				SwingUtilities.invokeLater( new Runnable() {
+
+					public void run() {
+
+						// Ignore inspections that have since been cancelled or superseded
+
+						if ( task != mInspectionTask || task.isCancelled() ) {
+							return;
+						}
+
+						buildWidgets();
+						revalidate();
+						repaint();
+					}
+				} );
+			}
+		};
+
+		if ( mInspectionPlaceholder != null ) {
+			mIgnoreAddRemove = true;
+
+			try {
+				add( mInspectionPlaceholder );
+
+				if ( getLayout() == null ) {
+					mInspectionPlaceholder.setBounds( new Rectangle( mInspectionPlaceholder.getPreferredSize() ) );
+				}
+			} finally {
+				mIgnoreAddRemove = false;
+			}
+		}
+
+		mInspectionExecutor.execute( mInspectionTask );
+	}
+
+	private void removeInspectionPlaceholder() {
+
+		if ( mInspectionPlaceholder == null ) {
+			return;
+		}
+
+		mIgnoreAddRemove = true;
+
+		try {
+			remove( mInspectionPlaceholder );
+		} finally {
+			mIgnoreAddRemove = false;
+		}
+	}
+
 	private Element inspect() {
 
 		if ( mPath == null ) {
@@ -1046,6 +1213,54 @@ public class SwingMetawidget
 			SwingMetawidget.this.startBuild();
 		}
 
+		/**
+		 * Runs just the Inspector, without the InspectionResultProcessors. Used by
+		 * <code>setInspectionExecutor</code> to inspect off the Event Dispatch Thread.
+		 *
+		 * @return a String of XML, or an Element if the Inspector was a DomInspector
+		 */
+
+		/* package private */Object inspectRaw( Object toInspect, String type, String... names ) {
+
+			Inspector inspector = getInspector();
+
+			if ( inspector == null ) {
+				throw new NullPointerException( "No inspector configured" );
+			}
+
+			if ( inspector instanceof DomInspector<?> ) {
+				return ( (DomInspector<?>) inspector ).inspectAsDom( toInspect, type, names );
+			}
+
+			return inspector.inspect( toInspect, type, names );
+		}
+
+		/**
+		 * Runs the InspectionResultProcessors over a result from <code>inspectRaw</code>.
+		 */
+
+		/* package private */Element processRawInspectionResult( Object inspectionResult, Object toInspect, String type, String... names ) {
+
+			if ( inspectionResult == null ) {
+				return null;
+			}
+
+			return processInspectionResult( inspectionResult, toInspect, type, names );
+		}
+
+		@Override
+		protected void buildDeferredWidget( String elementName, Map<String, String> attributes, boolean forcedReadOnly )
+			throws Exception {
+
+			mIgnoreAddRemove = true;
+
+			try {
+				super.buildDeferredWidget( elementName, attributes, forcedReadOnly );
+			} finally {
+				mIgnoreAddRemove = false;
+			}
+		}
+
 		@Override
 		protected void layoutWidget( JComponent component, String elementName, Map<String, String> attributes ) {
 
@@ -20,6 +20,8 @@ import javax.swing.JComponent;
 import javax.swing.JPanel;
 import javax.swing.JTabbedPane;
 import javax.swing.border.Border;
+import javax.swing.event.ChangeEvent;
+import javax.swing.event.ChangeListener;
 
 import org.metawidget.swing.SwingMetawidget;
 import org.metawidget.util.CollectionUtils;
@@ -72,7 +74,7 @@ public class TabbedPaneLayoutDecorator
 	//
 
 	@Override
-	protected JComponent createSectionWidget( JComponent previousSectionWidget, String section, Map<String, String> attributes, JComponent container, SwingMetawidget metawidget ) {
+	protected JComponent createSectionWidget( JComponent previousSectionWidget, String section, Map<String, String> attributes, final JComponent container, final SwingMetawidget metawidget ) {
 
 		JTabbedPane tabbedPane;
 
@@ -83,6 +85,23 @@ public class TabbedPaneLayoutDecorator
 			tabbedPane.setBorder( TABBED_PANE_BORDER );
 			tabbedPane.setTabPlacement( mTabPlacement );
 
+			// Build lazy tabs when first selected
+
+			if ( isLazySections() ) {
+				tabbedPane.addChangeListener( new ChangeListener() {
+
+					public void stateChanged( ChangeEvent event ) {
+
+						JComponent selectedTab = (JComponent) ( (JTabbedPane) event.getSource() ).getSelectedComponent();
+
+						if ( buildSection( selectedTab, container, metawidget ) ) {
+							selectedTab.revalidate();
+							selectedTab.repaint();
+						}
+					}
+				} );
+			}
+
 			// Add to parent container
 
 			Map<String, String> tabbedPaneAttributes = CollectionUtils.newHashMap();
@@ -14,7 +14,7 @@ package org.metawidget.swing.layout;
 import javax.swing.JComponent;
 import javax.swing.SwingConstants;
 
-import org.metawidget.layout.decorator.LayoutDecoratorConfig;
+import org.metawidget.layout.decorator.NestedSectionLayoutDecoratorConfig;
 import org.metawidget.layout.iface.Layout;
 import org.metawidget.swing.SwingMetawidget;
 import org.metawidget.util.simple.ObjectUtils;
@@ -26,7 +26,7 @@ import org.metawidget.util.simple.ObjectUtils;
  */
 
 public class TabbedPaneLayoutDecoratorConfig
-	extends LayoutDecoratorConfig<JComponent, JComponent, SwingMetawidget> {
+	extends NestedSectionLayoutDecoratorConfig<JComponent, JComponent, SwingMetawidget> {
 
 	//
 	// Private members
@@ -52,6 +52,20 @@ public class TabbedPaneLayoutDecoratorConfig
 		return this;
 	}
 
+	/**
+	 * Overridden to use covariant return type.
+	 *
+	 * @return this, as part of a fluent interface
+	 */
+
+	@Override
+	public TabbedPaneLayoutDecoratorConfig setLazySections( boolean lazySections ) {
+
+		super.setLazySections( lazySections );
+
+		return this;
+	}
+
 	/**
 	 * One of SwingConstants.TOP, SwingConstants.BOTTOM, SwingConstants.LEFT or SwingConstants.RIGHT
 	 * as defined by JTabbedPane.setTabAlignment.
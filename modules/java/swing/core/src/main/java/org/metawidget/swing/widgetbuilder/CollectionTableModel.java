@@ -11,30 +11,78 @@
 
 package org.metawidget.swing.widgetbuilder;
 
+import java.lang.reflect.Method;
 import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 
+import javax.swing.event.TableModelEvent;
 import javax.swing.table.AbstractTableModel;
 
+import org.metawidget.model.iface.PagedDataSource;
 import org.metawidget.util.ClassUtils;
 import org.metawidget.util.CollectionUtils;
 
 /**
  * Simple implementation of a <code>TableModel</tt> that supports <tt>Collections</tt>s.
+ * <p>
+ * The getter for each column is looked up once per row class, rather than once per cell. Rows can
+ * either be read from a <code>Collection</code>, or (for very large collections) fetched one page
+ * at a time from a <code>PagedDataSource</code>.
+ * <p>
+ * To refresh only the affected rows, use <code>setCollection</code> or the usual
+ * <code>fireTableRowsUpdated</code>, <code>fireTableRowsInserted</code> and
+ * <code>fireTableRowsDeleted</code> methods. In paged mode, these also discard any cached row
+ * count or page. To switch between modes, use <code>setCollection</code> or
+ * <code>setDataSource</code>.
  */
 
-class CollectionTableModel<T>
+public class CollectionTableModel<T>
 	extends AbstractTableModel {
 
+	//
+	// Private statics
+	//
+
+	private static final String				TO_STRING			= "toString";
+
 	//
 	// Private members
 	//
 
-	private List<T>			mList;
+	private List<T>							mList;
+
+	private List<String>					mColumns;
+
+	private List<String>					mColumnNames;
+
+	private PagedDataSource					mDataSource;
+
+	private Object							mOwner;
 
-	private List<String>	mColumns;
+	private String							mPropertyName;
+
+	private int								mPageSize;
+
+	private int								mRowCount			= -1;
+
+	private int								mPageFirst;
+
+	private List<?>							mPage;
+
+	/**
+	 * Column getters, per row class. Resolved lazily.
+	 */
 
-	private List<String>	mColumnNames;
+	private Map<Class<?>, Method[]>			mAccessors			= CollectionUtils.newHashMap();
+
+	/**
+	 * Class of the last row read, as a fast path into mAccessors.
+	 */
+
+	private Class<?>						mLastRowClass;
+
+	private Method[]						mLastAccessors;
 
 	//
 	// Constructor
@@ -49,11 +97,35 @@ class CollectionTableModel<T>
 
 	public CollectionTableModel( Collection<T> collection, List<String> columns, List<String> columnNames ) {
 
-		if ( collection instanceof List<?> ) {
-			mList = (List<T>) collection;
-		} else if ( collection != null ) {
-			mList = CollectionUtils.newArrayList( collection );
+		mList = asList( collection );
+		mColumns = columns;
+		mColumnNames = columnNames;
+	}
+
+	/**
+	 * Creates a virtualised model, which fetches its rows one page at a time from the given
+	 * <code>PagedDataSource</code> rather than from a <code>Collection</code>.
+	 *
+	 * @param owner
+	 *            the object that owns the collection property (eg. an <code>Order</code>)
+	 * @param propertyName
+	 *            name of the collection property (eg. <code>lines</code>)
+	 * @param columns
+	 *            attribute names of the columns (eg. foo, bar)
+	 * @param columnNames
+	 *            human readable names of the columns (eg. Foo, Bar)
+	 */
+
+	public CollectionTableModel( PagedDataSource dataSource, Object owner, String propertyName, int pageSize, List<String> columns, List<String> columnNames ) {
+
+		if ( pageSize <= 0 ) {
+			throw new IllegalArgumentException( "pageSize must be > 0" );
 		}
+
+		mDataSource = dataSource;
+		mOwner = owner;
+		mPropertyName = propertyName;
+		mPageSize = pageSize;
 		mColumns = columns;
 		mColumnNames = columnNames;
 	}
@@ -79,6 +151,15 @@ class CollectionTableModel<T>
 
 	public int getRowCount() {
 
+		if ( mDataSource != null ) {
+
+			if ( mRowCount == -1 ) {
+				mRowCount = mDataSource.getRowCount( mOwner, mPropertyName );
+			}
+
+			return mRowCount;
+		}
+
 		if ( mList == null ) {
 			return 0;
 		}
@@ -86,13 +167,29 @@ class CollectionTableModel<T>
 		return mList.size();
 	}
 
+	@SuppressWarnings( "unchecked" )
 	public T getValueAt( int rowIndex ) {
 
 		if ( rowIndex >= getRowCount() ) {
 			return null;
 		}
 
-		return mList.get( rowIndex );
+		if ( mDataSource == null ) {
+			return mList.get( rowIndex );
+		}
+
+		// Fetch the page containing the row, if we haven't already
+
+		if ( mPage == null || rowIndex < mPageFirst || rowIndex >= mPageFirst + mPage.size() ) {
+			mPageFirst = ( rowIndex / mPageSize ) * mPageSize;
+			mPage = mDataSource.getRows( mOwner, mPropertyName, mPageFirst, mPageSize );
+
+			if ( rowIndex >= mPageFirst + mPage.size() ) {
+				return null;
+			}
+		}
+
+		return (T) mPage.get( rowIndex - mPageFirst );
 	}
 
 	public Object getValueAt( int rowIndex, int columnIndex ) {
@@ -107,14 +204,186 @@ class CollectionTableModel<T>
 			return null;
 		}
 
-		String column = mColumns.get( columnIndex );
+		Method accessor = getAccessors( t.getClass() )[columnIndex];
 
 		// Special support for toString
 
-		if ( "toString".equals( column )) {
+		if ( accessor == null ) {
 			return t.toString();
 		}
 
-		return ClassUtils.getProperty( t, column );
+		try {
+			return accessor.invoke( t );
+		} catch ( Exception e ) {
+			throw new RuntimeException( "Unable to get '" + mColumns.get( columnIndex ) + "' of '" + t + "' (" + t.getClass() + ")", e );
+		}
+	}
+
+	/**
+	 * Replaces the collection this model reads from, firing events for only those rows that have
+	 * changed (ie. whose elements are no longer the same instance), been inserted or been deleted.
+	 * <p>
+	 * If this model was reading from a <code>PagedDataSource</code>, it switches to reading from the
+	 * given collection instead, and fires <code>fireTableDataChanged</code>.
+	 */
+
+	public void setCollection( Collection<T> collection ) {
+
+		if ( mDataSource != null ) {
+			mDataSource = null;
+			mOwner = null;
+			mPage = null;
+			mRowCount = -1;
+			mList = asList( collection );
+			fireTableDataChanged();
+			return;
+		}
+
+		List<T> oldList = mList;
+		mList = asList( collection );
+
+		// If the same List has been modified in place, we cannot tell what changed
+
+		if ( oldList == mList ) {
+			fireTableDataChanged();
+			return;
+		}
+
+		int oldSize = 0;
+
+		if ( oldList != null ) {
+			oldSize = oldList.size();
+		}
+
+		int newSize = getRowCount();
+		int firstChanged = -1;
+		int lastChanged = -1;
+
+		for ( int loop = 0, length = Math.min( oldSize, newSize ); loop < length; loop++ ) {
+
+			if ( oldList.get( loop ) == mList.get( loop ) ) {
+				continue;
+			}
+
+			if ( firstChanged == -1 ) {
+				firstChanged = loop;
+			}
+
+			lastChanged = loop;
+		}
+
+		if ( firstChanged != -1 ) {
+			fireTableRowsUpdated( firstChanged, lastChanged );
+		}
+
+		if ( newSize > oldSize ) {
+			fireTableRowsInserted( oldSize, newSize - 1 );
+		} else if ( newSize < oldSize ) {
+			fireTableRowsDeleted( newSize, oldSize - 1 );
+		}
+	}
+
+	/**
+	 * Replaces the source this model fetches its rows from, discarding any cached row count or page
+	 * and returning to the first page. Fires <code>fireTableDataChanged</code>, because there is no
+	 * way to tell which rows have changed without fetching them all.
+	 *
+	 * @param owner
+	 *            the object that owns the collection property (eg. an <code>Order</code>)
+	 * @param propertyName
+	 *            name of the collection property (eg. <code>lines</code>)
+	 */
+
+	public void setDataSource( PagedDataSource dataSource, Object owner, String propertyName, int pageSize ) {
+
+		if ( dataSource == null ) {
+			throw new IllegalArgumentException( "dataSource must not be null" );
+		}
+
+		if ( pageSize <= 0 ) {
+			throw new IllegalArgumentException( "pageSize must be > 0" );
+		}
+
+		mList = null;
+		mDataSource = dataSource;
+		mOwner = owner;
+		mPropertyName = propertyName;
+		mPageSize = pageSize;
+		mPageFirst = 0;
+		mPage = null;
+		mRowCount = -1;
+		fireTableDataChanged();
+	}
+
+	/**
+	 * Overridden to discard any cached row count or page affected by the event, when in paged mode.
+	 */
+
+	@Override
+	public void fireTableChanged( TableModelEvent event ) {
+
+		if ( mDataSource != null ) {
+
+			if ( event.getType() != TableModelEvent.UPDATE || event.getLastRow() == Integer.MAX_VALUE ) {
+				mRowCount = -1;
+				mPage = null;
+			} else if ( mPage != null && event.getFirstRow() < mPageFirst + mPage.size() && event.getLastRow() >= mPageFirst ) {
+				mPage = null;
+			}
+		}
+
+		super.fireTableChanged( event );
+	}
+
+	//
+	// Private methods
+	//
+
+	@SuppressWarnings( "unchecked" )
+	private List<T> asList( Collection<T> collection ) {
+
+		if ( collection instanceof List<?> ) {
+			return (List<T>) collection;
+		}
+
+		if ( collection != null ) {
+			return CollectionUtils.newArrayList( collection );
+		}
+
+		return null;
+	}
+
+	/**
+	 * Gets the getter for each column of the given row class, or <code>null</code> for columns
+	 * that use <code>toString</code>.
+	 */
+
+	private Method[] getAccessors( Class<?> rowClass ) {
+
+		if ( rowClass == mLastRowClass ) {
+			return mLastAccessors;
+		}
+
+		Method[] accessors = mAccessors.get( rowClass );
+
+		if ( accessors == null ) {
+			accessors = new Method[mColumns.size()];
+
+			for ( int loop = 0, length = accessors.length; loop < length; loop++ ) {
+
+				String column = mColumns.get( loop );
+
+				if ( !TO_STRING.equals( column ) ) {
+					accessors[loop] = ClassUtils.getReadMethod( rowClass, column );
+				}
+			}
+
+			mAccessors.put( rowClass, accessors );
+		}
+
+		mLastRowClass = rowClass;
+		mLastAccessors = accessors;
+
+		return accessors;
 	}
 }
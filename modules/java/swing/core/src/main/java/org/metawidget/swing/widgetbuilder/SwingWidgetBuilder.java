@@ -40,6 +40,7 @@ import javax.swing.text.JTextComponent;
 
 import org.metawidget.inspector.impl.propertystyle.Property;
 import org.metawidget.inspector.impl.propertystyle.PropertyStyle;
+import org.metawidget.model.iface.PagedDataSource;
 import org.metawidget.swing.Stub;
 import org.metawidget.swing.SwingMetawidget;
 import org.metawidget.swing.SwingValuePropertyProvider;
@@ -72,6 +73,10 @@ public class SwingWidgetBuilder
 
 	private PropertyStyle	mPropertyStyle;
 
+	private PagedDataSource	mPagedDataSource;
+
+	private int				mTablePageSize;
+
 	//
 	// Constructor
 	//
@@ -84,6 +89,8 @@ public class SwingWidgetBuilder
 	public SwingWidgetBuilder( SwingWidgetBuilderConfig config ) {
 
 		mPropertyStyle = config.getPropertyStyle();
+		mPagedDataSource = config.getPagedDataSource();
+		mTablePageSize = config.getTablePageSize();
 	}
 
 	//
@@ -368,6 +375,7 @@ public class SwingWidgetBuilder
 		// Fetch the data (if any)
 
 		Collection<?> collection = null;
+		Object pagedOwner = null;
 
 		if ( metawidget.getPath() != null ) {
 			TypeAndNames typeAndNames = PathUtils.parsePath( metawidget.getPath() );
@@ -377,6 +385,12 @@ public class SwingWidgetBuilder
 
 				if ( ENTITY.equals( elementName ) ) {
 					collection = (Collection<?>) toInspect;
+				} else if ( mPagedDataSource != null ) {
+
+					// Paged properties are never read in their entirety
+
+					pagedOwner = toInspect;
+
 				} else if ( mPropertyStyle != null ) {
 					String type = toInspect.getClass().getName();
 					Map<String, Property> properties = mPropertyStyle.getProperties( type );
@@ -447,8 +461,15 @@ public class SwingWidgetBuilder
 
 		// Return the JTable
 
-		@SuppressWarnings( { "unchecked", "rawtypes" } )
-		CollectionTableModel<?> tableModel = new CollectionTableModel( collection, columns, columnNames );
+		CollectionTableModel<?> tableModel;
+
+		if ( pagedOwner != null ) {
+			tableModel = new CollectionTableModel<Object>( mPagedDataSource, pagedOwner, attributes.get( NAME ), mTablePageSize, columns, columnNames );
+		} else {
+			@SuppressWarnings( { "unchecked", "rawtypes" } )
+			CollectionTableModel<?> collectionTableModel = new CollectionTableModel( collection, columns, columnNames );
+			tableModel = collectionTableModel;
+		}
 
 		return new JScrollPane( new JTable( tableModel ) );
 	}
@@ -13,6 +13,7 @@ package org.metawidget.swing.widgetbuilder;
 
 import org.metawidget.inspector.impl.propertystyle.PropertyStyle;
 import org.metawidget.inspector.impl.propertystyle.javabean.JavaBeanPropertyStyle;
+import org.metawidget.model.iface.PagedDataSource;
 import org.metawidget.util.simple.ObjectUtils;
 
 /**
@@ -37,6 +38,10 @@ public class SwingWidgetBuilderConfig {
 
 	protected boolean				mNullPropertyStyle;
 
+	protected PagedDataSource		mPagedDataSource;
+
+	protected int					mTablePageSize	= 100;
+
 	//
 	// Public methods
 	//
@@ -57,6 +62,37 @@ public class SwingWidgetBuilderConfig {
 		return this;
 	}
 
+	/**
+	 * Sets a source from which <code>JTable</code>s fetch the rows of collection properties, one
+	 * page at a time, instead of reading the whole collection. Useful for very large collections.
+	 *
+	 * @return this, as part of a fluent interface
+	 */
+
+	public SwingWidgetBuilderConfig setPagedDataSource( PagedDataSource pagedDataSource ) {
+
+		mPagedDataSource = pagedDataSource;
+
+		// Fluent interface
+
+		return this;
+	}
+
+	/**
+	 * Sets the number of rows fetched at a time from the <code>setPagedDataSource</code>.
+	 *
+	 * @return this, as part of a fluent interface
+	 */
+
+	public SwingWidgetBuilderConfig setTablePageSize( int tablePageSize ) {
+
+		mTablePageSize = tablePageSize;
+
+		// Fluent interface
+
+		return this;
+	}
+
 	@Override
 	public boolean equals( Object that ) {
 
@@ -76,6 +112,14 @@ public class SwingWidgetBuilderConfig {
 			return false;
 		}
 
+		if ( !ObjectUtils.nullSafeEquals( mPagedDataSource, ( (SwingWidgetBuilderConfig) that ).mPagedDataSource ) ) {
+			return false;
+		}
+
+		if ( mTablePageSize != ( (SwingWidgetBuilderConfig) that ).mTablePageSize ) {
+			return false;
+		}
+
 		return true;
 	}
 
@@ -85,6 +129,8 @@ public class SwingWidgetBuilderConfig {
 		int hashCode = 1;
 		hashCode = 31 * hashCode + ObjectUtils.nullSafeHashCode( mPropertyStyle );
 		hashCode = 31 * hashCode + ObjectUtils.nullSafeHashCode( mNullPropertyStyle );
+		hashCode = 31 * hashCode + ObjectUtils.nullSafeHashCode( mPagedDataSource );
+		hashCode = 31 * hashCode + mTablePageSize;
 
 		return hashCode;
 	}
@@ -111,4 +157,14 @@ public class SwingWidgetBuilderConfig {
 
 		return mPropertyStyle;
 	}
+
+	protected PagedDataSource getPagedDataSource() {
+
+		return mPagedDataSource;
+	}
+
+	protected int getTablePageSize() {
+
+		return mTablePageSize;
+	}
 }
@@ -21,14 +21,18 @@ import java.lang.reflect.Field;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
 
 import javax.swing.AbstractAction;
 import javax.swing.JButton;
 import javax.swing.JCheckBox;
 import javax.swing.JComboBox;
 import javax.swing.JComponent;
+import javax.swing.JLabel;
 import javax.swing.JPanel;
 import javax.swing.JTextField;
+import javax.swing.SwingUtilities;
 
 import junit.framework.TestCase;
 
@@ -431,6 +435,70 @@ public class SwingMetawidgetTest
 		assertEquals( 2, configured.size() );
 	}
 
+	public void testInspectionExecutor()
+		throws Exception {
+
+		final List<Runnable> inspections = CollectionUtils.newArrayList();
+		final List<Boolean> processedOnEdt = CollectionUtils.newArrayList();
+
+		SwingMetawidget metawidget = new SwingMetawidget();
+		metawidget.addInspectionResultProcessor( new InspectionResultProcessor<SwingMetawidget>() {
+
+			public String processInspectionResult( String inspectionResult, SwingMetawidget metawidgetToProcess, Object toInspect, String type, String... names ) {
+
+				processedOnEdt.add( SwingUtilities.isEventDispatchThread() );
+				return inspectionResult;
+			}
+		} );
+		JLabel placeholder = new JLabel( "Loading..." );
+		metawidget.setInspectionPlaceholder( placeholder );
+		metawidget.setInspectionExecutor( new Executor() {
+
+			public void execute( Runnable runnable ) {
+
+				inspections.add( runnable );
+			}
+		} );
+		metawidget.setToInspect( new Foo() );
+
+		// Should show placeholder until inspection completes
+
+		metawidget.getPreferredSize();
+		assertEquals( 1, inspections.size() );
+		assertEquals( 1, metawidget.getComponentCount() );
+		assertTrue( placeholder == metawidget.getComponent( 0 ) );
+
+		// Changing setToInspect mid-flight should cancel the inspection
+
+		metawidget.setToInspect( new Foo() );
+		metawidget.getPreferredSize();
+		assertEquals( 2, inspections.size() );
+		assertTrue( ( (Future<?>) inspections.get( 0 ) ).isCancelled() );
+
+		// Completing the inspection should build on the EDT
+
+		inspections.get( 0 ).run();
+		inspections.get( 1 ).run();
+		SwingUtilities.invokeAndWait( new Runnable() {
+
+			public void run() {
+
+				// Just flush the EDT
+			}
+		} );
+
+		assertEquals( 2, inspections.size() );
+		assertTrue( metawidget.getComponent( "name" ) instanceof JTextField );
+
+		// InspectionResultProcessors should have run on the EDT (including for the nested
+		// Metawidget)
+
+		assertTrue( !processedOnEdt.isEmpty() );
+		assertTrue( !processedOnEdt.contains( Boolean.FALSE ) );
+		assertTrue( metawidget.getComponent( "foo" ) instanceof SwingMetawidget );
+		assertTrue( placeholder.getParent() == null );
+	}
+
 	//
 	// Inner class
 	//
@@ -11,9 +11,14 @@
 
 package org.metawidget.swing.layout;
 
+import static org.metawidget.inspector.InspectionResultConstants.*;
+
 import java.awt.Component;
+import java.util.List;
+import java.util.Map;
 
 import javax.swing.JCheckBox;
+import javax.swing.JComponent;
 import javax.swing.JFrame;
 import javax.swing.JLabel;
 import javax.swing.JPanel;
@@ -25,9 +30,12 @@ import javax.swing.SwingConstants;
 import junit.framework.TestCase;
 
 import org.metawidget.inspector.annotation.UiLarge;
+import org.metawidget.inspector.annotation.UiRequired;
 import org.metawidget.inspector.annotation.UiSection;
 import org.metawidget.swing.SwingMetawidget;
+import org.metawidget.util.CollectionUtils;
 import org.metawidget.util.MetawidgetTestUtils;
+import org.metawidget.widgetprocessor.iface.AdvancedWidgetProcessor;
 
 /**
  * @author <a href="http://kennardconsulting.com">Richard Kennard</a>
@@ -130,6 +138,87 @@ public class TabbedPaneLayoutDecoratorTest
 		assertEquals( (Component) metawidget.getComponent( 4 ), (Component) metawidget.getComponent( "stu" ) );
 	}
 
+	public void testLazySections() {
+
+		final List<String> built = CollectionUtils.newArrayList();
+		final List<String> endBuilds = CollectionUtils.newArrayList();
+
+		SwingMetawidget metawidget = new SwingMetawidget();
+		metawidget.addWidgetProcessor( new AdvancedWidgetProcessor<JComponent, SwingMetawidget>() {
+
+			public void onStartBuild( SwingMetawidget swingMetawidget ) {
+
+				built.clear();
+			}
+
+			public JComponent processWidget( JComponent component, String elementName, Map<String, String> attributes, SwingMetawidget swingMetawidget ) {
+
+				built.add( attributes.get( NAME ) );
+				return component;
+			}
+
+			public void onEndBuild( SwingMetawidget swingMetawidget ) {
+
+				endBuilds.add( String.valueOf( built.size() ) );
+			}
+		} );
+		metawidget.setMetawidgetLayout( new TabbedPaneLayoutDecorator( new TabbedPaneLayoutDecoratorConfig().setLazySections( true ).setLayout( new TabbedPaneLayoutDecorator( new TabbedPaneLayoutDecoratorConfig().setLayout( new org.metawidget.swing.layout.GridBagLayout() ) ) ) ) );
+		metawidget.setToInspect( new Lazy() );
+
+		// First tab should be built, but only the first widget of the others (and widgets that need
+		// validating)
+
+		JTabbedPane tabbedPane = (JTabbedPane) metawidget.getComponent( 0 );
+		assertEquals( "Foo", tabbedPane.getTitleAt( 0 ) );
+		JPanel fooPanel = (JPanel) tabbedPane.getComponent( 0 );
+		JTabbedPane innerTabbedPane = (JTabbedPane) fooPanel.getComponent( 0 );
+		assertEquals( "Abc:", ( (JLabel) ( (JPanel) innerTabbedPane.getComponent( 0 ) ).getComponent( 0 ) ).getText() );
+		assertEquals( "Def:", ( (JLabel) ( (JPanel) innerTabbedPane.getComponent( 1 ) ).getComponent( 0 ) ).getText() );
+
+		assertEquals( "Moo", tabbedPane.getTitleAt( 1 ) );
+		JPanel mooPanel = (JPanel) tabbedPane.getComponent( 1 );
+		assertEquals( 2, mooPanel.getComponentCount() );
+		assertEquals( "Ghi:", ( (JLabel) mooPanel.getComponent( 0 ) ).getText() );
+
+		assertEquals( "Zoo", tabbedPane.getTitleAt( 2 ) );
+		JPanel zooPanel = (JPanel) tabbedPane.getComponent( 2 );
+		assertEquals( 2, zooPanel.getComponentCount() );
+		assertEquals( "Pqr:", ( (JLabel) zooPanel.getComponent( 0 ) ).getText() );
+
+		assertEquals( "Xyz:", ( (JLabel) metawidget.getComponent( 1 ) ).getText() );
+		assertEquals( CollectionUtils.newArrayList( "abc", "def", "ghi", "mno", "pqr", "xyz" ), built );
+		assertEquals( CollectionUtils.newArrayList( "6" ), endBuilds );
+
+		// Sizing and laying out should not build anything
+
+		metawidget.getPreferredSize();
+		metawidget.validate();
+		metawidget.doLayout();
+		tabbedPane.getPreferredSize();
+		tabbedPane.doLayout();
+		assertEquals( 6, built.size() );
+		assertEquals( 2, mooPanel.getComponentCount() );
+		assertEquals( 2, zooPanel.getComponentCount() );
+		assertEquals( null, metawidget.getComponent( "jkl" ) );
+
+		// Selecting a tab should build the rest of it (and only it), and end the build again
+
+		tabbedPane.setSelectedIndex( 1 );
+		assertEquals( CollectionUtils.newArrayList( "abc", "def", "ghi", "mno", "pqr", "xyz", "jkl" ), built );
+		assertEquals( CollectionUtils.newArrayList( "6", "7" ), endBuilds );
+		assertEquals( "Jkl:", ( (JLabel) mooPanel.getComponent( 2 ) ).getText() );
+		assertEquals( "jkl", mooPanel.getComponent( 3 ).getName() );
+		assertEquals( "Mno*:", ( (JLabel) mooPanel.getComponent( 4 ) ).getText() );
+		assertEquals( "mno", mooPanel.getComponent( 5 ).getName() );
+		assertTrue( mooPanel == ( (Component) metawidget.getComponent( "jkl" ) ).getParent() );
+		assertEquals( 2, zooPanel.getComponentCount() );
+
+		tabbedPane.setSelectedIndex( 0 );
+		tabbedPane.setSelectedIndex( 1 );
+		assertEquals( 7, built.size() );
+		assertEquals( 2, endBuilds.size() );
+	}
+
 	public static void main( String[] args ) {
 
 		SwingMetawidget metawidget = new SwingMetawidget();
@@ -240,6 +329,95 @@ public class TabbedPaneLayoutDecoratorTest
 		}
 	}
 
+	static class Lazy {
+
+		@UiSection( { "Foo", "Bar" } )
+		public String getAbc() {
+
+			return null;
+		}
+
+		public void setAbc( @SuppressWarnings( "unused" ) String abc ) {
+
+			// Do nothing
+		}
+
+		@UiSection( { "Foo", "Baz" } )
+		public String getDef() {
+
+			return null;
+		}
+
+		public void setDef( @SuppressWarnings( "unused" ) String def ) {
+
+			// Do nothing
+		}
+
+		@UiSection( "Moo" )
+		public String getGhi() {
+
+			return null;
+		}
+
+		public void setGhi( @SuppressWarnings( "unused" ) String ghi ) {
+
+			// Do nothing
+		}
+
+		public String getJkl() {
+
+			return null;
+		}
+
+		public void setJkl( @SuppressWarnings( "unused" ) String jkl ) {
+
+			// Do nothing
+		}
+
+		@UiRequired
+		public String getMno() {
+
+			return null;
+		}
+
+		public void setMno( @SuppressWarnings( "unused" ) String mno ) {
+
+			// Do nothing
+		}
+
+		@UiSection( "Zoo" )
+		public String getPqr() {
+
+			return null;
+		}
+
+		public void setPqr( @SuppressWarnings( "unused" ) String pqr ) {
+
+			// Do nothing
+		}
+
+		public String getStu() {
+
+			return null;
+		}
+
+		public void setStu( @SuppressWarnings( "unused" ) String stu ) {
+
+			// Do nothing
+		}
+
+		@UiSection( "" )
+		public String getXyz() {
+
+			return null;
+		}
+
+		public void setXyz( @SuppressWarnings( "unused" ) String xyz ) {
+
+			// Do nothing
+		}
+	}
+
 	static class Baz {
 
 		@UiSection( { "Foo", "Bar" } )
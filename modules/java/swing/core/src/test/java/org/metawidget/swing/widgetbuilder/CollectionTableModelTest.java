@@ -20,6 +20,8 @@ import javax.swing.JSpinner;
 import javax.swing.JTable;
 import javax.swing.JTextArea;
 import javax.swing.JTextField;
+import javax.swing.event.TableModelEvent;
+import javax.swing.event.TableModelListener;
 
 import junit.framework.TestCase;
 
@@ -30,6 +32,7 @@ import org.metawidget.inspector.annotation.UiLarge;
 import org.metawidget.inspector.composite.CompositeInspector;
 import org.metawidget.inspector.composite.CompositeInspectorConfig;
 import org.metawidget.inspector.propertytype.PropertyTypeInspector;
+import org.metawidget.model.iface.PagedDataSource;
 import org.metawidget.swing.SwingMetawidget;
 import org.metawidget.util.CollectionUtils;
 
@@ -113,6 +116,155 @@ public class CollectionTableModelTest
 		assertEquals( 0, table.getRowCount() );
 	}
 
+	public void testSetCollection() {
+
+		Address address1 = new Address( "Street 1", "City 1", "State 1" );
+		Address address2 = new Address( "Street 2", "City 2", "State 2" );
+		Address address3 = new Address( "Street 3", "City 3", "State 3" );
+
+		CollectionTableModel<Address> model = new CollectionTableModel<Address>( CollectionUtils.newArrayList( address1, address2 ), CollectionUtils.newArrayList( "street", "toString" ), CollectionUtils.newArrayList( "Street", "Address" ) );
+		assertEquals( "Street 2", model.getValueAt( 1, 0 ) );
+		assertTrue( ( (String) model.getValueAt( 1, 1 ) ).contains( "Address" ) );
+
+		final List<TableModelEvent> events = CollectionUtils.newArrayList();
+		model.addTableModelListener( new TableModelListener() {
+
+			public void tableChanged( TableModelEvent event ) {
+
+				events.add( event );
+			}
+		} );
+
+		// Only the changed and inserted rows should fire
+
+		model.setCollection( CollectionUtils.newArrayList( address1, address3, address2 ) );
+		assertEquals( 2, events.size() );
+		assertEquals( TableModelEvent.UPDATE, events.get( 0 ).getType() );
+		assertEquals( 1, events.get( 0 ).getFirstRow() );
+		assertEquals( 1, events.get( 0 ).getLastRow() );
+		assertEquals( TableModelEvent.INSERT, events.get( 1 ).getType() );
+		assertEquals( 2, events.get( 1 ).getFirstRow() );
+		assertEquals( 2, events.get( 1 ).getLastRow() );
+		assertEquals( "Street 3", model.getValueAt( 1, 0 ) );
+
+		// Deleted rows
+
+		events.clear();
+		model.setCollection( CollectionUtils.newArrayList( address1 ) );
+		assertEquals( 1, events.size() );
+		assertEquals( TableModelEvent.DELETE, events.get( 0 ).getType() );
+		assertEquals( 1, events.get( 0 ).getFirstRow() );
+		assertEquals( 2, events.get( 0 ).getLastRow() );
+		assertEquals( 1, model.getRowCount() );
+	}
+
+	public void testPagedDataSource() {
+
+		final List<Integer> fetched = CollectionUtils.newArrayList();
+		final Person person = new Person();
+
+		PagedDataSource dataSource = new PagedDataSource() {
+
+			public int getRowCount( Object owner, String propertyName ) {
+
+				assertTrue( person == owner );
+				assertEquals( "addresses", propertyName );
+				return 1000;
+			}
+
+			public List<?> getRows( Object owner, String propertyName, int first, int pageSize ) {
+
+				fetched.add( first );
+				List<Address> rows = CollectionUtils.newArrayList();
+
+				for ( int loop = first, length = Math.min( 1000, first + pageSize ); loop < length; loop++ ) {
+					rows.add( new Address( "Street " + loop, "City " + loop, "State " + loop ) );
+				}
+
+				return rows;
+			}
+		};
+
+		// Metawidget
+
+		SwingMetawidget metawidget = new SwingMetawidget();
+		metawidget.setInspector( new CompositeInspector(
+				new CompositeInspectorConfig().setInspectors(
+						new PropertyTypeInspector(),
+						new MetawidgetAnnotationInspector() ) ) );
+		metawidget.setWidgetBuilder( new SwingWidgetBuilder( new SwingWidgetBuilderConfig().setPagedDataSource( dataSource ).setTablePageSize( 50 ) ) );
+		metawidget.setToInspect( person );
+
+		// Test
+
+		JTable table = (JTable) ( (JScrollPane) metawidget.getComponent( 7 ) ).getViewport().getView();
+		@SuppressWarnings( "unchecked" )
+		CollectionTableModel<Address> model = (CollectionTableModel<Address>) table.getModel();
+		assertEquals( 1000, model.getRowCount() );
+		assertEquals( "Street 0", model.getValueAt( 0, 0 ) );
+		assertEquals( "City 49", model.getValueAt( 49, 1 ) );
+		assertEquals( "State 975", model.getValueAt( 975, 2 ) );
+		assertEquals( "Street 974", model.getValueAt( 974, 0 ) );
+		assertEquals( CollectionUtils.newArrayList( 0, 950 ), fetched );
+
+		// Updating rows outside the page should not refetch it
+
+		model.fireTableRowsUpdated( 0, 10 );
+		assertEquals( "Street 960", model.getValueAt( 960, 0 ) );
+		assertEquals( 2, fetched.size() );
+
+		model.fireTableRowsUpdated( 960, 960 );
+		assertEquals( "Street 960", model.getValueAt( 960, 0 ) );
+		assertEquals( 3, fetched.size() );
+
+		// New source should start again from the first page
+
+		final Person person2 = new Person();
+
+		PagedDataSource dataSource2 = new PagedDataSource() {
+
+			public int getRowCount( Object owner, String propertyName ) {
+
+				assertTrue( person2 == owner );
+				return 3;
+			}
+
+			public List<?> getRows( Object owner, String propertyName, int first, int pageSize ) {
+
+				assertEquals( 0, first );
+				fetched.add( first );
+				return CollectionUtils.newArrayList( new Address( "Street A", "City A", "State A" ), new Address( "Street B", "City B", "State B" ), new Address( "Street C", "City C", "State C" ) );
+			}
+		};
+
+		final List<TableModelEvent> events = CollectionUtils.newArrayList();
+		model.addTableModelListener( new TableModelListener() {
+
+			public void tableChanged( TableModelEvent event ) {
+
+				events.add( event );
+			}
+		} );
+
+		model.setDataSource( dataSource2, person2, "addresses", 50 );
+		assertEquals( 1, events.size() );
+		assertEquals( Integer.MAX_VALUE, events.get( 0 ).getLastRow() );
+		assertEquals( 3, model.getRowCount() );
+		assertEquals( "Street B", model.getValueAt( 1, 0 ) );
+		assertEquals( "City C", model.getValueAt( 2, 1 ) );
+		assertEquals( null, model.getValueAt( 3, 0 ) );
+		assertEquals( 4, fetched.size() );
+
+		// Collections should switch out of paged mode
+
+		events.clear();
+		model.setCollection( CollectionUtils.newArrayList( new Address( "Street X", "City X", "State X" ) ) );
+		assertEquals( 1, events.size() );
+		assertEquals( 1, model.getRowCount() );
+		assertEquals( "Street X", model.getValueAt( 0, 0 ) );
+		assertEquals( 4, fetched.size() );
+	}
+
 	//
 	// Inner class
 	//
@@ -73,7 +73,7 @@ public abstract class SwtNestedSectionLayoutDecorator
 		// End current section
 
 		if ( state.getCurrentSectionWidget() != null ) {
-			super.endContainerLayout( state.getCurrentSectionWidget(), metawidget );
+			endSectionLayout( state.getCurrentSectionWidget(), container, metawidget );
 		}
 
 		state.setCurrentSectionWidget( null );
@@ -85,7 +85,7 @@ public abstract class SwtNestedSectionLayoutDecorator
 		}
 
 		state.setCurrentSectionWidget( createSectionWidget( previousSectionWidget, section, attributes, container, metawidget ));
-		super.startContainerLayout( state.getCurrentSectionWidget(), metawidget );
+		startSectionLayout( previousSectionWidget, state.getCurrentSectionWidget(), container, metawidget );
 
 		return delegateStartBuildWidget( elementName, attributes, state.getCurrentSectionWidget(), metawidget );
 	}
@@ -98,7 +98,7 @@ public abstract class SwtNestedSectionLayoutDecorator
 		if ( state.getCurrentSectionWidget() == null ) {
 			getDelegate().layoutWidget( widget, elementName, attributes, container, metawidget );
 		} else {
-			getDelegate().layoutWidget( widget, elementName, attributes, state.getCurrentSectionWidget(), metawidget );
+			layoutSectionWidget( widget, elementName, attributes, state.getCurrentSectionWidget(), container, metawidget );
 		}
 	}
 
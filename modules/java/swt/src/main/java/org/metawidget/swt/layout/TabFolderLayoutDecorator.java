@@ -16,6 +16,8 @@ import static org.metawidget.inspector.InspectionResultConstants.*;
 import java.util.Map;
 
 import org.eclipse.swt.SWT;
+import org.eclipse.swt.events.SelectionAdapter;
+import org.eclipse.swt.events.SelectionEvent;
 import org.eclipse.swt.widgets.Composite;
 import org.eclipse.swt.widgets.TabFolder;
 import org.eclipse.swt.widgets.TabItem;
@@ -54,7 +56,7 @@ public class TabFolderLayoutDecorator
 	//
 
 	@Override
-	protected Composite createSectionWidget( Composite previousSectionWidget, String section, Map<String, String> attributes, Composite container, SwtMetawidget metawidget ) {
+	protected Composite createSectionWidget( Composite previousSectionWidget, String section, Map<String, String> attributes, final Composite container, final SwtMetawidget metawidget ) {
 
 		TabFolder tabFolder;
 
@@ -63,6 +65,23 @@ public class TabFolderLayoutDecorator
 		if ( previousSectionWidget == null ) {
 			tabFolder = new TabFolder( container, SWT.NONE | mTabLocation );
 
+			// Build lazy tabs when first selected
+
+			if ( isLazySections() ) {
+				tabFolder.addSelectionListener( new SelectionAdapter() {
+
+					@Override
+					public void widgetSelected( SelectionEvent event ) {
+
+						Composite selectedTab = (Composite) ( (TabItem) event.item ).getControl();
+
+						if ( buildSection( selectedTab, container, metawidget ) ) {
+							selectedTab.layout( true, true );
+						}
+					}
+				} );
+			}
+
 			// Add to parent container
 
 			Map<String, String> tabbedPaneAttributes = CollectionUtils.newHashMap();
@@ -14,7 +14,7 @@ package org.metawidget.swt.layout;
 import org.eclipse.swt.SWT;
 import org.eclipse.swt.widgets.Composite;
 import org.eclipse.swt.widgets.Control;
-import org.metawidget.layout.decorator.LayoutDecoratorConfig;
+import org.metawidget.layout.decorator.NestedSectionLayoutDecoratorConfig;
 import org.metawidget.layout.iface.Layout;
 import org.metawidget.swt.SwtMetawidget;
 import org.metawidget.util.simple.ObjectUtils;
@@ -26,7 +26,7 @@ import org.metawidget.util.simple.ObjectUtils;
  */
 
 public class TabFolderLayoutDecoratorConfig
-	extends LayoutDecoratorConfig<Control, Composite, SwtMetawidget> {
+	extends NestedSectionLayoutDecoratorConfig<Control, Composite, SwtMetawidget> {
 
 	//
 	// Private members
@@ -52,6 +52,20 @@ public class TabFolderLayoutDecoratorConfig
 		return this;
 	}
 
+	/**
+	 * Overridden to use covariant return type.
+	 *
+	 * @return this, as part of a fluent interface
+	 */
+
+	@Override
+	public TabFolderLayoutDecoratorConfig setLazySections( boolean lazySections ) {
+
+		super.setLazySections( lazySections );
+
+		return this;
+	}
+
 	/**
 	 * One of SWT.TOP or SWT.BOTTOM.
 	 *
@@ -11,13 +11,20 @@
 
 package org.metawidget.swt.layout;
 
+import static org.metawidget.inspector.InspectionResultConstants.*;
+
+import java.util.List;
+import java.util.Map;
+
 import junit.framework.TestCase;
 
 import org.eclipse.swt.SWT;
 import org.eclipse.swt.layout.FillLayout;
 import org.eclipse.swt.widgets.Button;
 import org.eclipse.swt.widgets.Composite;
+import org.eclipse.swt.widgets.Control;
 import org.eclipse.swt.widgets.Display;
+import org.eclipse.swt.widgets.Event;
 import org.eclipse.swt.widgets.Label;
 import org.eclipse.swt.widgets.Shell;
 import org.eclipse.swt.widgets.TabFolder;
@@ -26,7 +33,9 @@ import org.metawidget.inspector.annotation.UiLarge;
 import org.metawidget.inspector.annotation.UiSection;
 import org.metawidget.swt.SwtMetawidget;
 import org.metawidget.swt.SwtMetawidgetTests;
+import org.metawidget.util.CollectionUtils;
 import org.metawidget.util.MetawidgetTestUtils;
+import org.metawidget.widgetprocessor.iface.WidgetProcessor;
 
 /**
  * @author <a href="http://kennardconsulting.com">Richard Kennard</a>
@@ -132,6 +141,56 @@ public class TabFolderLayoutDecoratorTest
 		assertEquals( metawidget.getChildren()[4], metawidget.getControl( "stu" ) );
 	}
 
+	public void testLazySections() {
+
+		final List<String> built = CollectionUtils.newArrayList();
+
+		SwtMetawidget metawidget = new SwtMetawidget( new Shell( SwtMetawidgetTests.TEST_DISPLAY, SWT.NONE ), SWT.NONE );
+		metawidget.addWidgetProcessor( new WidgetProcessor<Control, SwtMetawidget>() {
+
+			public Control processWidget( Control control, String elementName, Map<String, String> attributes, SwtMetawidget swtMetawidget ) {
+
+				built.add( attributes.get( NAME ) );
+				return control;
+			}
+		} );
+		metawidget.setMetawidgetLayout( new TabFolderLayoutDecorator( new TabFolderLayoutDecoratorConfig().setLazySections( true ).setLayout( new TabFolderLayoutDecorator( new TabFolderLayoutDecoratorConfig().setLayout( new GridLayout() ) ) ) ) );
+		metawidget.setToInspect( new Lazy() );
+
+		// First tab should be built, but only the first widget of the others
+
+		TabFolder tabFolder = (TabFolder) metawidget.getChildren()[0];
+		assertEquals( "Foo", tabFolder.getItem( 0 ).getText() );
+		Composite fooComposite = (Composite) tabFolder.getChildren()[0];
+		TabFolder innerTabFolder = (TabFolder) fooComposite.getChildren()[0];
+		assertEquals( "Abc:", ( (Label) ( (Composite) innerTabFolder.getChildren()[0] ).getChildren()[0] ).getText() );
+		assertEquals( "Def:", ( (Label) ( (Composite) innerTabFolder.getChildren()[1] ).getChildren()[0] ).getText() );
+
+		assertEquals( "Moo", tabFolder.getItem( 1 ).getText() );
+		Composite mooComposite = (Composite) tabFolder.getChildren()[1];
+		assertEquals( 2, mooComposite.getChildren().length );
+		assertEquals( "Ghi:", ( (Label) mooComposite.getChildren()[0] ).getText() );
+		assertEquals( mooComposite.getChildren()[1], metawidget.getControl( "ghi" ) );
+		assertEquals( null, metawidget.getControl( "jkl" ) );
+		assertEquals( CollectionUtils.newArrayList( "abc", "def", "ghi", "pqr" ), built );
+
+		// Selecting the tab should build the rest
+
+		Event event = new Event();
+		event.item = tabFolder.getItem( 1 );
+		tabFolder.notifyListeners( SWT.Selection, event );
+
+		assertEquals( CollectionUtils.newArrayList( "abc", "def", "ghi", "pqr", "jkl", "mno" ), built );
+		assertEquals( 6, mooComposite.getChildren().length );
+		assertEquals( "Jkl:", ( (Label) mooComposite.getChildren()[2] ).getText() );
+		assertEquals( mooComposite.getChildren()[3], metawidget.getControl( "jkl" ) );
+		assertEquals( "Mno:", ( (Label) mooComposite.getChildren()[4] ).getText() );
+		assertEquals( mooComposite.getChildren()[5], metawidget.getControl( "mno" ) );
+
+		tabFolder.notifyListeners( SWT.Selection, event );
+		assertEquals( 6, built.size() );
+	}
+
 	public void testFlatSectionAroundNestedSectionLayoutDecorator() {
 
 		SwtMetawidget metawidget = new SwtMetawidget( new Shell( SwtMetawidgetTests.TEST_DISPLAY, SWT.NONE ), SWT.NONE );
@@ -258,6 +317,73 @@ public class TabFolderLayoutDecoratorTest
 		}
 	}
 
+	static class Lazy {
+
+		@UiSection( { "Foo", "Bar" } )
+		public String getAbc() {
+
+			return null;
+		}
+
+		public void setAbc( @SuppressWarnings( "unused" ) String abc ) {
+
+			// Do nothing
+		}
+
+		@UiSection( { "Foo", "Baz" } )
+		public String getDef() {
+
+			return null;
+		}
+
+		public void setDef( @SuppressWarnings( "unused" ) String def ) {
+
+			// Do nothing
+		}
+
+		@UiSection( "Moo" )
+		public String getGhi() {
+
+			return null;
+		}
+
+		public void setGhi( @SuppressWarnings( "unused" ) String ghi ) {
+
+			// Do nothing
+		}
+
+		public String getJkl() {
+
+			return null;
+		}
+
+		public void setJkl( @SuppressWarnings( "unused" ) String jkl ) {
+
+			// Do nothing
+		}
+
+		public String getMno() {
+
+			return null;
+		}
+
+		public void setMno( @SuppressWarnings( "unused" ) String mno ) {
+
+			// Do nothing
+		}
+
+		@UiSection( "" )
+		public String getPqr() {
+
+			return null;
+		}
+
+		public void setPqr( @SuppressWarnings( "unused" ) String pqr ) {
+
+			// Do nothing
+		}
+	}
+
 	static class Baz {
 
 		@UiSection( { "Foo", "Bar" } )
@@ -866,6 +866,19 @@ public class VaadinMetawidget
 			super.startBuild();
 		}
 
+		@Override
+		protected void buildDeferredWidget( String elementName, Map<String, String> attributes, boolean forcedReadOnly )
+			throws Exception {
+
+			mIgnoreAddRemove = true;
+
+			try {
+				super.buildDeferredWidget( elementName, attributes, forcedReadOnly );
+			} finally {
+				mIgnoreAddRemove = false;
+			}
+		}
+
 		@Override
 		protected void layoutWidget( Component component, String elementName, Map<String, String> attributes ) {
 
@@ -14,6 +14,7 @@ import static org.metawidget.inspector.InspectionResultConstants.*;
 import java.util.Map;
 
 import org.metawidget.layout.decorator.LayoutDecoratorConfig;
+import org.metawidget.layout.decorator.NestedSectionLayoutDecoratorConfig;
 import org.metawidget.util.CollectionUtils;
 import org.metawidget.util.simple.StringUtils;
 import org.metawidget.vaadin.ui.VaadinMetawidget;
@@ -22,6 +23,8 @@ import com.vaadin.ui.Component;
 import com.vaadin.ui.ComponentContainer;
 import com.vaadin.ui.Panel;
 import com.vaadin.ui.TabSheet;
+import com.vaadin.ui.TabSheet.SelectedTabChangeEvent;
+import com.vaadin.ui.TabSheet.SelectedTabChangeListener;
 
 /**
  * Layout to decorate widgets from different sections using a TabSheet.
@@ -41,12 +44,17 @@ public class TabSheetLayoutDecorator
 		super( config );
 	}
 
+	public TabSheetLayoutDecorator( NestedSectionLayoutDecoratorConfig<Component, ComponentContainer, VaadinMetawidget> config ) {
+
+		super( config );
+	}
+
 	//
 	// Protected methods
 	//
 
 	@Override
-	protected ComponentContainer createSectionWidget( ComponentContainer previousSectionWidget, String section, Map<String, String> attributes, ComponentContainer container, VaadinMetawidget metawidget ) {
+	protected ComponentContainer createSectionWidget( ComponentContainer previousSectionWidget, String section, Map<String, String> attributes, final ComponentContainer container, final VaadinMetawidget metawidget ) {
 
 		TabSheet tabSheet;
 
@@ -57,6 +65,18 @@ public class TabSheetLayoutDecorator
 			tabSheet = new TabSheet();
 			tabSheet.setWidth( "100%" );
 
+			// Build lazy tabs when first selected
+
+			if ( isLazySections() ) {
+				tabSheet.addSelectedTabChangeListener( new SelectedTabChangeListener() {
+
+					public void selectedTabChange( SelectedTabChangeEvent event ) {
+
+						buildSection( (ComponentContainer) ( (Panel) event.getTabSheet().getSelectedTab() ).getContent(), container, metawidget );
+					}
+				} );
+			}
+
 			// Add to parent container
 
 			Map<String, String> tabbedPaneAttributes = CollectionUtils.newHashMap();